@@ -1,11 +1,74 @@
+import http.HttpTaskServer;
+import http.StartupWarmup;
+import manager.FileBackedTaskManager;
 import manager.TaskManager;
 import model.Task;
 import util.Managers;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Без аргументов создаётся менеджер по умолчанию. Режим сервера:
+ * java Main --serve [--file tasks.csv] [--port 8080] [--warmup [итераций]] [--exit-after-warmup]
+ * Хранилище загружается, затем (с --warmup) горячие методы прогреваются на отдельном экземпляре
+ * (StartupWarmup), и только после этого сервер начинает принимать запросы.
+ * Архив AppCDS для классов проекта создаётся учебным запуском, который завершается после прогрева:
+ * java -XX:ArchiveClassesAtExit=kanban.jsa -cp kanban.jar Main --serve --file tasks.csv --warmup --exit-after-warmup
+ * и используется при обычном запуске с тем же classpath:
+ * java -XX:SharedArchiveFile=kanban.jsa -cp kanban.jar Main --serve --file tasks.csv --warmup
+ * Классы должны быть упакованы в jar: из каталогов в classpath JVM архив не создаёт.
+ */
 public class Main {
-    public static void main(String[] args) {
-        TaskManager taskManager = Managers.getDefault();
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !args[0].equals("--serve")) {
+            TaskManager taskManager = Managers.getDefault();
+            return;
+        }
+        String file = null;
+        int port = HttpTaskServer.PORT;
+        int warmupIterations = 0;
+        boolean isExitAfterWarmup = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file" -> file = value(args, ++i);
+                case "--port" -> port = Integer.parseInt(value(args, ++i));
+                case "--warmup" -> warmupIterations = i + 1 < args.length && !args[i + 1].startsWith("--")
+                        ? Integer.parseInt(args[++i]) : StartupWarmup.DEFAULT_ITERATIONS;
+                case "--exit-after-warmup" -> isExitAfterWarmup = true;
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+            }
+        }
+
+        HttpTaskServer.applyServerDefaults();
+        TaskManager taskManager = file == null ? Managers.getDefault() : new FileBackedTaskManager(file);
+        System.out.println("Загружено задач: " + (taskManager.getAllTasks().size()
+                + taskManager.getAllEpics().size() + taskManager.getAllSubtasks().size()));
+        if (warmupIterations > 0) {
+            long nanos = StartupWarmup.run(warmupIterations);
+            System.out.println("Прогрев: " + warmupIterations + " итераций за " + nanos / 1_000_000 + " мс");
+        }
+        if (isExitAfterWarmup) {
+            return;
+        }
+        HttpTaskServer server = new HttpTaskServer(taskManager, port);
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort() + " через "
+                + sinceStart().toMillis() + " мс после старта JVM");
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Не указано значение параметра " + args[index - 1]);
+        }
+        return args[index];
+    }
 
+    private static Duration sinceStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()))
+                .orElse(Duration.ZERO);
     }
 
     private static void printAllTasks(TaskManager taskManager) {
@@ -33,4 +96,4 @@ public class Main {
             System.out.println(task);
         }
     }
-}
\ No newline at end of file
+}
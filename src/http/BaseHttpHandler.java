@@ -0,0 +1,197 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exceptions.TimeConflictException;
+import manager.TaskManager;
+import model.Task;
+import util.TaskCollection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Базовый обработчик запросов: разбор пути, отправка ответов и преобразование исключений в коды HTTP.
+ * Реализации TaskManager не потокобезопасны, поэтому обращения к менеджеру идут под общей блокировкой:
+ * чтение списков — под блокировкой чтения, всё остальное (включая getXxxById, меняющие историю) — под записью.
+ */
+public abstract class BaseHttpHandler implements HttpHandler {
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=utf-8";
+    static final int STREAM_BATCH = 256;
+
+    protected final TaskManager manager;
+    private final ReadWriteLock lock;
+    private final ResponseCache cache;
+
+    protected BaseHttpHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache) {
+        this.manager = manager;
+        this.lock = lock;
+        this.cache = cache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            handle(exchange, exchange.getRequestMethod(), path);
+        } catch (TimeConflictException e) {
+            sendError(exchange, 406, e.getMessage());
+        } catch (NumberFormatException e) {
+            sendError(exchange, 404, "Некорректный идентификатор");
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            sendError(exchange, 500, "Внутренняя ошибка сервера");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Обработка запроса; path — сегменты пути, path[1] — имя коллекции
+     */
+    protected abstract void handle(HttpExchange exchange, String method, String[] path) throws Exception;
+
+    protected <T> T read(Callable<T> action) throws Exception {
+        return locked(lock.readLock(), action);
+    }
+
+    protected <T> T write(Callable<T> action) throws Exception {
+        return locked(lock.writeLock(), action);
+    }
+
+    /**
+     * Идентификатор из пути вида /collection/{id}
+     */
+    protected static int idOf(String[] path) {
+        if (path.length != 3) {
+            throw new NumberFormatException("Ожидался путь вида /" + path[1] + "/{id}");
+        }
+        return Integer.parseInt(path[2]);
+    }
+
+    protected String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    protected void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] response = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+        exchange.getResponseBody().write(response);
+    }
+
+    /**
+     * Потоковая отправка списка задач: заголовки уходят сразу, тело передаётся частями (chunked).
+     * Список читается курсором TaskManager.forEachAfter пачками по STREAM_BATCH: каждая пачка
+     * читается и кодируется под блокировкой чтения в буфер, а в сокет пишется уже после её снятия.
+     * Снимка всего списка нет — память ответа ограничена пачкой, а медленный клиент задерживает только
+     * свой ответ, а не изменения. Изменения между пачками видны с места курсора.
+     */
+    protected void sendTasks(HttpExchange exchange, TaskCollection collection) throws Exception {
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        TaskJsonWriter writer = new TaskJsonWriter(batch);
+        writer.beginArray();
+        Task cursor = null;
+        do {
+            Task after = cursor;
+            cursor = read(() -> {
+                Task last = manager.forEachAfter(collection, after, STREAM_BATCH, task -> {
+                    try {
+                        writer.writeTask(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // ByteArrayOutputStream не бросает IOException
+                    }
+                });
+                writer.flush();
+                return last;
+            });
+            batch.writeTo(body);
+            batch.reset();
+        } while (cursor != null);
+        writer.endArray();
+        writer.flush();
+        batch.writeTo(body);
+        body.flush();
+    }
+
+    /**
+     * Отправка списка с учётом версии коллекции: 304, если у клиента актуальный ETag,
+     * иначе готовый ответ из кэша (или потоковая запись, если список не помещается в кэш).
+     * Для менеджеров без версий — обычная потоковая запись. Кэш заполняется тем же курсором,
+     * поэтому порядок элементов не зависит от того, поместился ли список в кэш.
+     */
+    protected void sendCollection(HttpExchange exchange, TaskCollection collection) throws Exception {
+        long version = read(() -> manager.getModificationVersion(collection));
+        if (version < 0) {
+            sendTasks(exchange, collection);
+            return;
+        }
+        String etag = cache.etag(collection, version);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        ResponseCache.Entry entry = read(() -> cache.entry(collection,
+                manager.getModificationVersion(collection), action -> forEachInParts(collection, action)));
+        exchange.getResponseHeaders().set("ETag", cache.etag(collection, entry.version()));
+        if (entry.payload() == null) {
+            sendTasks(exchange, collection);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, entry.payload().length);
+        exchange.getResponseBody().write(entry.payload());
+    }
+
+    /**
+     * Обход всей коллекции частями по STREAM_BATCH через курсор менеджера
+     */
+    private void forEachInParts(TaskCollection collection, Consumer<Task> action) {
+        Task cursor = null;
+        do {
+            cursor = manager.forEachAfter(collection, cursor, STREAM_BATCH, action);
+        } while (cursor != null);
+    }
+
+    protected void sendNotFound(HttpExchange exchange, String message) throws IOException {
+        sendError(exchange, 404, message);
+    }
+
+    protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendError(exchange, 405, "Метод не поддерживается");
+    }
+
+    /**
+     * Ответ с ошибкой; если заголовки уже отправлены (сбой посреди потоковой записи),
+     * соединение просто закрывается
+     */
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            sendText(exchange, status, "{\"error\":" + TaskJson.quote(String.valueOf(message)) + "}");
+        }
+    }
+
+    private static <T> T locked(Lock lock, Callable<T> action) throws Exception {
+        lock.lock();
+        try {
+            return action.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Epic;
+import util.TaskCollection;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Обработчик /epics: список, получение по id, подзадачи эпика (/epics/{id}/subtasks),
+ * создание и обновление (POST), удаление вместе с подзадачами
+ */
+public class EpicsHandler extends BaseHttpHandler {
+
+    public EpicsHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache) {
+        super(manager, lock, cache);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws Exception {
+        switch (method) {
+            case "GET" -> {
+                if (path.length == 2) {
+                    sendCollection(exchange, TaskCollection.EPICS);
+                    return;
+                }
+                if (path.length == 4 && path[3].equals("subtasks")) {
+                    int id = Integer.parseInt(path[2]);
+                    String subtasks = write(() -> manager.getEpicById(id) == null ? null
+                            : TaskJson.toJson(manager.getAllSubtasksByEpicId(id)));
+                    if (subtasks == null) {
+                        sendNotFound(exchange, "Эпик " + id + " не найден");
+                    } else {
+                        sendText(exchange, 200, subtasks);
+                    }
+                    return;
+                }
+                int id = idOf(path);
+                Epic epic = write(() -> manager.getEpicById(id));
+                if (epic == null) {
+                    sendNotFound(exchange, "Эпик " + id + " не найден");
+                } else {
+                    sendText(exchange, 200, TaskJson.toJson(epic));
+                }
+            }
+            case "POST" -> {
+                Epic epic = TaskJson.parseEpic(readBody(exchange));
+                boolean isUpdate = epic.getId() != 0;
+                String saved = write(() -> {
+                    if (!isUpdate) {
+                        manager.addEpic(epic);
+                        return TaskJson.toJson(epic);
+                    }
+                    Epic stored = manager.getEpicById(epic.getId());
+                    if (stored == null) {
+                        return null;
+                    }
+                    stored.setName(epic.getName());
+                    stored.setDescription(epic.getDescription());
+                    manager.updateEpic(stored);
+                    return TaskJson.toJson(stored);
+                });
+                if (saved == null) {
+                    sendNotFound(exchange, "Эпик " + epic.getId() + " не найден");
+                } else {
+                    sendText(exchange, isUpdate ? 200 : 201, saved);
+                }
+            }
+            case "DELETE" -> {
+                int id = idOf(path);
+                write(() -> {
+                    manager.deleteEpic(id);
+                    return null;
+                });
+                sendText(exchange, 200, "");
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.ChangeFeed;
+import manager.TaskEvent;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Обработчик /events: long polling ленты изменений.
+ * GET /events?since=N&timeout=S&limit=L возвращает события начиная с номера N, а если их нет —
+ * ждёт новые не дольше S секунд. Курсор хранит клиент: в ответе next — значение since для
+ * следующего запроса, missed — число событий, вытесненных из буфера (нужно перечитать данные).
+ * Если since больше номера следующего события, курсор выдан до перезапуска сервера (лента
+ * начинается заново): ответ 410 с next — с этого номера клиент читает новую ленту, перечитав данные.
+ * Ожидание идёт в отдельном пуле, чтобы висящие запросы не занимали потоки основного API.
+ */
+public class EventsHandler extends BaseHttpHandler {
+    private static final int DEFAULT_TIMEOUT_SECONDS = 30;
+    private static final int MAX_TIMEOUT_SECONDS = 60;
+    private static final int MAX_EVENTS = 10_000;
+
+    private final ExecutorService pollExecutor;
+
+    public EventsHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache, ExecutorService pollExecutor) {
+        super(manager, lock, cache);
+        this.pollExecutor = pollExecutor;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            pollExecutor.execute(() -> {
+                try {
+                    EventsHandler.super.handle(exchange);
+                } catch (IOException ignored) {
+                    // Клиент отключился, пока ждал событий
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            try (exchange) {
+                sendText(exchange, 503, "{\"error\":\"Слишком много ожидающих подписчиков\"}");
+            }
+        }
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws Exception {
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+        ChangeFeed feed = manager.getChangeFeed();
+        if (feed == null) {
+            sendNotFound(exchange, "Менеджер не публикует изменения");
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        long since = query.containsKey("since") ? Long.parseLong(query.get("since")) : feed.getLastSequence() + 1;
+        int timeout = Math.min(MAX_TIMEOUT_SECONDS, intParameter(query, "timeout", DEFAULT_TIMEOUT_SECONDS));
+        int limit = Math.min(MAX_EVENTS, intParameter(query, "limit", MAX_EVENTS));
+        long head = feed.getLastSequence() + 1;
+        if (since > head) {
+            sendText(exchange, 410, "{\"error\":\"Курсор впереди ленты изменений, данные нужно перечитать\","
+                    + "\"next\":" + head + "}");
+            return;
+        }
+
+        ChangeFeed.Subscription subscription = feed.subscribeFrom(since);
+        List<TaskEvent> events = subscription.await(Math.max(1, limit), Math.max(0, timeout), TimeUnit.SECONDS);
+
+        StringBuilder json = new StringBuilder("{\"next\":").append(subscription.getNextSequence())
+                .append(",\"missed\":").append(subscription.getMissed())
+                .append(",\"events\":[");
+        for (int i = 0; i < events.size(); i++) {
+            TaskEvent event = events.get(i);
+            json.append(i > 0 ? "," : "")
+                    .append("{\"sequence\":").append(event.sequence())
+                    .append(",\"change\":\"").append(event.change().name())
+                    .append("\",\"type\":\"").append(event.type().name())
+                    .append("\",\"id\":").append(event.id()).append('}');
+        }
+        sendText(exchange, 200, json.append("]}").toString());
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть целым числом");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return query;
+    }
+}
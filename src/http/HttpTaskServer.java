@@ -0,0 +1,126 @@
+package http;
+
+import com.sun.net.httpserver.HttpServer;
+import manager.TaskManager;
+import util.Managers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HTTP-сервер поверх любого TaskManager: /tasks, /subtasks, /epics, /history, /prioritized
+ * и лента изменений /events.
+ * Соединения обслуживаются встроенным сервером JDK с keep-alive; каждый запрос выполняется
+ * в отдельном виртуальном потоке, если среда их поддерживает (Java 21+), иначе — в пуле потоков.
+ */
+public class HttpTaskServer {
+    public static final int PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int MAX_CACHED_RESPONSE_BYTES = 32 << 20;
+    private static final int MAX_LONG_POLLS = 256;
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ExecutorService pollExecutor;
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, PORT);
+    }
+
+    /**
+     * @param port порт; 0 — любой свободный (фактический возвращает getPort)
+     */
+    public HttpTaskServer(TaskManager manager, int port) throws IOException {
+        this(manager, port, MAX_CACHED_RESPONSE_BYTES);
+    }
+
+    /**
+     * @param maxCachedResponseBytes наибольший размер списка, который хранится готовым ответом; 0 — не кэшировать
+     */
+    public HttpTaskServer(TaskManager manager, int port, int maxCachedResponseBytes) throws IOException {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        ResponseCache cache = new ResponseCache(maxCachedResponseBytes);
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = newRequestExecutor();
+        this.pollExecutor = newPollExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", new TasksHandler(manager, lock, cache));
+        server.createContext("/subtasks", new SubtasksHandler(manager, lock, cache));
+        server.createContext("/epics", new EpicsHandler(manager, lock, cache));
+        server.createContext("/history", new HistoryHandler(manager, lock, cache));
+        server.createContext("/prioritized", new PrioritizedHandler(manager, lock, cache));
+        server.createContext("/events", new EventsHandler(manager, lock, cache, pollExecutor));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        pollExecutor.shutdownNow();
+        try {
+            executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    static ExecutorService newRequestExecutor() {
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        return virtualThreads != null ? virtualThreads
+                : Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    /**
+     * Пул для long polling /events: запросы висят до появления событий, поэтому без виртуальных
+     * потоков число одновременно ждущих ограничено, а лишние получают 503
+     */
+    static ExecutorService newPollExecutor() {
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        return virtualThreads != null ? virtualThreads
+                : new ThreadPoolExecutor(0, MAX_LONG_POLLS, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    }
+
+    /**
+     * Виртуальные потоки ищутся через рефлексию, чтобы сборка оставалась совместимой с Java 17;
+     * null — среда их не поддерживает
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Настройки встроенного сервера JDK; вызываются до создания первого сервера в процессе
+     */
+    public static void applyServerDefaults() {
+        // Встроенный сервер по умолчанию держит не более 200 простаивающих keep-alive соединений
+        // и не отключает алгоритм Нейгла, из-за чего короткие ответы ждут подтверждения от клиента
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public static void main(String[] args) throws IOException {
+        applyServerDefaults();
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefault());
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+}
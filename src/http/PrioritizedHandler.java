@@ -0,0 +1,26 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import util.TaskCollection;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Обработчик /prioritized: задачи и подзадачи в порядке времени начала
+ */
+public class PrioritizedHandler extends BaseHttpHandler {
+
+    public PrioritizedHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache) {
+        super(manager, lock, cache);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws Exception {
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+        sendCollection(exchange, TaskCollection.PRIORITIZED);
+    }
+}
@@ -0,0 +1,94 @@
+package http;
+
+import model.Task;
+import util.TaskCollection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Кэш сериализованных списков, привязанный к версии коллекции в менеджере.
+ * Пока версия не изменилась, ответ отдаётся готовым массивом байтов; по версии строится ETag
+ * для ответа 304 на If-None-Match. Списки крупнее maxPayloadBytes не кэшируются
+ * (для них работает только ETag), чтобы кэш не занимал память размером со всё хранилище.
+ */
+final class ResponseCache {
+
+    /**
+     * Снимок коллекции для версии version; payload == null — список слишком велик для кэша
+     */
+    record Entry(long version, byte[] payload) {
+    }
+
+    private final int maxPayloadBytes;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<TaskCollection, Entry> entries = new ConcurrentHashMap<>();
+
+    ResponseCache(int maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    /**
+     * ETag включает случайную метку экземпляра: после перезапуска сервера версии начинаются заново
+     */
+    String etag(TaskCollection collection, long version) {
+        return "\"" + epoch + "-" + collection.name().toLowerCase() + "-" + version + "\"";
+    }
+
+    /**
+     * Снимок для текущей версии; при смене версии список сериализуется заново.
+     * Вызывается под блокировкой чтения менеджера, чтобы версия и содержимое совпадали.
+     */
+    Entry entry(TaskCollection collection, long version, Consumer<Consumer<Task>> source) throws IOException {
+        Entry entry = entries.get(collection);
+        if (entry != null && entry.version() == version) {
+            return entry;
+        }
+        entry = new Entry(version, serialize(source));
+        entries.put(collection, entry);
+        return entry;
+    }
+
+    private byte[] serialize(Consumer<Consumer<Task>> source) throws IOException {
+        if (maxPayloadBytes <= 0) {
+            return null;
+        }
+        LimitedOutputStream out = new LimitedOutputStream(maxPayloadBytes);
+        try {
+            TaskJsonWriter writer = new TaskJsonWriter(out);
+            writer.writeArray(source);
+            writer.flush();
+        } catch (PayloadTooLargeException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static final class PayloadTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PayloadTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class LimitedOutputStream extends ByteArrayOutputStream {
+        private final int limit;
+
+        LimitedOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (count + length > limit) {
+                throw new PayloadTooLargeException();
+            }
+            super.write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package http;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Синтетический прогрев перед приёмом запросов на отдельных экземплярах — рабочее хранилище не меняется.
+ * Горячие пути HTTP (POST/GET/DELETE задач и подзадач, списки) прогоняются через сервер над
+ * InMemoryTaskManager, а сохранение и загрузка снимка с разбором CSV — через FileBackedTaskManager
+ * во временном каталоге. Снимок сбрасывается на диск при каждом сохранении, поэтому сохранения идут
+ * реже запросов: каждое всё равно пишет всю доску, и код записи строк прогревается за несколько раз.
+ * После прогрева эти методы уже скомпилированы JIT, а их классы загружены; запуск прогрева с
+ * -XX:ArchiveClassesAtExit сохраняет загруженные классы в архив AppCDS (см. Main).
+ */
+public final class StartupWarmup {
+    public static final int DEFAULT_ITERATIONS = 500;
+    private static final int BOARD_SIZE = 100; // Старые задачи удаляются, чтобы снимок не рос
+    private static final int LIST_EVERY = 10;
+    private static final int SAVE_EVERY = 10;
+    private static final int RELOAD_EVERY = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 9, 0);
+
+    private StartupWarmup() {
+    }
+
+    /**
+     * Прогрев заданным числом итераций; возвращает его продолжительность в наносекундах
+     */
+    public static long run(int iterations) throws IOException {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Число итераций прогрева должно быть положительным: " + iterations);
+        }
+        long started = System.nanoTime();
+        Path directory = Files.createTempDirectory("kanban-warmup");
+        Path file = directory.resolve("tasks.csv");
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(file.toString());
+        HttpTaskServer server = new HttpTaskServer(new InMemoryTaskManager(), 0);
+        server.start();
+        try {
+            String base = "http://localhost:" + server.getPort();
+            int epicId = idOf(send(base, "POST", "/epics", TaskJson.toJson(new Epic("Прогрев", "Эпик прогрева"))));
+            Deque<String> created = new ArrayDeque<>();
+            for (int i = 0; i < iterations; i++) {
+                LocalDateTime start = START.plusHours(2L * i);
+                Task task = new Task("Задача " + i, "Описание \"" + i + "\"", Status.values()[i % 3],
+                        Duration.ofMinutes(30), start);
+                int taskId = idOf(send(base, "POST", "/tasks", TaskJson.toJson(task)));
+                send(base, "GET", "/tasks/" + taskId, null);
+                Subtask subtask = new Subtask("Подзадача " + i, "Описание", Status.values()[(i + 1) % 3], epicId,
+                        Duration.ofMinutes(30), start.plusHours(1));
+                int subtaskId = idOf(send(base, "POST", "/subtasks", TaskJson.toJson(subtask)));
+                created.add("/tasks/" + taskId);
+                created.add("/subtasks/" + subtaskId);
+                if (i % LIST_EVERY == 0) {
+                    send(base, "GET", "/tasks", null);
+                    send(base, "GET", "/prioritized", null);
+                    send(base, "GET", "/epics/" + epicId + "/subtasks", null);
+                    send(base, "GET", "/history", null);
+                }
+                while (created.size() > 2 * BOARD_SIZE) {
+                    send(base, "DELETE", created.poll(), null);
+                }
+                if (i % SAVE_EVERY == 0) {
+                    fileManager.addTask(TaskJson.parseTask(TaskJson.toJson(task)));
+                    if (fileManager.getAllTasks().size() > BOARD_SIZE) {
+                        fileManager.deleteTask(fileManager.getAllTasks().get(0).getId());
+                    }
+                }
+                if (i % RELOAD_EVERY == 0) {
+                    new FileBackedTaskManager(file.toString());
+                }
+            }
+        } catch (TimeConflictException e) {
+            throw new IllegalStateException("Задачи прогрева не должны пересекаться", e);
+        } finally {
+            server.stop();
+            deleteRecursively(directory);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static String send(String base, String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        if (status >= 400) {
+            throw new IOException("Запрос прогрева " + method + " " + path + " завершился с кодом " + status);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int idOf(String json) {
+        return ((Number) ((Map<?, ?>) TaskJson.parse(json)).get("id")).intValue();
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Subtask;
+import util.TaskCollection;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Обработчик /subtasks: список, получение по id, создание и обновление (POST), удаление
+ */
+public class SubtasksHandler extends BaseHttpHandler {
+
+    public SubtasksHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache) {
+        super(manager, lock, cache);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws Exception {
+        switch (method) {
+            case "GET" -> {
+                if (path.length == 2) {
+                    sendCollection(exchange, TaskCollection.SUBTASKS);
+                    return;
+                }
+                int id = idOf(path);
+                Subtask subtask = write(() -> manager.getSubtaskById(id));
+                if (subtask == null) {
+                    sendNotFound(exchange, "Подзадача " + id + " не найдена");
+                } else {
+                    sendText(exchange, 200, TaskJson.toJson(subtask));
+                }
+            }
+            case "POST" -> {
+                Subtask subtask = TaskJson.parseSubtask(readBody(exchange));
+                boolean isUpdate = subtask.getId() != 0;
+                boolean isSaved = write(() -> {
+                    if (!isUpdate) {
+                        manager.addSubtask(subtask);
+                    } else if (manager.getSubtaskById(subtask.getId()) == null) {
+                        return false;
+                    } else {
+                        manager.updateSubtask(subtask);
+                    }
+                    return true;
+                });
+                if (!isSaved) {
+                    sendNotFound(exchange, "Подзадача " + subtask.getId() + " не найдена");
+                } else {
+                    sendText(exchange, isUpdate ? 200 : 201, TaskJson.toJson(subtask));
+                }
+            }
+            case "DELETE" -> {
+                int id = idOf(path);
+                write(() -> {
+                    manager.deleteSubtask(id);
+                    return null;
+                });
+                sendText(exchange, 200, "");
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
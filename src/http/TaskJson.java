@@ -0,0 +1,342 @@
+package http;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Преобразование задач в JSON и обратно без сторонних библиотек (запись — через TaskJsonWriter).
+ * Формат совпадает с полями моделей: время передаётся через startTimeStr, durationInSeconds
+ * и endTimeStr (для эпика), поля со значением null не выводятся.
+ */
+public final class TaskJson {
+    static final int MAX_DEPTH = 64;
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void writeTo(TaskJsonWriter writer) throws IOException;
+    }
+
+    private TaskJson() {
+    }
+
+    public static String toJson(Task task) {
+        return write(writer -> writer.writeTask(task));
+    }
+
+    public static String toJson(Collection<? extends Task> tasks) {
+        return write(writer -> {
+            writer.beginArray();
+            for (Task task : tasks) {
+                writer.writeTask(task);
+            }
+            writer.endArray();
+        });
+    }
+
+    /**
+     * Строка в кавычках с экранированием по правилам JSON
+     */
+    public static String quote(String value) {
+        return write(writer -> writer.writeString(value));
+    }
+
+    public static Task parseTask(String json) {
+        Map<String, Object> fields = parseObject(json);
+        Task task = new Task(stringField(fields, "name"), stringField(fields, "description"));
+        fill(task, fields);
+        return task;
+    }
+
+    public static Subtask parseSubtask(String json) {
+        Map<String, Object> fields = parseObject(json);
+        Subtask subtask = new Subtask(stringField(fields, "name"), stringField(fields, "description"),
+                Status.NEW, intField(fields, "epicId"), null, null);
+        fill(subtask, fields);
+        return subtask;
+    }
+
+    public static Epic parseEpic(String json) {
+        Map<String, Object> fields = parseObject(json);
+        Epic epic = new Epic(stringField(fields, "name"), stringField(fields, "description"));
+        epic.setId(intField(fields, "id"));
+        return epic;
+    }
+
+    /**
+     * Разбор произвольного JSON: объекты возвращаются как Map, массивы — как List,
+     * целые числа — как Long, дробные — как Double
+     */
+    public static Object parse(String json) {
+        JsonReader reader = new JsonReader(json);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (!reader.isEnd()) {
+            throw reader.error("лишние символы после значения");
+        }
+        return value;
+    }
+
+    private static String write(JsonBody body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            TaskJsonWriter writer = new TaskJsonWriter(out);
+            body.writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream не бросает IOException
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void fill(Task task, Map<String, Object> fields) {
+        task.setId(intField(fields, "id"));
+        String status = stringField(fields, "status");
+        try {
+            task.setStatus(status != null ? Status.valueOf(status) : Status.NEW);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус: " + status);
+        }
+        if (fields.get("durationInSeconds") != null) {
+            task.setDuration(Duration.ofSeconds(longField(fields, "durationInSeconds", 0)));
+        }
+        String startTime = stringField(fields, "startTimeStr");
+        if (startTime != null && !startTime.isEmpty()) {
+            try {
+                task.setStartTime(LocalDateTime.parse(startTime));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Некорректное время начала: " + startTime);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseObject(String json) {
+        Object value = parse(json);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался JSON-объект");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static String stringField(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть строкой");
+        }
+        return (String) value;
+    }
+
+    private static long longField(Map<String, Object> fields, String name, long defaultValue) {
+        Object value = fields.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Long number)) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть целым числом");
+        }
+        return number;
+    }
+
+    /**
+     * Идентификатор: целое число в диапазоне int, по умолчанию 0
+     */
+    private static int intField(Map<String, Object> fields, String name) {
+        long value = longField(fields, name, 0);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Поле " + name + " вне диапазона int: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Рекурсивный разбор JSON по RFC 8259; вложенность объектов и массивов ограничена MAX_DEPTH,
+     * чтобы тело вида [[[[… не исчерпало стек
+     */
+    private static final class JsonReader {
+        private final String json;
+        private int position;
+        private int depth;
+
+        JsonReader(String json) {
+            this.json = json != null ? json : "";
+        }
+
+        Object readValue() {
+            skipWhitespace();
+            if (isEnd()) {
+                throw error("неожиданный конец");
+            }
+            char c = json.charAt(position);
+            return switch (c) {
+                case '{' -> readNested(true);
+                case '[' -> readNested(false);
+                case '"' -> readString();
+                case 't' -> readLiteral("true", Boolean.TRUE);
+                case 'f' -> readLiteral("false", Boolean.FALSE);
+                case 'n' -> readLiteral("null", null);
+                default -> readNumber();
+            };
+        }
+
+        private Object readNested(boolean isObject) {
+            if (++depth > MAX_DEPTH) {
+                throw error("слишком глубокая вложенность");
+            }
+            Object value = isObject ? readObject() : readArray();
+            depth--;
+            return value;
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("ожидалось имя поля");
+                }
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(name, readValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return array;
+                }
+            }
+        }
+
+        private String readString() {
+            position++;
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (isEnd()) {
+                    throw error("незакрытая строка");
+                }
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (isEnd()) {
+                    throw error("незакрытая строка");
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > json.length()) {
+                            throw error("неполная escape-последовательность");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("некорректная escape-последовательность");
+                        }
+                        position += 4;
+                    }
+                    default -> throw error("некорректная escape-последовательность");
+                }
+            }
+        }
+
+        private Object readNumber() {
+            int start = position;
+            while (!isEnd() && "+-0123456789.eE".indexOf(json.charAt(position)) >= 0) {
+                position++;
+            }
+            String number = json.substring(start, position);
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("некорректное значение");
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if (!json.startsWith(literal, position)) {
+                throw error("некорректное значение");
+            }
+            position += literal.length();
+            return value;
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw error("ожидался символ '" + expected + "'");
+            }
+            position++;
+        }
+
+        private char peek() {
+            return isEnd() ? '\0' : json.charAt(position);
+        }
+
+        void skipWhitespace() {
+            while (!isEnd() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        boolean isEnd() {
+            return position >= json.length();
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Некорректный JSON (позиция " + position + "): " + message);
+        }
+    }
+}
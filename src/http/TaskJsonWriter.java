@@ -0,0 +1,258 @@
+package http;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая запись задач в JSON прямо в OutputStream.
+ * Символы кодируются в UTF-8 в переиспользуемый буфер фиксированного размера, поэтому
+ * память на ответ не зависит от количества задач. Формат — как у TaskJson.
+ */
+public final class TaskJsonWriter implements Flushable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_CHAR_BYTES = 6;
+    private static final int MAX_NUMBER_BYTES = 20;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private boolean firstElement = true;
+
+    public TaskJsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void beginArray() throws IOException {
+        putByte('[');
+        firstElement = true;
+    }
+
+    public void endArray() throws IOException {
+        putByte(']');
+    }
+
+    /**
+     * Запись задачи; внутри массива элементы разделяются запятыми автоматически
+     */
+    public void writeTask(Task task) throws IOException {
+        if (!firstElement) {
+            putByte(',');
+        }
+        firstElement = false;
+        putAscii("{\"id\":");
+        putLong(task.getId());
+        putField("name", task.getName());
+        putField("description", task.getDescription());
+        if (task.getStatus() != null) {
+            putField("status", task.getStatus().name());
+        }
+        if (task.getDuration() != null) {
+            putAscii(",\"durationInSeconds\":");
+            putLong(task.getDuration().getSeconds());
+        }
+        if (task.getStartTime() != null) {
+            putAscii(",\"startTimeStr\":\"");
+            putDateTime(task.getStartTime());
+            putByte('"');
+        }
+        if (task instanceof Subtask subtask) {
+            putAscii(",\"epicId\":");
+            putLong(subtask.getEpicId());
+        }
+        if (task instanceof Epic epic) {
+            putAscii(",\"subtaskIds\":[");
+            List<Integer> subtaskIds = epic.getSubtaskIds() != null ? epic.getSubtaskIds() : List.of();
+            for (int i = 0; i < subtaskIds.size(); i++) {
+                if (i > 0) {
+                    putByte(',');
+                }
+                putLong(subtaskIds.get(i));
+            }
+            putByte(']');
+            putField("endTimeStr", epic.getEndTimeStr());
+        }
+        putByte('}');
+    }
+
+    /**
+     * Массив задач, которые source передаёт по одной (например, manager::forEachTask)
+     */
+    public void writeArray(Consumer<Consumer<Task>> source) throws IOException {
+        beginArray();
+        try {
+            source.accept(task -> {
+                try {
+                    writeTask(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        endArray();
+    }
+
+    /**
+     * Строка в кавычках с экранированием по правилам JSON
+     */
+    public void writeString(String value) throws IOException {
+        putByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            i = putChar(value, i);
+        }
+        putByte('"');
+    }
+
+    /**
+     * Передача накопленных байтов в поток (сам поток не закрывается)
+     */
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void putField(String name, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        putAscii(",\"");
+        putAscii(name);
+        putAscii("\":");
+        writeString(value);
+    }
+
+    /**
+     * Запись startTimeStr в формате yyyy-MM-ddTHH:mm:ss (без долей секунды, как в Task)
+     */
+    private void putDateTime(LocalDateTime dateTime) throws IOException {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            putAscii(dateTime.withNano(0).toString());
+            return;
+        }
+        ensure(19);
+        putDigits(year, 4);
+        buffer[position++] = '-';
+        putDigits(dateTime.getMonthValue(), 2);
+        buffer[position++] = '-';
+        putDigits(dateTime.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        putDigits(dateTime.getHour(), 2);
+        buffer[position++] = ':';
+        putDigits(dateTime.getMinute(), 2);
+        buffer[position++] = ':';
+        putDigits(dateTime.getSecond(), 2);
+    }
+
+    private void putDigits(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        ensure(MAX_NUMBER_BYTES);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int from = start, to = position - 1; from < to; from++, to--) {
+            byte tmp = buffer[from];
+            buffer[from] = buffer[to];
+            buffer[to] = tmp;
+        }
+    }
+
+    private void putAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            putByte(value.charAt(i));
+        }
+    }
+
+    private void putByte(int b) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * Экранирование и кодирование символа в UTF-8. Возвращает индекс последнего обработанного
+     * символа (для суррогатной пары — второй половины); одиночный суррогат заменяется на '?'
+     */
+    private int putChar(String value, int index) throws IOException {
+        ensure(MAX_CHAR_BYTES);
+        char c = value.charAt(index);
+        if (c == '"' || c == '\\') {
+            buffer[position++] = '\\';
+            buffer[position++] = (byte) c;
+        } else if (c == '\n') {
+            buffer[position++] = '\\';
+            buffer[position++] = 'n';
+        } else if (c == '\r') {
+            buffer[position++] = '\\';
+            buffer[position++] = 'r';
+        } else if (c == '\t') {
+            buffer[position++] = '\\';
+            buffer[position++] = 't';
+        } else if (c < 0x20) {
+            buffer[position++] = '\\';
+            buffer[position++] = 'u';
+            buffer[position++] = '0';
+            buffer[position++] = '0';
+            buffer[position++] = HEX[c >> 4];
+            buffer[position++] = HEX[c & 0xF];
+        } else if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+        return index;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (BUFFER_SIZE - position < bytes) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
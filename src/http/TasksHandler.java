@@ -0,0 +1,65 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import model.Task;
+import util.TaskCollection;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Обработчик /tasks: список, получение по id, создание и обновление (POST), удаление
+ */
+public class TasksHandler extends BaseHttpHandler {
+
+    public TasksHandler(TaskManager manager, ReadWriteLock lock, ResponseCache cache) {
+        super(manager, lock, cache);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws Exception {
+        switch (method) {
+            case "GET" -> {
+                if (path.length == 2) {
+                    sendCollection(exchange, TaskCollection.TASKS);
+                    return;
+                }
+                int id = idOf(path);
+                Task task = write(() -> manager.getTaskById(id));
+                if (task == null) {
+                    sendNotFound(exchange, "Задача " + id + " не найдена");
+                } else {
+                    sendText(exchange, 200, TaskJson.toJson(task));
+                }
+            }
+            case "POST" -> {
+                Task task = TaskJson.parseTask(readBody(exchange));
+                boolean isUpdate = task.getId() != 0;
+                boolean isSaved = write(() -> {
+                    if (!isUpdate) {
+                        manager.addTask(task);
+                    } else if (manager.getTaskById(task.getId()) == null) {
+                        return false;
+                    } else {
+                        manager.updateTask(task);
+                    }
+                    return true;
+                });
+                if (!isSaved) {
+                    sendNotFound(exchange, "Задача " + task.getId() + " не найдена");
+                } else {
+                    sendText(exchange, isUpdate ? 200 : 201, TaskJson.toJson(task));
+                }
+            }
+            case "DELETE" -> {
+                int id = idOf(path);
+                write(() -> {
+                    manager.deleteTask(id);
+                    return null;
+                });
+                sendText(exchange, 200, "");
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+}
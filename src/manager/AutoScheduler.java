@@ -0,0 +1,139 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Автоматическое планирование: задачам и подзадачам без времени начала, но с продолжительностью,
+ * назначается время в свободных промежутках расписания менеджера.
+ * Время выравнивается по 15-минутным слотам SlotGrid. Заявки обрабатываются по убыванию приоритета,
+ * при равном приоритете — по возрастанию срока (без срока — последними); каждая заявка получает
+ * самое раннее подходящее место (GapIndex). Все назначения применяются одним пакетом.
+ * Вхождения повторяющихся задач в горизонте планирования считаются занятым временем; они создаются
+ * по мере поиска промежутков, а не для всего горизонта сразу.
+ */
+public final class AutoScheduler {
+
+    /**
+     * Заявка на планирование задачи с id taskId. deadline — не позже какого момента задача
+     * должна закончиться (null — без срока)
+     */
+    public record Request(int taskId, int priority, LocalDateTime deadline) {
+        public Request(int taskId) {
+            this(taskId, 0, null);
+        }
+    }
+
+    public enum Reason {
+        NOT_FOUND,
+        ALREADY_SCHEDULED,
+        NO_DURATION,
+        NO_SPACE,
+        DEADLINE
+    }
+
+    /**
+     * placed — id задачи и назначенное время начала, unplaced — id и причина, по которой задача не размещена
+     */
+    public record Result(Map<Integer, LocalDateTime> placed, Map<Integer, Reason> unplaced) {
+    }
+
+    private static final Comparator<Request> ORDER = Comparator.comparingInt(Request::priority).reversed()
+            .thenComparing(Request::deadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Request::taskId);
+
+    private final InMemoryTaskManager manager;
+
+    public AutoScheduler(InMemoryTaskManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Планирование всех задач и подзадач без времени начала с приоритетом 0 и без срока
+     */
+    public Result scheduleAll(LocalDateTime notBefore) throws TimeConflictException {
+        List<Request> requests = new ArrayList<>();
+        manager.forEachTask(task -> {
+            if (task.getStartTime() == null && task.getDuration() != null) {
+                requests.add(new Request(task.getId()));
+            }
+        });
+        manager.forEachSubtask(subtask -> {
+            if (subtask.getStartTime() == null && subtask.getDuration() != null) {
+                requests.add(new Request(subtask.getId()));
+            }
+        });
+        return schedule(requests, notBefore, null);
+    }
+
+    /**
+     * Размещение заявок в промежутке [notBefore, notAfter] (notAfter = null — без верхней границы).
+     * TimeConflictException возможно, только если расписание изменили во время планирования
+     */
+    public Result schedule(List<Request> requests, LocalDateTime notBefore, LocalDateTime notAfter)
+            throws TimeConflictException {
+        long toSlot = notAfter == null ? GapIndex.UNBOUNDED : SlotGrid.slotOf(notAfter);
+        GapIndex gaps = GapIndex.build(manager.scheduleFrom(notBefore), SlotGrid.slotAtOrAfter(notBefore), toSlot);
+
+        List<Request> ordered = new ArrayList<>(requests);
+        ordered.sort(ORDER);
+        Map<Integer, LocalDateTime> placed = new LinkedHashMap<>();
+        Map<Integer, Reason> unplaced = new HashMap<>();
+        for (Request request : ordered) {
+            if (placed.containsKey(request.taskId())) {
+                continue; // Повторная заявка на ту же задачу
+            }
+            Task task = manager.peekTask(request.taskId());
+            Reason reason = check(task);
+            if (reason != null) {
+                unplaced.put(request.taskId(), reason);
+                continue;
+            }
+            Duration duration = task.getDuration();
+            long required = SlotGrid.requiredSlots(duration);
+            int gap = gaps.find(required);
+            if (gap < 0) {
+                unplaced.put(request.taskId(), Reason.NO_SPACE);
+                continue;
+            }
+            // Это самое раннее возможное начало: если задача не успевает здесь, она не успеет нигде
+            LocalDateTime start = SlotGrid.toDateTime(gaps.startOf(gap));
+            LocalDateTime end = start.plus(duration);
+            if (notAfter != null && end.isAfter(notAfter)) {
+                unplaced.put(request.taskId(), Reason.NO_SPACE);
+                continue;
+            }
+            if (request.deadline() != null && end.isAfter(request.deadline())) {
+                unplaced.put(request.taskId(), Reason.DEADLINE);
+                continue;
+            }
+            gaps.take(gap, required);
+            placed.put(task.getId(), start);
+        }
+        manager.applySchedule(placed);
+        return new Result(placed, unplaced);
+    }
+
+    private static Reason check(Task task) {
+        if (task == null || task instanceof Epic) {
+            return Reason.NOT_FOUND;
+        }
+        if (task.getStartTime() != null) {
+            return Reason.ALREADY_SCHEDULED;
+        }
+        if (task.getDuration() == null) {
+            return Reason.NO_DURATION;
+        }
+        return null;
+    }
+}
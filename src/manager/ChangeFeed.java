@@ -0,0 +1,198 @@
+package manager;
+
+import util.ChangeType;
+import util.TaskType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Лента изменений менеджера: кольцевой буфер фиксированного размера с курсором у каждого подписчика.
+ * Запись не блокируется и не ждёт подписчиков: отставший больше чем на capacity - 1 событий подписчик
+ * теряет старые события (их число возвращает getMissed) и должен перечитать данные целиком.
+ * Публикует один поток за раз (менеджер не потокобезопасен), читать можно из любых потоков.
+ * Каждая ячейка защищена своим номером последовательности (seqlock): читатель сверяет номер
+ * до и после чтения и отбрасывает ячейку, которую писатель успел перезаписать.
+ */
+public final class ChangeFeed {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final long WRITING = -1;
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final ChangeType[] CHANGES = ChangeType.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    /**
+     * Получатель событий без создания объектов TaskEvent
+     */
+    @FunctionalInterface
+    public interface EventHandler {
+        void onEvent(long sequence, ChangeType change, TaskType type, int id);
+    }
+
+    private final int mask;
+    private final long[] sequences;
+    private final byte[] changes;
+    private final byte[] types;
+    private final int[] ids;
+    private final Object signal = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private volatile long lastSequence;
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity размер буфера, степень двойки не меньше 2 (доступно capacity - 1 последних событий)
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new long[capacity];
+        this.changes = new byte[capacity];
+        this.types = new byte[capacity];
+        this.ids = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = WRITING;
+        }
+    }
+
+    /**
+     * Публикация события; номера последовательности начинаются с 1
+     */
+    public void publish(ChangeType change, TaskType type, int id) {
+        long sequence = lastSequence + 1;
+        int slot = (int) sequence & mask;
+        SEQUENCES.setOpaque(sequences, slot, WRITING);
+        VarHandle.storeStoreFence();
+        changes[slot] = (byte) change.ordinal();
+        types[slot] = (byte) type.ordinal();
+        ids[slot] = id;
+        SEQUENCES.setRelease(sequences, slot, sequence);
+        lastSequence = sequence;
+        if (waiters.get() > 0) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Номер последнего опубликованного события (0, если событий ещё не было)
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Подписка, начинающаяся со следующего события
+     */
+    public Subscription subscribe() {
+        return new Subscription(lastSequence + 1);
+    }
+
+    /**
+     * Подписка с события sequence (например, после переподключения клиента)
+     */
+    public Subscription subscribeFrom(long sequence) {
+        return new Subscription(Math.max(1, sequence));
+    }
+
+    /**
+     * Курсор подписчика. Экземпляр рассчитан на один читающий поток.
+     */
+    public final class Subscription {
+        private long nextSequence;
+        private long missed;
+
+        private Subscription(long nextSequence) {
+            this.nextSequence = nextSequence;
+        }
+
+        /**
+         * Передача до maxEvents доступных событий без ожидания; возвращает их количество
+         */
+        public int poll(EventHandler handler, int maxEvents) {
+            int delivered = 0;
+            while (delivered < maxEvents) {
+                long last = lastSequence;
+                if (nextSequence > last) {
+                    break;
+                }
+                long oldest = last - mask + 1; // Ячейку last - mask займёт следующая запись
+                if (nextSequence < oldest) {
+                    missed += oldest - nextSequence;
+                    nextSequence = oldest;
+                }
+                int slot = (int) nextSequence & mask;
+                if ((long) SEQUENCES.getAcquire(sequences, slot) != nextSequence) {
+                    continue; // Писатель обогнал курсор: пересчитываем границу и пропускаем потерянное
+                }
+                ChangeType change = CHANGES[changes[slot]];
+                TaskType type = TYPES[types[slot]];
+                int id = ids[slot];
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCES.getOpaque(sequences, slot) != nextSequence) {
+                    continue;
+                }
+                handler.onEvent(nextSequence++, change, type, id);
+                delivered++;
+            }
+            return delivered;
+        }
+
+        public List<TaskEvent> poll(int maxEvents) {
+            List<TaskEvent> events = new ArrayList<>();
+            poll((sequence, change, type, id) -> events.add(new TaskEvent(sequence, change, type, id)), maxEvents);
+            return events;
+        }
+
+        /**
+         * Ожидание хотя бы одного события не дольше timeout (для long polling).
+         * Возвращает пустой список, если за это время событий не было.
+         */
+        public List<TaskEvent> await(int maxEvents, long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            List<TaskEvent> events = poll(maxEvents);
+            if (!events.isEmpty()) {
+                return events;
+            }
+            waiters.incrementAndGet();
+            try {
+                synchronized (signal) {
+                    long remaining;
+                    while (nextSequence > lastSequence && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(signal, remaining);
+                    }
+                }
+            } finally {
+                waiters.decrementAndGet();
+            }
+            return poll(maxEvents);
+        }
+
+        /**
+         * Номер следующего ожидаемого события (курсор для переподключения)
+         */
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        /**
+         * Количество событий, потерянных из-за отставания от писателя
+         */
+        public long getMissed() {
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.TaskType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Холодный уровень TieredTaskManager: архивные задачи в сегментах формата FileBackedTaskManager.
+ * В памяти хранится только индекс id по типам и состав архивных эпиков;
+ * сами задачи читаются с диска через LRU-кэш ограниченного размера.
+ */
+final class ColdTaskStore {
+    static final int SEGMENT_SIZE = 1024;
+
+    private final Path directory;
+    private final Map<TaskType, BitSet> ids = new EnumMap<>(TaskType.class);
+    private final Map<Integer, List<Integer>> epicSubtasks = new HashMap<>();
+    private final Map<Integer, Task> cache;
+    private final TaskCsvWriter csvWriter = new TaskCsvWriter();
+    private long hits;
+    private long misses;
+
+    ColdTaskStore(Path directory, int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным: " + cacheCapacity);
+        }
+        this.directory = directory;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        for (TaskType type : TaskType.values()) {
+            ids.put(type, new BitSet());
+        }
+        try {
+            for (Path segment : FileBackedTaskManager.listSegments(directory)) {
+                readSegment(segment).forEach(this::index);
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать архив: " + directory);
+        }
+    }
+
+    TaskType typeOf(int id) {
+        if (id < 0) {
+            return null;
+        }
+        for (Map.Entry<TaskType, BitSet> entry : ids.entrySet()) {
+            if (entry.getValue().get(id)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    boolean contains(int id) {
+        return typeOf(id) != null;
+    }
+
+    int size() {
+        return ids.values().stream().mapToInt(BitSet::cardinality).sum();
+    }
+
+    int maxId() {
+        return ids.values().stream().mapToInt(BitSet::length).max().orElse(0) - 1;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Чтение задачи из архива: сначала из кэша, затем из сегмента на диске
+     */
+    Task get(int id) {
+        if (!contains(id)) {
+            return null;
+        }
+        Task cached = cache.get(id);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        misses++;
+        try {
+            for (Task task : readSegment(segmentPath(id / SEGMENT_SIZE))) {
+                if (task.getId() == id) {
+                    attachSubtasks(task);
+                    cache.put(id, task);
+                    return task;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать архив: " + directory);
+        }
+        return null;
+    }
+
+    List<Integer> subtaskIdsOf(int epicId) {
+        return new ArrayList<>(epicSubtasks.getOrDefault(epicId, List.of()));
+    }
+
+    /**
+     * Все архивные задачи указанного типа (полное чтение сегментов)
+     */
+    List<Task> all(TaskType type) {
+        List<Task> result = new ArrayList<>();
+        if (ids.get(type).isEmpty()) {
+            return result;
+        }
+        try {
+            for (Path segment : FileBackedTaskManager.listSegments(directory)) {
+                for (Task task : readSegment(segment)) {
+                    if (typeOf(task) == type && ids.get(type).get(task.getId())) {
+                        attachSubtasks(task);
+                        result.add(task);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать архив: " + directory);
+        }
+        return result;
+    }
+
+    /**
+     * Запись группы задач в архив; затрагиваются только сегменты с их id
+     */
+    void put(List<? extends Task> tasks) {
+        Map<Integer, List<Task>> bySegment = new TreeMap<>();
+        tasks.forEach(task -> bySegment.computeIfAbsent(task.getId() / SEGMENT_SIZE, k -> new ArrayList<>()).add(task));
+
+        bySegment.forEach((segment, added) -> rewriteSegment(segment, stored -> added.forEach(task -> {
+            Task previous = stored.put(task.getId(), task);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(task);
+            cache.remove(task.getId());
+        })));
+    }
+
+    /**
+     * Удаление задач из архива (id, которых нет в архиве, пропускаются)
+     */
+    void remove(Collection<Integer> removed) {
+        Map<Integer, List<Integer>> bySegment = new TreeMap<>();
+        removed.stream()
+                .filter(this::contains)
+                .forEach(id -> bySegment.computeIfAbsent(id / SEGMENT_SIZE, k -> new ArrayList<>()).add(id));
+
+        bySegment.forEach((segment, segmentIds) -> rewriteSegment(segment, stored -> segmentIds.forEach(id -> {
+            Task task = stored.remove(id);
+            if (task != null) {
+                unindex(task);
+            }
+            cache.remove(id);
+        })));
+    }
+
+    void clear(TaskType type) {
+        List<Integer> removed = new ArrayList<>();
+        ids.get(type).stream().forEach(removed::add);
+        remove(removed);
+    }
+
+    private void rewriteSegment(int segment, Consumer<Map<Integer, Task>> change) {
+        Path path = segmentPath(segment);
+        try {
+            Files.createDirectories(directory);
+            Map<Integer, Task> stored = new TreeMap<>();
+            readSegment(path).forEach(task -> stored.put(task.getId(), task));
+            change.accept(stored);
+            FileBackedTaskManager.publishSnapshot(path, csvWriter, FileBackedTaskManager::writeFully, writer -> {
+                for (Task task : stored.values()) {
+                    writer.writeTask(task);
+                }
+            });
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи архива: " + path);
+        }
+    }
+
+    private List<Task> readSegment(Path path) throws IOException {
+        return FileBackedTaskManager.loadSnapshot(path)
+                .map(FileBackedTaskManager::parseSnapshot)
+                .orElse(List.of());
+    }
+
+    private Path segmentPath(int segment) {
+        return FileBackedTaskManager.segmentPath(directory, segment);
+    }
+
+    private void index(Task task) {
+        ids.get(typeOf(task)).set(task.getId());
+        if (task instanceof Subtask subtask) {
+            List<Integer> subtaskIds = epicSubtasks.computeIfAbsent(subtask.getEpicId(), k -> new ArrayList<>());
+            if (!subtaskIds.contains(subtask.getId())) {
+                subtaskIds.add(subtask.getId());
+            }
+        }
+    }
+
+    private void unindex(Task task) {
+        ids.get(typeOf(task)).clear(task.getId());
+        if (task instanceof Subtask subtask) {
+            List<Integer> subtaskIds = epicSubtasks.get(subtask.getEpicId());
+            if (subtaskIds != null) {
+                subtaskIds.remove(Integer.valueOf(subtask.getId()));
+                if (subtaskIds.isEmpty()) {
+                    epicSubtasks.remove(subtask.getEpicId());
+                }
+            }
+        }
+    }
+
+    private void attachSubtasks(Task task) {
+        if (task instanceof Epic epic) {
+            epic.setSubtaskIds(subtaskIdsOf(epic.getId()));
+        }
+    }
+
+    private static TaskType typeOf(Task task) {
+        return task instanceof Epic ? TaskType.EPIC :
+                task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+    }
+}
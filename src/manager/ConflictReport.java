@@ -0,0 +1,131 @@
+package manager;
+
+import model.Epic;
+import model.Task;
+import model.TaskOverlap;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Отчёт о пересечениях по времени для произвольного набора задач — например, объединения досок
+ * или расписания, импортированного без проверки hasTimeOverlap.
+ * Задачи и подзадачи с временем начала сортируются по началу, затем проход по ним (sweep-line) держит
+ * активное множество — задачи, ещё не закончившиеся к началу текущей, в куче по времени конца.
+ * Все задачи активного множества пересекаются с текущей, поэтому каждая пара выдаётся ровно один раз:
+ * O(n log n + k) для k пар вместо попарного сравнения isOverlapping.
+ * Границы интервалов включительные, как в Task.isOverlapping; задача без продолжительности
+ * считается интервалом нулевой длины. Эпики не учитываются — их время складывается из подзадач.
+ */
+public final class ConflictReport {
+    private static final Comparator<Task> BY_START = Comparator.comparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+    private static final Comparator<Task> BY_END = Comparator.comparing(ConflictReport::endOf);
+
+    private ConflictReport() {
+    }
+
+    /**
+     * Все пары пересекающихся задач, упорядоченные по началу второй задачи пары
+     */
+    public static List<TaskOverlap> findConflicts(Iterable<? extends Task> tasks) {
+        List<TaskOverlap> conflicts = new ArrayList<>();
+        forEachConflict(tasks, conflicts::add);
+        return conflicts;
+    }
+
+    /**
+     * Передача пар в sink по мере нахождения, без накопления списка: в памяти только отсортированные
+     * задачи и активное множество. Возвращает число найденных пар
+     */
+    public static long forEachConflict(Iterable<? extends Task> tasks, Consumer<? super TaskOverlap> sink) {
+        List<Task> timed = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getStartTime() != null && !(task instanceof Epic)) {
+                timed.add(task);
+            }
+        }
+        return sweep(Arrays.asList(sortByStart(timed)).iterator(), sink);
+    }
+
+    /**
+     * Сортировка по началу через примитивные ключи: секунды начала от самой ранней задачи в старших битах,
+     * номер задачи в младших. Сравнение long вместо LocalDateTime по ссылкам в несколько раз быстрее
+     * на перемешанных задачах. Задачи с одинаковой секундой начала досортировываются по BY_START
+     * (наносекунды, id); при слишком широком диапазоне дат — обычная сортировка
+     */
+    private static Task[] sortByStart(List<Task> timed) {
+        int size = timed.size();
+        long[] seconds = new long[size];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            seconds[i] = timed.get(i).getStartTime().toEpochSecond(ZoneOffset.UTC);
+            min = Math.min(min, seconds[i]);
+            max = Math.max(max, seconds[i]);
+        }
+        int indexBits = 64 - Long.numberOfLeadingZeros(size);
+        if (size == 0 || 64 - Long.numberOfLeadingZeros(max - min) + indexBits > 63) {
+            timed.sort(BY_START);
+            return timed.toArray(new Task[0]);
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (seconds[i] - min) << indexBits | i;
+        }
+        Arrays.sort(keys);
+        long mask = (1L << indexBits) - 1;
+        Task[] sorted = new Task[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = timed.get((int) (keys[i] & mask));
+        }
+        for (int from = 0; from < size; ) {
+            int to = from + 1;
+            while (to < size && keys[to] >>> indexBits == keys[from] >>> indexBits) {
+                to++;
+            }
+            if (to - from > 1) {
+                Arrays.sort(sorted, from, to, BY_START);
+            }
+            from = to;
+        }
+        return sorted;
+    }
+
+    /**
+     * Проход по задачам, уже упорядоченным по началу (как prioritizedTasks); задачи без времени
+     * начала пропускаются
+     */
+    static long sweep(Iterator<? extends Task> sortedByStart, Consumer<? super TaskOverlap> sink) {
+        PriorityQueue<Task> active = new PriorityQueue<>(BY_END);
+        long count = 0;
+        while (sortedByStart.hasNext()) {
+            Task task = sortedByStart.next();
+            LocalDateTime start = task.getStartTime();
+            if (start == null) {
+                continue;
+            }
+            while (!active.isEmpty() && endOf(active.peek()).isBefore(start)) {
+                active.poll();
+            }
+            for (Task earlier : active) {
+                sink.accept(new TaskOverlap(earlier, task));
+                count++;
+            }
+            active.add(task);
+        }
+        return count;
+    }
+
+    private static LocalDateTime endOf(Task task) {
+        LocalDateTime end = task.getEndTime();
+        return end != null ? end : task.getStartTime();
+    }
+}
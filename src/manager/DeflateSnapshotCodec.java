@@ -0,0 +1,81 @@
+package manager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Сжатие блоков снимка алгоритмом Deflate из JDK (формат zlib: у каждого блока своя сумма Adler-32).
+ * Deflater и Inflater переиспользуются в пределах потока, чтобы не создавать состояние zlib на каждый блок.
+ * Уровень сжатия влияет только на запись: блоки любого уровня читаются одинаково.
+ */
+public final class DeflateSnapshotCodec implements SnapshotCodec {
+    public static final String NAME = "deflate";
+
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    public DeflateSnapshotCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param level уровень сжатия Deflater: от BEST_SPEED (1) до BEST_COMPRESSION (9) или DEFAULT_COMPRESSION
+     */
+    public DeflateSnapshotCodec(int level) {
+        boolean isValid = level == Deflater.DEFAULT_COMPRESSION
+                || level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION;
+        if (!isValid) {
+            throw new IllegalArgumentException("Некорректный уровень сжатия: " + level);
+        }
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] output = new byte[length + (length >> 4) + 64];
+        int written = 0;
+        while (!deflater.finished()) {
+            if (written == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            written += deflater.deflate(output, written, output.length - written);
+        }
+        return Arrays.copyOf(output, written);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(data, offset, length);
+        byte[] output = new byte[originalLength];
+        try {
+            int read = 0;
+            while (read < originalLength) {
+                int inflated = inflater.inflate(output, read, originalLength - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != originalLength) {
+                throw new IOException("Длина блока не совпадает: " + read + " вместо " + originalLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Повреждённый блок снимка: " + e.getMessage(), e);
+        }
+        return output;
+    }
+}
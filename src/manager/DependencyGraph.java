@@ -0,0 +1,430 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Граф зависимостей между задачами: ребро A → B означает «B начинается после окончания A».
+ * Узлы адресуются id задачи; смежность, времена и служебные поля хранятся в массивах по id.
+ * Для каждого узла поддерживается раннее начало: максимум из собственного времени начала задачи
+ * и окончаний всех задач, от которых она зависит, — и предшественник, который его определяет
+ * (по этим ссылкам строится критический путь).
+ * Узлы держатся в топологическом порядке (алгоритм Пирса — Келли): добавление ребра, создающего
+ * цикл, обнаруживается при перестановке затронутого участка порядка и отклоняется.
+ * После изменения задачи или ребра пересчитываются только узлы ниже по графу, значения которых
+ * действительно изменились, в топологическом порядке через очередь с приоритетом.
+ */
+public final class DependencyGraph {
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int NO_NODE = -1;
+    private static final int ABSENT = -1;
+    private static final int[] EMPTY = new int[0];
+
+    private long[] ownStart = new long[0];
+    private long[] duration = new long[0];
+    private long[] earliestStart = new long[0];
+    private int[] criticalPredecessor = new int[0];
+    private int[] order = new int[0];
+    private int[][] successors = new int[0][];
+    private int[] successorCount = new int[0];
+    private int[][] predecessors = new int[0][];
+    private int[] predecessorCount = new int[0];
+    private boolean[] marked = new boolean[0];
+    private int nextOrder;
+    private int size;
+    private int lastRecomputed;
+
+    private int[] heap = new int[16];
+    private int heapSize;
+    private int[] stack = new int[16];
+
+    public boolean contains(int id) {
+        return id >= 0 && id < order.length && order[id] != ABSENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Добавление или изменение узла: собственное время начала (null — задача не запланирована)
+     * и продолжительность (null — нулевая). Пересчитываются зависящие от задачи узлы
+     */
+    public void setTask(int id, LocalDateTime start, Duration taskDuration) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Некорректный id задачи: " + id);
+        }
+        ensureCapacity(id);
+        if (order[id] == ABSENT) {
+            order[id] = nextOrder++;
+            successors[id] = EMPTY;
+            predecessors[id] = EMPTY;
+            size++;
+        }
+        ownStart[id] = start != null ? start.toEpochSecond(ZoneOffset.UTC) : NONE;
+        duration[id] = taskDuration != null ? taskDuration.getSeconds() : 0;
+        enqueue(id);
+        drain(id);
+    }
+
+    /**
+     * Удаление узла вместе с рёбрами; зависевшие от него узлы пересчитываются
+     */
+    public void removeTask(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        for (int i = 0; i < predecessorCount[id]; i++) {
+            unlink(predecessors[id][i], id, true);
+        }
+        int[] dependents = Arrays.copyOf(successors[id], successorCount[id]);
+        for (int dependent : dependents) {
+            unlink(id, dependent, false);
+        }
+        predecessorCount[id] = 0;
+        successorCount[id] = 0;
+        successors[id] = null;
+        predecessors[id] = null;
+        order[id] = ABSENT;
+        earliestStart[id] = NONE;
+        criticalPredecessor[id] = NO_NODE;
+        size--;
+        for (int dependent : dependents) {
+            enqueue(dependent);
+        }
+        drain(NO_NODE);
+    }
+
+    /**
+     * Задача taskId начинается после окончания dependsOnId. Оба узла должны существовать;
+     * ребро, замыкающее цикл, отклоняется с IllegalArgumentException
+     */
+    public void addDependency(int taskId, int dependsOnId) {
+        if (!contains(taskId) || !contains(dependsOnId)) {
+            throw new IllegalArgumentException("Задача не найдена в графе: " + (contains(taskId) ? dependsOnId : taskId));
+        }
+        if (taskId == dependsOnId) {
+            throw new IllegalArgumentException("Задача не может зависеть от себя: " + taskId);
+        }
+        if (indexOf(successors[dependsOnId], successorCount[dependsOnId], taskId) >= 0) {
+            return;
+        }
+        if (order[dependsOnId] > order[taskId]) {
+            reorder(dependsOnId, taskId);
+        }
+        successors[dependsOnId] = append(successors[dependsOnId], successorCount[dependsOnId]++, taskId);
+        predecessors[taskId] = append(predecessors[taskId], predecessorCount[taskId]++, dependsOnId);
+        enqueue(taskId);
+        drain(NO_NODE);
+    }
+
+    public void removeDependency(int taskId, int dependsOnId) {
+        if (!contains(taskId) || !contains(dependsOnId)
+                || indexOf(successors[dependsOnId], successorCount[dependsOnId], taskId) < 0) {
+            return;
+        }
+        unlink(dependsOnId, taskId, true);
+        unlink(dependsOnId, taskId, false);
+        enqueue(taskId);
+        drain(NO_NODE);
+    }
+
+    public List<Integer> getDependencies(int id) {
+        return contains(id) ? toList(predecessors[id], predecessorCount[id]) : List.of();
+    }
+
+    public List<Integer> getDependents(int id) {
+        return contains(id) ? toList(successors[id], successorCount[id]) : List.of();
+    }
+
+    /**
+     * Раннее начало задачи: null, если ни у неё, ни у задач, от которых она зависит, нет времени
+     */
+    public LocalDateTime getEarliestStart(int id) {
+        return contains(id) ? toDateTime(earliestStart[id]) : null;
+    }
+
+    public LocalDateTime getEarliestFinish(int id) {
+        return contains(id) ? toDateTime(finish(id)) : null;
+    }
+
+    /**
+     * Цепочка задач, определяющая раннее начало id: от первой задачи цепочки до id включительно
+     */
+    public List<Integer> getCriticalPath(int id) {
+        if (!contains(id)) {
+            return List.of();
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int node = id; node != NO_NODE; node = criticalPredecessor[node]) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Критический путь графа — цепочка, заканчивающаяся позже всех (поиск конца — проход по узлам)
+     */
+    public List<Integer> getCriticalPath() {
+        int last = NO_NODE;
+        for (int id = 0; id < order.length; id++) {
+            if (order[id] != ABSENT && finish(id) != NONE && (last == NO_NODE || finish(id) > finish(last))) {
+                last = id;
+            }
+        }
+        return last == NO_NODE ? List.of() : getCriticalPath(last);
+    }
+
+    /**
+     * Сколько узлов было пересчитано последним изменением
+     */
+    public int getLastRecomputed() {
+        return lastRecomputed;
+    }
+
+    /**
+     * Пересчёт узлов из очереди в топологическом порядке. Зависимые узлы добавляются, только если
+     * окончание узла изменилось; для forced (изменённой задачи) — всегда: могла измениться продолжительность
+     */
+    private void drain(int forced) {
+        lastRecomputed = 0;
+        while (heapSize > 0) {
+            int node = poll();
+            marked[node] = false;
+            lastRecomputed++;
+            long previousFinish = finish(node);
+            recompute(node);
+            if (node == forced || finish(node) != previousFinish) {
+                for (int i = 0; i < successorCount[node]; i++) {
+                    enqueue(successors[node][i]);
+                }
+            }
+        }
+    }
+
+    private void recompute(int node) {
+        long best = ownStart[node];
+        int predecessor = NO_NODE;
+        for (int i = 0; i < predecessorCount[node]; i++) {
+            int candidate = predecessors[node][i];
+            long candidateFinish = finish(candidate);
+            if (candidateFinish != NONE && (best == NONE || candidateFinish > best)) {
+                best = candidateFinish;
+                predecessor = candidate;
+            }
+        }
+        earliestStart[node] = best;
+        criticalPredecessor[node] = predecessor;
+    }
+
+    private long finish(int node) {
+        return earliestStart[node] == NONE ? NONE : earliestStart[node] + duration[node];
+    }
+
+    /**
+     * Перестановка порядка перед добавлением ребра from → to при order[from] > order[to] (Пирс — Келли):
+     * узлы, достижимые из to, с порядком до order[from] и узлы, из которых достижим from, с порядком
+     * от order[to] получают те же номера, но так, что вторые идут раньше первых.
+     * Если из to достижим from, ребро замкнуло бы цикл
+     */
+    private void reorder(int from, int to) {
+        int lower = order[to];
+        int upper = order[from];
+        int[] forward = collect(to, upper, true, from);
+        if (forward == null) {
+            throw new IllegalArgumentException("Зависимость " + from + " → " + to + " создаёт цикл");
+        }
+        int[] backward = collect(from, lower, false, NO_NODE);
+
+        int[] nodes = new int[backward.length + forward.length];
+        int[] orders = new int[nodes.length];
+        sortByOrder(backward);
+        sortByOrder(forward);
+        for (int i = 0; i < backward.length; i++) {
+            nodes[i] = backward[i];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            nodes[backward.length + i] = forward[i];
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            orders[i] = order[nodes[i]];
+        }
+        Arrays.sort(orders);
+        for (int i = 0; i < nodes.length; i++) {
+            order[nodes[i]] = orders[i];
+        }
+    }
+
+    /**
+     * Обход в глубину от start по рёбрам вперёд (узлы с порядком не больше bound) или назад
+     * (не меньше bound). Если встречен target, возвращается null
+     */
+    private int[] collect(int start, int bound, boolean isForward, int target) {
+        List<Integer> visited = new ArrayList<>();
+        int top = 0;
+        stack[top++] = start;
+        marked[start] = true;
+        boolean isCycle = false;
+        while (top > 0 && !isCycle) {
+            int node = stack[--top];
+            visited.add(node);
+            int[] next = isForward ? successors[node] : predecessors[node];
+            int count = isForward ? successorCount[node] : predecessorCount[node];
+            for (int i = 0; i < count; i++) {
+                int neighbour = next[i];
+                if (neighbour == target) {
+                    isCycle = true;
+                    break;
+                }
+                boolean isInRange = isForward ? order[neighbour] <= bound : order[neighbour] >= bound;
+                if (isInRange && !marked[neighbour]) {
+                    marked[neighbour] = true;
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = neighbour;
+                }
+            }
+        }
+        while (top > 0) {
+            marked[stack[--top]] = false;
+        }
+        int[] result = new int[visited.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = visited.get(i);
+            marked[result[i]] = false;
+        }
+        return isCycle ? null : result;
+    }
+
+    private void sortByOrder(int[] nodes) {
+        long[] keyed = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            keyed[i] = (long) order[nodes[i]] << 32 | nodes[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = (int) keyed[i];
+        }
+    }
+
+    /**
+     * Удаление ребра from → to со стороны предшественника from — из его списка зависимых
+     * successors[from] (isPredecessorSide = true) — или со стороны to, из списка зависимостей
+     * predecessors[to] (false)
+     */
+    private void unlink(int from, int to, boolean isPredecessorSide) {
+        if (isPredecessorSide) {
+            successorCount[from] = remove(successors[from], successorCount[from], to);
+        } else {
+            predecessorCount[to] = remove(predecessors[to], predecessorCount[to], from);
+        }
+    }
+
+    private void enqueue(int node) {
+        if (marked[node]) {
+            return;
+        }
+        marked[node] = true;
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        int position = heapSize++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (order[heap[parent]] <= order[node]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = node;
+    }
+
+    private int poll() {
+        int result = heap[0];
+        int node = heap[--heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && order[heap[child + 1]] < order[heap[child]]) {
+                child++;
+            }
+            if (order[node] <= order[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = node;
+        return result;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < order.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, order.length * 2);
+        int previous = order.length;
+        ownStart = Arrays.copyOf(ownStart, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+        earliestStart = Arrays.copyOf(earliestStart, capacity);
+        criticalPredecessor = Arrays.copyOf(criticalPredecessor, capacity);
+        order = Arrays.copyOf(order, capacity);
+        successors = Arrays.copyOf(successors, capacity);
+        successorCount = Arrays.copyOf(successorCount, capacity);
+        predecessors = Arrays.copyOf(predecessors, capacity);
+        predecessorCount = Arrays.copyOf(predecessorCount, capacity);
+        marked = Arrays.copyOf(marked, capacity);
+        Arrays.fill(order, previous, capacity, ABSENT);
+        Arrays.fill(earliestStart, previous, capacity, NONE);
+        Arrays.fill(criticalPredecessor, previous, capacity, NO_NODE);
+    }
+
+    private static int[] append(int[] values, int count, int value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, count * 2));
+        }
+        values[count] = value;
+        return values;
+    }
+
+    private static int remove(int[] values, int count, int value) {
+        int index = indexOf(values, count, value);
+        if (index < 0) {
+            return count;
+        }
+        values[index] = values[count - 1];
+        return count - 1;
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Integer> toList(int[] values, int count) {
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(values[i]);
+        }
+        return result;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NONE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -1,25 +1,38 @@
 package manager;
 
+import exceptions.ManagerLoadException;
 import exceptions.ManagerSaveException;
 import exceptions.TimeConflictException;
+import metrics.TaskManagerEvents;
+import metrics.TaskManagerMetrics;
 import model.Epic;
+import model.Recurrence;
 import model.Subtask;
 import model.Task;
+import util.Managers;
 import util.Status;
+import util.StringPool;
 import util.TaskType;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.function.Function;
+import java.util.zip.CRC32;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static util.Status.NEW;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
@@ -34,15 +47,56 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     static final int START_TIME_INDEX = 5;
     static final int DURATION_INDEX = 6;
     static final int EPIC_ID_INDEX = 7;
+    static final String HEADER = "id,type,name,status,description,start_time,duration,epic";
+    static final String FOOTER_PREFIX = "#rows=";
+    static final String DICTIONARY_PREFIX = "#dict,";
+    static final String SERIES_PREFIX = "#series,";
+    static final int SERIES_FIELDS = 6;
+    static final String DEPENDENCY_PREFIX = "#dep,";
+    static final String CHECKSUM_PREFIX = ";crc32=";
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String BACKUP_SUFFIX = ".bak";
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".csv";
 
     private final String filePath;
+    private final int segmentSize;
+    private final Set<Integer> dirtyIds = new HashSet<>();
+    private final TaskCsvWriter csvWriter = new TaskCsvWriter();
+    private boolean dictionaryEncoding;
+    private SnapshotCodec snapshotCodec; // null — снимки пишутся обычным CSV
+    private long loadNanos;
+    private long loadedBytes;
+    private long writtenBytes;
 
     /**
      * Конструктор для создания нового менеджера задач с указанием пути к файлу
      */
     public FileBackedTaskManager(String filePath) {
-        super();
+        this(filePath, 0);
+    }
+
+    /**
+     * Конструктор для сегментированного хранения: filePath — каталог, в котором файл segment-N.csv
+     * содержит задачи с id из диапазона [N * segmentSize, (N + 1) * segmentSize).
+     * При сохранении перезаписываются только сегменты с изменёнными задачами.
+     * Если segmentSize == 0, всё состояние хранится в одном файле filePath.
+     */
+    public FileBackedTaskManager(String filePath, int segmentSize) {
+        this(filePath, segmentSize, ChangeFeed.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param changeFeedCapacity размер буфера ленты изменений (см. InMemoryTaskManager)
+     */
+    public FileBackedTaskManager(String filePath, int segmentSize, int changeFeedCapacity) {
+        super(Managers.getDefaultHistory(), false, changeFeedCapacity);
+        if (segmentSize < 0) {
+            throw new IllegalArgumentException("Размер сегмента не может быть отрицательным: " + segmentSize);
+        }
         this.filePath = filePath;
+        this.segmentSize = segmentSize;
         loadFromFile(); // Загрузка данных из файла в память при инициализации
     }
 
@@ -60,52 +114,326 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return manager;
     }
 
+    /**
+     * Запись повторяющихся названий и описаний через словарь снимка (см. TaskCsvWriter.writeDictionary).
+     * Снимки со словарём и без него читаются одинаково; режим влияет только на следующие сохранения
+     */
+    public void setDictionaryEncoding(boolean dictionaryEncoding) {
+        this.dictionaryEncoding = dictionaryEncoding;
+    }
+
+    /**
+     * Сжатие следующих сохранений кодеком (null — обычный CSV). Сжатые и несжатые снимки читаются одинаково,
+     * для сжатых кодек выбирается по имени из файла; кодек, переданный сюда, становится доступен для чтения
+     */
+    public void setSnapshotCodec(SnapshotCodec snapshotCodec) {
+        if (snapshotCodec != null) {
+            SnapshotFrames.register(snapshotCodec);
+        }
+        this.snapshotCodec = snapshotCodec;
+    }
+
     /**
      * Обертка вокруг метода fromString
      */
-    private Optional<Task> safeFromString(String line) {
+    static Optional<Task> safeFromString(String line) {
+        return safeFromString(line, List.of());
+    }
+
+    /**
+     * @param dictionary строки словаря снимка, на которые могут ссылаться поля "@N"
+     */
+    static Optional<Task> safeFromString(String line, List<String> dictionary) {
+        TaskManagerEvents.Parse event = new TaskManagerEvents.Parse();
+        event.begin();
         try {
-            return Optional.of(fromString(line));
+            Task task = fromString(line, dictionary);
+            event.parsed = true;
+            return Optional.of(task);
         } catch (IllegalArgumentException e) {
             System.out.println("Некорректная строка: " + line + ". Пропуск.");
             return Optional.empty();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.length = line.length();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Загрузка из файла прошла до подключения метрик — её длительность и объём передаются сразу
+     */
+    @Override
+    void attachMetrics(TaskManagerMetrics metrics) {
+        super.attachMetrics(metrics);
+        if (metrics != null && loadNanos > 0) {
+            metrics.recordLoad(loadedBytes, loadNanos);
         }
     }
 
     /**
-     * Приватный метод для загрузки задач из файла в текущий менеджер.
+     * Приватный метод для загрузки задач из файла (или всех сегментов) в текущий менеджер.
      * Если файл не существует или пуст — ничего не происходит.
+     * Эпики добавляются первыми, чтобы подзадачи из любого сегмента нашли свой эпик.
      */
     private void loadFromFile() {
-        File file = new File(filePath);
-        if (!file.exists() || file.length() == 0) return;
+        TaskManagerEvents.Load event = new TaskManagerEvents.Load();
+        event.begin();
+        long started = System.nanoTime();
+        long bytesBefore = loadedBytes;
+        List<Task> loaded = new ArrayList<>();
+        List<RecurringSeries> series = new ArrayList<>();
+        List<int[]> dependencies = new ArrayList<>();
+        try {
+            List<Path> snapshots = segmentSize > 0 ? listSegments(Path.of(filePath)) : List.of(Path.of(filePath));
+            for (Path snapshot : snapshots) {
+                if (Files.exists(snapshot)) {
+                    loadedBytes += Files.size(snapshot);
+                }
+                loadSnapshot(snapshot).ifPresent(content -> loaded.addAll(parseSnapshot(content, series, dependencies)));
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении файла: " + e.getMessage());
+        }
+
+        loadTasks(loaded);
+        loadRecurringTasks(series);
+        loadDependencies(dependencies);
+        loadNanos += System.nanoTime() - started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath;
+            event.records = loaded.size();
+            event.bytes = loadedBytes - bytesBefore;
+            event.commit();
+        }
+    }
+
+    /**
+     * Чтение одного снимка. Если снимок не прошёл проверку контрольной суммы —
+     * читается предыдущий снимок (.bak). Пустой Optional — снимка ещё нет.
+     */
+    static Optional<String> loadSnapshot(Path target) throws IOException {
+        Path backup = siblingPath(target, BACKUP_SUFFIX);
+        boolean hasBackup = Files.exists(backup);
+        File file = target.toFile();
+        if (!hasBackup && (!file.exists() || file.length() == 0)) return Optional.empty();
+
+        Optional<String> snapshot = readSnapshot(target, hasBackup);
+        if (snapshot.isEmpty() && hasBackup) {
+            System.out.println("Снимок повреждён: " + target + ". Загрузка предыдущего снимка: " + backup);
+            snapshot = readSnapshot(backup, true);
+        }
+        return Optional.of(snapshot.orElseThrow(() ->
+                new ManagerLoadException("Не удалось загрузить корректный снимок: " + target)));
+    }
+
+    /**
+     * Разбор содержимого снимка в список задач (заголовок пропускается).
+     * Строки словаря предшествуют задачам, поэтому словарь собирается по ходу разбора
+     */
+    static List<Task> parseSnapshot(String content) {
+        return parseSnapshot(content, new ArrayList<>(), new ArrayList<>());
+    }
 
+    /**
+     * @param series       список, в который добавляются повторяющиеся задачи снимка (строки "#series,")
+     * @param dependencies список, в который добавляются зависимости {taskId, dependsOnId} (строки "#dep,")
+     */
+    static List<Task> parseSnapshot(String content, List<RecurringSeries> series, List<int[]> dependencies) {
+        List<String> dictionary = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        String[] lines = content.split("\\R");
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.startsWith(SERIES_PREFIX)) {
+                safeSeriesFromString(line, dictionary).ifPresent(series::add);
+            } else if (line.startsWith(DEPENDENCY_PREFIX)) {
+                parseDependency(line).ifPresent(dependencies::add);
+            } else if (!parseDictionaryEntry(line, dictionary) && line.matches("^\\d+.*")) {
+                safeFromString(line, dictionary).ifPresent(tasks::add);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Разбор строки зависимости "#dep,taskId,dependsOnId"; некорректная строка пропускается
+     */
+    static Optional<int[]> parseDependency(String line) {
+        String[] fields = line.substring(DEPENDENCY_PREFIX.length()).split(",");
         try {
-            String content = Files.readString(file.toPath());
-            String[] lines = content.split("\\R");
-
-            List<Task> tasks = Arrays.stream(lines)
-                    .skip(1)
-                    .filter(line -> !line.trim().isEmpty())
-                    .filter(line -> line.matches("^\\d+.*"))
-                    .map(this::safeFromString)
-                    .flatMap(Optional::stream)
+            if (fields.length != 2) {
+                throw new NumberFormatException();
+            }
+            return Optional.of(new int[]{Integer.parseInt(fields[0]), Integer.parseInt(fields[1])});
+        } catch (NumberFormatException e) {
+            System.out.println("Некорректная строка зависимости: " + line + ". Пропуск.");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Восстановление зависимостей после загрузки задач. Зависимость от задачи, которой нет в снимке
+     * (или замыкающая цикл), пропускается
+     */
+    private void loadDependencies(List<int[]> loaded) {
+        for (int[] edge : loaded) {
+            try {
+                super.addDependency(edge[0], edge[1]);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Зависимость " + edge[0] + " от " + edge[1] + " не восстановлена: "
+                        + e.getMessage() + ". Пропуск.");
+            }
+        }
+    }
+
+    /**
+     * Разбор строки повторяющейся задачи (формат см. TaskCsvWriter.writeSeries); некорректная строка пропускается
+     */
+    static Optional<RecurringSeries> safeSeriesFromString(String line, List<String> dictionary) {
+        String[] fields = line.substring(SERIES_PREFIX.length()).split(",", SERIES_FIELDS);
+        try {
+            if (fields.length < SERIES_FIELDS) {
+                throw new IllegalArgumentException("Неполная строка повторяющейся задачи");
+            }
+            Recurrence.Frequency frequency = Recurrence.Frequency.valueOf(fields[0]);
+            int interval = Integer.parseInt(fields[1]);
+            int count = Integer.parseInt(fields[2]);
+            Recurrence rule = count > 0
+                    ? Recurrence.times(frequency, interval, count)
+                    : Recurrence.until(frequency, interval,
+                            LocalDateTime.parse(fields[3], DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            Task template = fromString(fields[5], dictionary);
+            RecurringSeries series = new RecurringSeries(template.getId(), template, rule);
+            for (String index : fields[4].split(";")) {
+                if (!index.isEmpty()) {
+                    series.cancel(Integer.parseInt(index));
+                }
+            }
+            return Optional.of(series);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.out.println("Некорректная строка: " + line + ". Пропуск.");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Разбор строки словаря "#dict,N,значение" в dictionary; false — это не строка словаря
+     */
+    static boolean parseDictionaryEntry(String line, List<String> dictionary) {
+        if (!line.startsWith(DICTIONARY_PREFIX)) {
+            return false;
+        }
+        int separator = line.indexOf(',', DICTIONARY_PREFIX.length());
+        try {
+            int index = Integer.parseInt(line.substring(DICTIONARY_PREFIX.length(), separator));
+            while (dictionary.size() <= index) {
+                dictionary.add(null);
+            }
+            dictionary.set(index, StringPool.shared().intern(line.substring(separator + 1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            System.out.println("Некорректная строка словаря: " + line + ". Пропуск.");
+        }
+        return true;
+    }
+
+    /**
+     * Список файлов сегментов каталога, включая сегменты, от которых остался только .bak
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .map(name -> name.endsWith(BACKUP_SUFFIX)
+                            ? name.substring(0, name.length() - BACKUP_SUFFIX.length())
+                            : name)
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .distinct()
+                    .sorted()
+                    .map(directory::resolve)
                     .toList();
-            tasks.forEach(task -> {
-                if (task instanceof Epic epic) internalAddEpic(epic);
-                else if (task instanceof Subtask subtask) internalAddSubtask(subtask);
-                else internalAddTask(task);
-            });
+        }
+    }
 
-        } catch (IOException e) {
-            System.out.println("Ошибка при чтении файла: " + e.getMessage());
+    static Path segmentPath(Path directory, int segment) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Чтение снимка с проверкой завершающей строки "#rows=N;crc32=X".
+     * Сжатый снимок (см. SnapshotFrames) сначала распаковывается, строка проверяется по распакованному CSV.
+     * Файл без завершающей строки считается снимком старого формата и принимается,
+     * только если footerRequired == false. Пустой Optional означает повреждённый снимок.
+     */
+    static Optional<String> readSnapshot(Path path, boolean footerRequired) throws IOException {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (SnapshotFrames.isFramed(bytes)) {
+            try {
+                bytes = SnapshotFrames.decode(bytes);
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+            footerRequired = true;
+        }
+
+        int end = bytes.length;
+        while (end > 0 && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
         }
+        int footerStart = end;
+        while (footerStart > 0 && bytes[footerStart - 1] != '\n') {
+            footerStart--;
+        }
+        String lastLine = new String(bytes, footerStart, end - footerStart, StandardCharsets.UTF_8);
+
+        if (!lastLine.startsWith(FOOTER_PREFIX)) {
+            return footerRequired
+                    ? Optional.empty()
+                    : Optional.of(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        int checksumIndex = lastLine.indexOf(CHECKSUM_PREFIX);
+        if (checksumIndex < 0) {
+            return Optional.empty();
+        }
+        long expectedRows;
+        long expectedChecksum;
+        try {
+            expectedRows = Long.parseLong(lastLine.substring(FOOTER_PREFIX.length(), checksumIndex));
+            expectedChecksum = Long.parseLong(lastLine.substring(checksumIndex + CHECKSUM_PREFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, footerStart);
+        long rows = -1; // Заголовок не считается
+        for (int i = 0; i < footerStart; i++) {
+            if (bytes[i] == '\n') rows++;
+        }
+        if (crc.getValue() != expectedChecksum || rows != expectedRows) {
+            return Optional.empty();
+        }
+        return Optional.of(new String(bytes, 0, footerStart, StandardCharsets.UTF_8));
+    }
+
+    private static Path siblingPath(Path path, String suffix) {
+        return Path.of(path + suffix);
     }
 
     /**
-     * Преобразование строки CSV в объект задачи
+     * Преобразование строки CSV в объект задачи.
+     * Название и описание берутся из пула строк, поля "@N" при непустом словаре — из словаря
      */
-    private Task fromString(String value) {
+    private static Task fromString(String value, List<String> dictionary) {
         String[] fields = parseCsvLine(value);
 
         if (fields.length < MIN_REQUIRED_FIELDS) {
@@ -126,7 +454,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             throw new IllegalArgumentException("Некорректный тип задачи: " + fields[TYPE_INDEX]);
         }
 
-        String name = fields[NAME_INDEX];
+        StringPool strings = StringPool.shared();
+        String name = strings.intern(resolve(fields[NAME_INDEX], dictionary));
         Status status = NEW;
         if (!fields[STATUS_INDEX].isEmpty()) {
             try {
@@ -136,8 +465,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             }
         }
 
-        String description = fields[DESCRIPTION_INDEX].isEmpty() ? "" : fields[DESCRIPTION_INDEX]
-                .replace("\"\"", "\"");
+        String description = isReference(fields[DESCRIPTION_INDEX], dictionary)
+                ? resolve(fields[DESCRIPTION_INDEX], dictionary)
+                : fields[DESCRIPTION_INDEX].isEmpty() ? "" : fields[DESCRIPTION_INDEX].replace("\"\"", "\"");
+        description = strings.intern(description);
 
         LocalDateTime startTime = null;
         if (!fields[START_TIME_INDEX].isEmpty()) {
@@ -190,40 +521,29 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
     }
 
-    /**
-     * Преобразование задач в строку CSV
-     */
-    private String toString(Task task) {
-        String description = task.getDescription() != null
-                ? task.getDescription().replace("\"", "\"\"")
-                : "";
-
-        TaskType type = task instanceof Epic ? TaskType.EPIC :
-                task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
-
-        String startTimeString = task.getStartTime() != null
-                ? task.getStartTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                : "";
-        String durationString = task.getDuration() != null
-                ? String.valueOf(task.getDuration().toMinutes())
-                : "";
-
-        String baseFormat = String.format("%d,%s,%s,%s,\"%s\", %s, %s",
-                task.getId(),
-                type,
-                task.getName(),
-                task.getStatus() != null ? task.getStatus() : NEW,
-                description,
-                startTimeString,
-                durationString);
+    private static boolean isReference(String field, List<String> dictionary) {
+        return !dictionary.isEmpty() && field.startsWith(TaskCsvWriter.REFERENCE_PREFIX);
+    }
 
-        return baseFormat + "," + (task instanceof Subtask ? ((Subtask) task).getEpicId() : "");
+    private static String resolve(String field, List<String> dictionary) {
+        if (!isReference(field, dictionary)) {
+            return field;
+        }
+        try {
+            String value = dictionary.get(Integer.parseInt(field.substring(TaskCsvWriter.REFERENCE_PREFIX.length())));
+            if (value != null) {
+                return value;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            // Сообщение ниже
+        }
+        throw new IllegalArgumentException("Нет строки словаря: " + field);
     }
 
     /**
      * Метод для разбора CSV-строки с учетом кавычек
      */
-    private String[] parseCsvLine(String line) {
+    private static String[] parseCsvLine(String line) {
         List<String> fields = new ArrayList<>();
         StringBuilder currentField = new StringBuilder();
         boolean inQuotes = false;
@@ -256,122 +576,443 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     /**
-     * Метод для сохранения текущего состояния в файл
+     * Метод для сохранения изменённых задач в файл.
+     * Снимок пишется во временный файл рядом с основным, сбрасывается на диск
+     * и атомарно подменяет основной файл; предыдущий снимок остаётся в .bak.
+     * Если сохранение не удалось, изменённые id остаются помеченными до следующей попытки.
      */
     private void save() {
+        if (dirtyIds.isEmpty()) return;
+
+        TaskManagerEvents.Save event = new TaskManagerEvents.Save();
+        event.begin();
+        int records = dirtyIds.size();
+        TaskManagerMetrics metrics = getMetrics();
+        long started = metrics == null ? 0 : metrics.start();
+        writtenBytes = 0;
+        try {
+            if (segmentSize > 0) {
+                saveDirtySegments();
+            } else {
+                saveSnapshot();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл");
+        }
+        dirtyIds.clear();
+        if (metrics != null) {
+            metrics.recordSave(writtenBytes, started);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.records = records;
+            event.bytes = writtenBytes;
+            event.segmented = segmentSize > 0;
+            event.commit();
+        }
+    }
+
+    private void saveSnapshot() throws IOException {
         Set<Integer> writtenIds = new HashSet<>();
+        List<Task> tasks = getAllTasks();
+        List<Epic> epics = getAllEpics();
+        List<Subtask> subtasks = getAllSubtasks();
+        List<RecurringSeries> series = getAllRecurringTasks();
+
+        publishSnapshot(Path.of(filePath), writer -> {
+            if (dictionaryEncoding) {
+                List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size() + series.size());
+                all.addAll(tasks);
+                all.addAll(epics);
+                all.addAll(subtasks);
+                series.forEach(recurringTask -> all.add(recurringTask.getTemplate()));
+                writer.writeDictionary(all, DICTIONARY_PREFIX);
+            }
+            writeTasks(writer, writtenIds, tasks);
+            writeTasks(writer, writtenIds, epics);
+            writeTasks(writer, writtenIds, subtasks);
+            for (RecurringSeries recurringTask : series) {
+                writer.writeSeries(recurringTask, SERIES_PREFIX);
+            }
+            writeDependencies(writer, tasks);
+            writeDependencies(writer, subtasks);
+        });
+    }
+
+    /**
+     * Перезапись только тех сегментов, в которые попали изменённые задачи.
+     * Повторяющаяся задача хранится в сегменте своего id, зависимость — в сегменте зависящей задачи.
+     * Стоимость сохранения зависит от числа изменений и размера сегмента, а не от размера хранилища.
+     */
+    private void saveDirtySegments() throws IOException {
+        Files.createDirectories(Path.of(filePath));
+        Set<Integer> segments = new TreeSet<>();
+        dirtyIds.forEach(id -> segments.add(id / segmentSize));
+
+        for (int segment : segments) {
+            int firstId = segment * segmentSize;
+            List<Task> stored = new ArrayList<>();
+            List<RecurringSeries> series = new ArrayList<>();
+            for (int id = firstId; id < firstId + segmentSize; id++) {
+                Task task = peekTask(id);
+                RecurringSeries recurringTask = getRecurringTask(id);
+                if (task != null) {
+                    stored.add(task);
+                } else if (recurringTask != null) {
+                    series.add(recurringTask);
+                }
+            }
+            publishSnapshot(segmentPath(Path.of(filePath), segment), writer -> {
+                if (dictionaryEncoding) {
+                    List<Task> all = new ArrayList<>(stored);
+                    series.forEach(recurringTask -> all.add(recurringTask.getTemplate()));
+                    writer.writeDictionary(all, DICTIONARY_PREFIX);
+                }
+                for (Task task : stored) {
+                    writer.writeTask(task);
+                }
+                for (RecurringSeries recurringTask : series) {
+                    writer.writeSeries(recurringTask, SERIES_PREFIX);
+                }
+                writeDependencies(writer, stored);
+            });
+        }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("id,type,name,status,description,start_time,duration,epic\n");
+    /**
+     * Содержимое снимка между заголовком и завершающей строкой
+     */
+    @FunctionalInterface
+    interface SnapshotBody {
+        void writeTo(TaskCsvWriter writer) throws IOException;
+    }
 
-            writeTasks(writer, writtenIds, getAllTasks(), this::toString);
-            writeTasks(writer, writtenIds, getAllEpics(), this::toString);
-            writeTasks(writer, writtenIds, getAllSubtasks(), this::toString);
+    /**
+     * Запись блока снимка в канал временного файла
+     */
+    @FunctionalInterface
+    interface BlockWriter {
+        void write(FileChannel channel, ByteBuffer block) throws IOException;
+    }
 
-            writer.flush();
+    private void publishSnapshot(Path target, SnapshotBody body) throws IOException {
+        BlockWriter blockWriter = (channel, block) -> {
+            writtenBytes += block.remaining();
+            writeSnapshot(channel, block);
+        };
+        publishSnapshot(target, csvWriter,
+                snapshotCodec == null ? blockWriter : SnapshotFrames.compressing(snapshotCodec, blockWriter), body);
+    }
 
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при записи в файл");
+    /**
+     * Атомарная публикация снимка: потоковая запись во временный файл, force и переименование.
+     * Завершающая строка "#rows=N;crc32=X" дописывается после тела снимка.
+     */
+    static void publishSnapshot(Path target, TaskCsvWriter writer, BlockWriter blockWriter,
+                                SnapshotBody body) throws IOException {
+        Path temp = siblingPath(target, TEMP_SUFFIX);
+        Path backup = siblingPath(target, BACKUP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            writer.begin(block -> blockWriter.write(channel, block));
+            writer.writeHeader(HEADER);
+            body.writeTo(writer);
+            writer.finish(FOOTER_PREFIX, CHECKSUM_PREFIX);
+            channel.force(true);
+        }
+        if (Files.exists(target) && Files.size(target) > 0) {
+            Files.move(target, backup, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        Files.move(temp, target, ATOMIC_MOVE);
+    }
+
+    /**
+     * Запись очередного блока снимка в канал временного файла.
+     * Вынесена отдельно, чтобы тесты могли имитировать сбой посреди записи.
+     */
+    protected void writeSnapshot(FileChannel channel, ByteBuffer snapshot) throws IOException {
+        writeFully(channel, snapshot);
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer block) throws IOException {
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+    }
+
+    /**
+     * Метод для записи задач в снимок (задачи с уже записанным id пропускаются)
+     */
+    private void writeTasks(TaskCsvWriter writer, Set<Integer> writtenIds,
+                            List<? extends Task> tasks) throws IOException {
+        TaskManagerEvents.WriteTasks event = new TaskManagerEvents.WriteTasks();
+        event.begin();
+        long bytesBefore = writtenBytes;
+        for (Task task : tasks) {
+            if (writtenIds.add(task.getId())) {
+                writer.writeTask(task);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.records = tasks.size();
+            event.bytes = writtenBytes - bytesBefore; // Только блоки, уже сброшенные в файл
+            event.commit();
+        }
+    }
+
+    private void writeDependencies(TaskCsvWriter writer, List<? extends Task> tasks) throws IOException {
+        DependencyGraph graph = getDependencyGraph();
+        if (graph.size() == 0) {
+            return;
+        }
+        for (Task task : tasks) {
+            writer.writeDependencies(task, graph, DEPENDENCY_PREFIX);
+        }
+    }
+
+    /**
+     * Пометка задач, которые нужно записать при следующем сохранении
+     */
+    private void markDirty(int... ids) {
+        for (int id : ids) {
+            dirtyIds.add(id);
         }
     }
 
+    private void markDirty(Collection<? extends Task> tasks) {
+        tasks.forEach(task -> dirtyIds.add(task.getId()));
+    }
+
     /**
-     * Метод для записи задач в файл
+     * Пометка задач, зависящих от удаляемой: их строки зависимостей хранятся в их сегментах
      */
-    private <T extends Task> void writeTasks(
-            BufferedWriter writer,
-            Set<Integer> writtenIds,
-            List<T> tasks, Function<T, String> toStringFunction) {
+    private void markDependentsDirty(int id) {
+        getDependencyGraph().getDependents(id).forEach(this::markDirty);
+    }
+
+    private void markDependentsDirty(Collection<? extends Task> tasks) {
+        tasks.forEach(task -> markDependentsDirty(task.getId()));
+    }
 
-        tasks.stream()
-                .filter(task -> writtenIds.add(task.getId()))
-                .map(toStringFunction)
-                .forEach(line -> {
-                    try {
-                        writer.write(line + "\n");
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+    /**
+     * Возврат группы задач с сохранением их id (например, из архива TieredTaskManager).
+     * Пересечения по времени не проверяются — задачи уже проходили проверку при добавлении.
+     */
+    void restoreTasks(List<? extends Task> restored) {
+        importTasks(restored);
+        markDirty(restored);
+        save();
+    }
+
+    /**
+     * Удаление группы задач (эпики — вместе с подзадачами) с одним сохранением в конце
+     */
+    void deleteTasks(Collection<Integer> ids) {
+        for (int id : ids) {
+            Task task = peekTask(id);
+            markDependentsDirty(id);
+            if (task instanceof Epic) {
+                List<Subtask> epicSubtasks = getAllSubtasksByEpicId(id);
+                markDirty(epicSubtasks);
+                markDependentsDirty(epicSubtasks);
+                super.deleteEpic(id);
+            } else if (task instanceof Subtask subtask) {
+                markDirty(subtask.getEpicId());
+                super.deleteSubtask(id);
+            } else if (task != null) {
+                super.deleteTask(id);
+            }
+            markDirty(id);
+        }
+        save();
     }
 
     /**
      * Переопределенные методы для автоматического сохранения при изменении данных
-     * Вызывают super-метод для изменения коллекции и save() для сохранения в файл
+     * Вызывают super-метод для изменения коллекции, помечают затронутые задачи
+     * и вызывают save() для сохранения в файл
      */
 
     @Override
     public void addTask(Task task) throws TimeConflictException {
         super.addTask(task);
+        markDirty(task.getId());
         save();
     }
 
     @Override
     public void addEpic(Epic epic) {
         super.addEpic(epic);
+        markDirty(epic.getId());
         save();
     }
 
     @Override
     public void updateTask(Task task) throws TimeConflictException {
         super.updateTask(task);
+        markDirty(task.getId());
         save();
     }
 
     @Override
     public void addSubtask(Subtask subtask) throws TimeConflictException {
         super.addSubtask(subtask);
+        markDirty(subtask.getId(), subtask.getEpicId());
         save();
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
+        markDirty(epic.getId());
         save();
     }
 
     @Override
     public void updateSubtask(Subtask subtask) throws TimeConflictException {
         super.updateSubtask(subtask);
+        markDirty(subtask.getId(), subtask.getEpicId());
+        save();
+    }
+
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        super.addTasks(batch);
+        markDirty(batch);
+        save();
+    }
+
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        super.addSubtasks(batch);
+        markDirty(batch);
+        batch.forEach(subtask -> markDirty(subtask.getEpicId()));
+        save();
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        super.updateSubtasks(batch);
+        markDirty(batch);
+        batch.forEach(subtask -> markDirty(subtask.getEpicId()));
+        save();
+    }
+
+    @Override
+    void applySchedule(Map<Integer, LocalDateTime> starts) throws TimeConflictException {
+        super.applySchedule(starts);
+        starts.keySet().forEach(this::markDirty);
         save();
     }
 
     @Override
     public void deleteTask(int id) {
+        markDependentsDirty(id);
         super.deleteTask(id);
+        markDirty(id);
         save();
     }
 
     @Override
     public void deleteEpic(int id) {
+        List<Subtask> epicSubtasks = getAllSubtasksByEpicId(id);
+        markDirty(epicSubtasks);
+        markDependentsDirty(epicSubtasks);
         super.deleteEpic(id);
+        markDirty(id);
         save();
     }
 
     @Override
     public void deleteSubtask(int id) {
+        Task subtask = peekTask(id);
+        if (subtask instanceof Subtask) {
+            markDirty(((Subtask) subtask).getEpicId());
+        }
+        markDependentsDirty(id);
         super.deleteSubtask(id);
+        markDirty(id);
         save();
     }
 
     @Override
     public void deleteAllTasks() {
+        List<Task> all = getAllTasks();
+        markDirty(all);
+        markDependentsDirty(all);
+        getAllRecurringTasks().forEach(series -> markDirty(series.getId()));
         super.deleteAllTasks();
         save();
     }
 
     @Override
     public void deleteAllEpics() {
+        List<Subtask> all = getAllSubtasks();
+        markDirty(getAllEpics());
+        markDirty(all);
+        markDependentsDirty(all);
         super.deleteAllEpics();
         save();
     }
 
     @Override
     public void deleteAllSubtasks() {
+        List<Subtask> all = getAllSubtasks();
+        markDirty(all);
+        markDirty(getAllEpics());
+        markDependentsDirty(all);
         super.deleteAllSubtasks();
         save();
     }
 
+    @Override
+    public RecurringSeries addRecurringTask(Task template, Recurrence rule) throws TimeConflictException {
+        RecurringSeries series = super.addRecurringTask(template, rule);
+        markDirty(series.getId());
+        save();
+        return series;
+    }
+
+    @Override
+    public void deleteRecurringTask(int id) {
+        super.deleteRecurringTask(id);
+        markDirty(id);
+        save();
+    }
+
+    @Override
+    public void cancelOccurrence(int seriesId, int index) {
+        super.cancelOccurrence(seriesId, index);
+        markDirty(seriesId);
+        save();
+    }
+
+    /**
+     * Серия помечается до вызова super: изменённое вхождение и отмена исходного
+     * попадают в одно сохранение внутри addTask
+     */
+    @Override
+    public void detachOccurrence(int seriesId, int index, Task edited) throws TimeConflictException {
+        markDirty(seriesId);
+        super.detachOccurrence(seriesId, index, edited);
+        save();
+    }
+
+    @Override
+    public void addDependency(int taskId, int dependsOnId) {
+        super.addDependency(taskId, dependsOnId);
+        markDirty(taskId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        super.removeDependency(taskId, dependsOnId);
+        markDirty(taskId);
+        save();
+    }
+
     /**
      * Метод для тестирования работы FileBackedTaskManager.
      * Создаёт задачи, сохраняет их в файл и проверяет корректность загрузки.
@@ -0,0 +1,148 @@
+package manager;
+
+import model.Task;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Индекс свободных промежутков расписания в слотах SlotGrid для AutoScheduler.
+ * Промежутки хранятся в порядке времени, над их длинами построено дерево отрезков
+ * с максимумом: самый ранний промежуток, вмещающий нужное число слотов, находится за O(log n).
+ * Задача всегда ставится в начало промежутка, поэтому промежутки только укорачиваются слева
+ * и не делятся.
+ * Промежутки дочитываются из расписания по мере надобности: пока уже найденные промежутки
+ * вмещают заявку, расписание дальше не обходится (так вхождения длинных серий не создаются
+ * до конца серии, если весь пакет помещается раньше).
+ */
+final class GapIndex {
+    static final long UNBOUNDED = Long.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Iterator<? extends Task> scheduled;
+    private final long toSlot;
+    private long cursor; // Первый слот, который ещё не отнесён ни к задаче, ни к промежутку
+    private boolean isExhausted;
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY]; // Последний свободный слот включительно, UNBOUNDED — без границы
+    private long[] tree = new long[2 * INITIAL_CAPACITY];
+    private int leaves = INITIAL_CAPACITY;
+    private int size;
+
+    private GapIndex(Iterator<? extends Task> scheduled, long fromSlot, long toSlot) {
+        this.scheduled = scheduled;
+        this.cursor = fromSlot;
+        this.toSlot = toSlot;
+    }
+
+    /**
+     * Промежутки между задачами scheduled (по возрастанию времени начала) в слотах fromSlot..toSlot
+     */
+    static GapIndex build(Iterator<? extends Task> scheduled, long fromSlot, long toSlot) {
+        return new GapIndex(scheduled, fromSlot, toSlot);
+    }
+
+    /**
+     * Номер самого раннего промежутка длиной не меньше required слотов или -1
+     */
+    int find(long required) {
+        while (tree[1] < required) {
+            if (!readGap()) {
+                return -1;
+            }
+        }
+        int node = 1;
+        while (node < leaves) {
+            node = tree[2 * node] >= required ? 2 * node : 2 * node + 1;
+        }
+        return node - leaves;
+    }
+
+    long startOf(int gap) {
+        return starts[gap];
+    }
+
+    /**
+     * Занятие used слотов в начале промежутка
+     */
+    void take(int gap, long used) {
+        starts[gap] += used;
+        update(gap);
+    }
+
+    /**
+     * Число уже прочитанных промежутков
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Следующий промежуток из расписания; false — расписание до toSlot прочитано целиком
+     */
+    private boolean readGap() {
+        while (!isExhausted) {
+            if (cursor > toSlot || !scheduled.hasNext()) {
+                isExhausted = true;
+                if (cursor <= toSlot) {
+                    append(cursor, toSlot);
+                    return true;
+                }
+                return false;
+            }
+            Task task = scheduled.next();
+            long first = SlotGrid.firstSlot(task);
+            long last = SlotGrid.lastSlot(task);
+            if (last < cursor) {
+                continue;
+            }
+            long gapStart = cursor;
+            cursor = last + 1;
+            if (first > gapStart) {
+                append(gapStart, Math.min(first - 1, toSlot));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(long start, long end) {
+        if (size == leaves) {
+            grow();
+        }
+        starts[size] = start;
+        ends[size] = end;
+        update(size++);
+    }
+
+    /**
+     * Удвоение числа листьев с перестройкой дерева — O(n) на удвоение, O(1) в среднем на промежуток
+     */
+    private void grow() {
+        leaves *= 2;
+        starts = Arrays.copyOf(starts, leaves);
+        ends = Arrays.copyOf(ends, leaves);
+        tree = new long[2 * leaves];
+        for (int i = 0; i < size; i++) {
+            tree[leaves + i] = length(i);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private void update(int gap) {
+        int node = leaves + gap;
+        tree[node] = length(gap);
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private long length(int gap) {
+        if (starts[gap] > ends[gap]) {
+            return 0;
+        }
+        return ends[gap] == UNBOUNDED ? UNBOUNDED : ends[gap] - starts[gap] + 1;
+    }
+}
@@ -3,6 +3,7 @@ package manager;
 import model.Task;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HistoryManager {
     void add(Task task);
@@ -10,4 +11,33 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    /**
+     * Число задач в истории без построения списка
+     */
+    int size();
+
+    /**
+     * Не больше limit задач истории, просмотренных после after (null — с начала); возвращает последнюю
+     * переданную или null. Если after уже нет в истории, продолжать не с чего — возвращается null
+     */
+    default Task forEachAfter(Task after, int limit, Consumer<? super Task> action) {
+        List<Task> history = getHistory();
+        int from = 0;
+        if (after != null) {
+            from = history.size();
+            for (int i = 0; i < history.size(); i++) {
+                if (history.get(i).getId() == after.getId()) {
+                    from = i + 1;
+                    break;
+                }
+            }
+        }
+        Task last = null;
+        for (int i = from; i < Math.min(history.size(), from + limit); i++) {
+            last = history.get(i);
+            action.accept(last);
+        }
+        return last;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class InMemoryHistoryManager implements HistoryManager {
     private final Map<Integer, Node> nodeMap = new LinkedHashMap<>();
@@ -61,6 +62,29 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    @Override
+    public int size() {
+        return nodeMap.size();
+    }
+
+    /**
+     * Продолжение с узла after за O(1): узел находится по id в nodeMap
+     */
+    @Override
+    public Task forEachAfter(Task after, int limit, Consumer<? super Task> action) {
+        Node node = head;
+        if (after != null) {
+            Node previous = nodeMap.get(after.getId());
+            node = previous != null ? previous.next : null;
+        }
+        Task last = null;
+        for (int i = 0; i < limit && node != null; i++, node = node.next) {
+            last = node.task;
+            action.accept(last);
+        }
+        return last;
+    }
+
     /**
      * Вспомогательный метод, формирующий список задач путем обхода связного списка.
      */
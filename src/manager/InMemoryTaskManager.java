@@ -1,35 +1,79 @@
 package manager;
 
 import exceptions.TimeConflictException;
+import metrics.TaskManagerEvents;
+import metrics.TaskManagerMetrics;
 import model.Epic;
+import model.Occurrence;
+import model.Recurrence;
 import model.Subtask;
 import model.Task;
+import model.TaskOverlap;
 import util.Managers;
+import util.ChangeType;
 import util.Status;
+import util.StringPool;
+import util.TaskCollection;
+import util.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class InMemoryTaskManager implements TaskManager {
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 4096;
+
     private int idCounter;
     private final HashMap<Integer, Task> tasks;
     private final HashMap<Integer, Subtask> subtasks;
     private final HashMap<Integer, Epic> epics;
     private final HistoryManager historyManager;
 
+    private final long[] versions = new long[TaskCollection.values().length];
+    private final ChangeFeed changeFeed;
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final HashMap<Integer, RecurringSeries> recurring = new HashMap<>();
+    private final SlotGrid slotGrid;
+    private TaskManagerMetrics metrics; // null — внутренние замеры не ведутся
     private boolean isUpdatingStatus = false;
-    private final Set<Task> prioritizedTasks = new TreeSet<>(
+    private TaskColumns columns; // null — колоночная проекция ещё не запрашивалась
+    private ForkJoinPool queryPool = ForkJoinPool.commonPool();
+    private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+    private boolean isImporting; // Статусы эпиков пересчитываются один раз после импорта
+    private boolean isScheduleOverlapping; // В prioritizedTasks есть пересечения (после загрузки или импорта)
+    private boolean isLoading; // Загрузка из файла: задачи не новые, события в ленту не публикуются
+    private final NavigableSet<Task> prioritizedTasks = new TreeSet<>(
             Comparator.comparing(
                     Task::getStartTime,
                     Comparator.nullsLast(Comparator.naturalOrder())
-            )
+            ).thenComparingInt(Task::getId)
     );
 
-    public InMemoryTaskManager(HistoryManager historyManager) {
+    /**
+     * @param useSlotGrid        вести сетку занятости 15-минутных слотов: проверка пересечений
+     *                           сначала смотрит биты слотов задачи, доступен поиск свободного окна findFreeSlot
+     * @param changeFeedCapacity размер буфера ленты изменений (степень двойки); буфер выделяется сразу,
+     *                           поэтому при большом числе менеджеров в процессе его стоит уменьшить
+     */
+    public InMemoryTaskManager(HistoryManager historyManager, boolean useSlotGrid, int changeFeedCapacity) {
         this.idCounter = 1;
         this.tasks = new HashMap<>();
         this.subtasks = new HashMap<>();
         this.epics = new HashMap<>();
         this.historyManager = historyManager;
+        this.slotGrid = useSlotGrid ? new SlotGrid() : null;
+        this.changeFeed = new ChangeFeed(changeFeedCapacity);
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, boolean useSlotGrid) {
+        this(historyManager, useSlotGrid, ChangeFeed.DEFAULT_CAPACITY);
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, false);
     }
 
     public InMemoryTaskManager() {
@@ -51,21 +95,145 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(epics.values());
     }
 
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.values().forEach(action);
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        prioritizedTasks.forEach(action);
+    }
+
+    /**
+     * Задачи, подзадачи и эпики идут по возрастанию id: часть — проход по id после курсора
+     * (за весь ответ — O(idCounter) обращений к таблице). Список по приоритету продолжается
+     * с tailSet курсора, история — с его узла в HistoryManager
+     */
+    @Override
+    public Task forEachAfter(TaskCollection collection, Task after, int limit, Consumer<? super Task> action) {
+        return switch (collection) {
+            case TASKS -> forEachIdAfter(tasks, after, limit, action);
+            case SUBTASKS -> forEachIdAfter(subtasks, after, limit, action);
+            case EPICS -> forEachIdAfter(epics, after, limit, action);
+            case PRIORITIZED -> {
+                Task last = null;
+                Iterator<Task> iterator = (after == null ? prioritizedTasks
+                        : prioritizedTasks.tailSet(after, false)).iterator();
+                for (int i = 0; i < limit && iterator.hasNext(); i++) {
+                    last = iterator.next();
+                    action.accept(last);
+                }
+                yield last;
+            }
+            case HISTORY -> historyManager.forEachAfter(after, limit, action);
+        };
+    }
+
+    private Task forEachIdAfter(Map<Integer, ? extends Task> source, Task after, int limit,
+                                Consumer<? super Task> action) {
+        Task last = null;
+        int delivered = 0;
+        for (int id = after == null ? 1 : after.getId() + 1; id < idCounter && delivered < limit; id++) {
+            Task task = source.get(id);
+            if (task != null) {
+                action.accept(task);
+                last = task;
+                delivered++;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Колоночная проекция задач, подзадач и эпиков для отчётов. Строится при первом вызове
+     * и дальше обновляется при каждом добавлении, изменении и удалении задач через менеджер
+     */
+    public TaskColumns getColumns() {
+        if (columns == null) {
+            columns = new TaskColumns();
+            tasks.values().forEach(columns::put);
+            epics.values().forEach(columns::put);
+            subtasks.values().forEach(columns::put);
+        }
+        return columns;
+    }
+
+    private void project(Task task) {
+        if (columns != null) {
+            columns.put(task);
+        }
+    }
+
+    private void unproject(int id) {
+        if (columns != null) {
+            columns.remove(id);
+        }
+    }
+
+    private void unprojectAll(TaskType type) {
+        if (columns != null) {
+            columns.removeAll(type);
+        }
+    }
+
+    /**
+     * Версия растёт при каждом изменении коллекции через методы менеджера.
+     * История и список по приоритету меняются и при изменении входящих в них задач.
+     */
+    @Override
+    public long getModificationVersion(TaskCollection collection) {
+        return versions[collection.ordinal()];
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
     @Override
     public void deleteAllTasks() {
+        tasks.values().forEach(this::removeFromPrioritized);
+        tasks.keySet().forEach(dependencies::removeTask);
         tasks.clear();
+        recurring.clear();
+        unprojectAll(TaskType.TASK);
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+        changeFeed.publish(ChangeType.CLEARED, TaskType.TASK, 0);
     }
 
     @Override
     public void deleteAllSubtasks() {
+        subtasks.values().forEach(this::removeFromPrioritized);
+        subtasks.keySet().forEach(dependencies::removeTask);
         subtasks.clear();
         epics.values().forEach(epic -> epic.setSubtaskIds(new ArrayList<>()));
+        unprojectAll(TaskType.SUBTASK);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+        changeFeed.publish(ChangeType.CLEARED, TaskType.SUBTASK, 0);
     }
 
     @Override
     public void deleteAllEpics() {
+        subtasks.values().forEach(this::removeFromPrioritized);
+        subtasks.keySet().forEach(dependencies::removeTask);
         epics.clear();
         subtasks.clear();
+        unprojectAll(TaskType.EPIC);
+        unprojectAll(TaskType.SUBTASK);
+        changed(TaskCollection.EPICS, TaskCollection.SUBTASKS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+        changeFeed.publish(ChangeType.CLEARED, TaskType.SUBTASK, 0);
+        changeFeed.publish(ChangeType.CLEARED, TaskType.EPIC, 0);
     }
 
     @Override
@@ -74,6 +242,7 @@ public class InMemoryTaskManager implements TaskManager {
 
         if (task != null) {
             historyManager.add(task);
+            changed(TaskCollection.HISTORY);
         }
         return task;
     }
@@ -84,6 +253,7 @@ public class InMemoryTaskManager implements TaskManager {
 
         if (subtask != null) {
             historyManager.add(subtask);
+            changed(TaskCollection.HISTORY);
         }
         return subtask;
     }
@@ -94,6 +264,7 @@ public class InMemoryTaskManager implements TaskManager {
 
         if (epic != null) {
             historyManager.add(epic);
+            changed(TaskCollection.HISTORY);
         }
         return epic;
     }
@@ -114,10 +285,12 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TimeConflictException("Задача пересекается по времени с существующей.");
         }
         task.setId(generateId());
+        intern(task);
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        schedule(task);
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED);
+        project(task);
+        changeFeed.publish(ChangeType.CREATED, TaskType.TASK, task.getId());
     }
 
     @Override
@@ -129,25 +302,48 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask.getEpicId() == subtask.getId()) {
             throw new IllegalArgumentException("Подзадача не может быть эпиком для себя");
         }
+        intern(subtask);
         subtasks.put(subtask.getId(), subtask);
+        project(subtask);
+        changeFeed.publish(ChangeType.CREATED, TaskType.SUBTASK, subtask.getId());
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
             epic.addSubtask(subtask.getId());
             updateEpicStatus(subtask.getEpicId());
         }
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        schedule(subtask);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED);
     }
 
     @Override
     public void addEpic(Epic epic) {
         epic.setId(generateId());
+        intern(epic);
         epics.put(epic.getId(), epic);
+        changed(TaskCollection.EPICS);
+        project(epic);
+        changeFeed.publish(ChangeType.CREATED, TaskType.EPIC, epic.getId());
     }
 
     @Override
     public void updateEpicStatus(int epicId) {
+        TaskManagerEvents.EpicStatus event = new TaskManagerEvents.EpicStatus();
+        event.begin();
+        long started = metrics == null ? 0 : metrics.start();
+        refreshEpicStatus(epicId);
+        if (metrics != null) {
+            metrics.record(TaskManagerMetrics.Operation.EPIC_STATUS, started);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            Epic epic = epics.get(epicId);
+            event.epicId = epicId;
+            event.subtasks = epic == null || epic.getSubtaskIds() == null ? 0 : epic.getSubtaskIds().size();
+            event.commit();
+        }
+    }
+
+    private void refreshEpicStatus(int epicId) {
         if (isUpdatingStatus) return;
         isUpdatingStatus = true;
         try {
@@ -155,91 +351,333 @@ public class InMemoryTaskManager implements TaskManager {
             if (epic == null) {
                 return;
             }
-            List<Subtask> actualSubtasks = getAllSubtasksByEpicId(epicId);
-            if (actualSubtasks.isEmpty()) {
-                epic.setStatus(Status.NEW);
-                return;
+            changed(TaskCollection.EPICS, TaskCollection.HISTORY);
+            Status previous = epic.getStatus();
+            epic.setStatus(statusOf(epic));
+            if (epic.getStatus() != previous) {
+                project(epic);
+                changeFeed.publish(ChangeType.STATUS_CHANGED, TaskType.EPIC, epicId);
             }
-            boolean isAllDone = areAllSubtasks(actualSubtasks, Status.DONE);
-            boolean isAllNew = areAllSubtasks(actualSubtasks, Status.NEW);
-
-            epic.setStatus(
-                    isAllDone ? Status.DONE :
-                            isAllNew ? Status.NEW :
-                                    Status.IN_PROGRESS
-            );
         } finally {
             isUpdatingStatus = false;
         }
     }
 
+    /**
+     * Пул и порог для параллельных запросов (filterTasks, recomputeAllEpics, findAllConflicts):
+     * работа делится пополам до кусков не длиннее sequentialThreshold элементов,
+     * а запрос не длиннее порога выполняется в вызывающем потоке без обращения к пулу
+     */
+    public void setQueryParallelism(ForkJoinPool pool, int sequentialThreshold) {
+        if (sequentialThreshold <= 0) {
+            throw new IllegalArgumentException("Порог должен быть положительным: " + sequentialThreshold);
+        }
+        this.queryPool = Objects.requireNonNull(pool);
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Задачи, эпики и подзадачи (в этом порядке), для которых predicate истинен.
+     * Проверка идёт параллельно, поэтому predicate должен быть потокобезопасным и не менять задачи
+     */
+    public List<Task> filterTasks(Predicate<? super Task> predicate) {
+        List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        all.addAll(tasks.values());
+        all.addAll(epics.values());
+        all.addAll(subtasks.values());
+        return ParallelRange.reduce(queryPool, all.size(), sequentialThreshold, (from, to) -> {
+            List<Task> found = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (predicate.test(all.get(i))) {
+                    found.add(all.get(i));
+                }
+            }
+            return found;
+        }, InMemoryTaskManager::concat);
+    }
+
+    /**
+     * Пересчёт статусов всех эпиков: статусы считаются параллельно в пуле запросов,
+     * изменения применяются и публикуются в ленту изменений в вызывающем потоке
+     */
+    public void recomputeAllEpics() {
+        recomputeEpics(new ArrayList<>(epics.values()));
+    }
+
+    private void recomputeEpics(List<Epic> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        Status[] statuses = new Status[targets.size()];
+        ParallelRange.<Void>reduce(queryPool, targets.size(), sequentialThreshold, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                statuses[i] = statusOf(targets.get(i));
+            }
+            return null;
+        }, (left, right) -> null);
+        for (int i = 0; i < statuses.length; i++) {
+            Epic epic = targets.get(i);
+            if (epic.getStatus() != statuses[i]) {
+                epic.setStatus(statuses[i]);
+                project(epic);
+                publish(ChangeType.STATUS_CHANGED, TaskType.EPIC, epic.getId());
+            }
+        }
+        changed(TaskCollection.EPICS, TaskCollection.HISTORY);
+    }
+
+    /**
+     * Все пары пересекающихся по времени задач и подзадач (как в Task.isOverlapping, общая граница —
+     * тоже пересечение; вхождения повторяющихся задач не учитываются). Такие пары появляются после
+     * загрузки или импорта без проверки пересечений. Задачи в prioritizedTasks уже упорядочены по началу:
+     * для каждой просматриваются следующие, пока они начинаются не позже её конца, — O(n + k)
+     * для k пар. Куски списка обрабатываются параллельно в пуле запросов
+     */
+    public List<TaskOverlap> findAllConflicts() {
+        Task[] scheduled = prioritizedTasks.stream()
+                .takeWhile(task -> task.getStartTime() != null)
+                .toArray(Task[]::new);
+        return ParallelRange.reduce(queryPool, scheduled.length, sequentialThreshold, (from, to) -> {
+            List<TaskOverlap> found = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Task task = scheduled[i];
+                LocalDateTime end = task.getEndTime() != null ? task.getEndTime() : task.getStartTime();
+                for (int j = i + 1; j < scheduled.length && !scheduled[j].getStartTime().isAfter(end); j++) {
+                    found.add(new TaskOverlap(task, scheduled[j]));
+                }
+            }
+            return found;
+        }, InMemoryTaskManager::concat);
+    }
+
+    /**
+     * Потоковый вариант findAllConflicts: пары передаются в sink по мере прохода (sweep-line, см. ConflictReport)
+     * по prioritizedTasks без копирования задач и накопления списка. Возвращает число пар
+     */
+    public long forEachConflict(Consumer<? super TaskOverlap> sink) {
+        return ConflictReport.sweep(prioritizedTasks.iterator(), sink);
+    }
+
+    private static <T> List<T> concat(List<T> left, List<T> right) {
+        if (left.isEmpty()) {
+            return right;
+        }
+        left.addAll(right);
+        return left;
+    }
+
     @Override
     public void updateTask(Task task) throws TimeConflictException {
+        Task previous = tasks.get(task.getId());
+        removeFromPrioritized(previous); // Сама задача при проверке пересечений не учитывается
         if (hasTimeOverlap(task)) {
+            restoreScheduled(previous);
             throw new TimeConflictException("Задача пересекается по времени с существующей.");
         }
-        prioritizedTasks.remove(task);
+        intern(task);
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        schedule(task);
+        trackDependencies(task);
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+        project(task);
+        changeFeed.publish(ChangeType.UPDATED, TaskType.TASK, task.getId());
     }
 
     @Override
     public void updateSubtask(Subtask subtask) throws TimeConflictException {
-        Subtask old = subtasks.get(subtask.getId());
-        if (old != null && !old.equals(subtask)) {
-            if (hasTimeOverlap(subtask)) {
-                throw new TimeConflictException("Подзадача пересекается по времени");
-            }
+        Subtask previous = subtasks.get(subtask.getId());
+        removeFromPrioritized(previous);
+        if (hasTimeOverlap(subtask)) {
+            restoreScheduled(previous);
+            throw new TimeConflictException("Подзадача пересекается по времени");
         }
+        intern(subtask);
         subtasks.put(subtask.getId(), subtask);
+        project(subtask);
+        changeFeed.publish(ChangeType.UPDATED, TaskType.SUBTASK, subtask.getId());
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
             updateEpicStatus(epic.getId());
         }
-        prioritizedTasks.remove(subtask);
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
+        schedule(subtask);
+        trackDependencies(subtask);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+    }
+
+    /**
+     * Пакет проверяется одним слиянием с prioritizedTasks вместо линейного прохода на каждую задачу,
+     * версии меняются один раз на весь пакет
+     */
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(prioritizedTasks, batch, Set.of());
+        requireNoRecurringConflicts(batch);
+        for (Task task : batch) {
+            task.setId(generateId());
+            intern(task);
+            tasks.put(task.getId(), task);
+            schedule(task);
+            project(task);
+            changeFeed.publish(ChangeType.CREATED, TaskType.TASK, task.getId());
+        }
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED);
+    }
+
+    /**
+     * Статус каждого затронутого эпика пересчитывается один раз после вставки всего пакета
+     */
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(prioritizedTasks, batch, Set.of());
+        requireNoRecurringConflicts(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).getEpicId() == idCounter + i) {
+                throw new IllegalArgumentException("Подзадача не может быть эпиком для себя");
+            }
+        }
+        Set<Integer> affectedEpics = new LinkedHashSet<>();
+        for (Subtask subtask : batch) {
+            subtask.setId(generateId());
+            intern(subtask);
+            subtasks.put(subtask.getId(), subtask);
+            project(subtask);
+            changeFeed.publish(ChangeType.CREATED, TaskType.SUBTASK, subtask.getId());
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                if (epic.getSubtaskIds() == null) {
+                    epic.setSubtaskIds(new ArrayList<>());
+                }
+                epic.getSubtaskIds().add(subtask.getId()); // id только что выдан, повторов быть не может
+                affectedEpics.add(epic.getId());
+            }
+            schedule(subtask);
+        }
+        affectedEpics.forEach(this::updateEpicStatus);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED);
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        Set<Integer> replaced = new HashSet<>();
+        batch.forEach(subtask -> replaced.add(subtask.getId()));
+        TimeSweep.requireNoConflicts(prioritizedTasks, batch, replaced);
+        requireNoRecurringConflicts(batch);
+        boolean isStale = false;
+        for (Subtask subtask : batch) {
+            Subtask previous = subtasks.get(subtask.getId());
+            if (previous == null) {
+                continue;
+            }
+            if (prioritizedTasks.remove(previous)) {
+                releaseSlots(previous);
+            } else {
+                isStale = true;
+            }
+        }
+        // Время изменили на месте — один полный проход на весь пакет
+        if (isStale && prioritizedTasks.removeIf(existingTask -> replaced.contains(existingTask.getId()))) {
+            rebuildSlotGrid();
+        }
+        Set<Integer> affectedEpics = new LinkedHashSet<>();
+        for (Subtask subtask : batch) {
+            intern(subtask);
+            subtasks.put(subtask.getId(), subtask);
+            project(subtask);
+            changeFeed.publish(ChangeType.UPDATED, TaskType.SUBTASK, subtask.getId());
+            if (epics.containsKey(subtask.getEpicId())) {
+                affectedEpics.add(subtask.getEpicId());
+            }
+            schedule(subtask);
+            trackDependencies(subtask);
         }
+        affectedEpics.forEach(this::updateEpicStatus);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+    }
+
+    /**
+     * Назначение времени начала ещё не запланированным задачам и подзадачам (для AutoScheduler).
+     * Назначения проверяются пакетом, как в addTasks; при пересечении не меняется ничего
+     */
+    void applySchedule(Map<Integer, LocalDateTime> starts) throws TimeConflictException {
+        List<Task> placed = new ArrayList<>(starts.size());
+        List<Task> probes = new ArrayList<>(starts.size());
+        starts.forEach((id, start) -> {
+            Task task = tasks.containsKey(id) ? tasks.get(id) : subtasks.get(id);
+            if (task == null || task.getStartTime() != null) {
+                throw new IllegalArgumentException("Задача не найдена или уже запланирована: " + id);
+            }
+            placed.add(task);
+            probes.add(new Task(task.getName(), null, null, task.getDuration(), start));
+        });
+        TimeSweep.requireNoConflicts(prioritizedTasks, probes, Set.of());
+        requireNoRecurringConflicts(probes);
+        for (Task task : placed) {
+            task.setStartTime(starts.get(task.getId()));
+            schedule(task);
+            trackDependencies(task);
+            TaskType type = task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+            project(task);
+            changeFeed.publish(ChangeType.UPDATED, type, task.getId());
+        }
+        changed(TaskCollection.TASKS, TaskCollection.SUBTASKS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
     }
 
     public void updateEpic(Epic epic) {
+        intern(epic);
         epics.put(epic.getId(), epic);
+        changed(TaskCollection.EPICS, TaskCollection.HISTORY);
+        project(epic);
+        changeFeed.publish(ChangeType.UPDATED, TaskType.EPIC, epic.getId());
     }
 
     @Override
     public void deleteTask(int id) {
-        tasks.remove(id);
+        Task task = tasks.remove(id);
+        removeFromPrioritized(task);
+        dependencies.removeTask(id);
         historyManager.remove(id);
-        prioritizedTasks.remove(tasks.get(id));
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
+        if (task != null) {
+            unproject(id);
+            changeFeed.publish(ChangeType.DELETED, TaskType.TASK, id);
+        }
     }
 
+    /**
+     * DELETED публикуется, когда подзадача уже удалена отовсюду, а STATUS_CHANGED эпика — после него,
+     * как при обновлении подзадачи
+     */
     @Override
     public void deleteSubtask(int id) {
-        Subtask subtask = subtasks.get(id);
+        Subtask subtask = subtasks.remove(id);
+        historyManager.remove(id);
+        removeFromPrioritized(subtask);
+        dependencies.removeTask(id);
         if (subtask != null) {
-            int epicId = subtask.getEpicId();
-            Epic epic = epics.get(epicId);
+            unproject(id);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.getSubtaskIds().remove(Integer.valueOf(id));
+            }
+            changeFeed.publish(ChangeType.DELETED, TaskType.SUBTASK, id);
             if (epic != null) {
-                if (epic.getSubtaskIds().contains(id)) {
-                    epic.getSubtaskIds().remove(Integer.valueOf(id));
-                }
                 updateEpicStatus(epic.getId());
             }
         }
-        subtasks.remove(id);
-        historyManager.remove(id);
-        prioritizedTasks.remove(subtask);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED, TaskCollection.HISTORY);
     }
 
     @Override
     public void deleteEpic(int id) {
         Optional.ofNullable(epics.get(id))
                 .map(Epic::getSubtaskIds)
-                .ifPresent(ids -> ids.forEach(this::deleteSubtask));
-        epics.remove(id);
+                .ifPresent(ids -> new ArrayList<>(ids).forEach(this::deleteSubtask));
+        if (epics.remove(id) != null) {
+            unproject(id);
+            changeFeed.publish(ChangeType.DELETED, TaskType.EPIC, id);
+        }
         historyManager.remove(id);
+        changed(TaskCollection.EPICS, TaskCollection.HISTORY);
     }
 
     @Override
@@ -254,51 +692,534 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     /**
-     * Проверка пересечения времени (линейная сложность O(n))
+     * Проверка пересечения времени (линейная сложность O(n)).
+     * С сеткой слотов: если все слоты задачи свободны, пересечений нет; иначе достаточно
+     * сравнить задачу с соседями по времени — задачи в prioritizedTasks друг с другом не пересекаются.
+     * Вхождения повторяющихся задач проверяются по окну задачи, без разворачивания серий
      */
     @Override
     public boolean hasTimeOverlap(Task newTask) {
+        TaskManagerEvents.TimeOverlap event = new TaskManagerEvents.TimeOverlap();
+        event.begin();
+        long started = metrics == null ? 0 : metrics.start();
+        boolean isOverlapping = findTimeOverlap(newTask);
+        if (metrics != null) {
+            metrics.record(TaskManagerMetrics.Operation.TIME_OVERLAP, started);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.scheduled = prioritizedTasks.size();
+            event.slotGrid = slotGrid != null;
+            event.overlapping = isOverlapping;
+            event.commit();
+        }
+        return isOverlapping;
+    }
+
+    private boolean findTimeOverlap(Task newTask) {
         if (newTask.getStartTime() == null) {
             return false;
         }
+        if (findRecurringOverlap(newTask) != null) {
+            return true;
+        }
+        if (slotGrid != null && !isScheduleOverlapping) {
+            // Без пересечений в хранилище концы задач растут вместе с началами, и достаточно двух соседей
+            if (!slotGrid.isOccupied(newTask)) {
+                return false;
+            }
+            Task probe = probe(newTask.getStartTime(), Integer.MIN_VALUE);
+            Task before = prioritizedTasks.lower(probe);
+            Task after = prioritizedTasks.ceiling(probe);
+            return before != null && before.isOverlapping(newTask) || after != null && after.isOverlapping(newTask);
+        }
         return prioritizedTasks.stream()
                 .anyMatch(existingTask -> existingTask.isOverlapping(newTask));
     }
 
+    /**
+     * Задачи и вхождения повторяющихся задач, пересекающиеся с отрезком [from, to], по возрастанию
+     * времени начала. to = null — без верхней границы. Вхождения создаются только для этого окна
+     */
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = scheduledInRange(from, to);
+        if (!recurring.isEmpty()) {
+            recurring.values().forEach(series -> result.addAll(series.getOccurrences(from, to)));
+            result.sort(prioritizedTasks.comparator());
+        }
+        return result;
+    }
+
+    /**
+     * Задачи и вхождения повторяющихся задач, окончание которых не раньше from, по возрастанию времени
+     * начала — как getTasksInRange(from, null), но вхождения серий создаются по мере обхода, поэтому
+     * прерванный обход не разворачивает длинные серии целиком
+     */
+    Iterator<Task> scheduleFrom(LocalDateTime from) {
+        List<Iterator<? extends Task>> sources = new ArrayList<>();
+        Task first = probe(from, Integer.MIN_VALUE);
+        Task before = prioritizedTasks.lower(first);
+        if (before != null && !endOf(before).isBefore(from)) {
+            sources.add(List.of(before).iterator());
+        }
+        sources.add(prioritizedTasks.tailSet(first, true).iterator());
+        recurring.values().forEach(series -> sources.add(series.occurrencesFrom(from)));
+        return new MergingIterator<>(sources, prioritizedTasks.comparator());
+    }
+
+    /**
+     * Повторяющаяся задача: хранится шаблон и правило, вхождения вычисляются по запросу.
+     * Серия не должна пересекаться ни с запланированными задачами, ни с вхождениями других серий
+     */
+    public RecurringSeries addRecurringTask(Task template, Recurrence rule) throws TimeConflictException {
+        RecurringSeries series = new RecurringSeries(idCounter, template, rule);
+        if (series.getOccurrenceCount() > 0) {
+            requireNoConflicts(series);
+        }
+        template.setId(generateId());
+        recurring.put(series.getId(), series);
+        changed(TaskCollection.TASKS);
+        return series;
+    }
+
+    public RecurringSeries getRecurringTask(int id) {
+        return recurring.get(id);
+    }
+
+    public List<RecurringSeries> getAllRecurringTasks() {
+        return new ArrayList<>(recurring.values());
+    }
+
+    public void deleteRecurringTask(int id) {
+        if (recurring.remove(id) != null) {
+            changed(TaskCollection.TASKS);
+        }
+    }
+
+    /**
+     * Отмена одного вхождения серии. IllegalArgumentException — серии или вхождения нет
+     */
+    public void cancelOccurrence(int seriesId, int index) {
+        requireSeries(seriesId).cancel(index);
+        changed(TaskCollection.TASKS);
+    }
+
+    /**
+     * Изменённое вхождение: вхождение index отменяется, а edited добавляется обычной задачей.
+     * При пересечении edited с другими задачами вхождение остаётся в серии
+     */
+    public void detachOccurrence(int seriesId, int index, Task edited) throws TimeConflictException {
+        RecurringSeries series = requireSeries(seriesId);
+        if (!series.cancel(index)) {
+            throw new IllegalArgumentException("Вхождение " + index + " серии " + seriesId + " уже отменено");
+        }
+        try {
+            addTask(edited);
+        } catch (TimeConflictException e) {
+            series.restore(index);
+            throw e;
+        }
+    }
+
+    /**
+     * Зависимость: задача или подзадача taskId может начаться только после окончания dependsOnId.
+     * IllegalArgumentException — одна из задач не найдена, является эпиком или зависимость создаёт цикл
+     */
+    public void addDependency(int taskId, int dependsOnId) {
+        for (int id : new int[]{taskId, dependsOnId}) {
+            Task task = tasks.containsKey(id) ? tasks.get(id) : subtasks.get(id);
+            if (task == null) {
+                throw new IllegalArgumentException("Задача или подзадача не найдена: " + id);
+            }
+            if (!dependencies.contains(id)) {
+                dependencies.setTask(id, task.getStartTime(), task.getDuration());
+            }
+        }
+        dependencies.addDependency(taskId, dependsOnId);
+    }
+
+    public void removeDependency(int taskId, int dependsOnId) {
+        dependencies.removeDependency(taskId, dependsOnId);
+    }
+
+    /**
+     * Граф зависимостей с ранними началами и критическим путём. Изменять его следует через методы менеджера
+     */
+    public DependencyGraph getDependencyGraph() {
+        return dependencies;
+    }
+
+    /**
+     * Самое раннее начало 15-минутного слота не раньше after, с которого можно добавить задачу
+     * продолжительностью duration без пересечений. Доступно, только если ведётся сетка слотов
+     */
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        if (slotGrid == null) {
+            throw new IllegalStateException("Сетка слотов не ведётся");
+        }
+        return slotGrid.findFree(after, duration);
+    }
+
+    private RecurringSeries requireSeries(int seriesId) {
+        RecurringSeries series = recurring.get(seriesId);
+        if (series == null) {
+            throw new IllegalArgumentException("Повторяющаяся задача не найдена: " + seriesId);
+        }
+        return series;
+    }
+
+    private Occurrence findRecurringOverlap(Task task) {
+        if (recurring.isEmpty() || task.getStartTime() == null) {
+            return null;
+        }
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = endOf(task);
+        for (RecurringSeries series : recurring.values()) {
+            Occurrence occurrence = series.findOverlapping(start, end);
+            if (occurrence != null) {
+                return occurrence;
+            }
+        }
+        return null;
+    }
+
+    private void requireNoRecurringConflicts(List<? extends Task> batch) throws TimeConflictException {
+        for (Task task : batch) {
+            Occurrence occurrence = findRecurringOverlap(task);
+            if (occurrence != null) {
+                throw new TimeConflictException("Задача \"" + task.getName() + "\" пересекается по времени с \""
+                        + occurrence.getName() + "\".");
+            }
+        }
+    }
+
+    /**
+     * Проверка новой серии: с задачами из prioritizedTasks в пределах серии и с вхождениями других серий
+     * в общем отрезке времени. Вхождения новой серии вне этих окон не создаются
+     */
+    private void requireNoConflicts(RecurringSeries series) throws TimeConflictException {
+        LocalDateTime first = series.getFirstStart();
+        LocalDateTime last = series.getLastEnd();
+        for (Task task : scheduledInRange(first, last)) {
+            if (series.findOverlapping(task.getStartTime(), endOf(task)) != null) {
+                throw new TimeConflictException("Повторяющаяся задача \"" + series.getTemplate().getName()
+                        + "\" пересекается по времени с \"" + task.getName() + "\".");
+            }
+        }
+        for (RecurringSeries other : recurring.values()) {
+            LocalDateTime otherLast = other.getLastEnd();
+            if (otherLast == null || otherLast.isBefore(first) || other.getFirstStart().isAfter(last)) {
+                continue;
+            }
+            LocalDateTime from = first.isAfter(other.getFirstStart()) ? first : other.getFirstStart();
+            LocalDateTime to = last.isBefore(otherLast) ? last : otherLast;
+            for (Occurrence occurrence : series.getOccurrences(from, to)) {
+                if (other.findOverlapping(occurrence.getStartTime(), occurrence.getEndTime()) != null) {
+                    throw new TimeConflictException("Повторяющаяся задача \"" + series.getTemplate().getName()
+                            + "\" пересекается по времени с \"" + other.getTemplate().getName() + "\".");
+                }
+            }
+        }
+    }
+
+    private List<Task> scheduledInRange(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        Task first = probe(from, Integer.MIN_VALUE);
+        Task before = prioritizedTasks.lower(first); // Раньше from может начаться только одна пересекающая его задача
+        if (before != null && !endOf(before).isBefore(from)) {
+            result.add(before);
+        }
+        result.addAll(to == null ? prioritizedTasks.tailSet(first, true)
+                : prioritizedTasks.subSet(first, true, probe(to, Integer.MAX_VALUE), true));
+        return result;
+    }
+
+    private static Task probe(LocalDateTime start, int id) {
+        Task probe = new Task(null, null, null, null, start);
+        probe.setId(id);
+        return probe;
+    }
+
+    private static LocalDateTime endOf(Task task) {
+        LocalDateTime end = task.getEndTime();
+        return end == null ? task.getStartTime() : end;
+    }
+
+    /**
+     * Добавление в prioritizedTasks. При сетке слотов отмечается, что задача пересекается с соседями:
+     * так бывает только после загрузки или импорта без проверки, и тогда проверка пересечений
+     * идёт полным проходом. Пересечение с несоседней задачей без пересечения с соседями невозможно,
+     * пока в хранилище пересечений не было
+     */
+    private void schedule(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+            if (slotGrid != null) {
+                slotGrid.add(task);
+                if (!isScheduleOverlapping) {
+                    Task lower = prioritizedTasks.lower(task);
+                    Task higher = prioritizedTasks.higher(task);
+                    isScheduleOverlapping = lower != null && lower.isOverlapping(task)
+                            || higher != null && higher.isOverlapping(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Перенос нового времени задачи в граф зависимостей (пересчитываются только зависящие от неё узлы)
+     */
+    private void trackDependencies(Task task) {
+        if (dependencies.contains(task.getId())) {
+            dependencies.setTask(task.getId(), task.getStartTime(), task.getDuration());
+        }
+    }
+
+    private void restoreScheduled(Task task) {
+        if (task != null) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Удаление задачи из prioritizedTasks. Если время начала задачи изменили на месте,
+     * TreeSet её по ключу не найдёт — тогда задача ищется по id полным проходом,
+     * а сетка слотов строится заново (прежние слоты задачи неизвестны).
+     */
+    private void removeFromPrioritized(Task task) {
+        if (task == null) {
+            return;
+        }
+        if (prioritizedTasks.remove(task)) {
+            releaseSlots(task);
+        } else if (prioritizedTasks.removeIf(existingTask -> existingTask.getId() == task.getId())) {
+            rebuildSlotGrid();
+        }
+        if (prioritizedTasks.isEmpty()) {
+            isScheduleOverlapping = false;
+        }
+    }
+
+    /**
+     * Освобождение слотов удалённой из prioritizedTasks задачи. Крайние слоты могут быть общими
+     * с соседними по времени задачами — они отмечаются заново
+     */
+    private void releaseSlots(Task task) {
+        if (slotGrid == null) {
+            return;
+        }
+        slotGrid.remove(task);
+        Task lower = prioritizedTasks.lower(task);
+        Task higher = prioritizedTasks.higher(task);
+        if (lower != null) {
+            slotGrid.add(lower);
+        }
+        if (higher != null) {
+            slotGrid.add(higher);
+        }
+    }
+
+    private void rebuildSlotGrid() {
+        if (slotGrid != null) {
+            slotGrid.clear();
+            prioritizedTasks.forEach(slotGrid::add);
+        }
+    }
+
+    private void changed(TaskCollection... collections) {
+        for (TaskCollection collection : collections) {
+            versions[collection.ordinal()]++;
+        }
+    }
+
     private int generateId() {
         return idCounter++;
     }
 
-    private boolean areAllSubtasks(List<Subtask> subtasks, Status status) {
-        return subtasks.stream().allMatch(task -> task.getStatus() == status);
+    /**
+     * Сохраняет id, уже присвоенный задаче (например, прочитанный из файла),
+     * и сдвигает счётчик, чтобы новые id с ним не пересекались
+     */
+    private void restoreId(Task task) {
+        if (task.getId() > 0) {
+            reserveIds(task.getId());
+        } else {
+            task.setId(generateId());
+        }
+    }
+
+    /**
+     * Замена названия и описания общими экземплярами из пула строк: на досках из шаблонов
+     * одинаковые строки иначе хранятся отдельной копией в каждой задаче
+     */
+    private static void intern(Task task) {
+        StringPool strings = StringPool.shared();
+        task.setName(strings.intern(task.getName()));
+        task.setDescription(strings.intern(task.getDescription()));
+    }
+
+    /**
+     * Сдвиг счётчика, чтобы новые id были больше maxUsedId (id уже заняты задачами вне менеджера)
+     */
+    void reserveIds(int maxUsedId) {
+        idCounter = Math.max(idCounter, maxUsedId + 1);
+    }
+
+    /**
+     * Подключение внутренних замеров: проверка пересечений (в том числе внутри add/update)
+     * и пересчёт статуса эпика. Вызывается MetricsTaskManager
+     */
+    void attachMetrics(TaskManagerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    TaskManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Размер коллекции без копирования
+     */
+    long collectionSize(TaskCollection collection) {
+        return switch (collection) {
+            case TASKS -> tasks.size();
+            case SUBTASKS -> subtasks.size();
+            case EPICS -> epics.size();
+            case PRIORITIZED -> prioritizedTasks.size();
+            case HISTORY -> historyManager.size();
+        };
+    }
+
+    /**
+     * Поиск задачи любого типа по id без записи в историю просмотров
+     */
+    protected Task peekTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
+    /**
+     * Статус эпика по его подзадачам: без подзадач или все NEW — NEW, все DONE — DONE, иначе IN_PROGRESS.
+     * Только читает коллекции, поэтому вызывается и из потоков пула запросов
+     */
+    private Status statusOf(Epic epic) {
+        boolean isAllDone = true;
+        boolean isAllNew = true;
+        if (epic.getSubtaskIds() != null) {
+            for (int id : epic.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(id);
+                if (subtask != null) {
+                    isAllDone &= subtask.getStatus() == Status.DONE;
+                    isAllNew &= subtask.getStatus() == Status.NEW;
+                }
+            }
+        }
+        return isAllNew ? Status.NEW : isAllDone ? Status.DONE : Status.IN_PROGRESS;
     }
 
     /**
      * Добавление задач при загрузке из файла
      * Данные уже были добавлены при вызове addTask или addSubtask
      * Дополнительная проверка в этом случае избыточна
+     * Идентификаторы из файла сохраняются, чтобы ссылки epicId оставались верными
      */
     protected void internalAddTask(Task task) {
-        task.setId(generateId());
+        restoreId(task);
+        intern(task);
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        schedule(task);
+        changed(TaskCollection.TASKS, TaskCollection.PRIORITIZED);
+        project(task);
+        publish(ChangeType.CREATED, TaskType.TASK, task.getId());
     }
 
     protected void internalAddSubtask(Subtask subtask) {
-        subtask.setId(generateId());
+        restoreId(subtask);
+        intern(subtask);
         subtasks.put(subtask.getId(), subtask);
+        project(subtask);
+        publish(ChangeType.CREATED, TaskType.SUBTASK, subtask.getId());
 
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
             epic.addSubtask(subtask.getId());
-            updateEpicStatus(subtask.getEpicId());
+            if (!isImporting) {
+                updateEpicStatus(subtask.getEpicId());
+            }
+        }
+        schedule(subtask);
+        changed(TaskCollection.SUBTASKS, TaskCollection.EPICS, TaskCollection.PRIORITIZED);
+    }
+
+    /**
+     * Добавление загруженных задач с их id: эпики первыми, чтобы подзадачи из любой части списка нашли свой эпик.
+     * Статус эпика пересчитывается не на каждую подзадачу, а один раз в конце для эпиков,
+     * получивших подзадачи; эпики без подзадач сохраняют прочитанный статус
+     */
+    void importTasks(List<? extends Task> loaded) {
+        loaded.stream().filter(task -> task instanceof Epic).forEach(task -> internalAddEpic((Epic) task));
+        Set<Integer> affectedEpics = new LinkedHashSet<>();
+        isImporting = true;
+        try {
+            for (Task task : loaded) {
+                if (task instanceof Subtask subtask) {
+                    internalAddSubtask(subtask);
+                    affectedEpics.add(subtask.getEpicId());
+                } else if (!(task instanceof Epic)) {
+                    internalAddTask(task);
+                }
+            }
+        } finally {
+            isImporting = false;
+        }
+        recomputeEpics(affectedEpics.stream().map(epics::get).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Импорт задач, прочитанных из файла при запуске: в отличие от importTasks, события в ленту
+     * изменений не публикуются — для подписчиков эти задачи не новые
+     */
+    void loadTasks(List<? extends Task> loaded) {
+        isLoading = true;
+        try {
+            importTasks(loaded);
+        } finally {
+            isLoading = false;
+        }
+    }
+
+    /**
+     * Повторяющиеся задачи, прочитанные из файла, с их id и отменёнными вхождениями.
+     * Пересечения не проверяются — серии уже проходили проверку при добавлении
+     */
+    void loadRecurringTasks(List<RecurringSeries> loaded) {
+        for (RecurringSeries series : loaded) {
+            reserveIds(series.getId());
+            recurring.put(series.getId(), series);
+        }
+        if (!loaded.isEmpty()) {
+            changed(TaskCollection.TASKS);
+        }
+    }
+
+    private void publish(ChangeType change, TaskType type, int id) {
+        if (!isLoading) {
+            changeFeed.publish(change, type, id);
         }
     }
 
     protected void internalAddEpic(Epic epic) {
-        epic.setId(generateId());
+        restoreId(epic);
+        intern(epic);
         epics.put(epic.getId(), epic);
+        changed(TaskCollection.EPICS);
+        project(epic);
+        publish(ChangeType.CREATED, TaskType.EPIC, epic.getId());
     }
 }
\ No newline at end of file
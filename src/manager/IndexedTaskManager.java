@@ -0,0 +1,654 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import exceptions.ManagerSaveException;
+import exceptions.TimeConflictException;
+import manager.TaskBodyCache.Body;
+import metrics.LatencyHistogram;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Managers;
+import util.TaskCollection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Менеджер задач, хранящий в памяти только индекс, а названия и описания — на диске.
+ * Индекс — задачи без названий и описаний во внутреннем InMemoryTaskManager (тип, статус, эпик,
+ * время, состав эпиков: по нему проверяются пересечения и строится список по приоритету)
+ * и смещение строки каждой задачи в файле сегмента. Полные задачи собираются по требованию
+ * через TaskBodyCache ограниченного размера: часто читаемые задачи отдаются из памяти,
+ * длинный хвост читается с диска одной позиционной операцией чтения.
+ * Каталог имеет формат сегментированного FileBackedTaskManager с тем же segmentSize,
+ * поэтому его можно открыть любым из двух менеджеров.
+ * Задачи возвращаются копиями: чтобы изменения попали в хранилище, их нужно передать в update-методы.
+ * Короткие списки собираются через кэш, длинные (getAllXxx, getPrioritizedTasks) — последовательным
+ * чтением сегментов, не вытесняя из кэша часто читаемые задачи.
+ * Методы чтения можно вызывать из нескольких потоков одновременно (изменения — только без параллельных
+ * чтений, как под блокировкой записи HTTP-сервера): кэш защищён своим монитором, а таблица открытых
+ * каналов сегментов — монитором channels, под которым идёт и позиционное чтение, чтобы канал не закрылся
+ * посреди него при вытеснении.
+ */
+public class IndexedTaskManager implements TaskManager, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+    static final int BULK_READ_THRESHOLD = 64;
+    private static final int LENGTH_BITS = 24;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    private static final int OPEN_CHANNELS = 64;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final InMemoryTaskManager index;
+    private final TaskBodyCache cache;
+    private final Map<Integer, Body> pending = new HashMap<>(); // Изменённые, но ещё не записанные задачи
+    private final Set<Integer> dirtyIds = new HashSet<>();
+    private final Map<Integer, List<String>> dictionaries = new HashMap<>(); // Словари "#dict" сегментов
+    private final TaskCsvWriter csvWriter = new TaskCsvWriter();
+    private final Map<Integer, FileChannel> channels;
+    private long[] locations = new long[0]; // Смещение строки << LENGTH_BITS | длина; 0 — строки нет
+
+    /**
+     * @param directory  каталог сегментов segment-N.csv
+     * @param cacheBytes ограничение кэша названий и описаний (оценка занимаемой памяти в байтах)
+     */
+    public IndexedTaskManager(String directory, int segmentSize, long cacheBytes) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным: " + segmentSize);
+        }
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize;
+        this.index = new InMemoryTaskManager(Managers.getDefaultHistory());
+        this.cache = new TaskBodyCache(cacheBytes);
+        this.channels = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, FileChannel> eldest) {
+                if (size() <= OPEN_CHANNELS) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+        load();
+    }
+
+    public IndexedTaskManager(String directory, long cacheBytes) {
+        this(directory, DEFAULT_SEGMENT_SIZE, cacheBytes);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return assembleAll(index.getAllTasks());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return assembleAll(index.getAllSubtasks());
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return assembleAll(index.getAllEpics());
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        List<Integer> removed = idsOf(index.getAllTasks());
+        index.deleteAllTasks();
+        removed.forEach(this::removed);
+        save();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        List<Integer> removed = idsOf(index.getAllSubtasks());
+        index.deleteAllSubtasks();
+        removed.forEach(this::removed);
+        idsOf(index.getAllEpics()).forEach(dirtyIds::add);
+        save();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        List<Integer> removed = idsOf(index.getAllEpics());
+        removed.addAll(idsOf(index.getAllSubtasks()));
+        index.deleteAllEpics();
+        removed.forEach(this::removed);
+        save();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return assemble(index.getTaskById(id));
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return assemble(index.getSubtaskById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return assemble(index.getEpicById(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return assembleAll(index.getHistory());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return assembleAll(index.getPrioritizedTasks());
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeConflictException {
+        Task skeleton = skeleton(task);
+        index.addTask(skeleton);
+        task.setId(skeleton.getId());
+        written(task);
+        save();
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) throws TimeConflictException {
+        Subtask skeleton = skeleton(subtask);
+        index.addSubtask(skeleton);
+        subtask.setId(skeleton.getId());
+        written(subtask);
+        dirtyIds.add(subtask.getEpicId());
+        save();
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        Epic skeleton = skeleton(epic);
+        index.addEpic(skeleton);
+        epic.setId(skeleton.getId());
+        written(epic);
+        save();
+    }
+
+    @Override
+    public void updateEpicStatus(int epicId) {
+        index.updateEpicStatus(epicId);
+        dirtyIds.add(epicId);
+        save();
+    }
+
+    @Override
+    public void updateTask(Task task) throws TimeConflictException {
+        index.updateTask(skeleton(task));
+        written(task);
+        save();
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) throws TimeConflictException {
+        index.updateSubtask(skeleton(subtask));
+        written(subtask);
+        dirtyIds.add(subtask.getEpicId());
+        save();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        index.updateEpic(skeleton(epic));
+        written(epic);
+        save();
+    }
+
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        List<Task> skeletons = batch.stream().map(IndexedTaskManager::skeleton).toList();
+        index.addTasks(skeletons);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(skeletons.get(i).getId());
+            written(batch.get(i));
+        }
+        save();
+    }
+
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        List<Subtask> skeletons = batch.stream().map(IndexedTaskManager::skeleton).toList();
+        index.addSubtasks(skeletons);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(skeletons.get(i).getId());
+            written(batch.get(i));
+            dirtyIds.add(batch.get(i).getEpicId());
+        }
+        save();
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        index.updateSubtasks(batch.stream().map(IndexedTaskManager::skeleton).toList());
+        for (Subtask subtask : batch) {
+            written(subtask);
+            dirtyIds.add(subtask.getEpicId());
+        }
+        save();
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        index.deleteTask(id);
+        removed(id);
+        save();
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        if (index.peekTask(id) instanceof Subtask subtask) {
+            dirtyIds.add(subtask.getEpicId());
+        }
+        index.deleteSubtask(id);
+        removed(id);
+        save();
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        List<Integer> removed = idsOf(index.getAllSubtasksByEpicId(id));
+        index.deleteEpic(id);
+        removed.add(id);
+        removed.forEach(this::removed);
+        save();
+    }
+
+    @Override
+    public boolean hasTimeOverlap(Task task) {
+        return index.hasTimeOverlap(task);
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpicId(int epicId) {
+        return assembleAll(index.getAllSubtasksByEpicId(epicId));
+    }
+
+    @Override
+    public long getModificationVersion(TaskCollection collection) {
+        return index.getModificationVersion(collection);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return index.getChangeFeed();
+    }
+
+    /**
+     * Доля чтений задач по id, обслуженных кэшем (0, если чтений не было)
+     */
+    public double getCacheHitRatio() {
+        long reads = cache.getHits() + cache.getMisses();
+        return reads == 0 ? 0 : (double) cache.getHits() / reads;
+    }
+
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    public long getCacheEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * Оценка памяти, занятой кэшем, в байтах
+     */
+    public long getCacheWeight() {
+        return cache.weight();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Задержки чтения задачи с диска при промахах кэша
+     */
+    public LatencyHistogram getLoadLatency() {
+        return cache.getLoadLatency();
+    }
+
+    @Override
+    public void close() {
+        synchronized (channels) {
+            channels.values().forEach(IndexedTaskManager::closeQuietly);
+            channels.clear();
+        }
+    }
+
+    long collectionSize(TaskCollection collection) {
+        return index.collectionSize(collection);
+    }
+
+    /**
+     * Построение индекса по всем сегментам. Сегмент, восстановленный из .bak, и сжатый сегмент
+     * сразу перезаписываются обычным CSV, чтобы смещения индекса указывали в строки основного файла
+     */
+    private void load() {
+        List<Task> loaded = new ArrayList<>();
+        try {
+            for (Path path : FileBackedTaskManager.listSegments(directory)) {
+                boolean hasBackup = Files.exists(Path.of(path + FileBackedTaskManager.BACKUP_SUFFIX));
+                Optional<String> content = FileBackedTaskManager.readSnapshot(path, hasBackup);
+                boolean isRecovered = content.isEmpty() || SnapshotFrames.isFramed(path);
+                if (content.isEmpty()) {
+                    content = FileBackedTaskManager.loadSnapshot(path);
+                }
+                int segment = segmentOf(path);
+                indexRows(segment, content.orElse("").getBytes(StandardCharsets.UTF_8), task -> {
+                    loaded.add(task);
+                    if (isRecovered) {
+                        written(task);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать каталог: " + directory);
+        }
+
+        for (Task task : loaded) {
+            task.setName(null);
+            task.setDescription(null);
+        }
+        index.loadTasks(loaded);
+        save();
+    }
+
+    /**
+     * Перезапись сегментов с изменёнными задачами; неизменённые строки берутся из прежнего файла сегмента
+     */
+    private void save() {
+        if (dirtyIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> segments = new TreeSet<>();
+        dirtyIds.forEach(id -> segments.add(id / segmentSize));
+        try {
+            Files.createDirectories(directory);
+            for (int segment : segments) {
+                rewriteSegment(segment);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в каталог: " + directory);
+        }
+        dirtyIds.clear();
+        pending.clear();
+    }
+
+    private void rewriteSegment(int segment) throws IOException {
+        Path path = FileBackedTaskManager.segmentPath(directory, segment);
+        closeChannel(segment);
+        byte[] previous = Files.exists(path) ? Files.readAllBytes(path) : new byte[0];
+        int firstId = segment * segmentSize;
+        FileBackedTaskManager.publishSnapshot(path, csvWriter, FileBackedTaskManager::writeFully, writer -> {
+            for (int id = firstId; id < firstId + segmentSize; id++) {
+                Task skeleton = index.peekTask(id);
+                if (skeleton != null) {
+                    Body body = pending.get(id);
+                    writer.writeTask(copyOf(skeleton, body != null ? body : parseBody(id, previous)));
+                }
+            }
+        });
+        indexRows(segment, Files.readAllBytes(path), null);
+    }
+
+    /**
+     * Запоминание смещений строк сегмента и его словаря; если rows != null, строки разбираются целиком
+     * и передаются в rows
+     */
+    private void indexRows(int segment, byte[] bytes, Consumer<Task> rows) {
+        int firstId = segment * segmentSize;
+        if (firstId < locations.length) {
+            Arrays.fill(locations, firstId, Math.min(locations.length, firstId + segmentSize), 0);
+        }
+        List<String> dictionary = new ArrayList<>();
+        boolean isHeader = true;
+        for (int start = 0; start < bytes.length; ) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            int length = end > start && bytes[end - 1] == '\r' ? end - start - 1 : end - start;
+            if (!isHeader && length > 0 && bytes[start] == '#') {
+                FileBackedTaskManager.parseDictionaryEntry(new String(bytes, start, length, StandardCharsets.UTF_8),
+                        dictionary);
+            } else if (!isHeader && length > 0 && Character.isDigit(bytes[start])) {
+                if (rows == null) {
+                    locate(parseId(bytes, start, length), start, length);
+                } else {
+                    int offset = start;
+                    FileBackedTaskManager.safeFromString(new String(bytes, start, length, StandardCharsets.UTF_8),
+                                    dictionary)
+                            .ifPresent(task -> {
+                                locate(task.getId(), offset, length);
+                                rows.accept(task);
+                            });
+                }
+            }
+            isHeader = false;
+            start = end + 1;
+        }
+        if (dictionary.isEmpty()) {
+            dictionaries.remove(segment);
+        } else {
+            dictionaries.put(segment, dictionary);
+        }
+    }
+
+    private void locate(int id, int offset, int length) {
+        if (length > LENGTH_MASK) {
+            throw new ManagerLoadException("Слишком длинная строка задачи " + id + " в каталоге " + directory);
+        }
+        if (id >= locations.length) {
+            locations = Arrays.copyOf(locations, Math.max(id + 1, locations.length * 2));
+        }
+        locations[id] = (long) offset << LENGTH_BITS | length;
+    }
+
+    private long locationOf(int id) {
+        return id >= 0 && id < locations.length ? locations[id] : 0;
+    }
+
+    private static int parseId(byte[] bytes, int start, int length) {
+        int id = 0;
+        for (int i = start; i < start + length && Character.isDigit(bytes[i]); i++) {
+            id = id * 10 + (bytes[i] - '0');
+        }
+        return id;
+    }
+
+    /**
+     * Чтение строки задачи из сегмента на диске (вызывается кэшем при промахе)
+     */
+    private Body loadBody(int id) {
+        long location = locationOf(id);
+        if (location == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (location & LENGTH_MASK));
+        long offset = location >>> LENGTH_BITS;
+        try {
+            synchronized (channels) {
+                FileChannel channel = channel(id / segmentSize);
+                while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                    // Позиционное чтение может вернуть часть строки
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать задачу " + id + " из каталога " + directory);
+        }
+        return parseBody(id, buffer.array(), 0, buffer.position());
+    }
+
+    private Body parseBody(int id, byte[] segment) {
+        long location = locationOf(id);
+        if (location == 0) {
+            throw new ManagerLoadException("Нет строки задачи " + id + " в каталоге " + directory);
+        }
+        return parseBody(id, segment, (int) (location >>> LENGTH_BITS), (int) (location & LENGTH_MASK));
+    }
+
+    private Body parseBody(int id, byte[] bytes, int offset, int length) {
+        String line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        Task task = FileBackedTaskManager.safeFromString(line, dictionaries.getOrDefault(id / segmentSize, List.of()))
+                .filter(parsed -> parsed.getId() == id)
+                .orElseThrow(() -> new ManagerLoadException("Строка задачи " + id + " не совпадает с индексом: "
+                        + directory));
+        return new Body(task.getName(), task.getDescription());
+    }
+
+    /**
+     * Открытый канал сегмента; вызывается под монитором channels
+     */
+    private FileChannel channel(int segment) throws IOException {
+        FileChannel channel = channels.get(segment);
+        if (channel == null) {
+            channel = FileChannel.open(FileBackedTaskManager.segmentPath(directory, segment), READ);
+            channels.put(segment, channel);
+        }
+        return channel;
+    }
+
+    private void closeChannel(int segment) {
+        synchronized (channels) {
+            FileChannel channel = channels.remove(segment);
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Канал открыт только для чтения
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T assemble(T skeleton) {
+        if (skeleton == null) {
+            return null;
+        }
+        Body body = cache.get(skeleton.getId(), this::loadBody);
+        return (T) copyOf(skeleton, body);
+    }
+
+    /**
+     * Сборка списка задач: короткий список — через кэш, длинный — чтением нужных сегментов по порядку id
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> assembleAll(List<? extends Task> skeletons) {
+        List<T> result = new ArrayList<>(skeletons.size());
+        if (skeletons.size() <= BULK_READ_THRESHOLD) {
+            skeletons.forEach(skeleton -> result.add((T) assemble(skeleton)));
+            return result;
+        }
+        Body[] bodies = new Body[skeletons.size()];
+        int[] byId = IntStream.range(0, skeletons.size()).boxed()
+                .sorted(Comparator.comparingInt(i -> skeletons.get(i).getId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int loadedSegment = -1;
+        byte[] bytes = null;
+        for (int i : byId) {
+            int id = skeletons.get(i).getId();
+            if (id / segmentSize != loadedSegment) {
+                loadedSegment = id / segmentSize;
+                bytes = readSegment(loadedSegment);
+            }
+            bodies[i] = parseBody(id, bytes);
+        }
+        for (int i = 0; i < bodies.length; i++) {
+            result.add((T) copyOf(skeletons.get(i), bodies[i]));
+        }
+        return result;
+    }
+
+    private byte[] readSegment(int segment) {
+        try {
+            return Files.readAllBytes(FileBackedTaskManager.segmentPath(directory, segment));
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось прочитать сегмент " + segment + " из каталога " + directory);
+        }
+    }
+
+    /**
+     * Учёт добавленной или изменённой задачи: строка будет записана при сохранении, кэш обновляется сразу
+     */
+    private void written(Task task) {
+        Body body = new Body(task.getName(), task.getDescription());
+        pending.put(task.getId(), body);
+        cache.put(task.getId(), body);
+        dirtyIds.add(task.getId());
+    }
+
+    private void removed(int id) {
+        pending.remove(id);
+        cache.invalidate(id);
+        dirtyIds.add(id);
+    }
+
+    private static List<Integer> idsOf(List<? extends Task> tasks) {
+        List<Integer> ids = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+
+    private static int segmentOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(FileBackedTaskManager.SEGMENT_PREFIX.length(),
+                name.length() - FileBackedTaskManager.SEGMENT_SUFFIX.length()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> T skeleton(T task) {
+        return (T) copyOf(task, new Body(null, null));
+    }
+
+    /**
+     * Копия задачи с названием и описанием из body; у эпика копируются подзадачи и время
+     */
+    private static Task copyOf(Task source, Body body) {
+        Task copy;
+        if (source instanceof Epic epic) {
+            Epic epicCopy = new Epic(body.name(), body.description());
+            epicCopy.setSubtaskIds(epic.getSubtaskIds() == null
+                    ? new ArrayList<>()
+                    : new ArrayList<>(epic.getSubtaskIds()));
+            epicCopy.setStartTime(epic.getStartTime());
+            epicCopy.setDuration(epic.getDuration());
+            epicCopy.setEndTime(epic.getEndTime());
+            copy = epicCopy;
+        } else if (source instanceof Subtask subtask) {
+            copy = new Subtask(body.name(), body.description(), subtask.getStatus(), subtask.getEpicId(),
+                    subtask.getDuration(), subtask.getStartTime());
+        } else {
+            copy = new Task(body.name(), body.description(), source.getStatus(), source.getDuration(),
+                    source.getStartTime());
+        }
+        copy.setId(source.getId());
+        copy.setStatus(source.getStatus());
+        return copy;
+    }
+}
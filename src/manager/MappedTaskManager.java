@@ -0,0 +1,839 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import exceptions.ManagerSaveException;
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Managers;
+import util.Status;
+import util.TaskCollection;
+import util.TaskType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Менеджер задач, хранящий задачи вне кучи в отображённых в память файлах.
+ * records.bin — записи фиксированной длины RECORD_SIZE: запись задачи с id лежит по смещению
+ * id * RECORD_SIZE, поэтому поиск по id — это вычисление адреса. Нулевой слот занят заголовком.
+ * strings.bin — куча строк (названия и описания в UTF-8), на которые ссылаются записи.
+ * Куча только растёт: изменённая строка дописывается в конец, а место прежней копии и строк
+ * удалённых задач не освобождается. Неизменённые строки переиспользуются, поэтому растёт она
+ * только при смене названий и описаний; чтобы вернуть место, задачи переносят в новое хранилище.
+ * Объекты Task создаются только при чтении и являются копиями: чтобы изменения попали
+ * в хранилище, их нужно передать в update-методы.
+ * Для проверки пересечений в куче держится индекс времени начала (id и время, без самих задач);
+ * он строится проходом по записям при открытии. Это единственная часть, растущая вместе с хранилищем:
+ * около 70 байт кучи на задачу со временем (MappedStoreBenchmark), то есть при куче 512 МБ —
+ * порядка 7 млн запланированных задач. Задачи без времени начала кучу не занимают.
+ */
+public class MappedTaskManager implements TaskManager, AutoCloseable {
+    static final int RECORD_SIZE = 64;
+    static final int CHUNK_SIZE = 1 << 26;
+    static final int MAGIC = 0x4B414E42;
+    static final int VERSION = 1;
+    static final int NO_ID = 0;
+
+    // Заголовок (нулевой слот records.bin)
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_ID_COUNTER = 8;
+    private static final int HEADER_STRINGS_END = 16;
+
+    // Поля записи
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int FLAGS = 6;
+    private static final int EPIC_ID = 8;
+    private static final int START_SECONDS = 12;
+    private static final int START_NANOS = 20;
+    private static final int DURATION_SECONDS = 24;
+    private static final int DURATION_NANOS = 32;
+    private static final int NAME_OFFSET = 36;
+    private static final int NAME_LENGTH = 44;
+    private static final int DESCRIPTION_OFFSET = 48;
+    private static final int DESCRIPTION_LENGTH = 56;
+    private static final int LINK = 60; // Эпик — последняя добавленная подзадача, подзадача — предыдущая
+
+    private static final short LIVE = 1;
+    private static final short HAS_START = 2;
+    private static final short HAS_DURATION = 4;
+    private static final int NULL_STRING = -1;
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final MappedFile records;
+    private final MappedFile strings;
+    private final HistoryManager historyManager;
+    private final NavigableSet<Start> startIndex = new TreeSet<>();
+    private int idCounter;
+    private long stringsEnd;
+
+    public MappedTaskManager(String directory, HistoryManager historyManager) {
+        this.historyManager = historyManager;
+        try {
+            Path path = Path.of(directory);
+            Files.createDirectories(path);
+            this.records = new MappedFile(path.resolve("records.bin"));
+            this.strings = new MappedFile(path.resolve("strings.bin"));
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось открыть хранилище: " + directory);
+        }
+
+        ByteBuffer header = records.chunk(0);
+        if (header.getInt(HEADER_MAGIC) == 0) {
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+            this.idCounter = 1;
+            this.stringsEnd = 0;
+            writeHeader();
+        } else if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION) {
+            throw new ManagerLoadException("Неизвестный формат хранилища: " + directory);
+        } else {
+            this.idCounter = header.getInt(HEADER_ID_COUNTER);
+            this.stringsEnd = header.getLong(HEADER_STRINGS_END);
+        }
+        for (int id = 1; id < idCounter; id++) {
+            index(id);
+        }
+    }
+
+    public MappedTaskManager(String directory) {
+        this(directory, Managers.getDefaultHistory());
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return readAll(TaskType.TASK);
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return readAll(TaskType.SUBTASK);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return readAll(TaskType.EPIC);
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        forEachLive(TaskType.TASK, action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        forEachLive(TaskType.SUBTASK, action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        forEachLive(TaskType.EPIC, action);
+    }
+
+    /**
+     * Задачи читаются из хранилища по мере обхода: по id после курсора для задач, подзадач и эпиков,
+     * по индексу времени начала после курсора — для списка по приоритету
+     */
+    @Override
+    public Task forEachAfter(TaskCollection collection, Task after, int limit, Consumer<? super Task> action) {
+        Task last = null;
+        int delivered = 0;
+        switch (collection) {
+            case TASKS, SUBTASKS, EPICS -> {
+                TaskType type = collection == TaskCollection.TASKS ? TaskType.TASK
+                        : collection == TaskCollection.SUBTASKS ? TaskType.SUBTASK : TaskType.EPIC;
+                for (int id = after == null ? 1 : after.getId() + 1; id < idCounter && delivered < limit; id++) {
+                    if (isLive(id, type)) {
+                        last = read(id);
+                        action.accept(last);
+                        delivered++;
+                    }
+                }
+            }
+            case PRIORITIZED -> {
+                LocalDateTime start = after != null ? after.getStartTime() : null;
+                Iterator<Start> starts = (start == null ? startIndex : startIndex.tailSet(
+                        new Start(start.toEpochSecond(ZoneOffset.UTC), start.getNano(), after.getId()), false))
+                        .iterator();
+                for (; delivered < limit && starts.hasNext(); delivered++) {
+                    last = read(starts.next().id());
+                    action.accept(last);
+                }
+            }
+            case HISTORY -> last = historyManager.forEachAfter(after, limit, action);
+        }
+        return last;
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (int id = 1; id < idCounter; id++) {
+            if (isLive(id, TaskType.TASK)) {
+                kill(id);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        for (int id = 1; id < idCounter; id++) {
+            if (isLive(id, TaskType.SUBTASK)) {
+                kill(id);
+            } else if (isLive(id, TaskType.EPIC)) {
+                record(id).putInt(position(id) + LINK, NO_ID);
+                setStatus(id, Status.NEW);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        for (int id = 1; id < idCounter; id++) {
+            if (isLive(id, TaskType.EPIC) || isLive(id, TaskType.SUBTASK)) {
+                kill(id);
+            }
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return view(id, TaskType.TASK);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return view(id, TaskType.SUBTASK);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return view(id, TaskType.EPIC);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return new ArrayList<>(historyManager.getHistory());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritized = new ArrayList<>(startIndex.size());
+        for (Start start : startIndex) {
+            prioritized.add(read(start.id()));
+        }
+        return prioritized;
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeConflictException {
+        if (hasTimeOverlap(task)) {
+            throw new TimeConflictException("Задача пересекается по времени с существующей.");
+        }
+        task.setId(generateId());
+        write(task, TaskType.TASK);
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) throws TimeConflictException {
+        if (hasTimeOverlap(subtask)) {
+            throw new TimeConflictException("Подзадача пересекается по времени с существующей.");
+        }
+        subtask.setId(generateId());
+        if (subtask.getEpicId() == subtask.getId()) {
+            throw new IllegalArgumentException("Подзадача не может быть эпиком для себя");
+        }
+        write(subtask, TaskType.SUBTASK);
+        if (link(subtask)) {
+            updateEpicStatus(subtask.getEpicId());
+        }
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        epic.setId(generateId());
+        write(epic, TaskType.EPIC);
+    }
+
+    @Override
+    public void updateEpicStatus(int epicId) {
+        if (!isLive(epicId, TaskType.EPIC)) {
+            return;
+        }
+        boolean isEmpty = true;
+        boolean isAllDone = true;
+        boolean isAllNew = true;
+        for (int id = firstSubtask(epicId); id != NO_ID; id = nextSubtask(id)) {
+            Status status = statusOf(id);
+            isEmpty = false;
+            isAllDone &= status == Status.DONE;
+            isAllNew &= status == Status.NEW;
+        }
+        setStatus(epicId, isEmpty || isAllNew ? Status.NEW : isAllDone ? Status.DONE : Status.IN_PROGRESS);
+    }
+
+    /**
+     * Пересечение проверяется с остальными задачами, сама обновляемая задача не учитывается.
+     * Обновить можно только существующую запись того же типа, иначе — IllegalArgumentException
+     */
+    @Override
+    public void updateTask(Task task) throws TimeConflictException {
+        requireLive(task.getId(), TaskType.TASK);
+        if (findOverlap(task, task.getId()) != NO_ID) {
+            throw new TimeConflictException("Задача пересекается по времени с существующей.");
+        }
+        write(task, TaskType.TASK);
+    }
+
+    /**
+     * При смене epicId подзадача переносится в список нового эпика, статусы обоих эпиков пересчитываются
+     */
+    @Override
+    public void updateSubtask(Subtask subtask) throws TimeConflictException {
+        requireLive(subtask.getId(), TaskType.SUBTASK);
+        if (findOverlap(subtask, subtask.getId()) != NO_ID) {
+            throw new TimeConflictException("Подзадача пересекается по времени");
+        }
+        int previousEpicId = writeSubtask(subtask);
+        updateEpicStatus(previousEpicId);
+        if (previousEpicId != subtask.getEpicId()) {
+            updateEpicStatus(subtask.getEpicId());
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        requireLive(epic.getId(), TaskType.EPIC);
+        write(epic, TaskType.EPIC);
+    }
+
+    /**
+     * Пакет проверяется одним слиянием со списком по времени, после чего записи пишутся без
+     * повторных линейных проверок; статус каждого затронутого эпика пересчитывается один раз
+     */
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, Set.of());
+        for (Task task : batch) {
+            task.setId(generateId());
+            write(task, TaskType.TASK);
+        }
+    }
+
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, Set.of());
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).getEpicId() == idCounter + i) {
+                throw new IllegalArgumentException("Подзадача не может быть эпиком для себя");
+            }
+        }
+        Set<Integer> affectedEpics = new LinkedHashSet<>();
+        for (Subtask subtask : batch) {
+            subtask.setId(generateId());
+            write(subtask, TaskType.SUBTASK);
+            if (link(subtask)) {
+                affectedEpics.add(subtask.getEpicId());
+            }
+        }
+        affectedEpics.forEach(this::updateEpicStatus);
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        Set<Integer> replaced = new HashSet<>();
+        batch.forEach(subtask -> {
+            requireLive(subtask.getId(), TaskType.SUBTASK);
+            replaced.add(subtask.getId());
+        });
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, replaced);
+        Set<Integer> affectedEpics = new LinkedHashSet<>();
+        for (Subtask subtask : batch) {
+            affectedEpics.add(writeSubtask(subtask));
+            affectedEpics.add(subtask.getEpicId());
+        }
+        affectedEpics.forEach(this::updateEpicStatus);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        if (isLive(id, TaskType.TASK)) {
+            kill(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        if (!isLive(id, TaskType.SUBTASK)) {
+            return;
+        }
+        int epicId = record(id).getInt(position(id) + EPIC_ID);
+        if (isLive(epicId, TaskType.EPIC)) {
+            unlink(epicId, id);
+            kill(id);
+            updateEpicStatus(epicId);
+        } else {
+            kill(id);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        if (!isLive(id, TaskType.EPIC)) {
+            return;
+        }
+        for (int subtaskId = firstSubtask(id); subtaskId != NO_ID; subtaskId = nextSubtask(subtaskId)) {
+            kill(subtaskId);
+        }
+        kill(id);
+    }
+
+    /**
+     * Проверка пересечения времени по индексу времени начала за O(log n)
+     */
+    @Override
+    public boolean hasTimeOverlap(Task task) {
+        return findOverlap(task, NO_ID) != NO_ID;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpicId(int epicId) {
+        if (!isLive(epicId, TaskType.EPIC)) {
+            return List.of();
+        }
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int id = firstSubtask(epicId); id != NO_ID; id = nextSubtask(id)) {
+            subtasks.add((Subtask) read(id));
+        }
+        Collections.reverse(subtasks);
+        return subtasks;
+    }
+
+    /**
+     * Сброс изменённых страниц на диск
+     */
+    public void force() {
+        records.force();
+        strings.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        records.close();
+        strings.close();
+    }
+
+    private int generateId() {
+        int id = idCounter++;
+        writeHeader();
+        return id;
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = records.chunk(0);
+        header.putInt(HEADER_ID_COUNTER, idCounter);
+        header.putLong(HEADER_STRINGS_END, stringsEnd);
+    }
+
+    private ByteBuffer record(int id) {
+        return records.chunk((long) id * RECORD_SIZE);
+    }
+
+    private static int position(int id) {
+        return MappedFile.position((long) id * RECORD_SIZE);
+    }
+
+    private boolean isLive(int id, TaskType type) {
+        if (id <= NO_ID || id >= idCounter) {
+            return false;
+        }
+        ByteBuffer record = record(id);
+        int position = position(id);
+        return (record.getShort(position + FLAGS) & LIVE) != 0 && record.get(position + TYPE) == type.ordinal();
+    }
+
+    private void requireLive(int id, TaskType type) {
+        if (!isLive(id, type)) {
+            throw new IllegalArgumentException("Нет записи " + type + " с id " + id);
+        }
+    }
+
+    private boolean isScheduled(int id) {
+        ByteBuffer record = record(id);
+        int position = position(id);
+        short flags = record.getShort(position + FLAGS);
+        return (flags & LIVE) != 0 && (flags & HAS_START) != 0
+                && record.get(position + TYPE) != TaskType.EPIC.ordinal();
+    }
+
+    private Status statusOf(int id) {
+        byte status = record(id).get(position(id) + STATUS);
+        return status < 0 ? null : STATUSES[status];
+    }
+
+    private void setStatus(int id, Status status) {
+        record(id).put(position(id) + STATUS, (byte) (status == null ? -1 : status.ordinal()));
+    }
+
+    private int firstSubtask(int epicId) {
+        return record(epicId).getInt(position(epicId) + LINK);
+    }
+
+    private int nextSubtask(int subtaskId) {
+        return record(subtaskId).getInt(position(subtaskId) + LINK);
+    }
+
+    /**
+     * Добавление новой подзадачи в начало списка подзадач её эпика. false — эпика нет
+     */
+    private boolean link(Subtask subtask) {
+        int epicId = subtask.getEpicId();
+        if (!isLive(epicId, TaskType.EPIC)) {
+            return false;
+        }
+        ByteBuffer epic = record(epicId);
+        record(subtask.getId()).putInt(position(subtask.getId()) + LINK, epic.getInt(position(epicId) + LINK));
+        epic.putInt(position(epicId) + LINK, subtask.getId());
+        return true;
+    }
+
+    /**
+     * Запись подзадачи при обновлении. Если epicId изменился (или подзадачи ещё не было),
+     * она убирается из списка прежнего эпика и добавляется в список нового.
+     * Возвращает прежний epicId (NO_ID — подзадачи не было)
+     */
+    private int writeSubtask(Subtask subtask) {
+        int id = subtask.getId();
+        int previousEpicId = isLive(id, TaskType.SUBTASK) ? record(id).getInt(position(id) + EPIC_ID) : NO_ID;
+        write(subtask, TaskType.SUBTASK);
+        if (previousEpicId != subtask.getEpicId()) {
+            if (isLive(previousEpicId, TaskType.EPIC)) {
+                unlink(previousEpicId, id);
+            }
+            record(id).putInt(position(id) + LINK, NO_ID);
+            link(subtask);
+        }
+        return previousEpicId;
+    }
+
+    private void unlink(int epicId, int subtaskId) {
+        int previous = NO_ID;
+        for (int id = firstSubtask(epicId); id != NO_ID; previous = id, id = nextSubtask(id)) {
+            if (id == subtaskId) {
+                int owner = previous == NO_ID ? epicId : previous;
+                record(owner).putInt(position(owner) + LINK, nextSubtask(id));
+                return;
+            }
+        }
+    }
+
+    private void kill(int id) {
+        unindex(id);
+        ByteBuffer record = record(id);
+        int position = position(id);
+        record.putShort(position + FLAGS, (short) (record.getShort(position + FLAGS) & ~LIVE));
+        historyManager.remove(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T view(int id, TaskType type) {
+        if (!isLive(id, type)) {
+            return null;
+        }
+        T task = (T) read(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    private <T extends Task> List<T> readAll(TaskType type) {
+        List<T> result = new ArrayList<>();
+        this.<T>forEachLive(type, result::add);
+        return result;
+    }
+
+    /**
+     * Обход живых записей типа type с чтением каждой задачи из хранилища по мере обхода
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> void forEachLive(TaskType type, Consumer<? super T> action) {
+        for (int id = 1; id < idCounter; id++) {
+            if (isLive(id, type)) {
+                action.accept((T) read(id));
+            }
+        }
+    }
+
+    /**
+     * Поиск задачи или подзадачи, пересекающейся по времени с task (кроме ignoredId).
+     * Границы интервалов включительные, как в Task.isOverlapping.
+     * Задачи в хранилище друг с другом не пересекаются (это проверяется при каждой записи), поэтому
+     * их окончания упорядочены так же, как начала: достаточно проверить задачи, начинающиеся внутри
+     * интервала task, и ближайшую начавшуюся раньше.
+     */
+    private int findOverlap(Task task, int ignoredId) {
+        LocalDateTime start = task.getStartTime();
+        if (start == null) {
+            return NO_ID;
+        }
+        LocalDateTime end = task.getDuration() != null ? start.plus(task.getDuration()) : start;
+        Start from = new Start(start.toEpochSecond(ZoneOffset.UTC), start.getNano(), Integer.MIN_VALUE);
+        Start to = new Start(end.toEpochSecond(ZoneOffset.UTC), end.getNano(), Integer.MAX_VALUE);
+
+        for (Start other : startIndex.subSet(from, true, to, true)) {
+            if (other.id() != ignoredId) {
+                return other.id();
+            }
+        }
+        for (Start other = startIndex.lower(from); other != null; other = startIndex.lower(other)) {
+            if (other.id() != ignoredId) {
+                return endsBefore(other.id(), from) ? NO_ID : other.id();
+            }
+        }
+        return NO_ID;
+    }
+
+    /**
+     * Заканчивается ли запись id раньше момента moment
+     */
+    private boolean endsBefore(int id, Start moment) {
+        ByteBuffer record = record(id);
+        int position = position(id);
+        long startSeconds = record.getLong(position + START_SECONDS);
+        int startNanos = record.getInt(position + START_NANOS);
+        long durationSeconds = record.getLong(position + DURATION_SECONDS);
+        int durationNanos = record.getInt(position + DURATION_NANOS);
+        long endSeconds = startSeconds + durationSeconds + (startNanos + durationNanos) / NANOS_PER_SECOND;
+        int endNanos = (startNanos + durationNanos) % NANOS_PER_SECOND;
+        return compare(endSeconds, endNanos, moment.seconds(), moment.nanos()) < 0;
+    }
+
+    private Start startOf(int id) {
+        ByteBuffer record = record(id);
+        int position = position(id);
+        return new Start(record.getLong(position + START_SECONDS), record.getInt(position + START_NANOS), id);
+    }
+
+    private void index(int id) {
+        if (isScheduled(id)) {
+            startIndex.add(startOf(id));
+        }
+    }
+
+    private void unindex(int id) {
+        if (isScheduled(id)) {
+            startIndex.remove(startOf(id));
+        }
+    }
+
+    private static int compare(long seconds, int nanos, long otherSeconds, int otherNanos) {
+        int result = Long.compare(seconds, otherSeconds);
+        return result != 0 ? result : Integer.compare(nanos, otherNanos);
+    }
+
+    private void write(Task task, TaskType type) {
+        int id = task.getId();
+        if (id <= NO_ID || id >= idCounter) {
+            throw new IllegalArgumentException("Некорректный id задачи: " + id); // id выдаёт только generateId
+        }
+        unindex(id);
+        ByteBuffer record = record(id);
+        int position = position(id);
+        boolean sameRecord = (record.getShort(position + FLAGS) & LIVE) != 0
+                && record.get(position + TYPE) == type.ordinal();
+
+        short flags = LIVE;
+        LocalDateTime start = task.getStartTime();
+        if (start != null) {
+            flags |= HAS_START;
+            record.putLong(position + START_SECONDS, start.toEpochSecond(ZoneOffset.UTC));
+            record.putInt(position + START_NANOS, start.getNano());
+        }
+        Duration duration = task.getDuration();
+        if (duration != null) {
+            flags |= HAS_DURATION;
+            record.putLong(position + DURATION_SECONDS, duration.getSeconds());
+            record.putInt(position + DURATION_NANOS, duration.getNano());
+        } else {
+            record.putLong(position + DURATION_SECONDS, 0);
+            record.putInt(position + DURATION_NANOS, 0);
+        }
+
+        writeString(record, position + NAME_OFFSET, position + NAME_LENGTH, task.getName(), sameRecord);
+        writeString(record, position + DESCRIPTION_OFFSET, position + DESCRIPTION_LENGTH,
+                task.getDescription(), sameRecord);
+
+        record.put(position + TYPE, (byte) type.ordinal());
+        record.put(position + STATUS, (byte) (task.getStatus() == null ? -1 : task.getStatus().ordinal()));
+        record.putInt(position + EPIC_ID, task instanceof Subtask subtask ? subtask.getEpicId() : NO_ID);
+        if (!sameRecord) {
+            record.putInt(position + LINK, NO_ID); // При перезаписи LINK сохраняется: он держит список подзадач
+        }
+        record.putShort(position + FLAGS, flags);
+        index(id);
+    }
+
+    /**
+     * Запись строки в кучу строк. Если строка не изменилась, используется прежняя копия,
+     * поэтому обновление статуса не увеличивает strings.bin.
+     */
+    private void writeString(ByteBuffer record, int offsetField, int lengthField, String value, boolean reuse) {
+        if (value == null) {
+            record.putLong(offsetField, 0);
+            record.putInt(lengthField, NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Слишком длинная строка: " + bytes.length + " байт");
+        }
+        if (reuse && record.getInt(lengthField) == bytes.length
+                && sameBytes(record.getLong(offsetField), bytes)) {
+            return;
+        }
+        if (MappedFile.position(stringsEnd) + bytes.length > CHUNK_SIZE) {
+            stringsEnd = (stringsEnd / CHUNK_SIZE + 1) * CHUNK_SIZE; // Строка не должна пересекать границу блока
+        }
+        strings.chunk(stringsEnd).put(MappedFile.position(stringsEnd), bytes);
+        record.putLong(offsetField, stringsEnd);
+        record.putInt(lengthField, bytes.length);
+        stringsEnd += bytes.length;
+        writeHeader();
+    }
+
+    private boolean sameBytes(long offset, byte[] bytes) {
+        ByteBuffer chunk = strings.chunk(offset);
+        int position = MappedFile.position(offset);
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(long offset, int length) {
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.chunk(offset).get(MappedFile.position(offset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Task read(int id) {
+        ByteBuffer record = record(id);
+        int position = position(id);
+        short flags = record.getShort(position + FLAGS);
+        String name = readString(record.getLong(position + NAME_OFFSET), record.getInt(position + NAME_LENGTH));
+        String description = readString(record.getLong(position + DESCRIPTION_OFFSET),
+                record.getInt(position + DESCRIPTION_LENGTH));
+        Status status = statusOf(id);
+        LocalDateTime start = (flags & HAS_START) == 0 ? null : LocalDateTime.ofEpochSecond(
+                record.getLong(position + START_SECONDS), record.getInt(position + START_NANOS), ZoneOffset.UTC);
+        Duration duration = (flags & HAS_DURATION) == 0 ? null : Duration.ofSeconds(
+                record.getLong(position + DURATION_SECONDS), record.getInt(position + DURATION_NANOS));
+
+        Task task;
+        switch (TYPES[record.get(position + TYPE)]) {
+            case EPIC:
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                List<Integer> subtaskIds = new ArrayList<>();
+                for (int subtaskId = firstSubtask(id); subtaskId != NO_ID; subtaskId = nextSubtask(subtaskId)) {
+                    subtaskIds.add(subtaskId);
+                }
+                Collections.reverse(subtaskIds);
+                epic.setSubtaskIds(subtaskIds);
+                task = epic;
+                break;
+            case SUBTASK:
+                task = new Subtask(name, description, status, record.getInt(position + EPIC_ID), duration, start);
+                break;
+            default:
+                task = new Task(name, description, status, duration, start);
+        }
+        task.setId(id);
+        return task;
+    }
+
+    /**
+     * Время начала записи id; при равном времени записи упорядочены по id
+     */
+    private record Start(long seconds, int nanos, int id) implements Comparable<Start> {
+        @Override
+        public int compareTo(Start other) {
+            int result = compare(seconds, nanos, other.seconds, other.nanos);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Файл, отображённый в память блоками по CHUNK_SIZE байт.
+     * Блоки отображаются по мере обращения, файл растёт вместе с ними.
+     */
+    private static final class MappedFile {
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+        MappedFile(Path path) throws IOException {
+            this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+        }
+
+        static int position(long offset) {
+            return (int) (offset % CHUNK_SIZE);
+        }
+
+        ByteBuffer chunk(long offset) {
+            int index = (int) (offset / CHUNK_SIZE);
+            try {
+                while (chunks.size() <= index) {
+                    chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_SIZE,
+                            CHUNK_SIZE));
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось отобразить файл хранилища: " + e.getMessage());
+            }
+            return chunks.get(index);
+        }
+
+        void force() {
+            chunks.forEach(MappedByteBuffer::force);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось закрыть файл хранилища: " + e.getMessage());
+            }
+        }
+    }
+}
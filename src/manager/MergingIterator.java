@@ -0,0 +1,47 @@
+package manager;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Слияние нескольких упорядоченных последовательностей в одну без их материализации:
+ * в куче по comparator держится по одному текущему элементу каждого источника.
+ */
+final class MergingIterator<T> implements Iterator<T> {
+    private final PriorityQueue<Head<T>> heads;
+
+    private record Head<T>(T value, Iterator<? extends T> rest) {
+    }
+
+    MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (left, right) -> comparator.compare(left.value(), right.value()));
+        for (Iterator<? extends T> source : sources) {
+            advance(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        advance(head.rest());
+        return head.value();
+    }
+
+    private void advance(Iterator<? extends T> source) {
+        if (source.hasNext()) {
+            heads.add(new Head<>(source.next(), source));
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import metrics.TaskManagerMetrics;
+import metrics.TaskManagerMetrics.Operation;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.TaskCollection;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Обёртка над менеджером задач, замеряющая каждый вызов: число вызовов и гистограмма задержек
+ * по операциям, число отказов из-за пересечений по времени, размеры коллекций.
+ * Для InMemoryTaskManager (и наследников) подключаются внутренние замеры: проверка пересечений,
+ * пересчёт статуса эпика, сохранение и загрузка файла. hasTimeOverlap и updateEpicStatus
+ * поэтому здесь не замеряются — иначе вызов попал бы в гистограмму дважды.
+ * Для IndexedTaskManager размеры берутся из индекса, а кэш задач даёт счётчики попаданий,
+ * промахов и вытеснений, объём и p99 задержки чтения с диска.
+ * Выключить замеры можно через metrics.setEnabled(false) (в том числе из JMX).
+ */
+public class MetricsTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final TaskManagerMetrics metrics;
+
+    public MetricsTaskManager(TaskManager delegate, TaskManagerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        if (delegate instanceof InMemoryTaskManager inMemory) {
+            inMemory.attachMetrics(metrics);
+            for (TaskCollection collection : TaskCollection.values()) {
+                metrics.gauge(collection.name().toLowerCase(Locale.ROOT), () -> inMemory.collectionSize(collection));
+            }
+        } else if (delegate instanceof IndexedTaskManager indexed) {
+            for (TaskCollection collection : TaskCollection.values()) {
+                metrics.gauge(collection.name().toLowerCase(Locale.ROOT), () -> indexed.collectionSize(collection));
+            }
+            metrics.gauge("cache_hits", indexed::getCacheHits);
+            metrics.gauge("cache_misses", indexed::getCacheMisses);
+            metrics.gauge("cache_evictions", indexed::getCacheEvictions);
+            metrics.gauge("cache_bytes", indexed::getCacheWeight);
+            metrics.gauge("cache_load_p99_ns", () -> indexed.getLoadLatency().getPercentile(99));
+        } else {
+            metrics.gauge("tasks", () -> delegate.getAllTasks().size());
+            metrics.gauge("subtasks", () -> delegate.getAllSubtasks().size());
+            metrics.gauge("epics", () -> delegate.getAllEpics().size());
+            metrics.gauge("prioritized", () -> delegate.getPrioritizedTasks().size());
+            metrics.gauge("history", () -> delegate.getHistory().size());
+        }
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    public TaskManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long started = metrics.start();
+        List<Task> all = delegate.getAllTasks();
+        metrics.record(Operation.GET_ALL, started);
+        return all;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        long started = metrics.start();
+        List<Subtask> all = delegate.getAllSubtasks();
+        metrics.record(Operation.GET_ALL, started);
+        return all;
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        long started = metrics.start();
+        List<Epic> all = delegate.getAllEpics();
+        metrics.record(Operation.GET_ALL, started);
+        return all;
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long started = metrics.start();
+        delegate.deleteAllTasks();
+        metrics.record(Operation.DELETE_ALL, started);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long started = metrics.start();
+        delegate.deleteAllSubtasks();
+        metrics.record(Operation.DELETE_ALL, started);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long started = metrics.start();
+        delegate.deleteAllEpics();
+        metrics.record(Operation.DELETE_ALL, started);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        long started = metrics.start();
+        Task task = delegate.getTaskById(id);
+        metrics.record(Operation.GET_BY_ID, started);
+        return task;
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        long started = metrics.start();
+        Subtask subtask = delegate.getSubtaskById(id);
+        metrics.record(Operation.GET_BY_ID, started);
+        return subtask;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        long started = metrics.start();
+        Epic epic = delegate.getEpicById(id);
+        metrics.record(Operation.GET_BY_ID, started);
+        return epic;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long started = metrics.start();
+        List<Task> history = delegate.getHistory();
+        metrics.record(Operation.GET_HISTORY, started);
+        return history;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long started = metrics.start();
+        List<Task> prioritized = delegate.getPrioritizedTasks();
+        metrics.record(Operation.GET_PRIORITIZED, started);
+        return prioritized;
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.addTask(task);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.ADD_TASK, started);
+        }
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.addSubtask(subtask);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.ADD_SUBTASK, started);
+        }
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        long started = metrics.start();
+        delegate.addEpic(epic);
+        metrics.record(Operation.ADD_EPIC, started);
+    }
+
+    @Override
+    public void updateEpicStatus(int epicId) {
+        delegate.updateEpicStatus(epicId);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.updateTask(task);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.UPDATE_TASK, started);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.updateSubtask(subtask);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.UPDATE_SUBTASK, started);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long started = metrics.start();
+        delegate.updateEpic(epic);
+        metrics.record(Operation.UPDATE_EPIC, started);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long started = metrics.start();
+        delegate.deleteTask(id);
+        metrics.record(Operation.DELETE, started);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        long started = metrics.start();
+        delegate.deleteSubtask(id);
+        metrics.record(Operation.DELETE, started);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        long started = metrics.start();
+        delegate.deleteEpic(id);
+        metrics.record(Operation.DELETE, started);
+    }
+
+    @Override
+    public boolean hasTimeOverlap(Task task) {
+        if (delegate instanceof InMemoryTaskManager) {
+            return delegate.hasTimeOverlap(task); // Замеряется внутри
+        }
+        long started = metrics.start();
+        boolean isOverlapping = delegate.hasTimeOverlap(task);
+        metrics.record(Operation.TIME_OVERLAP, started);
+        return isOverlapping;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpicId(int epicId) {
+        long started = metrics.start();
+        List<Subtask> subtasks = delegate.getAllSubtasksByEpicId(epicId);
+        metrics.record(Operation.GET_ALL, started);
+        return subtasks;
+    }
+
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.addTasks(batch);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.ADD_BATCH, started);
+        }
+    }
+
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.addSubtasks(batch);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.ADD_BATCH, started);
+        }
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        long started = metrics.start();
+        try {
+            delegate.updateSubtasks(batch);
+        } catch (TimeConflictException e) {
+            metrics.recordConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.UPDATE_BATCH, started);
+        }
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        delegate.forEachTask(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        delegate.forEachSubtask(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        delegate.forEachEpic(action);
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        delegate.forEachPrioritized(action);
+    }
+
+    @Override
+    public Task forEachAfter(TaskCollection collection, Task after, int limit, Consumer<? super Task> action) {
+        return delegate.forEachAfter(collection, after, limit, action);
+    }
+
+    @Override
+    public long getModificationVersion(TaskCollection collection) {
+        return delegate.getModificationVersion(collection);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return delegate.getChangeFeed();
+    }
+}
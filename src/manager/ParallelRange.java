@@ -0,0 +1,62 @@
+package manager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Разбиение диапазона индексов [0, size) пополам в ForkJoinPool до кусков не длиннее threshold.
+ * Диапазон не длиннее threshold считается в вызывающем потоке без обращения к пулу,
+ * поэтому на маленьких досках параллельные запросы не дороже последовательных.
+ * Результаты кусков объединяются combine слева направо, порядок индексов сохраняется.
+ */
+final class ParallelRange {
+
+    /**
+     * Обработка куска [from, to)
+     */
+    @FunctionalInterface
+    interface Leaf<R> {
+        R compute(int from, int to);
+    }
+
+    private ParallelRange() {
+    }
+
+    static <R> R reduce(ForkJoinPool pool, int size, int threshold, Leaf<R> leaf, BinaryOperator<R> combine) {
+        if (size <= threshold) {
+            return leaf.compute(0, size);
+        }
+        return pool.invoke(new Part<>(0, size, threshold, leaf, combine));
+    }
+
+    private static final class Part<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Leaf<R> leaf;
+        private final BinaryOperator<R> combine;
+
+        Part(int from, int to, int threshold, Leaf<R> leaf, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                return leaf.compute(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Part<R> right = new Part<>(middle, to, threshold, leaf, combine);
+            right.fork();
+            R left = new Part<>(from, middle, threshold, leaf, combine).compute();
+            return combine.apply(left, right.join());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package manager;
+
+import model.Occurrence;
+import model.Recurrence;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * Повторяющаяся задача: шаблон (название, описание, статус, продолжительность и время первого вхождения)
+ * и правило повторения. Вхождения не хранятся — номера вхождений в окне времени вычисляются
+ * по правилу, поэтому проверка окна стоит O(число вхождений в окне), а не O(размер серии).
+ * Хранятся только исключения: номера отменённых вхождений (в том числе вынесенных
+ * в отдельные задачи после редактирования).
+ */
+public final class RecurringSeries {
+    private final int id;
+    private final Task template;
+    private final Recurrence rule;
+    private final Duration duration;
+    private final int occurrenceCount;
+    private final NavigableSet<Integer> cancelled = new TreeSet<>();
+
+    RecurringSeries(int id, Task template, Recurrence rule) {
+        if (template.getStartTime() == null || template.getDuration() == null) {
+            throw new IllegalArgumentException("У повторяющейся задачи должны быть время начала и продолжительность");
+        }
+        if (template.getDuration().compareTo(rule.minimumStep()) >= 0) {
+            throw new IllegalArgumentException("Вхождения серии пересекаются друг с другом: " + rule);
+        }
+        this.id = id;
+        this.template = template;
+        this.rule = rule;
+        this.duration = template.getDuration();
+        this.occurrenceCount = rule.occurrenceCount(template.getStartTime());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getTemplate() {
+        return template;
+    }
+
+    public Recurrence getRule() {
+        return rule;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public NavigableSet<Integer> getCancelled() {
+        return Collections.unmodifiableNavigableSet(cancelled);
+    }
+
+    public LocalDateTime getFirstStart() {
+        return template.getStartTime();
+    }
+
+    /**
+     * Окончание последнего вхождения (отменённые тоже учитываются); null — в серии нет вхождений
+     */
+    public LocalDateTime getLastEnd() {
+        return occurrenceCount == 0 ? null : startOf(occurrenceCount - 1).plus(duration);
+    }
+
+    /**
+     * Вхождение с номером index; null — номер вне серии или вхождение отменено
+     */
+    public Occurrence getOccurrence(int index) {
+        if (index < 0 || index >= occurrenceCount || cancelled.contains(index)) {
+            return null;
+        }
+        return occurrence(index);
+    }
+
+    /**
+     * Вхождения, пересекающиеся с отрезком [from, to] (концы включительно, как в Task.isOverlapping).
+     * to = null — до конца серии
+     */
+    public List<Occurrence> getOccurrences(LocalDateTime from, LocalDateTime to) {
+        List<Occurrence> result = new ArrayList<>();
+        for (int index = firstTouching(from); index < occurrenceCount; index++) {
+            LocalDateTime start = startOf(index);
+            if (to != null && start.isAfter(to)) {
+                break;
+            }
+            if (!cancelled.contains(index)) {
+                result.add(new Occurrence(template, id, index, start, duration));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Неотменённые вхождения, окончание которых не раньше from, по возрастанию начала. Вхождения создаются
+     * по мере обхода, поэтому прерванный обход не разворачивает остаток серии
+     */
+    Iterator<Occurrence> occurrencesFrom(LocalDateTime from) {
+        return new Iterator<>() {
+            private int index = nextActive(firstTouching(from));
+
+            @Override
+            public boolean hasNext() {
+                return index < occurrenceCount;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence next = occurrence(index);
+                index = nextActive(index + 1);
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Первое неотменённое вхождение, пересекающееся с отрезком [from, to]; null — таких нет
+     */
+    public Occurrence findOverlapping(LocalDateTime from, LocalDateTime to) {
+        for (int index = firstTouching(from); index < occurrenceCount; index++) {
+            LocalDateTime start = startOf(index);
+            if (start.isAfter(to)) {
+                return null;
+            }
+            if (!cancelled.contains(index)) {
+                return occurrence(index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Отмена вхождения. false — вхождение уже отменено
+     */
+    boolean cancel(int index) {
+        if (index < 0 || index >= occurrenceCount) {
+            throw new IllegalArgumentException("Вхождения " + index + " нет в серии " + id);
+        }
+        return cancelled.add(index);
+    }
+
+    void restore(int index) {
+        cancelled.remove(index);
+    }
+
+    /**
+     * Номер первого вхождения, окончание которого не раньше from
+     */
+    private int firstTouching(LocalDateTime from) {
+        return rule.firstIndexAtOrAfter(template.getStartTime(), from.minus(duration));
+    }
+
+    private int nextActive(int index) {
+        while (index < occurrenceCount && cancelled.contains(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private LocalDateTime startOf(int index) {
+        return rule.occurrenceStart(template.getStartTime(), index);
+    }
+
+    private Occurrence occurrence(int index) {
+        return new Occurrence(template, id, index, startOf(index), duration);
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringSeries{" +
+                "id=" + id +
+                ", name='" + template.getName() + '\'' +
+                ", rule=" + rule +
+                ", cancelled=" + cancelled.size() +
+                '}';
+    }
+}
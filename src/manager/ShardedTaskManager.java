@@ -0,0 +1,264 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Несколько независимых досок в одном процессе: у каждой доски свой менеджер задач (и свой файл).
+ * Менеджер доски создаётся при первом обращении; в памяти держится не больше maxLoadedBoards досок,
+ * давно не использованные вытесняются (LRU). FileBackedTaskManager сохраняет каждое изменение сразу,
+ * поэтому вытеснение — это просто забытая ссылка, при следующем обращении доска читается из файла.
+ * Глобальный id задачи — long: в старших 32 битах номер доски, в младших — id задачи внутри доски.
+ * Потокобезопасен: вызовы одной доски выполняются под её собственной блокировкой, от поиска доски до
+ * конца операции, а доска с выполняющимся вызовом закреплена и не вытесняется — поэтому у доски не бывает
+ * двух живых менеджеров, пишущих один файл. Вызовы разных досок идут параллельно. Пока все доски
+ * закреплены, в памяти может временно оказаться больше maxLoadedBoards досок.
+ */
+public final class ShardedTaskManager {
+    static final String BOARD_PREFIX = "board-";
+    static final String BOARD_SUFFIX = ".csv";
+    static final int BOARD_FEED_CAPACITY = 1 << 10;
+
+    private final IntFunction<? extends TaskManager> loader;
+    private final int maxLoadedBoards;
+    private final Map<Integer, Board> boards = new LinkedHashMap<>(16, 0.75f, true);
+    private long loads;
+    private long evictions;
+
+    /**
+     * Операция над менеджером одной доски
+     */
+    @FunctionalInterface
+    public interface BoardOperation<T, E extends Exception> {
+        T apply(TaskManager board) throws E;
+    }
+
+    /**
+     * Доска в таблице: блокировка её вызовов и число вызовов, закрепивших доску. Доска без менеджера
+     * ещё загружается; после неудачной загрузки она убирается из таблицы
+     */
+    private static final class Board {
+        private final int id;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile TaskManager manager;
+        private int pins; // Под монитором ShardedTaskManager
+
+        private Board(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * @param loader создаёт менеджер доски по её номеру; менеджеры без сохранения на диск
+     *               теряют данные при вытеснении
+     */
+    public ShardedTaskManager(int maxLoadedBoards, IntFunction<? extends TaskManager> loader) {
+        if (maxLoadedBoards < 1) {
+            throw new IllegalArgumentException("Число досок в памяти должно быть положительным: " + maxLoadedBoards);
+        }
+        this.loader = loader;
+        this.maxLoadedBoards = maxLoadedBoards;
+    }
+
+    /**
+     * Доски в файлах directory/board-N.csv. Лента изменений каждой доски уменьшена до BOARD_FEED_CAPACITY
+     * событий: буфер по умолчанию (около 1 МБ) на тысячи досок не помещается в память
+     */
+    public static ShardedTaskManager fileBacked(Path directory, int maxLoadedBoards) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось создать каталог досок: " + directory);
+        }
+        return new ShardedTaskManager(maxLoadedBoards,
+                boardId -> new FileBackedTaskManager(boardPath(directory, boardId).toString(), 0,
+                        BOARD_FEED_CAPACITY));
+    }
+
+    static Path boardPath(Path directory, int boardId) {
+        return directory.resolve(BOARD_PREFIX + boardId + BOARD_SUFFIX);
+    }
+
+    public static long globalId(int boardId, int localId) {
+        return (long) boardId << 32 | (localId & 0xFFFFFFFFL);
+    }
+
+    public static int boardOf(long globalId) {
+        return (int) (globalId >>> 32);
+    }
+
+    public static int localIdOf(long globalId) {
+        return (int) globalId;
+    }
+
+    /**
+     * Выполнение operation над менеджером доски boardId под блокировкой доски; при первом обращении
+     * (или после вытеснения) доска загружается. Ссылку на менеджер не следует сохранять после вызова
+     */
+    public <T, E extends Exception> T withBoard(int boardId, BoardOperation<T, E> operation) throws E {
+        if (boardId < 0) {
+            throw new IllegalArgumentException("Номер доски не может быть отрицательным: " + boardId);
+        }
+        Board board = pin(boardId);
+        try {
+            board.lock.lock();
+            try {
+                TaskManager manager = board.manager;
+                if (manager == null) {
+                    manager = loader.apply(boardId);
+                    board.manager = manager;
+                    synchronized (this) {
+                        loads++;
+                    }
+                }
+                return operation.apply(manager);
+            } finally {
+                board.lock.unlock();
+            }
+        } finally {
+            unpin(board);
+        }
+    }
+
+    /**
+     * Менеджер доски boardId (доска загружается при необходимости). Вызовы возвращённого менеджера
+     * не защищены блокировкой доски, и после вытеснения он отделён от файла — для доступа из нескольких
+     * потоков используйте withBoard или методы с номером доски
+     */
+    public TaskManager board(int boardId) {
+        return withBoard(boardId, manager -> manager);
+    }
+
+    private synchronized Board pin(int boardId) {
+        Board board = boards.computeIfAbsent(boardId, Board::new);
+        board.pins++;
+        return board;
+    }
+
+    /**
+     * Снятие закрепления и вытеснение давно не использованных незакреплённых досок сверх лимита.
+     * Незакреплённую доску никто не держит под блокировкой, поэтому её менеджер можно забыть
+     */
+    private synchronized void unpin(Board board) {
+        board.pins--;
+        if (board.pins == 0 && board.manager == null) {
+            boards.remove(board.id);
+        }
+        Iterator<Board> eldest = boards.values().iterator();
+        while (boards.size() > maxLoadedBoards && eldest.hasNext()) {
+            Board candidate = eldest.next();
+            if (candidate.pins == 0) {
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Доска в памяти или загружается сейчас; проверка не меняет порядок вытеснения
+     */
+    public synchronized boolean isLoaded(int boardId) {
+        return boards.containsKey(boardId);
+    }
+
+    public synchronized int getLoadedBoards() {
+        return boards.size();
+    }
+
+    /**
+     * Число загрузок досок (первые обращения и повторные после вытеснения)
+     */
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Добавление задачи в доску boardId. Возвращает глобальный id задачи
+     */
+    public long addTask(int boardId, Task task) throws TimeConflictException {
+        return withBoard(boardId, board -> {
+            board.addTask(task);
+            return globalId(boardId, task.getId());
+        });
+    }
+
+    public long addEpic(int boardId, Epic epic) {
+        return withBoard(boardId, board -> {
+            board.addEpic(epic);
+            return globalId(boardId, epic.getId());
+        });
+    }
+
+    /**
+     * Добавление подзадачи в доску boardId; epicId подзадачи — локальный id эпика в этой доске
+     */
+    public long addSubtask(int boardId, Subtask subtask) throws TimeConflictException {
+        return withBoard(boardId, board -> {
+            board.addSubtask(subtask);
+            return globalId(boardId, subtask.getId());
+        });
+    }
+
+    public Task getTaskById(long globalId) {
+        return withBoard(boardOf(globalId), board -> board.getTaskById(localIdOf(globalId)));
+    }
+
+    public Subtask getSubtaskById(long globalId) {
+        return withBoard(boardOf(globalId), board -> board.getSubtaskById(localIdOf(globalId)));
+    }
+
+    public Epic getEpicById(long globalId) {
+        return withBoard(boardOf(globalId), board -> board.getEpicById(localIdOf(globalId)));
+    }
+
+    public void updateTask(int boardId, Task task) throws TimeConflictException {
+        withBoard(boardId, board -> {
+            board.updateTask(task);
+            return null;
+        });
+    }
+
+    public void updateSubtask(int boardId, Subtask subtask) throws TimeConflictException {
+        withBoard(boardId, board -> {
+            board.updateSubtask(subtask);
+            return null;
+        });
+    }
+
+    public void deleteTask(long globalId) {
+        withBoard(boardOf(globalId), board -> {
+            board.deleteTask(localIdOf(globalId));
+            return null;
+        });
+    }
+
+    public void deleteSubtask(long globalId) {
+        withBoard(boardOf(globalId), board -> {
+            board.deleteSubtask(localIdOf(globalId));
+            return null;
+        });
+    }
+
+    public void deleteEpic(long globalId) {
+        withBoard(boardOf(globalId), board -> {
+            board.deleteEpic(localIdOf(globalId));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,206 @@
+package manager;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сетка занятости по слотам SLOT: на каждый день — битовая маска из SLOTS_PER_DAY бит,
+ * дни без задач в карте не хранятся. Задача занимает все слоты, в которые попадает её
+ * замкнутый интервал [начало, конец], поэтому пересекающиеся задачи (Task.isOverlapping)
+ * всегда делят хотя бы один слот. Обратное неверно для задач, не выровненных по слотам:
+ * занятый слот — только кандидат на пересечение, свободные слоты гарантируют его отсутствие.
+ */
+final class SlotGrid {
+    static final Duration SLOT = Duration.ofMinutes(15);
+    static final int SLOTS_PER_DAY = (int) (Duration.ofDays(1).getSeconds() / SLOT.getSeconds());
+    private static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final TreeMap<Long, long[]> days = new TreeMap<>();
+
+    void add(Task task) {
+        if (task.getStartTime() != null) {
+            set(firstSlot(task), lastSlot(task));
+        }
+    }
+
+    /**
+     * Освобождение слотов задачи; крайние слоты, общие с соседними задачами,
+     * вызывающий отмечает заново
+     */
+    void remove(Task task) {
+        if (task.getStartTime() == null) {
+            return;
+        }
+        long first = firstSlot(task);
+        long last = lastSlot(task);
+        Iterator<Map.Entry<Long, long[]>> iterator =
+                days.subMap(dayOf(first), true, dayOf(last), true).entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, long[]> entry = iterator.next();
+            long[] words = entry.getValue();
+            long dayStart = entry.getKey() * SLOTS_PER_DAY;
+            int from = (int) Math.max(first - dayStart, 0);
+            int to = (int) Math.min(last - dayStart, SLOTS_PER_DAY - 1);
+            boolean isEmpty = true;
+            for (int word = 0; word < WORDS_PER_DAY; word++) {
+                words[word] &= ~mask(word, from, to);
+                isEmpty &= words[word] == 0;
+            }
+            if (isEmpty) {
+                iterator.remove();
+            }
+        }
+    }
+
+    void clear() {
+        days.clear();
+    }
+
+    /**
+     * Занят ли хотя бы один слот задачи: проверка по словам маски, без обхода задач
+     */
+    boolean isOccupied(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        long first = firstSlot(task);
+        long last = lastSlot(task);
+        for (Map.Entry<Long, long[]> entry : days.subMap(dayOf(first), true, dayOf(last), true).entrySet()) {
+            long[] words = entry.getValue();
+            long dayStart = entry.getKey() * SLOTS_PER_DAY;
+            int from = (int) Math.max(first - dayStart, 0);
+            int to = (int) Math.min(last - dayStart, SLOTS_PER_DAY - 1);
+            for (int word = 0; word < WORDS_PER_DAY; word++) {
+                if ((words[word] & mask(word, from, to)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Самое раннее начало слота не раньше after, с которого задачу продолжительностью duration
+     * можно добавить без пересечений: все слоты её интервала свободны
+     */
+    LocalDateTime findFree(LocalDateTime after, Duration duration) {
+        long required = requiredSlots(duration);
+        long candidate = slotAtOrAfter(after);
+        while (true) {
+            long occupied = nextSetSlot(candidate);
+            if (occupied == NONE || occupied - candidate >= required) {
+                return toDateTime(candidate);
+            }
+            candidate = nextClearSlot(occupied);
+        }
+    }
+
+    /**
+     * Число слотов, которое занимает задача продолжительностью duration, начатая на границе слота:
+     * конец интервала включительно попадает в следующий слот
+     */
+    static long requiredSlots(Duration duration) {
+        return duration.getSeconds() / SLOT.getSeconds() + 1;
+    }
+
+    private void set(long first, long last) {
+        for (long day = dayOf(first); day <= dayOf(last); day++) {
+            long[] words = days.computeIfAbsent(day, k -> new long[WORDS_PER_DAY]);
+            long dayStart = day * SLOTS_PER_DAY;
+            int from = (int) Math.max(first - dayStart, 0);
+            int to = (int) Math.min(last - dayStart, SLOTS_PER_DAY - 1);
+            for (int word = 0; word < WORDS_PER_DAY; word++) {
+                words[word] |= mask(word, from, to);
+            }
+        }
+    }
+
+    private long nextSetSlot(long from) {
+        long fromDay = dayOf(from);
+        for (Map.Entry<Long, long[]> entry : days.tailMap(fromDay, true).entrySet()) {
+            long[] words = entry.getValue();
+            int bit = entry.getKey() == fromDay ? Math.floorMod(from, SLOTS_PER_DAY) : 0;
+            for (int word = bit / Long.SIZE; word < WORDS_PER_DAY; word++) {
+                long bits = words[word];
+                if (word == bit / Long.SIZE) {
+                    bits &= -1L << bit;
+                }
+                if (bits != 0) {
+                    return entry.getKey() * SLOTS_PER_DAY + (long) word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private long nextClearSlot(long from) {
+        long slot = from;
+        while (true) {
+            long day = dayOf(slot);
+            long[] words = days.get(day);
+            if (words == null) {
+                return slot;
+            }
+            int bit = Math.floorMod(slot, SLOTS_PER_DAY);
+            for (int word = bit / Long.SIZE; word < WORDS_PER_DAY; word++) {
+                long bits = ~words[word];
+                if (word == bit / Long.SIZE) {
+                    bits &= -1L << bit;
+                }
+                int found = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                if (bits != 0 && found < SLOTS_PER_DAY) {
+                    return day * SLOTS_PER_DAY + found;
+                }
+            }
+            slot = (day + 1) * SLOTS_PER_DAY;
+        }
+    }
+
+    /**
+     * Маска бит from..to (включительно) внутри слова с номером word
+     */
+    private static long mask(int word, int from, int to) {
+        int low = Math.max(from, word * Long.SIZE);
+        int high = Math.min(to, word * Long.SIZE + Long.SIZE - 1);
+        if (low > high) {
+            return 0;
+        }
+        return (-1L >>> (Long.SIZE - 1 - (high - low))) << (low % Long.SIZE);
+    }
+
+    static long firstSlot(Task task) {
+        return slotOf(task.getStartTime());
+    }
+
+    static long lastSlot(Task task) {
+        LocalDateTime end = task.getEndTime();
+        return slotOf(end != null ? end : task.getStartTime());
+    }
+
+    static long slotOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SLOT.getSeconds());
+    }
+
+    /**
+     * Первый слот, начинающийся не раньше dateTime
+     */
+    static long slotAtOrAfter(LocalDateTime dateTime) {
+        long slot = slotOf(dateTime);
+        return toDateTime(slot).equals(dateTime) ? slot : slot + 1;
+    }
+
+    private static long dayOf(long slot) {
+        return Math.floorDiv(slot, SLOTS_PER_DAY);
+    }
+
+    static LocalDateTime toDateTime(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * SLOT.getSeconds(), 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,24 @@
+package manager;
+
+import java.io.IOException;
+
+/**
+ * Сжатие снимков FileBackedTaskManager. Снимок сжимается независимыми блоками (см. SnapshotFrames),
+ * поэтому реализация получает блок целиком и может вызываться из нескольких потоков одновременно.
+ * Имя кодека записывается в начало файла и используется при чтении для выбора кодека.
+ */
+public interface SnapshotCodec {
+    SnapshotCodec DEFLATE = new DeflateSnapshotCodec();
+
+    /**
+     * Имя кодека в файле: латинские буквы, цифры и '-'
+     */
+    String name();
+
+    byte[] compress(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * @param originalLength длина блока до сжатия; блок другой длины считается повреждённым
+     */
+    byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException;
+}
@@ -0,0 +1,153 @@
+package manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Блочный формат сжатого снимка: строка "#codec=имя", затем блоки
+ * [длина до сжатия: int][длина после сжатия: int][сжатые байты].
+ * Блок — это очередной буфер TaskCsvWriter (до BLOCK_SIZE байт), сжатый независимо от остальных,
+ * поэтому при чтении блоки распаковываются параллельно. Внутри — обычный CSV снимка
+ * с завершающей строкой "#rows=N;crc32=X", которая проверяется уже после распаковки.
+ */
+final class SnapshotFrames {
+    static final String CODEC_PREFIX = "#codec=";
+    private static final byte[] CODEC_PREFIX_BYTES = CODEC_PREFIX.getBytes(StandardCharsets.UTF_8);
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final Map<String, SnapshotCodec> CODECS = new ConcurrentHashMap<>(
+            Map.of(SnapshotCodec.DEFLATE.name(), SnapshotCodec.DEFLATE));
+
+    private SnapshotFrames() {
+    }
+
+    /**
+     * Регистрация кодека для чтения снимков с его именем (кодек с тем же именем заменяется)
+     */
+    static void register(SnapshotCodec codec) {
+        if (!codec.name().matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("Некорректное имя кодека: " + codec.name());
+        }
+        CODECS.put(codec.name(), codec);
+    }
+
+    /**
+     * Обёртка, которая сжимает каждый блок снимка и пишет его в target с заголовком блока;
+     * перед первым блоком пишется строка с именем кодека
+     */
+    static FileBackedTaskManager.BlockWriter compressing(SnapshotCodec codec,
+                                                         FileBackedTaskManager.BlockWriter target) {
+        return new CompressingWriter(codec, target);
+    }
+
+    static boolean isFramed(byte[] bytes) {
+        int length = CODEC_PREFIX_BYTES.length;
+        return bytes.length >= length && Arrays.equals(bytes, 0, length, CODEC_PREFIX_BYTES, 0, length);
+    }
+
+    static boolean isFramed(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            return isFramed(input.readNBytes(CODEC_PREFIX_BYTES.length));
+        }
+    }
+
+    /**
+     * Распаковка снимка. IOException — файл обрезан, повреждён или записан незарегистрированным кодеком;
+     * как и несовпадение контрольной суммы, это повод читать .bak
+     */
+    static byte[] decode(byte[] bytes) throws IOException {
+        int lineEnd = CODEC_PREFIX_BYTES.length;
+        while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+            lineEnd++;
+        }
+        if (lineEnd == bytes.length) {
+            throw new IOException("Обрезанная строка кодека");
+        }
+        String name = new String(bytes, CODEC_PREFIX_BYTES.length, lineEnd - CODEC_PREFIX_BYTES.length,
+                StandardCharsets.UTF_8);
+        SnapshotCodec codec = CODECS.get(name);
+        if (codec == null) {
+            throw new IOException("Неизвестный кодек снимка: " + name);
+        }
+
+        List<int[]> frames = new ArrayList<>(); // Смещение и длина сжатого блока, смещение и длина распакованного
+        ByteBuffer input = ByteBuffer.wrap(bytes);
+        input.position(lineEnd + 1);
+        long total = 0;
+        while (input.hasRemaining()) {
+            if (input.remaining() < FRAME_HEADER_BYTES) {
+                throw new IOException("Обрезанный заголовок блока");
+            }
+            int length = input.getInt();
+            int packed = input.getInt();
+            // Писатель не создаёт блоков больше BLOCK_SIZE: больший размер — повреждённый заголовок,
+            // и массив под него выделять нельзя
+            if (length < 0 || length > TaskCsvWriter.BLOCK_SIZE || packed < 0 || packed > input.remaining()
+                    || total + length > Integer.MAX_VALUE - 8) {
+                throw new IOException("Некорректный заголовок блока: длина " + length + ", сжатая " + packed);
+            }
+            frames.add(new int[]{input.position(), packed, (int) total, length});
+            total += length;
+            input.position(input.position() + packed);
+        }
+
+        byte[] output = new byte[(int) total];
+        try {
+            IntStream.range(0, frames.size()).parallel().forEach(i -> {
+                int[] frame = frames.get(i);
+                try {
+                    byte[] block = codec.decompress(bytes, frame[0], frame[1], frame[3]);
+                    if (block.length != frame[3]) {
+                        throw new IOException("Длина блока не совпадает: " + block.length + " вместо " + frame[3]);
+                    }
+                    System.arraycopy(block, 0, output, frame[2], block.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return output;
+    }
+
+    private static final class CompressingWriter implements FileBackedTaskManager.BlockWriter {
+        private final SnapshotCodec codec;
+        private final FileBackedTaskManager.BlockWriter target;
+        private boolean isStarted;
+
+        CompressingWriter(SnapshotCodec codec, FileBackedTaskManager.BlockWriter target) {
+            this.codec = codec;
+            this.target = target;
+        }
+
+        @Override
+        public void write(FileChannel channel, ByteBuffer block) throws IOException {
+            if (!isStarted) {
+                target.write(channel, ByteBuffer.wrap((CODEC_PREFIX + codec.name() + "\n")
+                        .getBytes(StandardCharsets.UTF_8)));
+                isStarted = true;
+            }
+            int length = block.remaining();
+            byte[] compressed = codec.compress(block.array(), block.arrayOffset() + block.position(), length);
+            block.position(block.limit());
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + compressed.length);
+            frame.putInt(length).putInt(compressed.length).put(compressed).flip();
+            target.write(channel, frame);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package manager;
+
+import metrics.LatencyHistogram;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Кэш названий и описаний задач для IndexedTaskManager: сегментированный LRU с ограничением
+ * по оценке занимаемой памяти, а не по числу записей.
+ * Новая запись попадает в испытательный сегмент, повторное обращение переводит её в защищённый
+ * (не больше PROTECTED_SHARE от ёмкости). Вытесняется самая давняя запись испытательного сегмента,
+ * поэтому однократные обращения к длинному хвосту не вымывают часто читаемые задачи.
+ * Чтение меняет порядок сегментов и счётчики, поэтому все операции идут под монитором кэша — параллельные
+ * чтения менеджера (списки под общей блокировкой чтения HTTP-сервера) его не портят. Загрузка при
+ * промахе выполняется вне монитора.
+ */
+final class TaskBodyCache {
+    static final double PROTECTED_SHARE = 0.8;
+    private static final int ENTRY_OVERHEAD = 96; // Запись, два объекта String и узел LinkedHashMap
+
+    /**
+     * Поля задачи, которые не хранятся в индексе
+     */
+    record Body(String name, String description) {
+        long weight() {
+            return ENTRY_OVERHEAD + bytes(name) + bytes(description);
+        }
+
+        private static long bytes(String value) {
+            return value == null ? 0 : 2L * value.length();
+        }
+    }
+
+    private final long capacity;
+    private final long protectedCapacity;
+    private final LinkedHashMap<Integer, Body> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, Body> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private long probationWeight;
+    private long protectedWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    TaskBodyCache(long capacityBytes) {
+        if (capacityBytes < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным: " + capacityBytes);
+        }
+        this.capacity = capacityBytes;
+        this.protectedCapacity = (long) (capacityBytes * PROTECTED_SHARE);
+    }
+
+    /**
+     * Чтение через кэш: при промахе запись загружается loader, время загрузки попадает в гистограмму
+     */
+    Body get(int id, IntFunction<Body> loader) {
+        Body body = lookup(id);
+        if (body != null) {
+            return body;
+        }
+        long started = System.nanoTime();
+        body = loader.apply(id);
+        loaded(id, body, System.nanoTime() - started);
+        return body;
+    }
+
+    private synchronized Body lookup(int id) {
+        Body body = protectedSegment.get(id);
+        if (body != null) {
+            hits++;
+            return body;
+        }
+        body = probation.remove(id);
+        if (body != null) {
+            hits++;
+            probationWeight -= body.weight();
+            protect(id, body);
+        }
+        return body;
+    }
+
+    /**
+     * Учёт промаха; запись, которую за время загрузки уже добавил другой читатель, не дублируется
+     */
+    private synchronized void loaded(int id, Body body, long nanos) {
+        misses++;
+        loadLatency.record(nanos);
+        if (body != null && !probation.containsKey(id) && !protectedSegment.containsKey(id)) {
+            admit(id, body);
+        }
+    }
+
+    /**
+     * Запись нового значения (после добавления или изменения задачи) без изменения статистики
+     */
+    synchronized void put(int id, Body body) {
+        Body previous = protectedSegment.get(id);
+        if (previous != null) {
+            protectedSegment.remove(id);
+            protectedWeight -= previous.weight();
+            protect(id, body);
+            return;
+        }
+        invalidate(id);
+        admit(id, body);
+    }
+
+    synchronized void invalidate(int id) {
+        Body removed = probation.remove(id);
+        if (removed != null) {
+            probationWeight -= removed.weight();
+        }
+        removed = protectedSegment.remove(id);
+        if (removed != null) {
+            protectedWeight -= removed.weight();
+        }
+    }
+
+    synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    private void admit(int id, Body body) {
+        probation.put(id, body);
+        probationWeight += body.weight();
+        evict();
+    }
+
+    /**
+     * Перевод в защищённый сегмент; его самые давние записи возвращаются в испытательный
+     */
+    private void protect(int id, Body body) {
+        protectedSegment.put(id, body);
+        protectedWeight += body.weight();
+        Iterator<Map.Entry<Integer, Body>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedWeight > protectedCapacity && eldest.hasNext()) {
+            Map.Entry<Integer, Body> entry = eldest.next();
+            eldest.remove();
+            protectedWeight -= entry.getValue().weight();
+            probation.put(entry.getKey(), entry.getValue());
+            probationWeight += entry.getValue().weight();
+        }
+        evict();
+    }
+
+    private void evict() {
+        evictFrom(probation, true);
+        evictFrom(protectedSegment, false);
+    }
+
+    private void evictFrom(LinkedHashMap<Integer, Body> segment, boolean isProbation) {
+        Iterator<Map.Entry<Integer, Body>> eldest = segment.entrySet().iterator();
+        while (weight() > capacity && eldest.hasNext()) {
+            long entryWeight = eldest.next().getValue().weight();
+            eldest.remove();
+            if (isProbation) {
+                probationWeight -= entryWeight;
+            } else {
+                protectedWeight -= entryWeight;
+            }
+            evictions++;
+        }
+    }
+}
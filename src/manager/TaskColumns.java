@@ -0,0 +1,279 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+import util.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Колоночная проекция задач для отчётов: параллельные массивы примитивов (id, тип, статус, эпик,
+ * начало в секундах, продолжительность в секундах) вместо обхода объектов Task с их LocalDateTime и Duration.
+ * Строки плотные: при удалении на место удалённой строки переносится последняя.
+ * Агрегации делят строки на куски по числу потоков общего пула и считают куски параллельно.
+ * InMemoryTaskManager обновляет проекцию при каждом изменении задач (см. getColumns);
+ * как и менеджер, проекция не потокобезопасна, изменения во время агрегации не допускаются.
+ */
+public final class TaskColumns {
+    public static final int NO_EPIC = -1;
+    public static final long NO_START = Long.MIN_VALUE;
+    private static final int STATUSES = Status.values().length;
+    private static final int MIN_CHUNK = 1 << 16;
+    private static final int MAX_DAY_COUNTERS = 1 << 20;
+
+    private int[] ids = new int[16];
+    private byte[] types = new byte[16];
+    private byte[] statuses = new byte[16];
+    private int[] epicIds = new int[16];
+    private long[] starts = new long[16];
+    private long[] durations = new long[16];
+    private int[] rowById = new int[16]; // Номер строки + 1; 0 — задачи нет
+    private int size;
+
+    TaskColumns() {
+    }
+
+    /**
+     * Проекция заданных задач (например, выгрузки другого менеджера); задачи читаются один раз
+     */
+    public static TaskColumns of(Iterable<? extends Task> tasks) {
+        TaskColumns columns = new TaskColumns();
+        tasks.forEach(columns::put);
+        return columns;
+    }
+
+    /**
+     * Добавление строки или замена строки с тем же id
+     */
+    void put(Task task) {
+        int id = task.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Некорректный id задачи: " + id);
+        }
+        if (id >= rowById.length) {
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, rowById.length * 2));
+        }
+        int row = rowById[id] - 1;
+        if (row < 0) {
+            row = size++;
+            if (row == ids.length) {
+                grow();
+            }
+            rowById[id] = row + 1;
+        }
+        ids[row] = id;
+        types[row] = (byte) (task instanceof Epic ? TaskType.EPIC : task instanceof Subtask ? TaskType.SUBTASK
+                : TaskType.TASK).ordinal();
+        statuses[row] = (byte) (task.getStatus() == null ? Status.NEW : task.getStatus()).ordinal();
+        epicIds[row] = task instanceof Subtask subtask ? subtask.getEpicId() : NO_EPIC;
+        starts[row] = task.getStartTime() == null ? NO_START : task.getStartTime().toEpochSecond(ZoneOffset.UTC);
+        Duration duration = task.getDuration();
+        durations[row] = duration == null ? 0 : duration.getSeconds();
+    }
+
+    void remove(int id) {
+        int row = id >= 0 && id < rowById.length ? rowById[id] - 1 : -1;
+        if (row < 0) {
+            return;
+        }
+        rowById[id] = 0;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            types[row] = types[last];
+            statuses[row] = statuses[last];
+            epicIds[row] = epicIds[last];
+            starts[row] = starts[last];
+            durations[row] = durations[last];
+            rowById[ids[row]] = row + 1;
+        }
+    }
+
+    void removeAll(TaskType type) {
+        for (int row = size - 1; row >= 0; row--) {
+            if (types[row] == type.ordinal()) {
+                remove(ids[row]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Число задач каждого статуса (индекс — Status.ordinal()); type == null — задачи всех типов
+     */
+    public long[] countByStatus(TaskType type) {
+        int wanted = type == null ? -1 : type.ordinal();
+        return reduce(STATUSES, (from, to, counts) -> {
+            for (int row = from; row < to; row++) {
+                if (wanted < 0 || types[row] == wanted) {
+                    counts[statuses[row]]++;
+                }
+            }
+        });
+    }
+
+    /**
+     * Суммарная продолжительность в секундах по статусам (индекс — Status.ordinal()); type == null — все типы
+     */
+    public long[] durationByStatus(TaskType type) {
+        int wanted = type == null ? -1 : type.ordinal();
+        return reduce(STATUSES, (from, to, totals) -> {
+            for (int row = from; row < to; row++) {
+                if (wanted < 0 || types[row] == wanted) {
+                    totals[statuses[row]] += durations[row];
+                }
+            }
+        });
+    }
+
+    /**
+     * Суммарная продолжительность подзадач в секундах по эпикам и статусам: id эпика -> массив по Status.ordinal().
+     * Подзадачи без эпика в проекции не учитываются
+     */
+    public Map<Integer, long[]> durationByEpicAndStatus() {
+        int epicCount = 0;
+        int[] slotById = new int[rowById.length]; // Номер эпика в результате + 1
+        int[] epicBySlot = new int[16];
+        for (int row = 0; row < size; row++) {
+            if (types[row] == TaskType.EPIC.ordinal()) {
+                if (epicCount == epicBySlot.length) {
+                    epicBySlot = Arrays.copyOf(epicBySlot, epicCount * 2);
+                }
+                epicBySlot[epicCount] = ids[row];
+                slotById[ids[row]] = ++epicCount;
+            }
+        }
+        long[] totals = reduce(epicCount * STATUSES, (from, to, partial) -> {
+            for (int row = from; row < to; row++) {
+                int epicId = epicIds[row];
+                if (epicId >= 0 && epicId < slotById.length && slotById[epicId] > 0
+                        && types[row] == TaskType.SUBTASK.ordinal()) {
+                    partial[(slotById[epicId] - 1) * STATUSES + statuses[row]] += durations[row];
+                }
+            }
+        });
+        Map<Integer, long[]> result = new HashMap<>();
+        for (int slot = 0; slot < epicCount; slot++) {
+            result.put(epicBySlot[slot], Arrays.copyOfRange(totals, slot * STATUSES, (slot + 1) * STATUSES));
+        }
+        return result;
+    }
+
+    /**
+     * Число задач и подзадач, начинающихся в каждый день (дни без задач не попадают в результат)
+     */
+    public NavigableMap<LocalDate, Long> countStartsByDay() {
+        long[] range = reduceRange();
+        NavigableMap<LocalDate, Long> result = new TreeMap<>();
+        if (range[0] > range[1]) {
+            return result;
+        }
+        long firstDay = range[0];
+        long span = range[1] - firstDay + 1;
+        if (span <= MAX_DAY_COUNTERS) {
+            long[] counts = reduce((int) span, (from, to, partial) -> {
+                for (int row = from; row < to; row++) {
+                    if (starts[row] != NO_START && types[row] != TaskType.EPIC.ordinal()) {
+                        partial[(int) (Math.floorDiv(starts[row], 86_400L) - firstDay)]++;
+                    }
+                }
+            });
+            for (int day = 0; day < counts.length; day++) {
+                if (counts[day] > 0) {
+                    result.put(LocalDate.ofEpochDay(firstDay + day), counts[day]);
+                }
+            }
+            return result;
+        }
+        // Дни разбросаны слишком широко для массива счётчиков: сортировка номеров дней
+        long[] days = IntStream.range(0, size)
+                .filter(row -> starts[row] != NO_START && types[row] != TaskType.EPIC.ordinal())
+                .mapToLong(row -> Math.floorDiv(starts[row], 86_400L))
+                .toArray();
+        Arrays.parallelSort(days);
+        for (int i = 0; i < days.length; ) {
+            int next = i;
+            while (next < days.length && days[next] == days[i]) {
+                next++;
+            }
+            result.put(LocalDate.ofEpochDay(days[i]), (long) (next - i));
+            i = next;
+        }
+        return result;
+    }
+
+    /**
+     * Проход по строкам кусками; у каждого куска свой массив width счётчиков, результаты складываются
+     */
+    @FunctionalInterface
+    private interface ChunkReducer {
+        void accumulate(int from, int to, long[] partial);
+    }
+
+    private long[] reduce(int width, ChunkReducer reducer) {
+        int chunks = chunks();
+        if (chunks == 1) {
+            long[] total = new long[width];
+            reducer.accumulate(0, size, total);
+            return total;
+        }
+        int chunkSize = (size + chunks - 1) / chunks;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] partial = new long[width];
+                    reducer.accumulate(chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize), partial);
+                    return partial;
+                })
+                .reduce((left, right) -> {
+                    for (int i = 0; i < width; i++) {
+                        left[i] += right[i];
+                    }
+                    return left;
+                })
+                .orElseGet(() -> new long[width]);
+    }
+
+    /**
+     * Первый и последний день начала задач и подзадач; first > last — таких задач нет
+     */
+    private long[] reduceRange() {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            if (starts[row] != NO_START && types[row] != TaskType.EPIC.ordinal()) {
+                long day = Math.floorDiv(starts[row], 86_400L);
+                first = Math.min(first, day);
+                last = Math.max(last, day);
+            }
+        }
+        return new long[]{first, last};
+    }
+
+    private int chunks() {
+        return Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, size / MIN_CHUNK));
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+    }
+}
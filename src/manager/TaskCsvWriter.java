@@ -0,0 +1,371 @@
+package manager;
+
+import model.Epic;
+import model.Recurrence;
+import model.Subtask;
+import model.Task;
+import util.Status;
+import util.TaskType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Потоковая запись задач в формате CSV FileBackedTaskManager.
+ * Строки кодируются в UTF-8 прямо в переиспользуемый буфер, который отдаётся на запись
+ * блоками по BLOCK_SIZE байт. Результат побайтно совпадает с прежним форматом
+ * "%d,%s,%s,%s,\"%s\", %s, %s,epicId" (включая пробелы перед временем и продолжительностью).
+ */
+final class TaskCsvWriter {
+    static final int BLOCK_SIZE = 1 << 16;
+    static final String REFERENCE_PREFIX = "@";
+    private static final int MAX_CHAR_BYTES = 4;
+    private static final int MAX_NUMBER_BYTES = 20;
+    private static final byte[][] TYPE_NAMES = enumNames(TaskType.values());
+    private static final byte[][] STATUS_NAMES = enumNames(Status.values());
+
+    /**
+     * Получатель заполненных блоков (обычно — FileChannel)
+     */
+    @FunctionalInterface
+    interface BlockSink {
+        void write(ByteBuffer block) throws IOException;
+    }
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+    private final CRC32 crc = new CRC32();
+    private BlockSink sink;
+    private int rows;
+    private Map<String, Integer> dictionary; // null — названия и описания пишутся как есть
+
+    /**
+     * Начало нового снимка: сброс буфера, контрольной суммы и счётчика строк
+     */
+    void begin(BlockSink sink) {
+        this.sink = sink;
+        this.buffer.clear();
+        this.crc.reset();
+        this.rows = 0;
+        this.dictionary = null;
+    }
+
+    void writeHeader(String header) throws IOException {
+        putString(header);
+        putByte('\n');
+    }
+
+    /**
+     * Словарь снимка: строки, которые встречаются в названиях и описаниях tasks хотя бы дважды,
+     * записываются один раз строками "#dict,N,значение", а поля задач ссылаются на них как "@N".
+     * Строки, начинающиеся с '@', попадают в словарь всегда, чтобы их нельзя было спутать со ссылкой.
+     * Вызывается после заголовка и до первой задачи
+     */
+    void writeDictionary(Iterable<? extends Task> tasks, String prefix) throws IOException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            count(counts, task.getName());
+            count(counts, task.getDescription());
+        }
+        dictionary = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String value = entry.getKey();
+            if (entry.getValue() < 2 && !value.startsWith(REFERENCE_PREFIX)) {
+                continue;
+            }
+            int index = dictionary.size();
+            dictionary.put(value, index);
+            putString(prefix);
+            putLong(index);
+            putByte(',');
+            putString(value);
+            putByte('\n');
+            rows++;
+        }
+    }
+
+    void writeTask(Task task) throws IOException {
+        TaskType type = task instanceof Epic ? TaskType.EPIC :
+                task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+        Status status = task.getStatus() != null ? task.getStatus() : Status.NEW;
+
+        putLong(task.getId());
+        putByte(',');
+        putBytes(TYPE_NAMES[type.ordinal()]);
+        putByte(',');
+        if (!putReference(task.getName())) {
+            putString(String.valueOf(task.getName()));
+        }
+        putByte(',');
+        putBytes(STATUS_NAMES[status.ordinal()]);
+        putByte(',');
+        putByte('"');
+        if (task.getDescription() != null && !putReference(task.getDescription())) {
+            putEscaped(task.getDescription());
+        }
+        putByte('"');
+        putByte(',');
+        putByte(' ');
+        if (task.getStartTime() != null) {
+            putDateTime(task.getStartTime());
+        }
+        putByte(',');
+        putByte(' ');
+        Duration duration = task.getDuration();
+        if (duration != null) {
+            putLong(duration.toMinutes());
+        }
+        putByte(',');
+        if (task instanceof Subtask subtask) {
+            putLong(subtask.getEpicId());
+        }
+        putByte('\n');
+        rows++;
+    }
+
+    /**
+     * Строка повторяющейся задачи "#series,частота,интервал,число,окончание,отменённые,шаблон":
+     * число вхождений 0 — серия ограничена окончанием, номера отменённых вхождений разделены ';',
+     * шаблон записывается обычной строкой задачи с id серии
+     */
+    void writeSeries(RecurringSeries series, String prefix) throws IOException {
+        Recurrence rule = series.getRule();
+        putString(prefix);
+        putString(rule.getFrequency().name());
+        putByte(',');
+        putLong(rule.getInterval());
+        putByte(',');
+        putLong(rule.getCount());
+        putByte(',');
+        if (rule.getUntil() != null) {
+            putDateTime(rule.getUntil());
+        }
+        putByte(',');
+        boolean isFirst = true;
+        for (int index : series.getCancelled()) {
+            if (!isFirst) {
+                putByte(';');
+            }
+            putLong(index);
+            isFirst = false;
+        }
+        putByte(',');
+        writeTask(series.getTemplate());
+    }
+
+    /**
+     * Строки зависимостей "#dep,taskId,dependsOnId" — по одной на каждую задачу, от которой зависит task
+     */
+    void writeDependencies(Task task, DependencyGraph graph, String prefix) throws IOException {
+        for (int dependsOnId : graph.getDependencies(task.getId())) {
+            putString(prefix);
+            putLong(task.getId());
+            putByte(',');
+            putLong(dependsOnId);
+            putByte('\n');
+            rows++;
+        }
+    }
+
+    /**
+     * Завершение снимка: строка "#rows=N;crc32=X" по всем записанным байтам и сброс буфера
+     */
+    void finish(String footerPrefix, String checksumPrefix) throws IOException {
+        crc.update(buffer.array(), 0, buffer.position());
+        flushBlock();
+        putString(footerPrefix);
+        putLong(rows);
+        putString(checksumPrefix);
+        putHex(crc.getValue());
+        putByte('\n');
+        flushBlock();
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Ссылка "@N" на строку словаря; false — словаря нет или строки в нём нет
+     */
+    private boolean putReference(String value) throws IOException {
+        Integer index = dictionary == null || value == null ? null : dictionary.get(value);
+        if (index == null) {
+            return false;
+        }
+        putString(REFERENCE_PREFIX);
+        putLong(index);
+        return true;
+    }
+
+    private static void count(Map<String, Integer> counts, String value) {
+        if (value != null) {
+            counts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            crc.update(buffer.array(), 0, buffer.position());
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            sink.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putByte(int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void putString(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = putChar(value, i);
+        }
+    }
+
+    /**
+     * Описание экранируется удвоением кавычек, как в прежнем replace("\"", "\"\"")
+     */
+    private void putEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                putByte('"');
+            }
+            i = putChar(value, i);
+        }
+    }
+
+    /**
+     * Кодирование символа в UTF-8. Возвращает индекс последнего обработанного символа
+     * (для суррогатной пары — индекс второй половины). Одиночный суррогат заменяется на '?',
+     * как это делает String.getBytes(UTF_8).
+     */
+    private int putChar(String value, int index) throws IOException {
+        ensure(MAX_CHAR_BYTES);
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        }
+        return index;
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(MAX_NUMBER_BYTES);
+        if (value == Long.MIN_VALUE) {
+            putString(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        reverse(start, buffer.position() - 1);
+    }
+
+    private void putHex(long value) throws IOException {
+        ensure(8);
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            buffer.put((byte) Character.forDigit((int) (value >> shift & 0xF), 16));
+        }
+    }
+
+    /**
+     * Ручная запись даты в формате ISO_LOCAL_DATE_TIME: yyyy-MM-ddTHH:mm:ss[.fraction].
+     * Годы вне диапазона 0..9999 (со знаком в ISO-записи) отдаются стандартному форматтеру.
+     */
+    private void putDateTime(LocalDateTime dateTime) throws IOException {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            putString(dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        ensure(29);
+        putDigits(year, 4);
+        buffer.put((byte) '-');
+        putDigits(dateTime.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(dateTime.getDayOfMonth(), 2);
+        buffer.put((byte) 'T');
+        putDigits(dateTime.getHour(), 2);
+        buffer.put((byte) ':');
+        putDigits(dateTime.getMinute(), 2);
+        buffer.put((byte) ':');
+        putDigits(dateTime.getSecond(), 2);
+
+        int nano = dateTime.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer.put((byte) '.');
+            putDigits(nano, digits);
+        }
+    }
+
+    private void putDigits(int value, int width) {
+        int end = buffer.position() + width;
+        for (int position = end - 1; position >= end - width; position--) {
+            buffer.put(position, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private void reverse(int from, int to) {
+        byte[] array = buffer.array();
+        while (from < to) {
+            byte tmp = array[from];
+            array[from++] = array[to];
+            array[to--] = tmp;
+        }
+    }
+
+    private static byte[][] enumNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = value.name().getBytes();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,10 @@
+package manager;
+
+import util.ChangeType;
+import util.TaskType;
+
+/**
+ * Событие ленты изменений. Для CLEARED (удаление всех задач типа) id равен 0.
+ */
+public record TaskEvent(long sequence, ChangeType change, TaskType type, int id) {
+}
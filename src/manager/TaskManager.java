@@ -4,8 +4,12 @@ import exceptions.TimeConflictException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import util.TaskCollection;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TaskManager {
 
@@ -54,4 +58,99 @@ public interface TaskManager {
     boolean hasTimeOverlap(Task task);
 
     List<Subtask> getAllSubtasksByEpicId(int epicId);
+
+    /**
+     * Пакетное добавление и обновление. Пакет проверяется на пересечения целиком — с хранилищем
+     * и внутри себя; при конфликте бросается TimeConflictException и не применяется ни одно изменение.
+     * Реализации по умолчанию после проверки вызывают одиночные методы для каждой задачи.
+     */
+    default void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, Set.of());
+        for (Task task : batch) {
+            addTask(task);
+        }
+    }
+
+    default void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, Set.of());
+        for (Subtask subtask : batch) {
+            addSubtask(subtask);
+        }
+    }
+
+    default void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        Set<Integer> replaced = new HashSet<>();
+        batch.forEach(subtask -> replaced.add(subtask.getId()));
+        TimeSweep.requireNoConflicts(getPrioritizedTasks(), batch, replaced);
+        for (Subtask subtask : batch) {
+            updateSubtask(subtask);
+        }
+    }
+
+    /**
+     * Обход задач без промежуточного списка; реализации с собственным хранилищем
+     * переопределяют эти методы, по умолчанию используется getAllXxx
+     */
+    default void forEachTask(Consumer<? super Task> action) {
+        getAllTasks().forEach(action);
+    }
+
+    default void forEachSubtask(Consumer<? super Subtask> action) {
+        getAllSubtasks().forEach(action);
+    }
+
+    default void forEachEpic(Consumer<? super Epic> action) {
+        getAllEpics().forEach(action);
+    }
+
+    default void forEachPrioritized(Consumer<? super Task> action) {
+        getPrioritizedTasks().forEach(action);
+    }
+
+    /**
+     * Часть коллекции для потоковой отдачи без снимка всего списка: не больше limit элементов,
+     * следующих за after (null — с начала). Возвращает последний переданный элемент — курсор следующей
+     * части — или null, если элементы закончились. Между частями коллекцию можно менять: следующая
+     * часть продолжается с места курсора. По умолчанию часть выбирается из полного списка getAllXxx,
+     * а курсор ищется по id; реализации со своим порядком хранения переопределяют метод
+     */
+    default Task forEachAfter(TaskCollection collection, Task after, int limit, Consumer<? super Task> action) {
+        List<? extends Task> all = switch (collection) {
+            case TASKS -> getAllTasks();
+            case SUBTASKS -> getAllSubtasks();
+            case EPICS -> getAllEpics();
+            case PRIORITIZED -> getPrioritizedTasks();
+            case HISTORY -> getHistory();
+        };
+        int from = 0;
+        if (after != null) {
+            from = all.size(); // Курсора больше нет в коллекции — продолжать не с чего
+            for (int i = 0; i < all.size(); i++) {
+                if (all.get(i).getId() == after.getId()) {
+                    from = i + 1;
+                    break;
+                }
+            }
+        }
+        Task last = null;
+        for (int i = from; i < Math.min(all.size(), from + limit); i++) {
+            last = all.get(i);
+            action.accept(last);
+        }
+        return last;
+    }
+
+    /**
+     * Версия коллекции: меняется при каждом её изменении. -1 — версии не ведутся
+     */
+    default long getModificationVersion(TaskCollection collection) {
+        return -1;
+    }
+
+    /**
+     * Лента изменений для подписчиков; null — реализация события не публикует
+     */
+    default ChangeFeed getChangeFeed() {
+        return null;
+    }
 }
\ No newline at end of file
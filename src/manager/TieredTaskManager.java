@@ -0,0 +1,381 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Managers;
+import util.Status;
+import util.TaskCollection;
+import util.TaskType;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Менеджер задач с горячим и холодным уровнями хранения.
+ * Горячий уровень — FileBackedTaskManager с активными задачами: по нему строятся prioritizedTasks
+ * и проверка пересечений. Задачи и эпики, находящиеся в статусе DONE дольше maxAge,
+ * переносятся в холодный уровень (архив в сегментах на диске) вместе с подзадачами.
+ * getXxxById, getAllXxx и getAllSubtasksByEpicId читают оба уровня; изменение архивной задачи
+ * возвращает её (эпик — вместе с подзадачами) в горячий уровень.
+ */
+public class TieredTaskManager implements TaskManager {
+    private final FileBackedTaskManager hot;
+    private final ColdTaskStore cold;
+    private final HistoryManager historyManager;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Map<Integer, Instant> doneSince = new LinkedHashMap<>();
+
+    public TieredTaskManager(FileBackedTaskManager hot, String coldDirectory, Duration maxAge,
+                             int cacheCapacity, Clock clock) {
+        this.hot = hot;
+        this.cold = new ColdTaskStore(Path.of(coldDirectory), cacheCapacity);
+        this.historyManager = Managers.getDefaultHistory();
+        this.maxAge = maxAge;
+        this.clock = clock;
+
+        hot.reserveIds(cold.maxId());
+        List<Integer> duplicated = new ArrayList<>(); // Копии, оставшиеся после сбоя при переносе в архив
+        hot.getAllTasks().forEach(task -> duplicated.add(task.getId()));
+        hot.getAllEpics().forEach(epic -> duplicated.add(epic.getId()));
+        hot.getAllSubtasks().forEach(subtask -> duplicated.add(subtask.getId()));
+        cold.remove(duplicated);
+        hot.getAllTasks().forEach(this::track); // Время завершения не хранится: отсчёт идёт от запуска
+        hot.getAllEpics().forEach(this::track);
+    }
+
+    public TieredTaskManager(FileBackedTaskManager hot, String coldDirectory, Duration maxAge, int cacheCapacity) {
+        this(hot, coldDirectory, maxAge, cacheCapacity, Clock.systemUTC());
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> all = hot.getAllTasks();
+        all.addAll(cold.all(TaskType.TASK));
+        return all;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        List<Subtask> all = hot.getAllSubtasks();
+        cold.all(TaskType.SUBTASK).forEach(task -> all.add((Subtask) task));
+        return all;
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> all = hot.getAllEpics();
+        cold.all(TaskType.EPIC).forEach(task -> all.add((Epic) task));
+        return all;
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        hot.deleteAllTasks();
+        cold.clear(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        hot.deleteAllSubtasks();
+        cold.clear(TaskType.SUBTASK);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        hot.deleteAllEpics();
+        cold.clear(TaskType.SUBTASK);
+        cold.clear(TaskType.EPIC);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return view(id, TaskType.TASK);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return view(id, TaskType.SUBTASK);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return view(id, TaskType.EPIC);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return new ArrayList<>(historyManager.getHistory());
+    }
+
+    /**
+     * Список по времени строится только по горячему уровню
+     */
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return hot.getPrioritizedTasks();
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeConflictException {
+        hot.addTask(task);
+        track(task);
+        demoteExpired();
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) throws TimeConflictException {
+        promote(subtask.getEpicId());
+        hot.addSubtask(subtask);
+        track(subtask);
+        demoteExpired();
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        hot.addEpic(epic);
+        track(epic);
+        demoteExpired();
+    }
+
+    @Override
+    public void updateEpicStatus(int epicId) {
+        hot.updateEpicStatus(epicId);
+        track(hot.peekTask(epicId));
+    }
+
+    @Override
+    public void updateTask(Task task) throws TimeConflictException {
+        promote(task.getId());
+        hot.updateTask(task);
+        track(task);
+        demoteExpired();
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) throws TimeConflictException {
+        promote(subtask.getId());
+        promote(subtask.getEpicId());
+        hot.updateSubtask(subtask);
+        track(subtask);
+        demoteExpired();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        promote(epic.getId());
+        hot.updateEpic(epic);
+        track(epic);
+        demoteExpired();
+    }
+
+    @Override
+    public void addTasks(List<? extends Task> batch) throws TimeConflictException {
+        hot.addTasks(batch);
+        batch.forEach(this::track);
+        demoteExpired();
+    }
+
+    @Override
+    public void addSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        batch.forEach(subtask -> promote(subtask.getEpicId()));
+        hot.addSubtasks(batch);
+        batch.forEach(this::track);
+        demoteExpired();
+    }
+
+    @Override
+    public void updateSubtasks(List<? extends Subtask> batch) throws TimeConflictException {
+        batch.forEach(subtask -> {
+            promote(subtask.getId());
+            promote(subtask.getEpicId());
+        });
+        hot.updateSubtasks(batch);
+        batch.forEach(this::track);
+        demoteExpired();
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        if (cold.typeOf(id) == TaskType.TASK) {
+            cold.remove(List.of(id));
+        } else {
+            hot.deleteTask(id);
+        }
+        historyManager.remove(id);
+        doneSince.remove(id);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        promote(id);
+        Task subtask = hot.peekTask(id);
+        hot.deleteSubtask(id);
+        historyManager.remove(id);
+        track(subtask);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        if (cold.typeOf(id) == TaskType.EPIC) {
+            List<Integer> removed = cold.subtaskIdsOf(id);
+            removed.add(id);
+            cold.remove(removed);
+            removed.forEach(historyManager::remove);
+        } else {
+            hot.getAllSubtasksByEpicId(id).forEach(subtask -> historyManager.remove(subtask.getId()));
+            hot.deleteEpic(id);
+            historyManager.remove(id);
+        }
+        doneSince.remove(id);
+    }
+
+    /**
+     * Пересечения проверяются только с горячим уровнем: архив содержит завершённые задачи
+     */
+    @Override
+    public boolean hasTimeOverlap(Task task) {
+        return hot.hasTimeOverlap(task);
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpicId(int epicId) {
+        if (cold.typeOf(epicId) != TaskType.EPIC) {
+            return hot.getAllSubtasksByEpicId(epicId);
+        }
+        return cold.subtaskIdsOf(epicId).stream()
+                .map(id -> (Subtask) cold.get(id))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Перенос в архив задач и эпиков, находящихся в статусе DONE дольше maxAge.
+     * Вызывается автоматически после изменений; возвращает число перенесённых записей.
+     * Сначала задачи записываются в архив и только затем удаляются из горячего уровня,
+     * поэтому сбой между шагами может оставить копию, но не потерять задачу.
+     */
+    public int demoteExpired() {
+        Instant threshold = clock.instant().minus(maxAge);
+        List<Integer> expired = new ArrayList<>();
+        Iterator<Map.Entry<Integer, Instant>> iterator = doneSince.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Instant> entry = iterator.next();
+            if (entry.getValue().isAfter(threshold)) {
+                break;
+            }
+            expired.add(entry.getKey());
+            iterator.remove();
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<Task> demoted = new ArrayList<>();
+        List<Integer> demotedIds = new ArrayList<>();
+        for (int id : expired) {
+            Task task = hot.peekTask(id);
+            if (task == null || task.getStatus() != Status.DONE) {
+                continue;
+            }
+            demoted.add(task);
+            demotedIds.add(id);
+            if (task instanceof Epic) {
+                demoted.addAll(hot.getAllSubtasksByEpicId(id));
+            }
+        }
+        cold.put(demoted);
+        hot.deleteTasks(demotedIds);
+        return demoted.size();
+    }
+
+    /**
+     * Количество задач, эпиков и подзадач в горячем уровне (без копирования списков)
+     */
+    public int getHotTierSize() {
+        return (int) (hot.collectionSize(TaskCollection.TASKS) + hot.collectionSize(TaskCollection.EPICS)
+                + hot.collectionSize(TaskCollection.SUBTASKS));
+    }
+
+    public int getColdTierSize() {
+        return cold.size();
+    }
+
+    /**
+     * Доля чтений архива, обслуженных кэшем (0, если чтений не было)
+     */
+    public double getCacheHitRatio() {
+        long reads = cold.getHits() + cold.getMisses();
+        return reads == 0 ? 0 : (double) cold.getHits() / reads;
+    }
+
+    public long getCacheHits() {
+        return cold.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cold.getMisses();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T view(int id, TaskType type) {
+        Task task = hot.peekTask(id);
+        if (task == null && cold.typeOf(id) == type) {
+            task = cold.get(id);
+        }
+        if (task == null || typeOf(task) != type) {
+            return null;
+        }
+        historyManager.add(task);
+        return (T) task;
+    }
+
+    /**
+     * Учёт момента перехода в DONE: для подзадачи отслеживается её эпик
+     */
+    private void track(Task task) {
+        if (task instanceof Subtask subtask) {
+            task = hot.peekTask(subtask.getEpicId());
+        }
+        if (task == null) {
+            return;
+        }
+        if (task.getStatus() == Status.DONE) {
+            doneSince.putIfAbsent(task.getId(), clock.instant());
+        } else {
+            doneSince.remove(task.getId());
+        }
+    }
+
+    /**
+     * Возврат архивной записи в горячий уровень (подзадача возвращается вместе с эпиком)
+     */
+    private void promote(int id) {
+        TaskType type = cold.typeOf(id);
+        if (type == null) {
+            return;
+        }
+        if (type == TaskType.SUBTASK) {
+            Subtask subtask = (Subtask) cold.get(id);
+            if (subtask != null && cold.typeOf(subtask.getEpicId()) == TaskType.EPIC) {
+                promote(subtask.getEpicId());
+                return;
+            }
+        }
+        List<Integer> promotedIds = type == TaskType.EPIC ? cold.subtaskIdsOf(id) : new ArrayList<>();
+        promotedIds.add(0, id);
+        List<Task> promoted = promotedIds.stream().map(cold::get).filter(Objects::nonNull).toList();
+        hot.restoreTasks(promoted);
+        cold.remove(promotedIds);
+    }
+
+    private static TaskType typeOf(Task task) {
+        return task instanceof Epic ? TaskType.EPIC :
+                task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+    }
+}
@@ -0,0 +1,100 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверка пакета задач на пересечения по времени одним проходом.
+ * Пакет сортируется по времени начала и сливается с уже отсортированными задачами хранилища;
+ * при проходе запоминается самый поздний конец среди задач хранилища и среди задач пакета.
+ * Границы интервалов включительные, как в Task.isOverlapping; задача без продолжительности
+ * считается интервалом нулевой длины.
+ */
+final class TimeSweep {
+    private static final Comparator<Task> BY_START = Comparator.comparing(Task::getStartTime);
+
+    private TimeSweep() {
+    }
+
+    /**
+     * @param existing задачи хранилища по возрастанию времени начала (задачи без времени пропускаются)
+     * @param batch    проверяемый пакет в любом порядке
+     * @param replaced id задач хранилища, которые пакет заменяет (при обновлении) — они не учитываются
+     */
+    static void requireNoConflicts(Iterable<? extends Task> existing, List<? extends Task> batch,
+                                   Set<Integer> replaced) throws TimeConflictException {
+        List<Task> sorted = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            if (task.getStartTime() != null) {
+                sorted.add(task);
+            }
+        }
+        if (sorted.isEmpty()) {
+            return;
+        }
+        sorted.sort(BY_START);
+
+        Iterator<? extends Task> stored = existing.iterator();
+        Task next = nextScheduled(stored, replaced);
+        Task lastStored = null;
+        LocalDateTime storedEnd = null;
+        Task lastBatch = null;
+        LocalDateTime batchEnd = null;
+        for (Task task : sorted) {
+            LocalDateTime start = task.getStartTime();
+            while (next != null && !next.getStartTime().isAfter(start)) {
+                if (batchEnd != null && !batchEnd.isBefore(next.getStartTime())) {
+                    throw conflict(lastBatch, next);
+                }
+                LocalDateTime end = endOf(next);
+                if (storedEnd == null || end.isAfter(storedEnd)) {
+                    storedEnd = end;
+                    lastStored = next;
+                }
+                next = nextScheduled(stored, replaced);
+            }
+            if (storedEnd != null && !storedEnd.isBefore(start)) {
+                throw conflict(task, lastStored);
+            }
+            if (batchEnd != null && !batchEnd.isBefore(start)) {
+                throw conflict(task, lastBatch);
+            }
+            LocalDateTime end = endOf(task);
+            if (batchEnd == null || end.isAfter(batchEnd)) {
+                batchEnd = end;
+                lastBatch = task;
+            }
+        }
+        // Оставшиеся задачи хранилища начинаются позже всех задач пакета: достаточно проверить ближайшую
+        if (next != null && !batchEnd.isBefore(next.getStartTime())) {
+            throw conflict(lastBatch, next);
+        }
+    }
+
+    private static Task nextScheduled(Iterator<? extends Task> stored, Set<Integer> replaced) {
+        while (stored.hasNext()) {
+            Task task = stored.next();
+            if (task.getStartTime() != null && !replaced.contains(task.getId())) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime endOf(Task task) {
+        LocalDateTime end = task.getEndTime();
+        return end != null ? end : task.getStartTime();
+    }
+
+    private static TimeConflictException conflict(Task task, Task other) {
+        return new TimeConflictException("Задача \"" + task.getName() + "\" пересекается по времени с \""
+                + other.getName() + "\".");
+    }
+}
@@ -0,0 +1,112 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * События JFR вокруг сохранения, загрузки и горячих проверок менеджера.
+ * Пороги по умолчанию отсекают быстрые вызовы: в запись попадают только медленные экземпляры
+ * (порог меняется настройкой recording.enable(...).withThreshold(...) или в файле .jfc).
+ * Если запись JFR не идёт, begin/commit ничего не делают, а объект события убирает JIT.
+ */
+public final class TaskManagerEvents {
+    private static final String CATEGORY = "java-kanban";
+
+    private TaskManagerEvents() {
+    }
+
+    @Name("javakanban.Load")
+    @Label("Load From File")
+    @Category({CATEGORY, "Persistence"})
+    @Threshold("0 ms")
+    @StackTrace(false)
+    public static final class Load extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Records")
+        public int records;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("javakanban.Parse")
+    @Label("Parse CSV Line")
+    @Category({CATEGORY, "Persistence"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class Parse extends Event {
+        @Label("Line Length")
+        public int length;
+
+        @Label("Parsed")
+        public boolean parsed;
+    }
+
+    @Name("javakanban.Save")
+    @Label("Save")
+    @Category({CATEGORY, "Persistence"})
+    @Threshold("10 ms")
+    @StackTrace(false)
+    public static final class Save extends Event {
+        @Label("Changed Records")
+        public int records;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Segmented")
+        public boolean segmented;
+    }
+
+    @Name("javakanban.WriteTasks")
+    @Label("Write Tasks")
+    @Category({CATEGORY, "Persistence"})
+    @Threshold("10 ms")
+    @StackTrace(false)
+    public static final class WriteTasks extends Event {
+        @Label("Records")
+        public int records;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("javakanban.TimeOverlap")
+    @Label("Time Overlap Check")
+    @Category({CATEGORY, "Scheduling"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class TimeOverlap extends Event {
+        @Label("Scheduled Tasks")
+        public int scheduled;
+
+        @Label("Slot Grid")
+        public boolean slotGrid;
+
+        @Label("Overlapping")
+        public boolean overlapping;
+    }
+
+    @Name("javakanban.EpicStatus")
+    @Label("Epic Status Update")
+    @Category({CATEGORY, "Scheduling"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class EpicStatus extends Event {
+        @Label("Epic Id")
+        public int epicId;
+
+        @Label("Subtasks")
+        public int subtasks;
+    }
+}
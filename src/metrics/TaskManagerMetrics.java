@@ -0,0 +1,236 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Счётчики и гистограммы задержек операций менеджера задач, объёмы сохранения и загрузки,
+ * размеры коллекций. Замер — пара start()/record(): если метрики выключены, start() не читает часы,
+ * а record() сразу возвращается, так что выключенный замер стоит одного чтения volatile-поля.
+ * Публикуется в JMX (register) и текстом (dump).
+ */
+public final class TaskManagerMetrics implements TaskManagerMetricsMXBean {
+    public static final String DOMAIN = "java-kanban";
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    public enum Operation {
+        ADD_TASK,
+        ADD_SUBTASK,
+        ADD_EPIC,
+        ADD_BATCH,
+        UPDATE_TASK,
+        UPDATE_SUBTASK,
+        UPDATE_EPIC,
+        UPDATE_BATCH,
+        DELETE,
+        DELETE_ALL,
+        GET_BY_ID,
+        GET_ALL,
+        GET_HISTORY,
+        GET_PRIORITIZED,
+        TIME_OVERLAP,
+        EPIC_STATUS,
+        SAVE,
+        LOAD
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+    private volatile boolean enabled = true;
+
+    public TaskManagerMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Начало замера: текущее время или признак выключенных метрик
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    public void record(Operation operation, long started) {
+        if (started != NOT_STARTED) {
+            histograms[operation.ordinal()].record(System.nanoTime() - started);
+        }
+    }
+
+    public void recordSave(long bytes, long started) {
+        if (started != NOT_STARTED) {
+            histograms[Operation.SAVE.ordinal()].record(System.nanoTime() - started);
+            savedBytes.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Загрузка происходит до подключения метрик, поэтому её длительность передаётся готовой
+     */
+    public void recordLoad(long bytes, long nanos) {
+        histograms[Operation.LOAD.ordinal()].record(nanos);
+        loadedBytes.addAndGet(bytes);
+    }
+
+    public void recordConflict() {
+        if (enabled) {
+            conflicts.incrementAndGet();
+        }
+    }
+
+    /**
+     * Размер, вычисляемый при чтении метрик (например, число задач в коллекции)
+     */
+    public synchronized void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    public LatencyHistogram getHistogram(Operation operation) {
+        return histograms[operation.ordinal()];
+    }
+
+    /**
+     * Регистрация в платформенном MBeanServer под именем java-kanban:type=TaskManagerMetrics,name=name
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики " + name, e);
+        }
+    }
+
+    public static void unregister(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось снять регистрацию метрик " + name, e);
+        }
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=TaskManagerMetrics,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            long count = histograms[operation.ordinal()].getCount();
+            if (count > 0) {
+                counts.put(operation.name(), count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        return perOperation(LatencyHistogram::getMean);
+    }
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return perOperation(histogram -> histogram.getPercentile(50));
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return perOperation(histogram -> histogram.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        return perOperation(LatencyHistogram::getMax);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        gauges.forEach((name, supplier) -> sizes.put(name, supplier.getAsLong()));
+        return sizes;
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    @Override
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    @Override
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    /**
+     * Текстовый отчёт: строка на каждую выполнявшуюся операцию, затем объёмы и размеры коллекций
+     */
+    @Override
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%-16s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "mean_us", "p50_us", "p99_us", "max_us"));
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            builder.append(String.format(Locale.ROOT, "%-16s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.name(), histogram.getCount(), histogram.getMean() / 1_000,
+                    histogram.getPercentile(50) / 1_000.0, histogram.getPercentile(99) / 1_000.0,
+                    histogram.getMax() / 1_000.0));
+        }
+        builder.append(String.format(Locale.ROOT, "conflicts=%d saved_bytes=%d loaded_bytes=%d%n",
+                getConflicts(), getSavedBytes(), getLoadedBytes()));
+        getSizes().forEach((name, size) -> builder.append(name).append('=').append(size).append('\n'));
+        return builder.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        conflicts.set(0);
+        savedBytes.set(0);
+        loadedBytes.set(0);
+    }
+
+    private Map<String, Double> perOperation(ToDoubleFunction<LatencyHistogram> nanos) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            if (histogram.getCount() > 0) {
+                values.put(operation.name(), nanos.applyAsDouble(histogram) / 1_000);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,35 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * Атрибуты метрик менеджера задач в JMX. Ключи таблиц — имена операций TaskManagerMetrics.Operation
+ * и коллекций; время — в микросекундах
+ */
+public interface TaskManagerMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    Map<String, Long> getCounts();
+
+    Map<String, Double> getMeanMicros();
+
+    Map<String, Double> getP50Micros();
+
+    Map<String, Double> getP99Micros();
+
+    Map<String, Double> getMaxMicros();
+
+    Map<String, Long> getSizes();
+
+    long getConflicts();
+
+    long getSavedBytes();
+
+    long getLoadedBytes();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,49 @@
+package model;
+
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Вхождение повторяющейся задачи. Не хранится в менеджере: создаётся, когда запрос по диапазону
+ * времени или проверка пересечений затрагивает его окно. id совпадает с id серии,
+ * вхождения одной серии различаются номером index.
+ */
+public class Occurrence extends Task {
+    private final int index;
+
+    public Occurrence(Task template, int seriesId, int index, LocalDateTime startTime, Duration duration) {
+        super(template.getName(), template.getDescription(), template.getStatus() == null ? Status.NEW
+                : template.getStatus(), duration, startTime);
+        this.index = index;
+        setId(seriesId);
+    }
+
+    public int getSeriesId() {
+        return getId();
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && o instanceof Occurrence occurrence && index == occurrence.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), index);
+    }
+
+    @Override
+    public String toString() {
+        return "Occurrence{" +
+                super.toString() +
+                ", index=" + index +
+                '}';
+    }
+}
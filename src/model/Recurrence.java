@@ -0,0 +1,142 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Правило повторения: каждые interval дней, недель или месяцев от времени начала первого вхождения.
+ * Серия конечна — ограничена числом вхождений count или моментом until (вхождение, начинающееся
+ * в until, ещё входит в серию). Вхождения с номером index вычисляются от первого, поэтому
+ * ежемесячная серия с 31-го числа в коротких месяцах переносится на последний день месяца и не «сползает».
+ */
+public final class Recurrence {
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int count; // 0 — серия ограничена until
+    private final LocalDateTime until;
+
+    private Recurrence(Frequency frequency, int interval, int count, LocalDateTime until) {
+        if (frequency == null) {
+            throw new IllegalArgumentException("Не задана частота повторения");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал повторения должен быть положительным: " + interval);
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * Серия из count вхождений
+     */
+    public static Recurrence times(Frequency frequency, int interval, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Число повторений должно быть положительным: " + count);
+        }
+        return new Recurrence(frequency, interval, count, null);
+    }
+
+    /**
+     * Серия из вхождений, начинающихся не позже until
+     */
+    public static Recurrence until(Frequency frequency, int interval, LocalDateTime until) {
+        if (until == null) {
+            throw new IllegalArgumentException("Не задано окончание серии");
+        }
+        return new Recurrence(frequency, interval, 0, until);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    /**
+     * Время начала вхождения с номером index (с нуля)
+     */
+    public LocalDateTime occurrenceStart(LocalDateTime first, int index) {
+        long steps = (long) index * interval;
+        return switch (frequency) {
+            case DAILY -> first.plusDays(steps);
+            case WEEKLY -> first.plusWeeks(steps);
+            case MONTHLY -> first.plusMonths(steps);
+        };
+    }
+
+    /**
+     * Число вхождений серии, первое из которых начинается в first
+     */
+    public int occurrenceCount(LocalDateTime first) {
+        if (count > 0) {
+            return count;
+        }
+        return until.isBefore(first) ? 0 : firstIndexAfter(first, until);
+    }
+
+    /**
+     * Номер первого вхождения, начинающегося не раньше time (без учёта границы серии)
+     */
+    public int firstIndexAtOrAfter(LocalDateTime first, LocalDateTime time) {
+        if (!time.isAfter(first)) {
+            return 0;
+        }
+        long steps = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(first, time);
+            case WEEKLY -> ChronoUnit.WEEKS.between(first, time);
+            case MONTHLY -> ChronoUnit.MONTHS.between(first, time);
+        };
+        // Оценка с точностью до одного шага, уточняется сравнением
+        int index = (int) Math.min(Integer.MAX_VALUE - 1, steps / interval);
+        while (index > 0 && !occurrenceStart(first, index - 1).isBefore(time)) {
+            index--;
+        }
+        while (occurrenceStart(first, index).isBefore(time)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Наименьшее расстояние между началами соседних вхождений
+     */
+    public Duration minimumStep() {
+        return switch (frequency) {
+            case DAILY -> Duration.ofDays(interval);
+            case WEEKLY -> Duration.ofDays(7L * interval);
+            case MONTHLY -> Duration.ofDays(28L * interval);
+        };
+    }
+
+    private int firstIndexAfter(LocalDateTime first, LocalDateTime time) {
+        return firstIndexAtOrAfter(first, time.plusNanos(1));
+    }
+
+    @Override
+    public String toString() {
+        return "Recurrence{" +
+                "frequency=" + frequency +
+                ", interval=" + interval +
+                (count > 0 ? ", count=" + count : ", until=" + until) +
+                '}';
+    }
+}
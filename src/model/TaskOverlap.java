@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Пара пересекающихся по времени задач (или подзадач): first начинается не позже second,
+ * при равном начале у first меньший id
+ */
+public record TaskOverlap(Task first, Task second) {
+}
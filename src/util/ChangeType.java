@@ -0,0 +1,12 @@
+package util;
+
+/**
+ * Вид изменения в ленте изменений менеджера
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    STATUS_CHANGED,
+    CLEARED
+}
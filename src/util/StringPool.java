@@ -0,0 +1,89 @@
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный потокобезопасный пул строк: одинаковые названия и описания задач (доски из шаблонов)
+ * хранятся в памяти одним экземпляром. В отличие от String.intern, пул ограничен числом строк
+ * и длиной строки; при заполнении он очищается целиком — уже выданные экземпляры остаются общими,
+ * а часто встречающиеся строки снова попадают в пул при следующем обращении.
+ * Размер общего пула задаётся свойством javakanban.stringPool.capacity (0 — пул выключен).
+ */
+public final class StringPool {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_MAX_LENGTH = 1024;
+
+    private static final StringPool SHARED = new StringPool(
+            Integer.getInteger("javakanban.stringPool.capacity", DEFAULT_CAPACITY), DEFAULT_MAX_LENGTH);
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final int maxLength;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    /**
+     * @param capacity  максимальное число строк в пуле (0 — строки не объединяются)
+     * @param maxLength строки длиннее maxLength символов в пул не попадают
+     */
+    public StringPool(int capacity, int maxLength) {
+        if (capacity < 0 || maxLength < 0) {
+            throw new IllegalArgumentException("Некорректные размеры пула строк: " + capacity + ", " + maxLength);
+        }
+        this.capacity = capacity;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Общий пул, которым пользуются загрузчики и менеджеры задач
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Общий экземпляр строки, равной value (null и слишком длинные строки возвращаются как есть)
+     */
+    public String intern(String value) {
+        if (value == null || capacity == 0 || value.length() > maxLength) {
+            return value;
+        }
+        String pooled = pool.get(value);
+        if (pooled != null) {
+            hits.increment();
+            return pooled;
+        }
+        misses.increment();
+        if (pool.size() >= capacity) {
+            pool.clear();
+            resets.increment();
+        }
+        pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Сколько раз пул очищался из-за заполнения
+     */
+    public long getResets() {
+        return resets.sum();
+    }
+}
@@ -0,0 +1,12 @@
+package util;
+
+/**
+ * Наблюдаемые коллекции менеджера, для которых ведётся версия изменений
+ */
+public enum TaskCollection {
+    TASKS,
+    SUBTASKS,
+    EPICS,
+    PRIORITIZED,
+    HISTORY
+}
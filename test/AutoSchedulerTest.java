@@ -0,0 +1,101 @@
+import exceptions.TimeConflictException;
+import manager.AutoScheduler;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TestData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для AutoScheduler: размещение задач без времени в свободные промежутки.
+ */
+class AutoSchedulerTest {
+    private final LocalDateTime baseTime = TestData.BASE_TIME;
+    private InMemoryTaskManager manager;
+    private AutoScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+        scheduler = new AutoScheduler(manager);
+    }
+
+    @Test
+    void shouldPackTasksIntoGapsWithoutOverlaps() throws TimeConflictException {
+        manager.addTask(new Task("Встреча", "D", Status.NEW, Duration.ofHours(1), baseTime.plusHours(3)));
+        Task short1 = unscheduled("T1", Duration.ofMinutes(30));
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask long1 = new Subtask("S1", "D", Status.NEW, epic.getId(), Duration.ofHours(2), null);
+        manager.addSubtask(long1);
+        Task long2 = unscheduled("T2", Duration.ofHours(2));
+
+        AutoScheduler.Result result = scheduler.scheduleAll(baseTime);
+
+        assertTrue(result.unplaced().isEmpty());
+        assertEquals(baseTime, short1.getStartTime());
+        assertEquals(baseTime.plusMinutes(45), long1.getStartTime()); // Ровно до встречи в 21:00
+        assertEquals(baseTime.plusHours(4).plusMinutes(15), long2.getStartTime());
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(4, prioritized.size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i - 1).isOverlapping(prioritized.get(i)));
+        }
+    }
+
+    @Test
+    void shouldPlaceByPriorityAndReportUnplaced() throws TimeConflictException {
+        Task low = unscheduled("Low", Duration.ofHours(1));
+        Task high = unscheduled("High", Duration.ofHours(1));
+        Task late = unscheduled("Late", Duration.ofHours(1));
+        Task noDuration = new Task("Без продолжительности", "D");
+        manager.addTask(noDuration);
+        Task scheduled = new Task("T", "D", Status.NEW, Duration.ofMinutes(15), baseTime.minusHours(5));
+        manager.addTask(scheduled);
+
+        AutoScheduler.Result result = scheduler.schedule(List.of(
+                new AutoScheduler.Request(low.getId()),
+                new AutoScheduler.Request(high.getId(), 10, null),
+                new AutoScheduler.Request(late.getId(), 0, baseTime.plusHours(1)),
+                new AutoScheduler.Request(noDuration.getId()),
+                new AutoScheduler.Request(scheduled.getId()),
+                new AutoScheduler.Request(999)), baseTime, null);
+
+        assertEquals(baseTime, high.getStartTime());
+        assertEquals(baseTime.plusMinutes(75), low.getStartTime());
+        assertNull(late.getStartTime());
+        assertEquals(AutoScheduler.Reason.DEADLINE, result.unplaced().get(late.getId()));
+        assertEquals(AutoScheduler.Reason.NO_DURATION, result.unplaced().get(noDuration.getId()));
+        assertEquals(AutoScheduler.Reason.ALREADY_SCHEDULED, result.unplaced().get(scheduled.getId()));
+        assertEquals(AutoScheduler.Reason.NOT_FOUND, result.unplaced().get(999));
+        assertEquals(2, result.placed().size());
+    }
+
+    @Test
+    void shouldRespectHorizon() throws TimeConflictException {
+        Task first = unscheduled("T1", Duration.ofHours(1));
+        Task second = unscheduled("T2", Duration.ofHours(1));
+
+        AutoScheduler.Result result = scheduler.schedule(List.of(new AutoScheduler.Request(first.getId()),
+                new AutoScheduler.Request(second.getId())), baseTime, baseTime.plusHours(2));
+
+        assertEquals(baseTime, first.getStartTime());
+        assertEquals(AutoScheduler.Reason.NO_SPACE, result.unplaced().get(second.getId()));
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+
+    private Task unscheduled(String name, Duration duration) throws TimeConflictException {
+        Task task = new Task(name, "D", Status.NEW, duration, null);
+        manager.addTask(task);
+        return task;
+    }
+}
@@ -0,0 +1,142 @@
+import exceptions.TimeConflictException;
+import manager.ChangeFeed;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskEvent;
+import model.Epic;
+import model.Subtask;
+import org.junit.jupiter.api.Test;
+import util.ChangeType;
+import util.Status;
+import util.TaskType;
+import util.TestData;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки ленты изменений и событий InMemoryTaskManager.
+ */
+class ChangeFeedTest {
+
+    @Test
+    void shouldDeliverEventsInOrderToEachSubscriber() {
+        ChangeFeed feed = new ChangeFeed(8);
+        ChangeFeed.Subscription first = feed.subscribe();
+        feed.publish(ChangeType.CREATED, TaskType.TASK, 1);
+        ChangeFeed.Subscription second = feed.subscribe();
+        feed.publish(ChangeType.UPDATED, TaskType.TASK, 1);
+
+        assertEquals(List.of(new TaskEvent(1, ChangeType.CREATED, TaskType.TASK, 1),
+                new TaskEvent(2, ChangeType.UPDATED, TaskType.TASK, 1)), first.poll(10));
+        assertEquals(List.of(new TaskEvent(2, ChangeType.UPDATED, TaskType.TASK, 1)), second.poll(10));
+        assertTrue(first.poll(10).isEmpty());
+        assertEquals(3, first.getNextSequence());
+    }
+
+    @Test
+    void shouldSkipOverwrittenEventsForSlowSubscriber() {
+        ChangeFeed feed = new ChangeFeed(8);
+        ChangeFeed.Subscription slow = feed.subscribe();
+        for (int id = 1; id <= 20; id++) {
+            feed.publish(ChangeType.CREATED, TaskType.TASK, id);
+        }
+
+        List<TaskEvent> events = slow.poll(100);
+        assertEquals(7, events.size());
+        assertEquals(14, events.get(0).id());
+        assertEquals(13, slow.getMissed());
+    }
+
+    @Test
+    void shouldReturnEmptyListWhenAwaitTimesOut() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed();
+        assertTrue(feed.subscribe().await(10, 10, TimeUnit.MILLISECONDS).isEmpty());
+    }
+
+    @Test
+    void shouldNeverDeliverTornEventsWhileWriterLapsReader() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(64);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        int total = 1_000_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= total; i++) {
+                feed.publish(ChangeType.values()[i % 5], TaskType.values()[i % 3], i);
+            }
+        });
+        AtomicReference<String> error = new AtomicReference<>();
+        AtomicLong previous = new AtomicLong();
+        ChangeFeed.EventHandler check = (sequence, change, type, id) -> {
+            if (id != sequence || change.ordinal() != id % 5 || type.ordinal() != id % 3
+                    || sequence <= previous.get()) {
+                error.compareAndSet(null, "Событие " + sequence + " прочитано некорректно");
+            }
+            previous.set(sequence);
+        };
+
+        writer.start();
+        while (writer.isAlive()) {
+            subscription.poll(check, 16);
+        }
+        subscription.poll(check, 64);
+        writer.join();
+
+        assertNull(error.get());
+        assertEquals(total, previous.get());
+        assertEquals(total + 1, subscription.getNextSequence());
+    }
+
+    @Test
+    void shouldPublishManagerChangesIncludingDerivedEpicStatus() throws TimeConflictException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        ChangeFeed.Subscription subscription = manager.getChangeFeed().subscribe();
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("S", "D", Status.NEW, epic.getId(), Duration.ofMinutes(30), TestData.BASE_TIME);
+        manager.addSubtask(subtask);
+        subtask.setStatus(Status.DONE);
+        manager.updateSubtask(subtask);
+        manager.deleteEpic(epic.getId());
+
+        List<String> events = subscription.poll(100).stream()
+                .map(event -> event.change() + " " + event.type() + " " + event.id())
+                .toList();
+        assertEquals(List.of(
+                "CREATED EPIC 1",
+                "CREATED SUBTASK 2",
+                "UPDATED SUBTASK 2",
+                "STATUS_CHANGED EPIC 1",
+                "DELETED SUBTASK 2",
+                "STATUS_CHANGED EPIC 1",
+                "DELETED EPIC 1"), events);
+    }
+
+    /**
+     * Задачи, прочитанные из файла при запуске, не публикуются как созданные.
+     */
+    @Test
+    void shouldNotPublishTasksLoadedFromFile() throws Exception {
+        File file = File.createTempFile("change-feed-test", ".csv");
+        try {
+            FileBackedTaskManager manager = new FileBackedTaskManager(file.getAbsolutePath());
+            Epic epic = new Epic("E", "D");
+            manager.addEpic(epic);
+            manager.addSubtask(new Subtask("S", "D", Status.DONE, epic.getId(), null, null));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(file.getAbsolutePath());
+            assertEquals(Status.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+            assertEquals(0, reloaded.getChangeFeed().getLastSequence());
+            reloaded.deleteEpic(epic.getId());
+            assertEquals(3, reloaded.getChangeFeed().getLastSequence());
+        } finally {
+            new File(file.getAbsolutePath() + ".bak").delete();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import manager.ConflictReport;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskOverlap;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки ConflictReport: проход sweep-line должен находить те же пары,
+ * что и попарное сравнение Task.isOverlapping.
+ */
+public class ConflictReportTest {
+    private final LocalDateTime baseTime = util.TestData.BASE_TIME;
+
+    @Test
+    void shouldFindSamePairsAsPairwiseCheck() {
+        Random random = new Random(21);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            LocalDateTime start = random.nextInt(10) == 0 ? null : baseTime.plusMinutes(random.nextInt(30_000));
+            Duration duration = Duration.ofMinutes(random.nextInt(90));
+            Task task = id % 3 == 0
+                    ? new Subtask("S", "D", Status.NEW, 0, duration, start)
+                    : new Task("T", "D", Status.NEW, duration, start);
+            task.setId(id);
+            tasks.add(task);
+        }
+
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (int j = i + 1; j < tasks.size(); j++) {
+                if (tasks.get(i).isOverlapping(tasks.get(j))) {
+                    expected.add(key(tasks.get(i), tasks.get(j)));
+                }
+            }
+        }
+        List<TaskOverlap> conflicts = ConflictReport.findConflicts(tasks);
+        Set<String> actual = new TreeSet<>();
+        for (TaskOverlap overlap : conflicts) {
+            assertFalse(overlap.second().getStartTime().isBefore(overlap.first().getStartTime()));
+            actual.add(key(overlap.first(), overlap.second()));
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), conflicts.size());
+
+        long[] streamed = new long[1];
+        assertEquals(expected.size(), ConflictReport.forEachConflict(tasks, overlap -> streamed[0]++));
+        assertEquals(expected.size(), streamed[0]);
+    }
+
+    /**
+     * Общая граница считается пересечением, задача без продолжительности — точкой, эпики не учитываются.
+     */
+    @Test
+    void shouldHandleBoundariesAndIgnoreEpics() {
+        Task first = task(1, baseTime, Duration.ofMinutes(30));
+        Task touching = task(2, baseTime.plusMinutes(30), Duration.ofMinutes(30));
+        Task point = task(3, baseTime.plusMinutes(45), null);
+        Task later = task(4, baseTime.plusMinutes(61), Duration.ofMinutes(10));
+        Epic epic = new Epic("E", "D");
+        epic.setId(5);
+        epic.setStartTime(baseTime);
+        epic.setDuration(Duration.ofHours(3));
+
+        List<TaskOverlap> conflicts = ConflictReport.findConflicts(List.of(later, point, epic, touching, first));
+        assertEquals(List.of(new TaskOverlap(first, touching), new TaskOverlap(touching, point)), conflicts);
+    }
+
+    private Task task(int id, LocalDateTime start, Duration duration) {
+        Task task = new Task("T" + id, "D", Status.NEW, duration, start);
+        task.setId(id);
+        return task;
+    }
+
+    private static String key(Task first, Task second) {
+        return Math.min(first.getId(), second.getId()) + "-" + Math.max(first.getId(), second.getId());
+    }
+}
@@ -0,0 +1,181 @@
+import exceptions.TimeConflictException;
+import manager.DependencyGraph;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TestData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для графа зависимостей: ранние начала, критический путь и отклонение циклов.
+ */
+class DependencyGraphTest {
+    private final LocalDateTime baseTime = TestData.BASE_TIME;
+    private InMemoryTaskManager manager;
+    private DependencyGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+        graph = manager.getDependencyGraph();
+    }
+
+    @Test
+    void shouldPropagateOnlyDownstream() throws TimeConflictException {
+        Task design = new Task("Дизайн", "D", Status.NEW, Duration.ofHours(1), baseTime);
+        manager.addTask(design);
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask build = new Subtask("Сборка", "D", Status.NEW, epic.getId(), Duration.ofMinutes(30), null);
+        manager.addSubtask(build);
+        Task release = new Task("Релиз", "D", Status.NEW, Duration.ofHours(1), null);
+        manager.addTask(release);
+        Task other = new Task("Другое", "D", Status.NEW, Duration.ofHours(1), baseTime.plusDays(1));
+        manager.addTask(other);
+
+        manager.addDependency(build.getId(), design.getId());
+        manager.addDependency(release.getId(), build.getId());
+        manager.addDependency(other.getId(), design.getId());
+
+        assertEquals(baseTime.plusHours(1), graph.getEarliestStart(build.getId()));
+        assertEquals(baseTime.plusMinutes(90), graph.getEarliestStart(release.getId()));
+        assertEquals(baseTime.plusDays(1), graph.getEarliestStart(other.getId())); // Собственное время позже
+        assertEquals(List.of(design.getId(), build.getId(), release.getId()),
+                graph.getCriticalPath(release.getId()));
+
+        Task moved = new Task("Дизайн", "D", Status.NEW, Duration.ofHours(2), baseTime.plusHours(2));
+        moved.setId(design.getId());
+        manager.updateTask(moved);
+        assertEquals(baseTime.plusHours(4), graph.getEarliestStart(build.getId()));
+        assertEquals(baseTime.plusMinutes(270), graph.getEarliestStart(release.getId()));
+        assertEquals(4, graph.getLastRecomputed()); // Узел other пересчитан, но его значение не изменилось
+
+        manager.deleteSubtask(build.getId());
+        assertNull(graph.getEarliestStart(release.getId()));
+        assertEquals(List.of(other.getId()), graph.getCriticalPath());
+    }
+
+    @Test
+    void shouldRejectCycles() throws TimeConflictException {
+        List<Task> chain = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task("T" + i, "D", Status.NEW, Duration.ofHours(1), null);
+            manager.addTask(task);
+            chain.add(task);
+        }
+        manager.addDependency(chain.get(1).getId(), chain.get(0).getId());
+        manager.addDependency(chain.get(2).getId(), chain.get(1).getId());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.addDependency(chain.get(0).getId(), chain.get(2).getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.addDependency(chain.get(0).getId(), chain.get(0).getId()));
+        assertThrows(IllegalArgumentException.class, () -> manager.addDependency(chain.get(0).getId(), 999));
+        assertTrue(graph.getDependencies(chain.get(0).getId()).isEmpty());
+
+        manager.removeDependency(chain.get(2).getId(), chain.get(1).getId());
+        manager.addDependency(chain.get(0).getId(), chain.get(2).getId());
+        assertEquals(List.of(chain.get(2).getId()), graph.getDependencies(chain.get(0).getId()));
+    }
+
+    /**
+     * Случайные изменения графа сверяются с полным пересчётом ранних начал
+     */
+    @Test
+    void shouldMatchFullRecomputationAfterRandomEdits() {
+        int nodes = 60;
+        Random random = new Random(7);
+        DependencyGraph randomGraph = new DependencyGraph();
+        LocalDateTime[] starts = new LocalDateTime[nodes];
+        Duration[] durations = new Duration[nodes];
+        Set<Long> edges = new HashSet<>();
+        for (int id = 0; id < nodes; id++) {
+            starts[id] = random.nextBoolean() ? baseTime.plusMinutes(random.nextInt(600)) : null;
+            durations[id] = Duration.ofMinutes(random.nextInt(120));
+            randomGraph.setTask(id, starts[id], durations[id]);
+        }
+
+        for (int step = 0; step < 3_000; step++) {
+            int task = random.nextInt(nodes);
+            int dependsOn = random.nextInt(nodes);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    boolean isCycle = task == dependsOn || reaches(edges, task, dependsOn, nodes);
+                    if (isCycle) {
+                        assertThrows(IllegalArgumentException.class, () -> randomGraph.addDependency(task, dependsOn));
+                    } else {
+                        randomGraph.addDependency(task, dependsOn);
+                        edges.add(edge(task, dependsOn));
+                    }
+                }
+                case 1 -> {
+                    randomGraph.removeDependency(task, dependsOn);
+                    edges.remove(edge(task, dependsOn));
+                }
+                default -> {
+                    starts[task] = random.nextBoolean() ? baseTime.plusMinutes(random.nextInt(600)) : null;
+                    durations[task] = Duration.ofMinutes(random.nextInt(120));
+                    randomGraph.setTask(task, starts[task], durations[task]);
+                }
+            }
+        }
+
+        LocalDateTime[] expected = starts.clone();
+        for (int round = 0; round < nodes; round++) {
+            for (long edge : edges) {
+                int task = (int) (edge >>> 32);
+                int dependsOn = (int) edge;
+                if (expected[dependsOn] != null) {
+                    LocalDateTime finish = expected[dependsOn].plus(durations[dependsOn]);
+                    if (expected[task] == null || finish.isAfter(expected[task])) {
+                        expected[task] = finish;
+                    }
+                }
+            }
+        }
+        for (int id = 0; id < nodes; id++) {
+            assertEquals(expected[id], randomGraph.getEarliestStart(id), "Узел " + id);
+        }
+    }
+
+    /**
+     * Достижим ли target из source по рёбрам «dependsOn → task»
+     */
+    private static boolean reaches(Set<Long> edges, int source, int target, int nodes) {
+        boolean[] visited = new boolean[nodes];
+        List<Integer> stack = new ArrayList<>(List.of(source));
+        while (!stack.isEmpty()) {
+            int node = stack.remove(stack.size() - 1);
+            if (node == target) {
+                return true;
+            }
+            if (visited[node]) {
+                continue;
+            }
+            visited[node] = true;
+            for (long edge : edges) {
+                if ((int) edge == node) {
+                    stack.add((int) (edge >>> 32));
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long edge(int task, int dependsOn) {
+        return (long) task << 32 | dependsOn;
+    }
+}
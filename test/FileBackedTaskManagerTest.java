@@ -2,17 +2,42 @@ import exceptions.ManagerSaveException;
 import exceptions.TimeConflictException;
 import manager.FileBackedTaskManager;
 import manager.InMemoryTaskManager;
+import manager.RecurringSeries;
+import manager.SnapshotCodec;
 import manager.TaskManager;
+import model.Epic;
+import model.Recurrence;
+import model.Subtask;
 import model.Task;
+import model.TaskOverlap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import util.Status;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -27,6 +52,8 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
 
         tempFile = File.createTempFile("task-manager-test", ".csv");
         tempFile.deleteOnExit();
+        new File(tempFile.getAbsolutePath() + ".bak").deleteOnExit();
+        new File(tempFile.getAbsolutePath() + ".tmp").deleteOnExit();
 
         manager = new FileBackedTaskManager(tempFile.getAbsolutePath());
     }
@@ -85,4 +112,402 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         manager.addTask(task1);
         assertDoesNotThrow(() -> manager.addTask(task2));
     }
-}
\ No newline at end of file
+
+    /**
+     * Сбой записи на случайном смещении не должен портить опубликованный снимок.
+     */
+    @Test
+    void shouldKeepLastSnapshotWhenWriteInterrupted() throws TimeConflictException {
+        for (int i = 0; i < 3; i++) {
+            manager.addTask(new Task("T" + i, "D" + i, Status.NEW,
+                    Duration.ofMinutes(30), baseTime.plusHours(i)));
+        }
+
+        Random random = new Random(42);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int failAfter = random.nextInt(400);
+            FileBackedTaskManager faulty = new FileBackedTaskManager(tempFile.getAbsolutePath()) {
+                @Override
+                protected void writeSnapshot(FileChannel channel, ByteBuffer snapshot) throws IOException {
+                    snapshot.limit(Math.min(snapshot.limit(), failAfter));
+                    super.writeSnapshot(channel, snapshot);
+                    throw new IOException("Имитация сбоя после " + failAfter + " байт");
+                }
+            };
+            assertThrows(ManagerSaveException.class, () -> faulty.addTask(new Task("X", "D")));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(tempFile.getAbsolutePath());
+            assertEquals(3, reloaded.getAllTasks().size(), "Снимок изменился после сбоя записи");
+        }
+    }
+
+    /**
+     * Повреждённый снимок (обрезанный или с изменённым байтом) заменяется предыдущим.
+     */
+    @Test
+    void shouldFallBackToPreviousSnapshotWhenCorrupted() throws Exception {
+        manager.addTask(new Task("T1", "D1", Status.NEW, Duration.ofMinutes(30), baseTime));
+        manager.addTask(new Task("T2", "D2", Status.NEW, Duration.ofMinutes(30), baseTime.plusHours(1)));
+        byte[] snapshot = Files.readAllBytes(tempFile.toPath());
+
+        Random random = new Random(7);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            byte[] corrupted;
+            if (attempt % 2 == 0) {
+                corrupted = Arrays.copyOf(snapshot, random.nextInt(snapshot.length - 1));
+            } else {
+                corrupted = snapshot.clone();
+                corrupted[random.nextInt(corrupted.length - 1)] ^= 0x01;
+            }
+            Files.write(tempFile.toPath(), corrupted);
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(tempFile.getAbsolutePath());
+            assertEquals(1, reloaded.getAllTasks().size(), "Не загружен предыдущий снимок");
+        }
+    }
+
+    /**
+     * Сжатый снимок читается так же, как обычный, и меньше его; повреждённый сжатый снимок
+     * заменяется предыдущим, как и обычный.
+     */
+    @Test
+    void shouldRoundTripCompressedSnapshot() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание задачи " + i, Status.values()[i % 3],
+                    Duration.ofMinutes(30), baseTime.plusHours(i)));
+        }
+        long plainSize = Files.size(tempFile.toPath());
+        manager.setSnapshotCodec(SnapshotCodec.DEFLATE);
+        Task last = new Task("Последняя", "Описание", Status.DONE, Duration.ofMinutes(5), baseTime.minusHours(1));
+        manager.addTask(last);
+
+        byte[] snapshot = Files.readAllBytes(tempFile.toPath());
+        assertTrue(new String(snapshot, 0, 16, StandardCharsets.UTF_8).startsWith("#codec=deflate\n"));
+        assertTrue(snapshot.length * 3 < plainSize, "Снимок не сжат: " + snapshot.length + " из " + plainSize);
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(tempFile.getAbsolutePath());
+        assertEquals(201, reloaded.getAllTasks().size());
+        assertEquals("Последняя", reloaded.getTaskById(last.getId()).getName());
+        assertEquals(baseTime.plusHours(199), reloaded.getTaskById(last.getId() - 1).getStartTime());
+
+        manager.deleteTask(last.getId());
+        snapshot = Files.readAllBytes(tempFile.toPath());
+        Random random = new Random(11);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            byte[] corrupted;
+            if (attempt % 2 == 0) {
+                corrupted = Arrays.copyOf(snapshot, random.nextInt(snapshot.length - 1));
+            } else {
+                corrupted = snapshot.clone();
+                corrupted[random.nextInt(corrupted.length - 1)] ^= 0x01;
+            }
+            Files.write(tempFile.toPath(), corrupted);
+
+            assertEquals(201, new FileBackedTaskManager(tempFile.getAbsolutePath()).getAllTasks().size(),
+                    "Не загружен предыдущий снимок");
+        }
+
+        byte[] oversized = snapshot.clone(); // Длина первого блока около 2 ГБ — массив под неё не выделяется
+        ByteBuffer.wrap(oversized).putInt("#codec=deflate\n".length(), Integer.MAX_VALUE - 15);
+        Files.write(tempFile.toPath(), oversized);
+        assertEquals(201, new FileBackedTaskManager(tempFile.getAbsolutePath()).getAllTasks().size());
+    }
+
+    /**
+     * В сегментированном режиме сохранение перезаписывает только сегмент изменённой задачи,
+     * а после перезагрузки id и связи подзадач с эпиками сохраняются.
+     */
+    @Test
+    void shouldRewriteOnlyDirtySegments() throws Exception {
+        Path directory = Files.createTempDirectory("task-manager-segments");
+        directory.toFile().deleteOnExit();
+        FileBackedTaskManager segmented = new FileBackedTaskManager(directory.toString(), 2);
+
+        Task task = new Task("T1", "D1");
+        segmented.addTask(task);                       // id 1 -> сегмент 0
+        Epic epic = new Epic("E1", "D1");
+        segmented.addEpic(epic);                       // id 2 -> сегмент 1
+        Subtask subtask = new Subtask("S1", "D1", Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), baseTime.plusHours(1));
+        segmented.addSubtask(subtask);                 // id 3 -> сегмент 1
+
+        Path firstSegment = directory.resolve("segment-000000.csv");
+        Path secondSegment = directory.resolve("segment-000001.csv");
+        Files.deleteIfExists(Path.of(firstSegment + ".bak"));
+        Files.deleteIfExists(Path.of(secondSegment + ".bak"));
+
+        task.setStatus(Status.IN_PROGRESS);
+        segmented.updateTask(task);
+
+        assertTrue(Files.exists(Path.of(firstSegment + ".bak")), "Изменённый сегмент не перезаписан");
+        assertFalse(Files.exists(Path.of(secondSegment + ".bak")), "Неизменённый сегмент перезаписан");
+
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(directory.toString(), 2);
+        assertEquals(Status.IN_PROGRESS, reloaded.getTaskById(task.getId()).getStatus());
+        assertEquals(Status.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask), reloaded.getAllSubtasksByEpicId(epic.getId()));
+
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().deleteOnExit());
+        }
+    }
+
+    /**
+     * Потоковая запись CSV должна побайтно совпадать с прежним форматом на основе String.format.
+     */
+    @Test
+    void shouldWriteRecordsInLegacyFormat() throws Exception {
+        Task quoted = new Task("Задача \"1\"", "Описание с \"кавычками\", запятой и 😀", Status.IN_PROGRESS,
+                Duration.ofMinutes(90), baseTime.withSecond(5).withNano(100_000_000));
+        Task withoutTime = new Task("T2", null);
+        Task farFuture = new Task("T3", "D3", Status.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(12025, 1, 1, 0, 0));
+        manager.addTask(quoted);
+        manager.addTask(withoutTime);
+        manager.addTask(farFuture);
+        Epic epic = new Epic("E1", "D1");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("S1", "D1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(45), baseTime.plusDays(1).withNano(1_000));
+        manager.addSubtask(subtask);
+
+        List<String> expected = List.of(
+                "id,type,name,status,description,start_time,duration,epic",
+                legacyLine(quoted, "TASK", ""),
+                legacyLine(withoutTime, "TASK", ""),
+                legacyLine(farFuture, "TASK", ""),
+                legacyLine(epic, "EPIC", ""),
+                legacyLine(subtask, "SUBTASK", String.valueOf(epic.getId())));
+        List<String> lines = Files.readAllLines(tempFile.toPath());
+        assertEquals(expected, lines.subList(0, lines.size() - 1));
+        assertTrue(lines.get(lines.size() - 1).startsWith("#rows=5;crc32="));
+    }
+
+    /**
+     * Снимок со словарём: повторяющиеся строки записываются один раз, задачи ссылаются на них "@N";
+     * строка, начинающаяся с '@', не принимается за ссылку. После загрузки одинаковые строки — один экземпляр.
+     */
+    @Test
+    void shouldRoundTripDictionaryEncodedSnapshot() throws Exception {
+        manager.setDictionaryEncoding(true);
+        for (int i = 0; i < 5; i++) {
+            manager.addTask(new Task("Проверить сборку", "Запустить тесты, собрать \"отчёт\"", Status.NEW,
+                    Duration.ofMinutes(30), baseTime.plusHours(i)));
+        }
+        Task literal = new Task("@0", "@email", Status.DONE, Duration.ofMinutes(10), baseTime.minusHours(1));
+        manager.addTask(literal);
+        Epic epic = new Epic("Проверить сборку", null);
+        manager.addEpic(epic);
+
+        String content = Files.readString(tempFile.toPath());
+        assertEquals(1, content.split("Запустить тесты", -1).length - 1);
+        assertTrue(content.contains("#dict,"));
+        assertTrue(content.contains("#rows=11;")); // 7 задач и 4 строки словаря
+
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(tempFile.getAbsolutePath());
+        List<Task> tasks = reloaded.getAllTasks();
+        assertEquals(manager.getAllTasks(), tasks);
+        assertEquals("@0", reloaded.getTaskById(literal.getId()).getName());
+        assertEquals("@email", reloaded.getTaskById(literal.getId()).getDescription());
+        assertEquals("Запустить тесты, собрать \"отчёт\"", tasks.get(0).getDescription());
+        assertTrue(tasks.get(0).getName() == tasks.get(1).getName());
+        assertTrue(tasks.get(0).getName() == reloaded.getEpicById(epic.getId()).getName());
+
+        Path directory = Files.createTempDirectory("task-manager-dictionary");
+        directory.toFile().deleteOnExit();
+        FileBackedTaskManager segmented = new FileBackedTaskManager(directory.toString(), 4);
+        segmented.setDictionaryEncoding(true);
+        segmented.addTasks(manager.getAllTasks().stream()
+                .map(task -> new Task(task.getName(), task.getDescription(), task.getStatus(),
+                        task.getDuration(), task.getStartTime()))
+                .toList());
+        FileBackedTaskManager reopened = new FileBackedTaskManager(directory.toString(), 4);
+        assertEquals(segmented.getAllTasks(), reopened.getAllTasks());
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().deleteOnExit());
+        }
+    }
+
+    /**
+     * Снимок старого формата загружается без проверки пересечений: findAllConflicts находит те же пары,
+     * что и попарное сравнение, а статусы эпиков пересчитываются по загруженным подзадачам.
+     */
+    @Test
+    void shouldFindConflictsInLoadedSnapshot() throws Exception {
+        Epic epic = new Epic("E1", "D1");
+        epic.setId(1);
+        Epic empty = new Epic("E2", "D2");
+        empty.setId(2);
+        empty.setStatus(Status.DONE);
+        List<String> lines = new ArrayList<>(List.of("id,type,name,status,description,start_time,duration,epic",
+                legacyLine(epic, "EPIC", ""), legacyLine(empty, "EPIC", "")));
+        List<Task> scheduled = new ArrayList<>();
+        Random random = new Random(13);
+        for (int id = 3; id < 1_500; id++) {
+            LocalDateTime start = random.nextInt(10) == 0 ? null : baseTime.plusMinutes(random.nextInt(20_000));
+            Duration duration = Duration.ofMinutes(random.nextInt(60));
+            if (id % 2 == 0) {
+                Subtask subtask = new Subtask("S" + id, "D", Status.DONE, epic.getId(), duration, start);
+                subtask.setId(id);
+                lines.add(legacyLine(subtask, "SUBTASK", String.valueOf(epic.getId())));
+                scheduled.add(subtask);
+            } else {
+                Task task = new Task("T" + id, "D", Status.NEW, duration, start);
+                task.setId(id);
+                lines.add(legacyLine(task, "TASK", ""));
+                scheduled.add(task);
+            }
+        }
+        Files.write(tempFile.toPath(), lines, StandardCharsets.UTF_8);
+
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < scheduled.size(); i++) {
+            for (int j = i + 1; j < scheduled.size(); j++) {
+                if (scheduled.get(i).isOverlapping(scheduled.get(j))) {
+                    expected.add(pairKey(scheduled.get(i), scheduled.get(j)));
+                }
+            }
+        }
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(tempFile.getAbsolutePath());
+        assertEquals(Status.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(Status.DONE, reloaded.getEpicById(empty.getId()).getStatus());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            reloaded.setQueryParallelism(pool, 16);
+            List<TaskOverlap> conflicts = reloaded.findAllConflicts();
+            Set<String> actual = new TreeSet<>();
+            for (TaskOverlap overlap : conflicts) {
+                assertFalse(overlap.second().getStartTime().isBefore(overlap.first().getStartTime()));
+                actual.add(pairKey(overlap.first(), overlap.second()));
+            }
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), conflicts.size());
+            assertEquals(expected.size(), reloaded.forEachConflict(overlap -> { }));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Повторяющиеся задачи переживают перезагрузку вместе с отменёнными вхождениями, в том числе
+     * в сегментированном снимке со словарём: вынесенное вхождение не занимает слот дважды.
+     */
+    @Test
+    void shouldRestoreRecurringSeriesAfterReload() throws Exception {
+        assertRecurringSeriesRestored(manager, () -> new FileBackedTaskManager(tempFile.getAbsolutePath()));
+
+        Path directory = Files.createTempDirectory("task-manager-series");
+        directory.toFile().deleteOnExit();
+        FileBackedTaskManager segmented = new FileBackedTaskManager(directory.toString(), 2);
+        segmented.setDictionaryEncoding(true);
+        assertRecurringSeriesRestored(segmented, () -> new FileBackedTaskManager(directory.toString(), 2));
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().deleteOnExit());
+        }
+    }
+
+    private void assertRecurringSeriesRestored(FileBackedTaskManager target,
+                                               Supplier<FileBackedTaskManager> reopen)
+            throws TimeConflictException {
+        Task template = new Task("@Стендап", "Ежедневный, короткий", Status.NEW,
+                Duration.ofMinutes(15), baseTime);
+        RecurringSeries daily = target.addRecurringTask(template,
+                Recurrence.times(Recurrence.Frequency.DAILY, 1, 10));
+        RecurringSeries weekly = target.addRecurringTask(new Task("Ретро", "D", Status.NEW,
+                Duration.ofHours(1), baseTime.plusHours(2)),
+                Recurrence.until(Recurrence.Frequency.WEEKLY, 2, baseTime.plusWeeks(10)));
+        RecurringSeries removed = target.addRecurringTask(new Task("Удалить", "D", Status.NEW,
+                Duration.ofMinutes(10), baseTime.plusHours(5)), Recurrence.times(Recurrence.Frequency.DAILY, 1, 3));
+        target.cancelOccurrence(daily.getId(), 1);
+        Task moved = new Task("Стендап", "D", Status.NEW, Duration.ofMinutes(15), baseTime.plusDays(2).plusHours(1));
+        target.detachOccurrence(daily.getId(), 2, moved);
+        target.deleteRecurringTask(removed.getId());
+
+        FileBackedTaskManager reloaded = reopen.get();
+        RecurringSeries restored = reloaded.getRecurringTask(daily.getId());
+        assertEquals(2, reloaded.getAllRecurringTasks().size());
+        assertEquals(template.getName(), restored.getTemplate().getName());
+        assertEquals(template.getDescription(), restored.getTemplate().getDescription());
+        assertEquals(baseTime, restored.getFirstStart());
+        assertEquals(10, restored.getOccurrenceCount());
+        assertEquals(Set.of(1, 2), restored.getCancelled());
+        assertEquals(weekly.getOccurrenceCount(), reloaded.getRecurringTask(weekly.getId()).getOccurrenceCount());
+        assertEquals(baseTime.plusWeeks(10), reloaded.getRecurringTask(weekly.getId()).getRule().getUntil());
+        assertEquals(null, reloaded.getRecurringTask(removed.getId()));
+        assertEquals(List.of(moved), reloaded.getAllTasks());
+
+        assertThrows(TimeConflictException.class, () -> reloaded.addTask(new Task("Занято", "D", Status.NEW,
+                Duration.ofMinutes(15), baseTime.plusDays(3))));
+        Task freed = new Task("Свободно", "D", Status.NEW, Duration.ofMinutes(15), baseTime.plusDays(2));
+        reloaded.addTask(freed); // Слот вынесенного вхождения свободен
+        assertTrue(freed.getId() > removed.getId(), "id серий не должны выдаваться повторно");
+    }
+
+    /**
+     * Зависимости переживают перезагрузку; после удаления задачи строки зависимостей от неё
+     * не остаются и в сегментах других задач.
+     */
+    @Test
+    void shouldRestoreDependenciesAfterReload() throws Exception {
+        assertDependenciesRestored(manager, () -> new FileBackedTaskManager(tempFile.getAbsolutePath()),
+                id -> tempFile.toPath());
+
+        Path directory = Files.createTempDirectory("task-manager-dependencies");
+        directory.toFile().deleteOnExit();
+        assertDependenciesRestored(new FileBackedTaskManager(directory.toString(), 2),
+                () -> new FileBackedTaskManager(directory.toString(), 2),
+                id -> directory.resolve(String.format("segment-%06d.csv", id / 2)));
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().deleteOnExit());
+        }
+    }
+
+    private void assertDependenciesRestored(FileBackedTaskManager target, Supplier<FileBackedTaskManager> reopen,
+                                            IntFunction<Path> snapshotOf) throws Exception {
+        Task design = new Task("Дизайн", "D", Status.NEW, Duration.ofHours(2), baseTime);
+        Task build = new Task("Сборка", "D", Status.NEW, Duration.ofHours(1), null);
+        Task review = new Task("Ревью", "D", Status.NEW, Duration.ofHours(1), baseTime.plusDays(1));
+        target.addTasks(List.of(design, build, review));
+        Epic epic = new Epic("E1", "D1");
+        target.addEpic(epic);
+        Subtask release = new Subtask("Релиз", "D", Status.NEW, epic.getId(), Duration.ofHours(1), baseTime.plusDays(2));
+        target.addSubtask(release);
+        target.addDependency(build.getId(), design.getId());
+        target.addDependency(release.getId(), build.getId());
+        target.addDependency(release.getId(), review.getId());
+        target.addDependency(review.getId(), design.getId());
+        target.removeDependency(review.getId(), design.getId());
+
+        FileBackedTaskManager reloaded = reopen.get();
+        assertEquals(List.of(design.getId()), reloaded.getDependencyGraph().getDependencies(build.getId()));
+        assertEquals(List.of(build.getId(), review.getId()),
+                reloaded.getDependencyGraph().getDependencies(release.getId()));
+        assertEquals(List.of(), reloaded.getDependencyGraph().getDependencies(review.getId()));
+        assertEquals(baseTime.plusHours(2), reloaded.getDependencyGraph().getEarliestStart(build.getId()));
+        assertThrows(IllegalArgumentException.class, () -> reloaded.addDependency(design.getId(), release.getId()));
+
+        target.deleteTask(build.getId());
+        assertFalse(Files.readString(snapshotOf.apply(release.getId()))
+                .contains("#dep," + release.getId() + "," + build.getId()), "Осталась зависимость от удалённой задачи");
+        FileBackedTaskManager afterDelete = reopen.get();
+        assertEquals(List.of(review.getId()), afterDelete.getDependencyGraph().getDependencies(release.getId()));
+        assertEquals(List.of(), afterDelete.getDependencyGraph().getDependents(design.getId()));
+    }
+
+    private static String pairKey(Task first, Task second) {
+        return Math.min(first.getId(), second.getId()) + "-" + Math.max(first.getId(), second.getId());
+    }
+
+    private static String legacyLine(Task task, String type, String epicId) {
+        String description = task.getDescription() != null
+                ? task.getDescription().replace("\"", "\"\"")
+                : "";
+        String startTime = task.getStartTime() != null
+                ? task.getStartTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                : "";
+        String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "";
+        return String.format("%d,%s,%s,%s,\"%s\", %s, %s", task.getId(), type, task.getName(),
+                task.getStatus(), description, startTime, duration) + "," + epicId;
+    }
+}
@@ -0,0 +1,331 @@
+import http.HttpTaskServer;
+import http.StartupWarmup;
+import http.TaskJson;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки HTTP API поверх InMemoryTaskManager.
+ */
+public class HttpTaskServerTest {
+    private final LocalDateTime baseTime = util.TestData.BASE_TIME;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskManager manager;
+    private HttpTaskServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void shouldCreateGetAndDeleteTask() throws Exception {
+        Task task = new Task("Задача", "Описание \"в кавычках\"", Status.NEW, Duration.ofMinutes(30), baseTime);
+        HttpResponse<String> created = send("POST", "/tasks", TaskJson.toJson(task));
+        assertEquals(201, created.statusCode());
+
+        List<Task> tasks = manager.getAllTasks();
+        assertEquals(1, tasks.size());
+        Task stored = tasks.get(0);
+        assertEquals("Описание \"в кавычках\"", stored.getDescription());
+        assertEquals(baseTime, stored.getStartTime());
+        assertEquals(Duration.ofMinutes(30), stored.getDuration());
+
+        HttpResponse<String> found = send("GET", "/tasks/" + stored.getId(), null);
+        assertEquals(200, found.statusCode());
+        assertEquals("Задача", TaskJson.parseTask(found.body()).getName());
+        assertEquals(1, ((List<?>) TaskJson.parse(send("GET", "/history", null).body())).size());
+
+        assertEquals(200, send("DELETE", "/tasks/" + stored.getId(), null).statusCode());
+        assertEquals(404, send("GET", "/tasks/" + stored.getId(), null).statusCode());
+    }
+
+    @Test
+    void shouldUpdateTaskWhenIdIsSet() throws Exception {
+        Task task = new Task("Задача", "Описание");
+        manager.addTask(task);
+        Task changed = new Task("Новое имя", "Описание");
+        changed.setId(task.getId());
+        changed.setStatus(Status.DONE);
+
+        assertEquals(200, send("POST", "/tasks", TaskJson.toJson(changed)).statusCode());
+        assertEquals(Status.DONE, manager.getTaskById(task.getId()).getStatus());
+        assertEquals(1, manager.getAllTasks().size());
+
+        HttpResponse<String> created = send("POST", "/epics", TaskJson.toJson(new Epic("Эпик", "D")));
+        assertEquals(201, created.statusCode());
+        Epic epic = TaskJson.parseEpic(created.body());
+        epic.setName("Новый эпик");
+        assertEquals(200, send("POST", "/epics", TaskJson.toJson(epic)).statusCode());
+        assertEquals("Новый эпик", manager.getEpicById(epic.getId()).getName());
+    }
+
+    /**
+     * Обновление по несуществующему id не создаёт задачу: иначе следующая addTask перезаписала бы её.
+     */
+    @Test
+    void shouldReturn404WhenUpdatingUnknownId() throws Exception {
+        Epic epic = new Epic("Эпик", "D");
+        manager.addEpic(epic);
+        Task ghost = new Task("Призрак", "D");
+        ghost.setId(epic.getId() + 2);
+        Subtask ghostSubtask = new Subtask("Призрак", "D", Status.NEW, epic.getId(), null, null);
+        ghostSubtask.setId(epic.getId() + 3);
+
+        assertEquals(404, send("POST", "/tasks", TaskJson.toJson(ghost)).statusCode());
+        assertEquals(404, send("POST", "/subtasks", TaskJson.toJson(ghostSubtask)).statusCode());
+        ghost.setId(epic.getId());
+        assertEquals(404, send("POST", "/tasks", TaskJson.toJson(ghost)).statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertTrue(manager.getAllSubtasks().isEmpty());
+        assertNotNull(manager.getEpicById(epic.getId()));
+
+        Task created = new Task("Новая", "D");
+        assertEquals(201, send("POST", "/tasks", TaskJson.toJson(created)).statusCode());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    void shouldRejectOverlappingTaskWith406() throws Exception {
+        manager.addTask(new Task("Первая", "D", Status.NEW, Duration.ofMinutes(60), baseTime));
+        Task overlapping = new Task("Вторая", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusMinutes(15));
+
+        assertEquals(406, send("POST", "/tasks", TaskJson.toJson(overlapping)).statusCode());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    void shouldReturnErrorsForMissingAndMalformedRequests() throws Exception {
+        assertEquals(404, send("GET", "/tasks/42", null).statusCode());
+        assertEquals(404, send("GET", "/epics/abc", null).statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"name\":").statusCode());
+        assertEquals(405, send("PUT", "/history", "").statusCode());
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedBodiesAndOutOfRangeIds() throws Exception {
+        manager.addTask(new Task("Задача", "D"));
+        assertEquals(400, send("POST", "/tasks", "[".repeat(100_000)).statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"id\":4294967297,\"name\":\"Чужая\"}").statusCode());
+        assertEquals(400, send("POST", "/subtasks", "{\"epicId\":-4294967295,\"name\":\"S\"}").statusCode());
+        assertEquals("Задача", manager.getTaskById(1).getName());
+        assertEquals(List.of(List.of()), TaskJson.parse("[[]]"));
+    }
+
+    @Test
+    void shouldServeEpicSubtasksAndPrioritizedList() throws Exception {
+        Epic epic = new Epic("Эпик", "D");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "D", Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), baseTime);
+        assertEquals(201, send("POST", "/subtasks", TaskJson.toJson(subtask)).statusCode());
+
+        HttpResponse<String> subtasks = send("GET", "/epics/" + epic.getId() + "/subtasks", null);
+        assertEquals(200, subtasks.statusCode());
+        List<?> parsed = (List<?>) TaskJson.parse(subtasks.body());
+        assertEquals(1, parsed.size());
+        assertEquals((long) epic.getId(), ((Map<?, ?>) parsed.get(0)).get("epicId"));
+
+        Map<?, ?> epicJson = (Map<?, ?>) TaskJson.parse(send("GET", "/epics/" + epic.getId(), null).body());
+        assertEquals("DONE", epicJson.get("status"));
+        assertEquals(List.of(2L), epicJson.get("subtaskIds"));
+
+        List<?> prioritized = (List<?>) TaskJson.parse(send("GET", "/prioritized", null).body());
+        assertEquals(1, prioritized.size());
+        assertEquals("2025-05-18T18:00:00", ((Map<?, ?>) prioritized.get(0)).get("startTimeStr"));
+    }
+
+    @Test
+    void shouldStreamLargeListsInChunks() throws Exception {
+        server.stop();
+        server = new HttpTaskServer(manager, 0, 0);
+        server.start();
+        for (int i = 0; i < 2_000; i++) {
+            manager.addTask(new Task("Задача №" + i + " \uD83D\uDE80", "Строка\nс переводом"));
+        }
+
+        HttpResponse<String> response = send("GET", "/tasks", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null));
+        List<?> tasks = (List<?>) TaskJson.parse(response.body());
+        assertEquals(2_000, tasks.size());
+        Map<?, ?> last = (Map<?, ?>) tasks.get(tasks.size() - 1);
+        assertEquals("Задача №1999 \uD83D\uDE80", last.get("name"));
+        assertEquals("Строка\nс переводом", last.get("description"));
+    }
+
+    /**
+     * Без кэша все списки отдаются курсором по частям: состав и порядок совпадают с менеджером.
+     */
+    @Test
+    void shouldStreamEveryCollectionThroughCursor() throws Exception {
+        server.stop();
+        server = new HttpTaskServer(manager, 0, 0);
+        server.start();
+        for (int i = 0; i < 600; i++) {
+            Task task = new Task("Задача " + i, "D", Status.NEW, Duration.ofMinutes(10), baseTime.minusHours(i));
+            manager.addTask(task);
+            manager.getTaskById(task.getId());
+            manager.addEpic(new Epic("Эпик " + i, "D"));
+        }
+
+        for (String path : List.of("/tasks", "/epics", "/prioritized", "/history")) {
+            List<?> body = (List<?>) TaskJson.parse(send("GET", path, null).body());
+            List<? extends Task> expected = switch (path) {
+                case "/tasks" -> sortedById(manager.getAllTasks());
+                case "/epics" -> sortedById(manager.getAllEpics());
+                case "/prioritized" -> manager.getPrioritizedTasks();
+                default -> manager.getHistory();
+            };
+            assertEquals(expected.stream().map(task -> (long) task.getId()).toList(),
+                    body.stream().map(task -> ((Map<?, ?>) task).get("id")).toList(), path);
+        }
+    }
+
+    private static List<? extends Task> sortedById(List<? extends Task> tasks) {
+        return tasks.stream().sorted(Comparator.comparingInt(Task::getId)).toList();
+    }
+
+    @Test
+    void shouldNotBlockWritesBehindStalledListReader() throws Exception {
+        server.stop();
+        server = new HttpTaskServer(manager, 0, 0);
+        server.start();
+        String description = "Описание ".repeat(50);
+        for (int i = 0; i < 20_000; i++) { // Около 10 МБ JSON — больше буферов сокета
+            manager.addTask(new Task("Задача " + i, description));
+        }
+
+        try (Socket stalled = new Socket("localhost", server.getPort())) {
+            stalled.getOutputStream().write(("GET /tasks HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII)); // Ответ не читается
+            Thread.sleep(200);
+
+            HttpRequest post = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(TaskJson.toJson(new Task("Новая", "D"))))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            assertEquals(201, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilCollectionChanges() throws Exception {
+        manager.addEpic(new Epic("Эпик", "D"));
+        HttpResponse<String> first = send("GET", "/epics", null);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> cached = send("GET", "/epics", null);
+        assertEquals(first.body(), cached.body());
+        assertEquals(etag, cached.headers().firstValue("ETag").orElseThrow());
+        HttpResponse<String> notModified = send("GET", "/epics", null, "If-None-Match", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+
+        manager.addTask(new Task("Задача", "D"));
+        assertEquals(304, send("GET", "/epics", null, "If-None-Match", etag).statusCode());
+
+        manager.addEpic(new Epic("Второй эпик", "D"));
+        HttpResponse<String> changed = send("GET", "/epics", null, "If-None-Match", etag);
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertEquals(2, ((List<?>) TaskJson.parse(changed.body())).size());
+    }
+
+    @Test
+    void shouldLongPollChangeFeed() throws Exception {
+        Task task = new Task("Задача", "D");
+        manager.addTask(task);
+        manager.deleteTask(task.getId());
+
+        Map<?, ?> page = (Map<?, ?>) TaskJson.parse(send("GET", "/events?since=1&timeout=0", null).body());
+        assertEquals(3L, page.get("next"));
+        assertEquals(0L, page.get("missed"));
+        List<?> events = (List<?>) page.get("events");
+        assertEquals(2, events.size());
+        assertEquals("DELETED", ((Map<?, ?>) events.get(1)).get("change"));
+
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                manager.addEpic(new Epic("Эпик", "D"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.start();
+        Map<?, ?> awaited = (Map<?, ?>) TaskJson.parse(send("GET", "/events?since=3&timeout=5", null).body());
+        writer.join();
+        assertEquals("EPIC", ((Map<?, ?>) ((List<?>) awaited.get("events")).get(0)).get("type"));
+    }
+
+    /**
+     * Курсор, выданный до перезапуска (впереди ленты), получает 410 без ожидания.
+     */
+    @Test
+    void shouldRejectCursorAheadOfChangeFeed() throws Exception {
+        manager.addTask(new Task("Задача", "D"));
+
+        long started = System.nanoTime();
+        HttpResponse<String> response = send("GET", "/events?since=100&timeout=30", null);
+        assertEquals(410, response.statusCode());
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(10));
+        assertEquals(2L, ((Map<?, ?>) TaskJson.parse(response.body())).get("next"));
+        assertEquals(200, send("GET", "/events?since=2&timeout=0", null).statusCode());
+    }
+
+    /**
+     * Прогрев идёт на отдельном сервере и хранилище: рабочий менеджер не меняется.
+     */
+    @Test
+    void shouldWarmUpOnScratchInstance() throws Exception {
+        manager.addTask(new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30), baseTime));
+
+        assertTrue(StartupWarmup.run(150) > 0);
+        assertEquals(1, manager.getAllTasks().size());
+        assertTrue(manager.getAllSubtasks().isEmpty());
+        assertEquals(200, send("GET", "/tasks", null).statusCode());
+        assertThrows(IllegalArgumentException.class, () -> StartupWarmup.run(0));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body));
+        request.timeout(Duration.ofSeconds(10));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
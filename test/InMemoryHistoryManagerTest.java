@@ -65,6 +65,7 @@ public class InMemoryHistoryManagerTest {
         hm.add(task);
         hm.remove(task.getId());
         assertEquals(0, hm.getHistory().size());
+        assertEquals(0, hm.size());
     }
 
     @Test
@@ -88,6 +89,7 @@ public class InMemoryHistoryManagerTest {
 
         List<Task> history = hm.getHistory();
         assertEquals(1, history.size());
+        assertEquals(1, hm.size());
         assertEquals(task2, history.get(0));
     }
 
@@ -6,15 +6,19 @@ import model.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import util.Status;
+import util.TaskCollection;
 import util.TestData;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
     LocalDateTime baseTime = TestData.BASE_TIME;
@@ -112,4 +116,86 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         List<Task> prioritized = tm.getPrioritizedTasks();
         assertEquals(Arrays.asList(t2, t3, t1, t4), prioritized);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldBumpOnlyAffectedCollectionVersions() throws TimeConflictException {
+        Epic epic = new Epic("E1", "D1");
+        manager.addEpic(epic);
+        long tasks = manager.getModificationVersion(TaskCollection.TASKS);
+        long epics = manager.getModificationVersion(TaskCollection.EPICS);
+        long history = manager.getModificationVersion(TaskCollection.HISTORY);
+
+        manager.getAllTasks();
+        manager.getAllEpics();
+        assertEquals(tasks, manager.getModificationVersion(TaskCollection.TASKS));
+        assertEquals(epics, manager.getModificationVersion(TaskCollection.EPICS));
+
+        manager.addSubtask(new Subtask("S1", "D1", Status.NEW, epic.getId(), Duration.ofMinutes(30), baseTime));
+        assertEquals(tasks, manager.getModificationVersion(TaskCollection.TASKS));
+        assertTrue(manager.getModificationVersion(TaskCollection.EPICS) > epics);
+
+        manager.getEpicById(epic.getId());
+        assertTrue(manager.getModificationVersion(TaskCollection.HISTORY) > history);
+
+        manager.addTask(new Task("T1", "D1"));
+        assertTrue(manager.getModificationVersion(TaskCollection.TASKS) > tasks);
+    }
+
+    /**
+     * Параллельные запросы на своём пуле с маленьким порогом дают тот же результат, что и последовательный обход
+     */
+    @Test
+    void shouldRunParallelQueriesOnCustomPool() throws TimeConflictException {
+        Epic epic = new Epic("E1", "D1");
+        manager.addEpic(epic);
+        for (int i = 0; i < 300; i++) {
+            if (i % 2 == 0) {
+                manager.addTask(new Task("T" + i, "D", Status.values()[i % 3], Duration.ofMinutes(30),
+                        baseTime.plusHours(i)));
+            } else {
+                manager.addSubtask(new Subtask("S" + i, "D", Status.values()[i % 3], epic.getId(),
+                        Duration.ofMinutes(30), baseTime.plusHours(i)));
+            }
+        }
+        List<Task> expected = manager.filterTasks(task -> task.getStatus() == Status.DONE);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            manager.setQueryParallelism(pool, 7);
+            assertEquals(expected, manager.filterTasks(task -> task.getStatus() == Status.DONE));
+            assertEquals(100, expected.size());
+            assertEquals(epic, manager.filterTasks(task -> task instanceof Epic).get(0));
+            assertTrue(manager.findAllConflicts().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> manager.setQueryParallelism(pool, 0));
+    }
+
+    /**
+     * recomputeAllEpics исправляет статусы эпиков, подзадачи которых изменены в обход менеджера
+     */
+    @Test
+    void shouldRecomputeAllEpicStatuses() throws TimeConflictException {
+        manager.setQueryParallelism(ForkJoinPool.commonPool(), 1);
+        Epic done = new Epic("E1", "D1");
+        Epic empty = new Epic("E2", "D2");
+        manager.addEpic(done);
+        manager.addEpic(empty);
+        Subtask first = new Subtask("S1", "D1", Status.NEW, done.getId(), Duration.ofMinutes(30), baseTime);
+        Subtask second = new Subtask("S2", "D2", Status.NEW, done.getId(), null, null);
+        manager.addSubtask(first);
+        manager.addSubtask(second);
+        assertEquals(Status.NEW, manager.getEpicById(done.getId()).getStatus());
+
+        first.setStatus(Status.DONE);
+        second.setStatus(Status.DONE);
+        manager.recomputeAllEpics();
+        assertEquals(Status.DONE, manager.getEpicById(done.getId()).getStatus());
+        assertEquals(Status.NEW, manager.getEpicById(empty.getId()).getStatus());
+
+        second.setStatus(Status.NEW);
+        manager.recomputeAllEpics();
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(done.getId()).getStatus());
+    }
+}
@@ -0,0 +1,276 @@
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.IndexedTaskManager;
+import manager.SnapshotCodec;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки IndexedTaskManager.
+ * Менеджер возвращает копии задач, поэтому состояние проверяется повторным чтением;
+ * отдельно проверяются чтение вытесненных задач с диска и совместимость с FileBackedTaskManager.
+ */
+public class IndexedTaskManagerTest extends TaskManagerTest<IndexedTaskManager> {
+    private static final int SEGMENT_SIZE = 16;
+    private static final long CACHE_BYTES = 1 << 20;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("indexed-task-manager-test");
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, CACHE_BYTES);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        manager.close();
+        try (var files = Files.list(directory)) {
+            files.map(Path::toFile).forEach(File::delete);
+        }
+        directory.toFile().delete();
+    }
+
+    /**
+     * Проверка расчета статуса эпика по подзадачам (эпик перечитывается после каждого изменения).
+     */
+    @Override
+    @Test
+    public void testEpicStatusCalculation() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+
+        Subtask subtask1 = new Subtask("S1", "D1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), baseTime);
+        manager.addSubtask(subtask1);
+        assertEquals(Status.NEW, manager.getEpicById(epic.getId()).getStatus());
+
+        subtask1.setStatus(Status.DONE);
+        manager.updateSubtask(subtask1);
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+
+        Subtask subtask2 = new Subtask("S2", "D2", Status.NEW, epic.getId(),
+                Duration.ofMinutes(60), baseTime.plusHours(1));
+        manager.addSubtask(subtask2);
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+
+        manager.deleteSubtask(subtask1.getId());
+        assertEquals(Status.NEW, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask2.getId()), manager.getEpicById(epic.getId()).getSubtaskIds());
+    }
+
+    /**
+     * Задачи, вытесненные из маленького кэша, читаются с диска; статистика кэша учитывает промахи.
+     */
+    @Test
+    void shouldReadEvictedTasksFromDisk() throws TimeConflictException {
+        manager.close();
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, 2_000);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи " + i, Status.NEW,
+                    Duration.ofMinutes(30), baseTime.plusHours(i));
+            manager.addTask(task);
+            tasks.add(task);
+        }
+        assertTrue(manager.getCacheEvictions() > 0);
+        assertTrue(manager.getCacheWeight() <= 2_000);
+
+        for (Task task : tasks) {
+            Task loaded = manager.getTaskById(task.getId());
+            assertEquals(task.getName(), loaded.getName());
+            assertEquals(task.getDescription(), loaded.getDescription());
+            assertEquals(task.getStartTime(), loaded.getStartTime());
+        }
+        assertTrue(manager.getCacheMisses() > 0);
+        assertEquals(manager.getCacheMisses(), manager.getLoadLatency().getCount());
+
+        Task updated = tasks.get(3);
+        updated.setName("Новое название");
+        manager.updateTask(updated);
+        for (Task task : tasks) {
+            manager.getTaskById(task.getId()); // Вытесняет обновлённую задачу из кэша
+        }
+        assertEquals("Новое название", manager.getTaskById(updated.getId()).getName());
+        assertEquals(tasks.size(), manager.getAllTasks().size());
+    }
+
+    /**
+     * Параллельные чтения списков (как под общей блокировкой чтения HTTP-сервера) не портят кэш:
+     * каждое чтение учтено ровно один раз, а вес кэша не превышает ограничения.
+     */
+    @Test
+    void shouldServeConcurrentReadersThroughCache() throws Exception {
+        manager.close();
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, 2_000);
+        for (int i = 0; i < 40; i++) { // Не больше BULK_READ_THRESHOLD — список собирается через кэш
+            manager.addTask(new Task("Задача " + i, "Описание задачи " + i));
+        }
+        long readsBefore = manager.getCacheHits() + manager.getCacheMisses();
+        int threads = 4;
+        int rounds = 200;
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            readers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < rounds; i++) {
+                        List<Task> tasks = manager.getAllTasks();
+                        assertEquals("Задача 39", tasks.get(39).getName());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(readsBefore + (long) threads * rounds * 40, manager.getCacheHits() + manager.getCacheMisses());
+        assertTrue(manager.getCacheWeight() <= 2_000);
+    }
+
+    /**
+     * Повторно прочитанная задача переживает однократное чтение длинного хвоста.
+     */
+    @Test
+    void shouldKeepHotTaskDuringScan() throws TimeConflictException {
+        manager.close();
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, 4_000);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = new Task("T" + i, "D" + i);
+            manager.addTask(task);
+            tasks.add(task);
+        }
+        int hotId = tasks.get(0).getId();
+        manager.getTaskById(hotId);
+        manager.getTaskById(hotId);
+        for (Task task : tasks.subList(1, tasks.size())) {
+            manager.getTaskById(task.getId());
+        }
+
+        long hits = manager.getCacheHits();
+        manager.getTaskById(hotId);
+        assertEquals(hits + 1, manager.getCacheHits());
+    }
+
+    /**
+     * Каталог, записанный FileBackedTaskManager с тем же размером сегмента, читается и дописывается.
+     */
+    @Test
+    void shouldShareDirectoryWithFileBackedManager() throws TimeConflictException {
+        manager.close();
+        FileBackedTaskManager fileBacked = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        Epic epic = new Epic("Эпик", "Описание, с запятой");
+        fileBacked.addEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            subtasks.add(new Subtask("S" + i, "D" + i, i % 2 == 0 ? Status.DONE : Status.NEW, epic.getId(),
+                    Duration.ofMinutes(10), baseTime.plusMinutes(15L * i)));
+        }
+        fileBacked.addSubtasks(subtasks);
+
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, CACHE_BYTES);
+        Epic loaded = manager.getEpicById(epic.getId());
+        assertEquals("Описание, с запятой", loaded.getDescription());
+        assertEquals(Status.IN_PROGRESS, loaded.getStatus());
+        assertEquals(40, manager.getAllSubtasksByEpicId(epic.getId()).size());
+        assertEquals("S39", manager.getPrioritizedTasks().get(39).getName());
+
+        Subtask changed = manager.getSubtaskById(subtasks.get(5).getId());
+        changed.setDescription("Изменено");
+        manager.updateSubtask(changed);
+        manager.deleteSubtask(subtasks.get(6).getId());
+        Task task = new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(5), baseTime.minusHours(1));
+        manager.addTask(task);
+        manager.close();
+
+        FileBackedTaskManager reopened = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        assertEquals("Изменено", reopened.getSubtaskById(subtasks.get(5).getId()).getDescription());
+        assertNull(reopened.getSubtaskById(subtasks.get(6).getId()));
+        assertEquals("Задача", reopened.getTaskById(task.getId()).getName());
+        assertEquals(39, reopened.getAllSubtasks().size());
+
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, CACHE_BYTES);
+        Task next = new Task("T2", "D2");
+        manager.addTask(next);
+        assertEquals(task.getId() + 1, next.getId());
+    }
+
+    /**
+     * Сегменты со словарём читаются по ссылкам "@N"; перезаписанный сегмент словарь больше не использует.
+     */
+    @Test
+    void shouldReadDictionaryEncodedSegments() throws TimeConflictException {
+        manager.close();
+        FileBackedTaskManager fileBacked = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        fileBacked.setDictionaryEncoding(true);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tasks.add(new Task(i % 2 == 0 ? "Шаблон" : "@" + i, "Общее описание", Status.NEW,
+                    Duration.ofMinutes(10), baseTime.plusMinutes(15L * i)));
+        }
+        fileBacked.addTasks(tasks);
+
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, 2_000);
+        for (Task task : tasks) {
+            Task loaded = manager.getTaskById(task.getId());
+            assertEquals(task.getName(), loaded.getName());
+            assertEquals("Общее описание", loaded.getDescription());
+        }
+        Task changed = tasks.get(1);
+        changed.setDescription("Изменено");
+        manager.updateTask(changed);
+        for (Task task : tasks) {
+            manager.getTaskById(task.getId()); // Вытесняет задачи из кэша
+        }
+        assertEquals(tasks.get(3).getName(), manager.getTaskById(tasks.get(3).getId()).getName());
+        assertEquals("Изменено", manager.getTaskById(changed.getId()).getDescription());
+    }
+
+    /**
+     * Сжатые сегменты FileBackedTaskManager при открытии перезаписываются обычным CSV и читаются по смещениям.
+     */
+    @Test
+    void shouldRewriteCompressedSegments() throws Exception {
+        manager.close();
+        FileBackedTaskManager fileBacked = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        fileBacked.setSnapshotCodec(SnapshotCodec.DEFLATE);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tasks.add(new Task("T" + i, "D" + i, Status.NEW, Duration.ofMinutes(10), baseTime.plusMinutes(15L * i)));
+        }
+        fileBacked.addTasks(tasks);
+        assertEquals(40, new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE).getAllTasks().size());
+
+        manager = new IndexedTaskManager(directory.toString(), SEGMENT_SIZE, 500);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".csv")).toList()) {
+                assertTrue(Files.readString(file).startsWith("id,"), "Сегмент не перезаписан: " + file);
+            }
+        }
+        for (Task task : tasks) {
+            assertEquals(task.getDescription(), manager.getTaskById(task.getId()).getDescription());
+        }
+        assertTrue(manager.getCacheMisses() > 0);
+    }
+}
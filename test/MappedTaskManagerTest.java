@@ -0,0 +1,228 @@
+import exceptions.TimeConflictException;
+import manager.MappedTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки MappedTaskManager.
+ * Менеджер возвращает копии задач, поэтому состояние проверяется повторным чтением из хранилища.
+ */
+public class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("mapped-task-manager-test");
+        manager = new MappedTaskManager(directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        manager.close();
+        try (var files = Files.list(directory)) {
+            files.map(Path::toFile).forEach(File::delete);
+        }
+        directory.toFile().delete();
+    }
+
+    /**
+     * Проверка расчета статуса эпика по подзадачам (эпик перечитывается после каждого изменения).
+     */
+    @Override
+    @Test
+    public void testEpicStatusCalculation() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+
+        Subtask subtask1 = new Subtask("S1", "D1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), baseTime);
+        manager.addSubtask(subtask1);
+        assertEquals(Status.NEW, manager.getEpicById(epic.getId()).getStatus());
+
+        subtask1.setStatus(Status.DONE);
+        manager.updateSubtask(subtask1);
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+
+        Subtask subtask2 = new Subtask("S2", "D2", Status.NEW, epic.getId(),
+                Duration.ofMinutes(60), baseTime.plusHours(1));
+        manager.addSubtask(subtask2);
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+
+        manager.deleteSubtask(subtask1.getId());
+        assertEquals(Status.NEW, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask2.getId()), manager.getEpicById(epic.getId()).getSubtaskIds());
+    }
+
+    /**
+     * Данные, время и порядок подзадач сохраняются после повторного открытия хранилища.
+     */
+    @Test
+    void shouldRestoreTasksAfterReopen() throws TimeConflictException {
+        Task task = new Task("Задача", "Описание", Status.IN_PROGRESS, Duration.ofMinutes(45), baseTime);
+        manager.addTask(task);
+        Epic epic = new Epic("E", null);
+        manager.addEpic(epic);
+        Subtask first = new Subtask("S1", "D1", Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), baseTime.plusHours(1));
+        Subtask second = new Subtask("S2", "D2", Status.DONE, epic.getId(), null, null);
+        manager.addSubtask(first);
+        manager.addSubtask(second);
+        manager.deleteTask(task.getId());
+        manager.close();
+
+        MappedTaskManager reopened = new MappedTaskManager(directory.toString());
+        assertNull(reopened.getTaskById(task.getId()));
+        Epic loadedEpic = reopened.getEpicById(epic.getId());
+        assertNull(loadedEpic.getDescription());
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(List.of(first, second), reopened.getAllSubtasksByEpicId(epic.getId()));
+        assertEquals(first.getStartTime(), reopened.getSubtaskById(first.getId()).getStartTime());
+        assertEquals(List.of(first), reopened.getPrioritizedTasks());
+
+        Task next = new Task("T2", "D2");
+        reopened.addTask(next);
+        assertEquals(second.getId() + 1, next.getId());
+        reopened.close();
+    }
+
+    /**
+     * Изменение задачи без смены времени не считается пересечением с самой собой.
+     */
+    @Test
+    void shouldUpdateTaskWithoutSelfOverlap() throws TimeConflictException {
+        Task task = new Task("T", "D", Status.NEW, Duration.ofMinutes(30), baseTime);
+        manager.addTask(task);
+        task.setStatus(Status.DONE);
+        manager.updateTask(task);
+        assertEquals(Status.DONE, manager.getTaskById(task.getId()).getStatus());
+    }
+
+    /**
+     * Обновление эпика и его подзадач не обрывает список подзадач эпика.
+     */
+    @Test
+    void shouldKeepSubtaskListAfterUpdates() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask first = new Subtask("S1", "D1", Status.NEW, epic.getId(), null, null);
+        Subtask second = new Subtask("S2", "D2", Status.NEW, epic.getId(), null, null);
+        Subtask third = new Subtask("S3", "D3", Status.NEW, epic.getId(), null, null);
+        manager.addSubtask(first);
+        manager.addSubtask(second);
+        manager.addSubtask(third);
+
+        second.setStatus(Status.DONE);
+        manager.updateSubtask(second);
+        third.setName("S3*");
+        manager.updateSubtask(third);
+        Epic loaded = manager.getEpicById(epic.getId());
+        loaded.setName("E*");
+        manager.updateEpic(loaded);
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()),
+                manager.getEpicById(epic.getId()).getSubtaskIds());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+    }
+
+    /**
+     * Смена epicId переносит подзадачу в список нового эпика и пересчитывает статусы обоих.
+     */
+    @Test
+    void shouldMoveSubtaskBetweenEpicsOnUpdate() throws TimeConflictException {
+        Epic source = new Epic("A", "D");
+        Epic target = new Epic("B", "D");
+        manager.addEpic(source);
+        manager.addEpic(target);
+        Subtask moved = new Subtask("S1", "D1", Status.DONE, source.getId(), null, null);
+        Subtask kept = new Subtask("S2", "D2", Status.NEW, source.getId(), null, null);
+        manager.addSubtask(moved);
+        manager.addSubtask(kept);
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(source.getId()).getStatus());
+
+        moved.setEpicId(target.getId());
+        manager.updateSubtask(moved);
+
+        assertEquals(List.of(kept.getId()), manager.getEpicById(source.getId()).getSubtaskIds());
+        assertEquals(Status.NEW, manager.getEpicById(source.getId()).getStatus());
+        assertEquals(List.of(moved.getId()), manager.getEpicById(target.getId()).getSubtaskIds());
+        assertEquals(Status.DONE, manager.getEpicById(target.getId()).getStatus());
+
+        manager.deleteEpic(source.getId());
+        assertNotNull(manager.getSubtaskById(moved.getId()));
+        assertNull(manager.getSubtaskById(kept.getId()));
+    }
+
+    /**
+     * Обновление по чужому или несуществующему id отклоняется и не меняет хранилище.
+     */
+    @Test
+    void shouldRejectUpdatesOfMissingOrMistypedRecords() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("S", "D", Status.NEW, epic.getId(), null, null);
+        manager.addSubtask(subtask);
+
+        Task impostor = new Task("T", "D");
+        impostor.setId(epic.getId());
+        assertThrows(IllegalArgumentException.class, () -> manager.updateTask(impostor));
+        impostor.setId(5_000_000);
+        assertThrows(IllegalArgumentException.class, () -> manager.updateTask(impostor));
+        Subtask wrongSubtask = new Subtask("S", "D", Status.DONE, epic.getId(), null, null);
+        wrongSubtask.setId(epic.getId());
+        assertThrows(IllegalArgumentException.class, () -> manager.updateSubtask(wrongSubtask));
+        assertThrows(IllegalArgumentException.class, () -> manager.updateSubtasks(List.of(wrongSubtask)));
+        Epic wrongEpic = new Epic("E*", "D");
+        wrongEpic.setId(subtask.getId());
+        assertThrows(IllegalArgumentException.class, () -> manager.updateEpic(wrongEpic));
+
+        assertEquals(List.of(epic.getId()), manager.getAllEpics().stream().map(Task::getId).toList());
+        assertEquals(epic.getId(), manager.getSubtaskById(subtask.getId()).getEpicId());
+        assertEquals(List.of(subtask.getId()), manager.getEpicById(epic.getId()).getSubtaskIds());
+        Task next = new Task("T2", "D");
+        manager.addTask(next);
+        assertEquals(subtask.getId() + 1, next.getId());
+    }
+
+    /**
+     * Пересечение находится по индексу времени начала, в том числе с длинной задачей,
+     * начавшейся раньше, и после повторного открытия хранилища.
+     */
+    @Test
+    void shouldFindOverlapsThroughStartIndex() throws TimeConflictException {
+        Task early = new Task("T1", "D", Status.NEW, Duration.ofMinutes(30), baseTime);
+        Task middle = new Task("T2", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusHours(1));
+        Task longTask = new Task("T3", "D", Status.NEW, Duration.ofHours(3), baseTime.plusHours(2));
+        manager.addTask(longTask);
+        manager.addTask(early);
+        manager.addTask(middle);
+        assertEquals(List.of(early, middle, longTask), manager.getPrioritizedTasks());
+
+        assertThrows(TimeConflictException.class, () -> manager.addTask(
+                new Task("X", "D", Status.NEW, Duration.ofMinutes(10), baseTime.plusHours(4))));
+        middle.setStartTime(baseTime.plusHours(3));
+        assertThrows(TimeConflictException.class, () -> manager.updateTask(middle));
+        middle.setStartTime(baseTime.plusMinutes(40));
+        manager.updateTask(middle);
+        manager.close();
+
+        manager = new MappedTaskManager(directory.toString());
+        assertEquals(List.of(early, middle, longTask), manager.getPrioritizedTasks());
+        assertThrows(TimeConflictException.class, () -> manager.addTask(
+                new Task("X", "D", Status.NEW, Duration.ofMinutes(10), baseTime.plusMinutes(65))));
+        manager.deleteTask(middle.getId());
+        manager.addTask(new Task("Y", "D", Status.NEW, Duration.ofMinutes(10), baseTime.plusMinutes(65)));
+    }
+}
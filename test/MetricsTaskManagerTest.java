@@ -0,0 +1,108 @@
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import manager.MetricsTaskManager;
+import metrics.LatencyHistogram;
+import metrics.TaskManagerMetrics;
+import metrics.TaskManagerMetrics.Operation;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для MetricsTaskManager: общий контракт TaskManager через обёртку,
+ * счётчики операций, внутренние замеры, гистограмма задержек и публикация в JMX.
+ */
+public class MetricsTaskManagerTest extends TaskManagerTest<MetricsTaskManager> {
+    private TaskManagerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new TaskManagerMetrics();
+        manager = new MetricsTaskManager(new InMemoryTaskManager(), metrics);
+    }
+
+    @Test
+    void shouldCountOperationsAndInternalProbes() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        manager.addSubtask(new Subtask("S", "D", Status.DONE, epic.getId(), Duration.ofHours(1), baseTime));
+        Task clash = new Task("T", "D", Status.NEW, Duration.ofHours(1), baseTime);
+        assertThrows(TimeConflictException.class, () -> manager.addTask(clash));
+        manager.getEpicById(epic.getId());
+
+        assertEquals(1, metrics.getHistogram(Operation.ADD_EPIC).getCount());
+        assertEquals(1, metrics.getHistogram(Operation.ADD_SUBTASK).getCount());
+        assertEquals(1, metrics.getHistogram(Operation.ADD_TASK).getCount());
+        assertEquals(2, metrics.getHistogram(Operation.TIME_OVERLAP).getCount()); // Проверки внутри addSubtask и addTask
+        assertEquals(1, metrics.getHistogram(Operation.EPIC_STATUS).getCount());
+        assertEquals(1, metrics.getConflicts());
+        assertEquals(Map.of("tasks", 0L, "subtasks", 1L, "epics", 1L, "prioritized", 1L, "history", 1L),
+                metrics.getSizes());
+        assertTrue(metrics.dump().contains("ADD_SUBTASK"));
+
+        metrics.setEnabled(false);
+        manager.getEpicById(epic.getId());
+        manager.hasTimeOverlap(clash);
+        assertEquals(1, metrics.getHistogram(Operation.GET_BY_ID).getCount());
+        assertEquals(2, metrics.getHistogram(Operation.TIME_OVERLAP).getCount());
+    }
+
+    @Test
+    void shouldRecordSaveAndLoad() throws Exception {
+        File file = File.createTempFile("metrics-manager", ".csv");
+        file.deleteOnExit();
+        new File(file.getAbsolutePath() + ".bak").deleteOnExit();
+        MetricsTaskManager fileBacked = new MetricsTaskManager(new FileBackedTaskManager(file.getAbsolutePath()),
+                metrics);
+        fileBacked.addTask(new Task("T", "D", Status.NEW, Duration.ofHours(1), baseTime));
+        assertEquals(1, metrics.getHistogram(Operation.SAVE).getCount());
+        assertEquals(file.length(), metrics.getSavedBytes());
+
+        TaskManagerMetrics reloaded = new TaskManagerMetrics();
+        new MetricsTaskManager(new FileBackedTaskManager(file.getAbsolutePath()), reloaded);
+        assertEquals(1, reloaded.getHistogram(Operation.LOAD).getCount());
+        assertEquals(file.length(), reloaded.getLoadedBytes());
+    }
+
+    @Test
+    void shouldKeepPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        assertEquals(50_000, histogram.getPercentile(50), 50_000 / 32.0);
+        assertEquals(99_000, histogram.getPercentile(99), 99_000 / 32.0);
+        assertEquals(100_000, histogram.getPercentile(100));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    @Test
+    void shouldPublishMBean() throws Exception {
+        ObjectName name = metrics.register("metrics-test");
+        try {
+            manager.addEpic(new Epic("E", "D"));
+            var server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(0L, server.getAttribute(name, "Conflicts"));
+            assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+            assertTrue(((String) server.invoke(name, "dump", null, null)).contains("ADD_EPIC"));
+        } finally {
+            TaskManagerMetrics.unregister("metrics-test");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import exceptions.TimeConflictException;
+import manager.AutoScheduler;
+import manager.InMemoryTaskManager;
+import manager.RecurringSeries;
+import model.Occurrence;
+import model.Recurrence;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TestData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для повторяющихся задач: вычисление вхождений, исключения и проверка пересечений.
+ */
+class RecurringTaskTest {
+    private final LocalDateTime baseTime = TestData.BASE_TIME;
+    private InMemoryTaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+    }
+
+    @Test
+    void shouldExpandOccurrencesOnlyInRequestedWindow() throws TimeConflictException {
+        RecurringSeries standUp = manager.addRecurringTask(standUp(baseTime),
+                Recurrence.times(Recurrence.Frequency.DAILY, 1, 1_000_000));
+        Task review = new Task("Ревью", "D", Status.NEW, Duration.ofHours(1), baseTime.plusDays(2).plusHours(1));
+        manager.addTask(review);
+
+        List<Task> window = manager.getTasksInRange(baseTime.plusDays(1), baseTime.plusDays(3));
+
+        assertEquals(4, window.size());
+        assertEquals(baseTime.plusDays(1), window.get(0).getStartTime());
+        assertEquals(2, ((Occurrence) window.get(1)).getIndex());
+        assertEquals(review, window.get(2));
+        assertEquals(standUp.getId(), ((Occurrence) window.get(3)).getSeriesId());
+        assertTrue(manager.getPrioritizedTasks().contains(review));
+        assertEquals(1, manager.getPrioritizedTasks().size()); // Вхождения не хранятся
+        assertEquals(baseTime.plusDays(999_999).plusMinutes(15), standUp.getLastEnd());
+    }
+
+    @Test
+    void shouldDetectOverlapsWithVirtualOccurrences() throws TimeConflictException {
+        manager.addRecurringTask(standUp(baseTime), Recurrence.until(Recurrence.Frequency.WEEKLY, 1,
+                baseTime.plusYears(50)));
+
+        Task clash = new Task("Встреча", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusWeeks(700).minusMinutes(20));
+        assertTrue(manager.hasTimeOverlap(clash));
+        assertThrows(TimeConflictException.class, () -> manager.addTask(clash));
+        assertThrows(TimeConflictException.class, () -> manager.addTasks(List.of(clash)));
+        Task free = new Task("Встреча", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusWeeks(700).plusHours(1));
+        assertFalse(manager.hasTimeOverlap(free));
+        assertFalse(manager.hasTimeOverlap(new Task("После", "D", Status.NEW, Duration.ofMinutes(30),
+                baseTime.plusYears(51))));
+
+        assertThrows(TimeConflictException.class, () -> manager.addRecurringTask(standUp(baseTime.plusWeeks(3)),
+                Recurrence.times(Recurrence.Frequency.MONTHLY, 1, 12)));
+        assertThrows(IllegalArgumentException.class, () -> manager.addRecurringTask(
+                new Task("Долгая", "D", Status.NEW, Duration.ofDays(1), baseTime.plusHours(1)),
+                Recurrence.times(Recurrence.Frequency.DAILY, 1, 2)));
+    }
+
+    @Test
+    void shouldMaterializeOnlyEditedOccurrences() throws TimeConflictException {
+        RecurringSeries series = manager.addRecurringTask(standUp(baseTime),
+                Recurrence.times(Recurrence.Frequency.DAILY, 1, 10));
+        manager.cancelOccurrence(series.getId(), 1);
+        Task moved = new Task("Стендап (перенос)", "D", Status.NEW, Duration.ofMinutes(15),
+                baseTime.plusDays(2).plusHours(2));
+        manager.detachOccurrence(series.getId(), 2, moved);
+
+        assertNull(series.getOccurrence(1));
+        assertNull(series.getOccurrence(2));
+        assertEquals(List.of(moved), manager.getPrioritizedTasks());
+        List<Task> window = manager.getTasksInRange(baseTime, baseTime.plusDays(3));
+        assertEquals(List.of(0, 3), window.stream().filter(task -> task instanceof Occurrence)
+                .map(task -> ((Occurrence) task).getIndex()).toList());
+        assertTrue(window.contains(moved));
+
+        Task clash = new Task("Стендап", "D", Status.NEW, Duration.ofMinutes(15), baseTime.plusDays(3));
+        assertThrows(TimeConflictException.class, () -> manager.detachOccurrence(series.getId(), 4, clash));
+        assertNotNull(series.getOccurrence(4)); // Вхождение осталось в серии
+        assertThrows(IllegalArgumentException.class, () -> manager.cancelOccurrence(series.getId(), 10));
+
+        Task sameSlot = new Task("Другое", "D", Status.NEW, Duration.ofMinutes(15), baseTime.plusDays(1));
+        manager.addTask(sameSlot); // Отменённое вхождение время не занимает
+    }
+
+    @Test
+    void shouldClampMonthlyOccurrencesToMonthEnd() throws TimeConflictException {
+        LocalDateTime first = LocalDateTime.of(2025, 1, 31, 10, 0);
+        RecurringSeries series = manager.addRecurringTask(standUp(first),
+                Recurrence.until(Recurrence.Frequency.MONTHLY, 1, LocalDateTime.of(2025, 5, 31, 10, 0)));
+
+        assertEquals(5, series.getOccurrenceCount());
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), series.getOccurrence(1).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 3, 31, 10, 0), series.getOccurrence(2).getStartTime());
+        assertEquals(List.of(2, 3), series.getOccurrences(LocalDateTime.of(2025, 3, 31, 10, 15),
+                LocalDateTime.of(2025, 4, 30, 10, 0)).stream().map(Occurrence::getIndex).toList());
+    }
+
+    @Test
+    void shouldScheduleAroundOccurrences() throws TimeConflictException {
+        manager.addRecurringTask(new Task("Обед", "D", Status.NEW, Duration.ofHours(1), baseTime.plusHours(1)),
+                Recurrence.times(Recurrence.Frequency.DAILY, 1, 365));
+        Task task = new Task("Отчёт", "D", Status.NEW, Duration.ofHours(2), null);
+        manager.addTask(task);
+
+        AutoScheduler.Result result = new AutoScheduler(manager).scheduleAll(baseTime);
+
+        assertTrue(result.unplaced().isEmpty());
+        assertEquals(baseTime.plusHours(2).plusMinutes(15), task.getStartTime());
+    }
+
+    @Test
+    void shouldScheduleWithoutExpandingLongSeries() throws TimeConflictException {
+        RecurringSeries series = manager.addRecurringTask(new Task("Обед", "D", Status.NEW, Duration.ofHours(1),
+                baseTime.plusHours(1)), Recurrence.times(Recurrence.Frequency.DAILY, 1, Integer.MAX_VALUE));
+        Task task = new Task("Отчёт", "D", Status.NEW, Duration.ofHours(2), null);
+        manager.addTask(task);
+
+        AutoScheduler.Result result = new AutoScheduler(manager).scheduleAll(baseTime); // Вхождения создаются по мере поиска
+
+        assertTrue(result.unplaced().isEmpty());
+        assertEquals(baseTime.plusHours(2).plusMinutes(15), task.getStartTime());
+        String occurrence = series.getOccurrence(0).toString();
+        assertTrue(occurrence.startsWith("Occurrence{Task{title='Обед'"), occurrence);
+        assertTrue(occurrence.endsWith("}, index=0}"), occurrence);
+    }
+
+    private static Task standUp(LocalDateTime start) {
+        return new Task("Стендап", "D", Status.NEW, Duration.ofMinutes(15), start);
+    }
+}
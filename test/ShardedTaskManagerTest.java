@@ -0,0 +1,124 @@
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import manager.ShardedTaskManager;
+import manager.TaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TestData;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для ShardedTaskManager: маршрутизация по доскам, глобальные id и вытеснение LRU.
+ */
+class ShardedTaskManagerTest {
+    private final LocalDateTime baseTime = TestData.BASE_TIME;
+    private Path directory;
+    private ShardedTaskManager sharded;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("sharded-boards");
+        directory.toFile().deleteOnExit();
+        sharded = ShardedTaskManager.fileBacked(directory, 2);
+    }
+
+    @Test
+    void shouldKeepBoardsIndependent() throws TimeConflictException {
+        long first = sharded.addTask(1, new Task("Доска 1", "D", Status.NEW, Duration.ofHours(1), baseTime));
+        long second = sharded.addTask(2, new Task("Доска 2", "D", Status.NEW, Duration.ofHours(1), baseTime));
+
+        assertEquals(1, ShardedTaskManager.boardOf(first));
+        assertEquals(2, ShardedTaskManager.boardOf(second));
+        assertEquals(ShardedTaskManager.localIdOf(first), ShardedTaskManager.localIdOf(second)); // Счётчики у досок свои
+        assertNotEquals(first, second);
+        assertEquals("Доска 2", sharded.getTaskById(second).getName());
+        assertThrows(TimeConflictException.class, () -> sharded.addTask(1,
+                new Task("Пересечение", "D", Status.NEW, Duration.ofHours(1), baseTime)));
+
+        long epicId = sharded.addEpic(2, new Epic("Эпик", "D"));
+        long subtaskId = sharded.addSubtask(2, new Subtask("Подзадача", "D", Status.DONE,
+                ShardedTaskManager.localIdOf(epicId), null, null));
+        assertEquals(Status.DONE, sharded.getEpicById(epicId).getStatus());
+        sharded.deleteSubtask(subtaskId);
+        assertNull(sharded.getSubtaskById(subtaskId));
+        assertTrue(sharded.board(1).getAllEpics().isEmpty());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBoardAndReloadFromFile() throws TimeConflictException {
+        long id = sharded.addTask(1, new Task("Задача", "D", Status.NEW, Duration.ofHours(1), baseTime));
+        TaskManager firstBoard = sharded.board(1);
+        sharded.board(2);
+        sharded.board(1); // Доска 1 использована последней — вытесняется доска 2
+        sharded.board(3);
+
+        assertTrue(sharded.isLoaded(1));
+        assertFalse(sharded.isLoaded(2));
+        assertEquals(2, sharded.getLoadedBoards());
+        assertEquals(1, sharded.getEvictions());
+
+        sharded.board(2);
+        sharded.board(3); // Вытесняется доска 1
+        assertFalse(sharded.isLoaded(1));
+        assertEquals("Задача", sharded.getTaskById(id).getName());
+        assertFalse(firstBoard == sharded.board(1));
+        assertEquals(5, sharded.getLoads());
+        assertTrue(new File(directory.toFile(), "board-1.csv").exists());
+    }
+
+    @Test
+    void shouldNotLoseUpdatesWhenBoardsAreEvictedConcurrently() throws Exception {
+        ShardedTaskManager small = ShardedTaskManager.fileBacked(directory, 1); // Каждое переключение досок — вытеснение
+        int threads = 4;
+        int perThread = 100;
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        small.addTask((thread + i) % 3, new Task("Задача " + thread + "-" + i, "D", Status.NEW, null, null));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        ShardedTaskManager reloaded = ShardedTaskManager.fileBacked(directory, 3);
+        int total = 0;
+        for (int board = 0; board < 3; board++) {
+            total += reloaded.withBoard(board, manager -> manager.getAllTasks().size());
+        }
+        assertEquals(threads * perThread, total);
+    }
+
+    @Test
+    void shouldEncodeBoardInGlobalId() {
+        long id = ShardedTaskManager.globalId(Integer.MAX_VALUE, -5);
+        assertEquals(Integer.MAX_VALUE, ShardedTaskManager.boardOf(id));
+        assertEquals(-5, ShardedTaskManager.localIdOf(id));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedTaskManager(0, board -> new InMemoryTaskManager()));
+        assertThrows(IllegalArgumentException.class, () -> sharded.board(-1));
+    }
+}
@@ -0,0 +1,105 @@
+import exceptions.TimeConflictException;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для InMemoryTaskManager с сеткой слотов: общие сценарии TaskManagerTest
+ * и согласованность сетки при изменении задач.
+ */
+public class SlotGridTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+
+    @BeforeEach
+    void createManager() {
+        manager = new InMemoryTaskManager(new InMemoryHistoryManager(), true);
+    }
+
+    @Test
+    void shouldReleaseSlotsOnUpdateAndDelete() throws TimeConflictException {
+        Task task = new Task("T1", "D1", Status.NEW, Duration.ofHours(1), baseTime);
+        manager.addTask(task);
+        Task overlapping = new Task("T2", "D2", Status.NEW, Duration.ofMinutes(30), baseTime.plusMinutes(30));
+        assertThrows(TimeConflictException.class, () -> manager.addTask(overlapping));
+
+        Task moved = new Task("T1", "D1", Status.NEW, Duration.ofHours(1), baseTime.plusHours(3));
+        moved.setId(task.getId());
+        manager.updateTask(moved);
+        manager.addTask(overlapping);
+
+        manager.deleteTask(overlapping.getId());
+        assertEquals(baseTime, manager.findFreeSlot(baseTime, Duration.ofHours(1)));
+    }
+
+    /**
+     * После импорта без проверки задачи хранилища пересекаются: длинная задача может перекрывать
+     * новую, не будучи её соседом по времени начала.
+     */
+    @Test
+    void shouldFindConflictWithNonNeighbourAfterImport() {
+        InMemoryTaskManager importing = new InMemoryTaskManager(new InMemoryHistoryManager(), true) {
+            {
+                internalAddTask(new Task("Длинная", "D", Status.NEW, Duration.ofHours(8), baseTime));
+                internalAddTask(new Task("Внутри 1", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusHours(1)));
+                internalAddTask(new Task("Внутри 2", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusHours(3)));
+            }
+        };
+
+        Task probe = new Task("Новая", "D", Status.NEW, Duration.ofMinutes(30), baseTime.plusHours(5));
+        assertTrue(importing.hasTimeOverlap(probe));
+        assertThrows(TimeConflictException.class, () -> importing.addTask(probe));
+        assertFalse(importing.hasTimeOverlap(new Task("После", "D", Status.NEW, Duration.ofMinutes(30),
+                baseTime.plusHours(9))));
+    }
+
+    @Test
+    void shouldFindFirstFreeWindow() throws TimeConflictException {
+        manager.addTask(new Task("T1", "D1", Status.NEW, Duration.ofHours(1), baseTime));
+        manager.addTask(new Task("T2", "D2", Status.NEW, Duration.ofMinutes(30), baseTime.plusMinutes(90)));
+
+        // Конец задачи включительно: 19:00 занято первой задачей, окно 19:15–19:45 упирается во вторую
+        assertEquals(baseTime.plusMinutes(75), manager.findFreeSlot(baseTime.plusMinutes(5), Duration.ZERO));
+        assertEquals(baseTime.plusMinutes(135), manager.findFreeSlot(baseTime, Duration.ofMinutes(15)));
+
+        LocalDateTime free = manager.findFreeSlot(baseTime, Duration.ofMinutes(30));
+        manager.addTask(new Task("T3", "D3", Status.NEW, Duration.ofMinutes(30), free));
+        assertEquals(3, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldKeepSharedSlotOccupiedByNeighbour() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask first = new Subtask("S1", "D1", Status.NEW, epic.getId(), Duration.ofMinutes(5), baseTime);
+        Subtask second = new Subtask("S2", "D2", Status.NEW, epic.getId(),
+                Duration.ofMinutes(3), baseTime.plusMinutes(7));
+        manager.addSubtask(first);
+        manager.addSubtask(second);
+
+        manager.deleteSubtask(first.getId());
+        assertEquals(baseTime.plusMinutes(15), manager.findFreeSlot(baseTime, Duration.ZERO));
+        Subtask between = new Subtask("S3", "D3", Status.NEW, epic.getId(), Duration.ofMinutes(5), baseTime);
+        manager.addSubtask(between);
+        assertEquals(2, manager.getAllSubtasksByEpicId(epic.getId()).size());
+    }
+
+    @Test
+    void shouldSearchAcrossMidnight() throws TimeConflictException {
+        LocalDateTime lateEvening = baseTime.withHour(23).withMinute(30);
+        manager.addTask(new Task("T", "D", Status.NEW, Duration.ofHours(1), lateEvening));
+
+        assertEquals(lateEvening.minusMinutes(30), manager.findFreeSlot(lateEvening.minusMinutes(30),
+                Duration.ofMinutes(15)));
+        assertEquals(lateEvening.plusMinutes(75), manager.findFreeSlot(lateEvening.minusMinutes(15),
+                Duration.ofMinutes(15)));
+    }
+}
@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import util.StringPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки StringPool: общий экземпляр для равных строк и ограничения пула.
+ */
+public class StringPoolTest {
+
+    @Test
+    void shouldReturnSameInstanceForEqualStrings() {
+        StringPool pool = new StringPool(16, 64);
+        String first = pool.intern(new String("Проверить сборку"));
+        String second = pool.intern(new String("Проверить сборку"));
+
+        assertTrue(first == second);
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertNull(pool.intern(null));
+    }
+
+    @Test
+    void shouldResetWhenFull() {
+        StringPool pool = new StringPool(4, 64);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("S" + i, pool.intern("S" + i));
+        }
+        assertTrue(pool.size() <= 4);
+        assertEquals(2, pool.getResets());
+    }
+
+    @Test
+    void shouldPassThroughLongStringsAndDisabledPool() {
+        StringPool pool = new StringPool(16, 4);
+        String longValue = new String("Длинная строка");
+        assertTrue(longValue == pool.intern(longValue));
+        assertEquals(0, pool.size());
+
+        StringPool disabled = new StringPool(0, 64);
+        String value = new String("T");
+        disabled.intern("T");
+        assertTrue(value == disabled.intern(value));
+        assertEquals(0, disabled.size());
+
+        assertThrows(IllegalArgumentException.class, () -> new StringPool(-1, 64));
+    }
+}
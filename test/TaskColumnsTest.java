@@ -0,0 +1,175 @@
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import manager.TaskColumns;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки TaskColumns: проекция, которую InMemoryTaskManager обновляет при изменениях,
+ * должна давать те же агрегаты, что и обход объектов задач.
+ */
+public class TaskColumnsTest {
+    private final LocalDateTime baseTime = util.TestData.BASE_TIME;
+
+    /**
+     * Случайная последовательность добавлений, изменений и удалений; проекция запрошена до изменений.
+     */
+    @Test
+    void shouldFollowManagerChanges() throws TimeConflictException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic first = new Epic("E0", "D");
+        manager.addEpic(first);
+        manager.addSubtask(new Subtask("S", "D", Status.DONE, first.getId(), Duration.ofMinutes(30), baseTime));
+        TaskColumns columns = manager.getColumns();
+
+        Random random = new Random(5);
+        int slot = 1;
+        for (int step = 0; step < 2_000; step++) {
+            List<Task> tasks = manager.getAllTasks();
+            List<Subtask> subtasks = manager.getAllSubtasks();
+            List<Epic> epics = manager.getAllEpics();
+            Status status = Status.values()[random.nextInt(3)];
+            LocalDateTime start = random.nextInt(4) == 0 ? null : baseTime.plusHours(5L * slot++);
+            Duration duration = Duration.ofMinutes(15 + random.nextInt(4) * 15);
+            switch (random.nextInt(10)) {
+                case 0, 1 -> manager.addTask(new Task("T", "D", status, duration, start));
+                case 2 -> manager.addEpic(new Epic("E", "D"));
+                case 3, 4 -> {
+                    if (!epics.isEmpty()) {
+                        int epicId = epics.get(random.nextInt(epics.size())).getId();
+                        manager.addSubtask(new Subtask("S", "D", status, epicId, duration, start));
+                    }
+                }
+                case 5 -> {
+                    if (!tasks.isEmpty()) {
+                        Task task = tasks.get(random.nextInt(tasks.size()));
+                        task.setStatus(status);
+                        task.setStartTime(start);
+                        task.setDuration(duration);
+                        manager.updateTask(task);
+                    }
+                }
+                case 6 -> {
+                    if (!subtasks.isEmpty()) {
+                        Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                        subtask.setStatus(status);
+                        subtask.setStartTime(start);
+                        manager.updateSubtask(subtask);
+                    }
+                }
+                case 7 -> {
+                    if (!tasks.isEmpty()) manager.deleteTask(tasks.get(random.nextInt(tasks.size())).getId());
+                }
+                case 8 -> {
+                    if (!subtasks.isEmpty()) {
+                        manager.deleteSubtask(subtasks.get(random.nextInt(subtasks.size())).getId());
+                    }
+                }
+                default -> {
+                    if (random.nextInt(20) == 0) {
+                        manager.deleteAllTasks();
+                    } else if (epics.size() > 3) {
+                        manager.deleteEpic(epics.get(random.nextInt(epics.size())).getId());
+                    }
+                }
+            }
+        }
+
+        List<Task> all = new ArrayList<>(manager.getAllTasks());
+        all.addAll(manager.getAllEpics());
+        all.addAll(manager.getAllSubtasks());
+        assertEquals(all.size(), columns.size());
+        assertAggregates(all, columns);
+        assertAggregates(all, TaskColumns.of(all));
+
+        manager.deleteAllEpics();
+        assertEquals(manager.getAllTasks().size(), columns.size());
+        assertEquals(0, columns.durationByEpicAndStatus().size());
+    }
+
+    /**
+     * Большая проекция считается несколькими кусками; результат совпадает с обходом объектов.
+     */
+    @Test
+    void shouldAggregateLargeProjectionInChunks() {
+        List<Task> all = new ArrayList<>();
+        Random random = new Random(3);
+        for (int id = 1; id <= 200_000; id++) {
+            Task task;
+            if (id % 50 == 1) {
+                task = new Epic("E", "D");
+            } else if (id % 3 == 0) {
+                task = new Subtask("S", "D", Status.values()[random.nextInt(3)], id - id % 50 + 1,
+                        Duration.ofMinutes(random.nextInt(120)), baseTime.plusMinutes(random.nextInt(500_000)));
+            } else {
+                task = new Task("T", "D", Status.values()[random.nextInt(3)], Duration.ofMinutes(30),
+                        random.nextBoolean() ? null : baseTime.minusMinutes(random.nextInt(500_000)));
+            }
+            task.setId(id);
+            all.add(task);
+        }
+        all.add(farFuture(200_001));
+
+        assertAggregates(all, TaskColumns.of(all));
+    }
+
+    private Task farFuture(int id) {
+        Task task = new Task("T", "D", Status.DONE, Duration.ofMinutes(5), LocalDateTime.of(12025, 1, 1, 0, 0));
+        task.setId(id);
+        return task;
+    }
+
+    private static void assertAggregates(List<Task> all, TaskColumns columns) {
+        for (TaskType type : new TaskType[]{null, TaskType.TASK, TaskType.SUBTASK, TaskType.EPIC}) {
+            long[] counts = new long[Status.values().length];
+            long[] durations = new long[Status.values().length];
+            for (Task task : all) {
+                if (type == null || typeOf(task) == type) {
+                    counts[task.getStatus().ordinal()]++;
+                    durations[task.getStatus().ordinal()] += task.getDuration() == null
+                            ? 0 : task.getDuration().getSeconds();
+                }
+            }
+            assertArrayEquals(counts, columns.countByStatus(type), "Число задач по статусам, тип " + type);
+            assertArrayEquals(durations, columns.durationByStatus(type), "Продолжительность по статусам, тип " + type);
+        }
+
+        Map<Integer, long[]> byEpic = new HashMap<>();
+        all.stream().filter(task -> task instanceof Epic)
+                .forEach(epic -> byEpic.put(epic.getId(), new long[Status.values().length]));
+        NavigableMap<LocalDate, Long> byDay = new TreeMap<>();
+        for (Task task : all) {
+            if (task instanceof Subtask subtask && byEpic.containsKey(subtask.getEpicId())) {
+                byEpic.get(subtask.getEpicId())[subtask.getStatus().ordinal()] += subtask.getDuration().getSeconds();
+            }
+            if (!(task instanceof Epic) && task.getStartTime() != null) {
+                byDay.merge(task.getStartTime().toLocalDate(), 1L, Long::sum);
+            }
+        }
+        Map<Integer, long[]> actual = columns.durationByEpicAndStatus();
+        assertEquals(byEpic.keySet(), actual.keySet());
+        byEpic.forEach((epicId, totals) -> assertArrayEquals(totals, actual.get(epicId), "Эпик " + epicId));
+        assertEquals(byDay, columns.countStartsByDay());
+    }
+
+    private static TaskType typeOf(Task task) {
+        return task instanceof Epic ? TaskType.EPIC : task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+    }
+}
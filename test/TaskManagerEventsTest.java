@@ -0,0 +1,100 @@
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.Status;
+import util.TestData;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для событий JFR: события пишутся с полями объёма, а порог отсекает быстрые вызовы.
+ */
+class TaskManagerEventsTest {
+    private final LocalDateTime baseTime = TestData.BASE_TIME;
+
+    @Test
+    void shouldRecordPersistenceEventsWithSizes() throws Exception {
+        File file = File.createTempFile("jfr-events", ".csv");
+        file.deleteOnExit();
+        new File(file.getAbsolutePath() + ".bak").deleteOnExit();
+
+        List<RecordedEvent> events = record(true, () -> {
+            FileBackedTaskManager manager = new FileBackedTaskManager(file.getAbsolutePath());
+            Epic epic = new Epic("E", "D");
+            manager.addEpic(epic);
+            manager.addSubtask(new Subtask("S", "D", Status.NEW, epic.getId(), Duration.ofHours(1), baseTime));
+            new FileBackedTaskManager(file.getAbsolutePath());
+        });
+
+        Map<String, Integer> counts = new HashMap<>();
+        events.forEach(event -> counts.merge(event.getEventType().getName(), 1, Integer::sum));
+        assertEquals(2, counts.get("javakanban.Save").intValue());
+        assertEquals(6, counts.get("javakanban.WriteTasks").intValue()); // Задачи, эпики и подзадачи на каждое сохранение
+        assertEquals(2, counts.get("javakanban.Load").intValue());
+        assertEquals(2, counts.get("javakanban.Parse").intValue());
+        assertTrue(counts.get("javakanban.TimeOverlap") >= 1);
+        assertTrue(counts.get("javakanban.EpicStatus") >= 1);
+
+        RecordedEvent lastSave = events.stream().filter(event -> event.getEventType().getName()
+                .equals("javakanban.Save")).reduce((first, second) -> second).orElseThrow();
+        assertEquals(file.length(), lastSave.getLong("bytes"));
+        RecordedEvent lastLoad = events.stream().filter(event -> event.getEventType().getName()
+                .equals("javakanban.Load")).reduce((first, second) -> second).orElseThrow();
+        assertEquals(2, lastLoad.getInt("records"));
+        assertEquals(file.length(), lastLoad.getLong("bytes"));
+    }
+
+    @Test
+    void shouldSkipFastCallsBelowDefaultThreshold() throws Exception {
+        List<RecordedEvent> events = record(false, () -> {
+            InMemoryTaskManager manager = new InMemoryTaskManager();
+            for (int i = 0; i < 100; i++) {
+                manager.addTask(new Task("T" + i, "D", Status.NEW, Duration.ofMinutes(10), baseTime.plusHours(i)));
+            }
+        });
+        List<RecordedEvent> overlaps = events.stream().filter(event -> event.getEventType().getName()
+                .equals("javakanban.TimeOverlap")).toList();
+        assertTrue(overlaps.size() < 100); // Медленными бывают только первые, ещё не скомпилированные вызовы
+        assertTrue(overlaps.stream().allMatch(event -> event.getDuration().compareTo(Duration.ofMillis(1)) >= 0));
+    }
+
+    private interface Workload {
+        void run() throws TimeConflictException;
+    }
+
+    private static List<RecordedEvent> record(boolean isEveryCall, Workload workload) throws Exception {
+        Path output = Files.createTempFile("task-manager-events", ".jfr");
+        output.toFile().deleteOnExit();
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("Load", "Parse", "Save", "WriteTasks", "TimeOverlap", "EpicStatus")) {
+                if (isEveryCall) {
+                    recording.enable("javakanban." + name).withThreshold(Duration.ZERO);
+                } else {
+                    recording.enable("javakanban." + name);
+                }
+            }
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(output);
+        }
+        return RecordingFile.readAllEvents(output);
+    }
+}
@@ -8,9 +8,13 @@ import model.Task;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import util.Status;
+import util.TaskCollection;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -67,6 +71,61 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertThrows(TimeConflictException.class, () -> manager.addTask(task2));
     }
 
+    /**
+     * Пакет с пересечением (с хранилищем или внутри пакета) не добавляется целиком.
+     */
+    @Test
+    void testBatchAddIsAllOrNothing() throws TimeConflictException {
+        manager.addTask(new Task("T", "D", Status.NEW, Duration.ofHours(1), baseTime));
+
+        Task free = new Task("T1", "D1", Status.NEW, Duration.ofHours(1), baseTime.plusHours(2));
+        Task overlapsStored = new Task("T2", "D2", Status.NEW, Duration.ofHours(1), baseTime.plusMinutes(30));
+        assertThrows(TimeConflictException.class, () -> manager.addTasks(List.of(free, overlapsStored)));
+
+        Task first = new Task("T3", "D3", Status.NEW, Duration.ofHours(1), baseTime.plusHours(4));
+        Task second = new Task("T4", "D4", Status.NEW, Duration.ofHours(1), baseTime.plusHours(4).plusMinutes(30));
+        assertThrows(TimeConflictException.class, () -> manager.addTasks(List.of(second, free, first)));
+
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals(0, free.getId());
+
+        manager.addTasks(List.of(first, free));
+        assertEquals(3, manager.getAllTasks().size());
+        assertEquals(List.of(baseTime, free.getStartTime(), first.getStartTime()),
+                manager.getPrioritizedTasks().stream().map(Task::getStartTime).toList());
+    }
+
+    /**
+     * Пакетное добавление и обновление подзадач пересчитывает статус эпика; обновлённые подзадачи
+     * не конфликтуют со своими прежними интервалами.
+     */
+    @Test
+    void testBatchSubtasksUpdateEpic() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask subtask1 = new Subtask("S1", "D1", Status.DONE, epic.getId(), Duration.ofHours(1), baseTime);
+        Subtask subtask2 = new Subtask("S2", "D2", Status.NEW, epic.getId(),
+                Duration.ofHours(1), baseTime.plusHours(2));
+        manager.addSubtasks(List.of(subtask1, subtask2));
+        assertEquals(2, manager.getAllSubtasksByEpicId(epic.getId()).size());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+
+        Subtask moved1 = new Subtask("S1", "D1", Status.DONE, epic.getId(),
+                Duration.ofHours(1), baseTime.plusHours(2));
+        moved1.setId(subtask1.getId());
+        Subtask moved2 = new Subtask("S2", "D2", Status.DONE, epic.getId(), Duration.ofHours(1), baseTime);
+        moved2.setId(subtask2.getId());
+        manager.updateSubtasks(List.of(moved1, moved2));
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask2.getId(), subtask1.getId()),
+                manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+
+        Subtask clash = new Subtask("S3", "D3", Status.NEW, epic.getId(), Duration.ofHours(1), baseTime);
+        clash.setId(subtask1.getId());
+        assertThrows(TimeConflictException.class, () -> manager.updateSubtasks(List.of(clash)));
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+    }
+
     /**
      * Проверка, что deleteAllTasks() корректно очищает список всех задач.
      */
@@ -102,6 +161,47 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(List.of(t1, t3), history);
     }
 
+    /**
+     * Коллекции читаются частями через курсор forEachAfter; удаление ещё не прочитанной задачи
+     * между частями не обрывает чтение.
+     */
+    @Test
+    void shouldReadCollectionsInPartsAfterCursor() throws TimeConflictException {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Task task = new Task("T" + i, "D", Status.NEW, Duration.ofMinutes(10), baseTime.plusHours(6 - i));
+            manager.addTask(task);
+            ids.add(task.getId());
+            manager.getTaskById(task.getId());
+        }
+
+        List<Integer> read = new ArrayList<>();
+        Task cursor = manager.forEachAfter(TaskCollection.TASKS, null, 3, task -> read.add(task.getId()));
+        assertEquals(3, read.size());
+        int unread = ids.stream().filter(id -> !read.contains(id)).findFirst().orElseThrow();
+        manager.deleteTask(unread);
+        while (cursor != null) {
+            cursor = manager.forEachAfter(TaskCollection.TASKS, cursor, 3, task -> read.add(task.getId()));
+        }
+        List<Integer> remaining = new ArrayList<>(ids);
+        remaining.remove(Integer.valueOf(unread));
+        assertEquals(new HashSet<>(remaining), new HashSet<>(read));
+        assertEquals(remaining.size(), read.size());
+
+        assertEquals(remaining, readInParts(TaskCollection.HISTORY));
+        Collections.reverse(remaining);
+        assertEquals(remaining, readInParts(TaskCollection.PRIORITIZED));
+    }
+
+    private List<Integer> readInParts(TaskCollection collection) {
+        List<Integer> read = new ArrayList<>();
+        Task cursor = null;
+        do {
+            cursor = manager.forEachAfter(collection, cursor, 2, task -> read.add(task.getId()));
+        } while (cursor != null);
+        return read;
+    }
+
     /**
      * Проверка, что хэш-код задачи зависит только от её содержимого, а не от ссылки на объект.
      */
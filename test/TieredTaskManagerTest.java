@@ -0,0 +1,133 @@
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.TieredTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Status;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки TieredTaskManager: перенос завершённых задач в архив
+ * и чтение из обоих уровней хранения.
+ */
+public class TieredTaskManagerTest extends TaskManagerTest<TieredTaskManager> {
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+
+    private final MutableClock clock = new MutableClock();
+    private File hotFile;
+    private File coldDirectory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotFile = File.createTempFile("tiered-hot", ".csv");
+        hotFile.deleteOnExit();
+        coldDirectory = Files.createTempDirectory("tiered-cold").toFile();
+        coldDirectory.deleteOnExit();
+        manager = newManager();
+    }
+
+    @Test
+    void shouldDemoteDoneTasksAfterMaxAge() throws TimeConflictException {
+        Task done = new Task("Done", "D", Status.DONE, Duration.ofMinutes(30), baseTime);
+        Task active = new Task("Active", "D", Status.IN_PROGRESS, Duration.ofMinutes(30), baseTime.plusHours(1));
+        manager.addTask(done);
+        manager.addTask(active);
+        assertEquals(2, manager.getHotTierSize());
+
+        clock.advance(MAX_AGE.plusSeconds(1));
+        assertEquals(1, manager.demoteExpired());
+
+        assertEquals(1, manager.getHotTierSize());
+        assertEquals(1, manager.getColdTierSize());
+        assertEquals(List.of(active), manager.getPrioritizedTasks());
+        assertEquals(2, manager.getAllTasks().size());
+        assertEquals("Done", manager.getTaskById(done.getId()).getName());
+        assertEquals(done.getStartTime(), manager.getTaskById(done.getId()).getStartTime());
+        assertEquals(0.5, manager.getCacheHitRatio(), 1e-9);
+    }
+
+    @Test
+    void shouldDemoteEpicTogetherWithSubtasks() throws TimeConflictException {
+        Epic epic = new Epic("E", "D");
+        manager.addEpic(epic);
+        Subtask subtask = new Subtask("S", "D", Status.DONE, epic.getId(), Duration.ofMinutes(30), baseTime);
+        manager.addSubtask(subtask);
+        assertEquals(Status.DONE, epic.getStatus());
+
+        clock.advance(MAX_AGE);
+        manager.demoteExpired();
+
+        assertEquals(0, manager.getHotTierSize());
+        assertEquals(List.of(subtask), manager.getAllSubtasksByEpicId(epic.getId()));
+        assertEquals(List.of(subtask.getId()), manager.getEpicById(epic.getId()).getSubtaskIds());
+
+        Subtask reopened = new Subtask("S2", "D", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), baseTime.plusHours(1));
+        manager.addSubtask(reopened);
+
+        assertEquals(0, manager.getColdTierSize());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(List.of(subtask, reopened), manager.getAllSubtasksByEpicId(epic.getId()));
+    }
+
+    @Test
+    void shouldPromoteArchivedTaskOnUpdateAndKeepIdsAfterRestart() throws TimeConflictException {
+        Task task = new Task("T", "D", Status.DONE, Duration.ofMinutes(30), baseTime);
+        manager.addTask(task);
+        clock.advance(MAX_AGE);
+        manager.demoteExpired();
+
+        TieredTaskManager restarted = newManager();
+        assertEquals(1, restarted.getColdTierSize());
+        Task next = new Task("Next", "D");
+        restarted.addTask(next);
+        assertTrue(next.getId() > task.getId(), "Новый id совпал с id архивной задачи");
+
+        Task archived = restarted.getTaskById(task.getId());
+        archived.setStatus(Status.IN_PROGRESS);
+        restarted.updateTask(archived);
+        assertEquals(0, restarted.getColdTierSize());
+        assertEquals(List.of(archived), restarted.getPrioritizedTasks());
+    }
+
+    private TieredTaskManager newManager() {
+        return new TieredTaskManager(new FileBackedTaskManager(hotFile.getAbsolutePath()),
+                coldDirectory.getAbsolutePath(), MAX_AGE, 16, clock);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-05-18T18:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import benchmark.WorkloadDriver;
+import benchmark.WorkloadGenerator;
+import benchmark.WorkloadTrace;
+import manager.InMemoryTaskManager;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для генератора нагрузки: трасса детерминирована по seed, переживает запись в файл,
+ * а воспроизведение на разных экземплярах менеджера даёт одинаковый результат.
+ */
+class WorkloadTraceTest {
+    private final WorkloadGenerator.Profile profile = WorkloadGenerator.Profile.defaults().withSize(50, 200);
+
+    @Test
+    void shouldGenerateSameTraceFromSeed() throws Exception {
+        WorkloadTrace first = WorkloadGenerator.generate(profile, 7, 2_000);
+        WorkloadTrace second = WorkloadGenerator.generate(profile, 7, 2_000);
+        WorkloadTrace other = WorkloadGenerator.generate(profile, 8, 2_000);
+
+        assertEquals(first.getOperations(), second.getOperations());
+        assertNotEquals(first.getOperations(), other.getOperations());
+        assertEquals(first.getSetupSize() + 2_000, first.getOperations().size());
+
+        Path file = Files.createTempFile("workload", ".trace");
+        file.toFile().deleteOnExit();
+        first.write(file);
+        WorkloadTrace read = WorkloadTrace.read(file);
+        assertEquals(7, read.getSeed());
+        assertEquals(first.getSetupSize(), read.getSetupSize());
+        assertEquals(first.getOperations(), read.getOperations());
+    }
+
+    @Test
+    void shouldReplayDeterministically() {
+        WorkloadTrace trace = WorkloadGenerator.generate(profile.withOverlapRate(0.2), 11, 3_000);
+
+        WorkloadDriver.Report[] first = new WorkloadDriver(new InMemoryTaskManager()).replay(trace, 0);
+        WorkloadDriver.Report[] second = new WorkloadDriver(new InMemoryTaskManager()).replay(trace, 0);
+
+        assertTrue(first[0].getConflicts() > 0); // Нарочно пересекающиеся задачи отклонены
+        assertEquals(first[0].getConflicts(), second[0].getConflicts());
+        assertEquals(first[1].getConflicts(), second[1].getConflicts());
+        assertEquals(first[1].getMissing(), second[1].getMissing());
+        assertEquals(3_000, first[1].getTotal().getCount() + first[1].getMissing());
+    }
+}
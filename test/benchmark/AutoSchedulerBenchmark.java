@@ -0,0 +1,56 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.AutoScheduler;
+import manager.InMemoryTaskManager;
+import model.Task;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Размещение N задач без времени (продолжительность 15 минут – 4 часа, случайные приоритеты,
+ * у части задач — срок) в расписание, где уже стоят N задач с промежутками разной длины.
+ * Запуск: java benchmark.AutoSchedulerBenchmark [количество задач]
+ */
+public class AutoSchedulerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    public static void main(String[] args) throws TimeConflictException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<Task> fixed = new ArrayList<>(size);
+        LocalDateTime time = START;
+        for (int i = 0; i < size; i++) {
+            time = time.plusMinutes(15L * (1 + random.nextInt(16)));
+            fixed.add(new Task("Фиксированная " + i, "Описание", Status.NEW, Duration.ofMinutes(30), time));
+            time = time.plusMinutes(30);
+        }
+        manager.addTasks(fixed);
+
+        List<Task> floating = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            floating.add(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(15L * (1 + random.nextInt(16))), null));
+        }
+        manager.addTasks(floating);
+
+        List<AutoScheduler.Request> requests = new ArrayList<>(size);
+        for (Task task : floating) {
+            LocalDateTime deadline = random.nextInt(10) == 0 ? START.plusDays(random.nextInt(365)) : null;
+            requests.add(new AutoScheduler.Request(task.getId(), random.nextInt(5), deadline));
+        }
+
+        long started = System.nanoTime();
+        AutoScheduler.Result result = new AutoScheduler(manager).schedule(requests, START, null);
+        BenchmarkSupport.reportThroughput("schedule tasks=" + size, size, System.nanoTime() - started);
+        System.out.printf("placed=%d unplaced=%d prioritized=%d%n",
+                result.placed().size(), result.unplaced().size(), manager.getPrioritizedTasks().size());
+    }
+}
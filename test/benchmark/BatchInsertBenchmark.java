@@ -0,0 +1,104 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Добавление N задач и N подзадач по одной (addTask/addSubtask: линейная проверка пересечений
+ * и пересчёт статуса эпика на каждую вставку) против одного пакета addTasks/addSubtasks
+ * (сортировка пакета, один проход слияния и пересчёт каждого эпика один раз).
+ * Запуск: java benchmark.BatchInsertBenchmark [количество задач] [количество эпиков]
+ */
+public class BatchInsertBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    public static void main(String[] args) throws TimeConflictException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int epicCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        TaskManager single = new InMemoryTaskManager();
+        List<Task> tasks = tasks(size);
+        long started = System.nanoTime();
+        for (Task task : tasks) {
+            single.addTask(task);
+        }
+        BenchmarkSupport.reportThroughput("single addTask", size, System.nanoTime() - started);
+
+        TaskManager batch = new InMemoryTaskManager();
+        tasks = tasks(size);
+        started = System.nanoTime();
+        batch.addTasks(tasks);
+        BenchmarkSupport.reportThroughput("batch addTasks", size, System.nanoTime() - started);
+
+        single = new InMemoryTaskManager();
+        List<Subtask> subtasks = subtasks(single, size, epicCount);
+        started = System.nanoTime();
+        for (Subtask subtask : subtasks) {
+            single.addSubtask(subtask);
+        }
+        BenchmarkSupport.reportThroughput("single addSubtask epics=" + epicCount, size, System.nanoTime() - started);
+
+        batch = new InMemoryTaskManager();
+        subtasks = subtasks(batch, size, epicCount);
+        started = System.nanoTime();
+        batch.addSubtasks(subtasks);
+        BenchmarkSupport.reportThroughput("batch addSubtasks epics=" + epicCount, size, System.nanoTime() - started);
+
+        subtasks.forEach(subtask -> subtask.setStatus(Status.DONE));
+        started = System.nanoTime();
+        batch.updateSubtasks(subtasks);
+        BenchmarkSupport.reportThroughput("batch updateSubtasks epics=" + epicCount, size, System.nanoTime() - started);
+    }
+
+    /**
+     * Задачи в случайном порядке по времени, без пересечений
+     */
+    private static List<Task> tasks(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(30), START.plusHours(shuffled(i, size))));
+        }
+        return tasks;
+    }
+
+    private static List<Subtask> subtasks(TaskManager manager, int size, int epicCount) {
+        int[] epicIds = new int[epicCount];
+        for (int i = 0; i < epicCount; i++) {
+            Epic epic = new Epic("Эпик " + i, "Описание");
+            manager.addEpic(epic);
+            epicIds[i] = epic.getId();
+        }
+        List<Subtask> subtasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            subtasks.add(new Subtask("Подзадача " + i, "Описание", Status.NEW, epicIds[i % epicCount],
+                    Duration.ofMinutes(30), START.plusHours(shuffled(i, size))));
+        }
+        return subtasks;
+    }
+
+    /**
+     * Перестановка 0..size-1 без повторов (умножение на число, взаимно простое с size)
+     */
+    private static long shuffled(int i, int size) {
+        long step = 7_919;
+        while (gcd(step, size) != 1) {
+            step++;
+        }
+        return i * step % size;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
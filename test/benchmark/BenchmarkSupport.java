@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Общие вспомогательные методы для нагрузочных замеров.
+ * Замеры запускаются вручную через main соответствующего класса и не входят в набор тестов.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Временный каталог, который удаляется вместе с содержимым при завершении JVM
+     */
+    public static Path tempDirectory(String prefix) {
+        try {
+            Path directory = Files.createTempDirectory(prefix);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(directory)));
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Вывод перцентилей задержек (в микросекундах)
+     */
+    public static void reportLatency(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-40s ops=%d p50=%.1fus p99=%.1fus max=%.1fus%n",
+                label, sorted.length,
+                percentile(sorted, 50) / 1_000.0,
+                percentile(sorted, 99) / 1_000.0,
+                sorted[sorted.length - 1] / 1_000.0);
+    }
+
+    /**
+     * Вывод пропускной способности (операций в секунду)
+     */
+    public static void reportThroughput(String label, long operations, long nanos) {
+        System.out.printf(Locale.ROOT, "%-40s ops=%d time=%.1fms throughput=%.0f ops/s%n",
+                label, operations, nanos / 1_000_000.0, operations * 1_000_000_000.0 / nanos);
+    }
+
+    /**
+     * Перцентиль по отсортированному массиву
+     */
+    public static long percentile(long[] sorted, double percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+            // Каталог во временной папке, при ошибке его удалит система
+        }
+    }
+}
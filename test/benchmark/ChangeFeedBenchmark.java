@@ -0,0 +1,104 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.ChangeFeed;
+import manager.InMemoryTaskManager;
+import model.Task;
+import util.ChangeType;
+import util.Status;
+import util.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность ленты изменений: публикация событий при работающих подписчиках
+ * (без ограничения скорости и с темпом 1 млн событий в секунду) и поток событий
+ * от InMemoryTaskManager (addTask + updateTask).
+ * Запуск: java benchmark.ChangeFeedBenchmark [событий] [подписчиков]
+ */
+public class ChangeFeedBenchmark {
+    private static final int TARGET_RATE = 1_000_000;
+    private static final int BATCH = 1_000;
+
+    public static void main(String[] args) throws InterruptedException, TimeConflictException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int subscribers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        for (int round = 0; round < 3; round++) {
+            feedRound(events, subscribers, 0);
+        }
+        feedRound(events, subscribers, TARGET_RATE);
+        for (int round = 0; round < 3; round++) {
+            managerRound(events / 10);
+        }
+    }
+
+    /**
+     * @param rate событий в секунду; 0 — публикация без ограничения скорости
+     */
+    private static void feedRound(int events, int subscribers, int rate) throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed();
+        List<Thread> readers = new ArrayList<>();
+        List<ChangeFeed.Subscription> subscriptions = new ArrayList<>();
+        AtomicLong delivered = new AtomicLong();
+        long lastSequence = events;
+        for (int i = 0; i < subscribers; i++) {
+            ChangeFeed.Subscription subscription = feed.subscribe();
+            subscriptions.add(subscription);
+            Thread reader = new Thread(() -> {
+                long count = 0;
+                while (subscription.getNextSequence() <= lastSequence) {
+                    int polled = subscription.poll((sequence, change, type, id) -> { }, 1024);
+                    count += polled;
+                    if (polled == 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+                delivered.addAndGet(count);
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= events; i++) {
+            feed.publish(ChangeType.UPDATED, TaskType.TASK, i);
+            if (rate > 0 && i % BATCH == 0) {
+                long due = start + i * 1_000_000_000L / rate;
+                while (System.nanoTime() < due) {
+                    Thread.yield();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        String label = (rate > 0 ? "paced publish" : "publish") + " subscribers=" + subscribers;
+        BenchmarkSupport.reportThroughput(label, events, elapsed);
+        long missed = subscriptions.stream().mapToLong(ChangeFeed.Subscription::getMissed).sum();
+        System.out.printf(Locale.ROOT, "%-40s delivered=%d missed=%d%n", "", delivered.get(), missed);
+    }
+
+    private static void managerRound(int operations) throws TimeConflictException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        ChangeFeed.Subscription subscription = manager.getChangeFeed().subscribe();
+        long[] delivered = new long[1];
+        long start = System.nanoTime();
+        for (int i = 0; i < operations / 2; i++) {
+            Task task = new Task("Task " + i, "Feed", Status.NEW, null, null);
+            manager.addTask(task);
+            task.setStatus(Status.IN_PROGRESS);
+            manager.updateTask(task);
+            if (i % 1024 == 0) {
+                delivered[0] += subscription.poll((sequence, change, type, id) -> { }, Integer.MAX_VALUE);
+            }
+        }
+        delivered[0] += subscription.poll((sequence, change, type, id) -> { }, Integer.MAX_VALUE);
+        long elapsed = System.nanoTime() - start;
+        BenchmarkSupport.reportThroughput("manager add+update events", delivered[0], elapsed);
+    }
+}
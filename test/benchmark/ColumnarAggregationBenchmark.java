@@ -0,0 +1,164 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import manager.TaskColumns;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Группировки для отчётов на больших объёмах: обход объектов Task (как при переборе getAllTasks())
+ * против колоночной проекции TaskColumns. Отдельно измеряется цена поддержки проекции при добавлении задач.
+ * Запуск: java benchmark.ColumnarAggregationBenchmark [количество строк] [задач в замере добавления]
+ */
+public class ColumnarAggregationBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final Duration[] DURATIONS = {
+            Duration.ofMinutes(15), Duration.ofMinutes(30), Duration.ofMinutes(45), Duration.ofMinutes(60)};
+    private static final int EPIC_EVERY = 100;
+    private static final int ROUNDS = 5;
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int inserts = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        List<Task> objects = new ArrayList<>(rows);
+        generate(rows).forEachRemaining(objects::add);
+        long started = System.nanoTime();
+        TaskColumns columns = TaskColumns.of(objects);
+        BenchmarkSupport.reportThroughput("build projection", rows, System.nanoTime() - started);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            started = System.nanoTime();
+            Map<Integer, long[]> byEpic = objectDurationByEpic(objects);
+            BenchmarkSupport.reportThroughput("objects: duration by epic/status", rows, System.nanoTime() - started);
+            started = System.nanoTime();
+            Map<Integer, long[]> columnarByEpic = columns.durationByEpicAndStatus();
+            BenchmarkSupport.reportThroughput("columns: duration by epic/status", rows, System.nanoTime() - started);
+            check(byEpic.size() == columnarByEpic.size());
+
+            started = System.nanoTime();
+            NavigableMap<LocalDate, Long> byDay = objectStartsByDay(objects);
+            BenchmarkSupport.reportThroughput("objects: starts per day", rows, System.nanoTime() - started);
+            started = System.nanoTime();
+            NavigableMap<LocalDate, Long> columnarByDay = columns.countStartsByDay();
+            BenchmarkSupport.reportThroughput("columns: starts per day", rows, System.nanoTime() - started);
+            check(byDay.equals(columnarByDay));
+
+            started = System.nanoTime();
+            long[] counts = new long[Status.values().length];
+            for (Task task : objects) {
+                counts[task.getStatus().ordinal()]++;
+            }
+            BenchmarkSupport.reportThroughput("objects: count by status", rows, System.nanoTime() - started);
+            started = System.nanoTime();
+            long[] columnarCounts = columns.countByStatus(null);
+            BenchmarkSupport.reportThroughput("columns: count by status", rows, System.nanoTime() - started);
+            check(counts[0] == columnarCounts[0]);
+        }
+        objects = null;
+        columns = null;
+
+        insert("add without projection", inserts, false);
+        insert("add with projection", inserts, true);
+    }
+
+    /**
+     * Строки доски: эпик на каждые EPIC_EVERY id, две трети остальных — его подзадачи
+     */
+    private static Iterator<Task> generate(int rows) {
+        SplittableRandom random = new SplittableRandom(17);
+        return new Iterator<>() {
+            private int id = 1;
+
+            @Override
+            public boolean hasNext() {
+                return id <= rows;
+            }
+
+            @Override
+            public Task next() {
+                int current = id++;
+                Status status = Status.values()[random.nextInt(3)];
+                Duration duration = DURATIONS[random.nextInt(DURATIONS.length)];
+                LocalDateTime start = random.nextInt(4) == 0 ? null : START.plusMinutes(random.nextInt(525_600));
+                Task task;
+                if (current % EPIC_EVERY == 1) {
+                    task = new Epic(null, null);
+                } else if (current % 3 != 0) {
+                    task = new Subtask(null, null, status, current - (current - 1) % EPIC_EVERY, duration, start);
+                } else {
+                    task = new Task(null, null, status, duration, start);
+                }
+                task.setId(current);
+                return task;
+            }
+        };
+    }
+
+    private static Map<Integer, long[]> objectDurationByEpic(List<Task> objects) {
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (Task task : objects) {
+            if (task instanceof Epic) {
+                totals.putIfAbsent(task.getId(), new long[Status.values().length]);
+            }
+        }
+        for (Task task : objects) {
+            if (task instanceof Subtask subtask && totals.containsKey(subtask.getEpicId())) {
+                totals.get(subtask.getEpicId())[subtask.getStatus().ordinal()] += subtask.getDuration().getSeconds();
+            }
+        }
+        return totals;
+    }
+
+    private static NavigableMap<LocalDate, Long> objectStartsByDay(List<Task> objects) {
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (Task task : objects) {
+            if (!(task instanceof Epic) && task.getStartTime() != null) {
+                counts.merge(task.getStartTime().toLocalDate(), 1L, Long::sum);
+            }
+        }
+        return new TreeMap<>(counts);
+    }
+
+    /**
+     * Добавление задач пакетами в InMemoryTaskManager; with — проекция запрошена до добавления
+     */
+    private static void insert(String label, int count, boolean withProjection) throws TimeConflictException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        if (withProjection) {
+            manager.getColumns();
+        }
+        long started = System.nanoTime();
+        for (int first = 0; first < count; first += BATCH) {
+            List<Task> batch = new ArrayList<>(BATCH);
+            for (int i = first; i < Math.min(count, first + BATCH); i++) {
+                batch.add(new Task("T", "D", Status.NEW, Duration.ofMinutes(30),
+                        i % 2 == 0 ? START.plusMinutes(45L * i) : null));
+            }
+            manager.addTasks(batch);
+        }
+        BenchmarkSupport.reportThroughput(label, count, System.nanoTime() - started);
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Результаты группировок не совпадают");
+        }
+    }
+}
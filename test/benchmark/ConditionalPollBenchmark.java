@@ -0,0 +1,77 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import http.HttpTaskServer;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import model.Task;
+import util.Status;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Повторные опросы GET /tasks на неизменном хранилище из 100 тыс. задач:
+ * сериализация на каждый запрос, готовый ответ из кэша и условный запрос с If-None-Match (304).
+ * Запуск: java benchmark.ConditionalPollBenchmark [количество задач] [опросов]
+ */
+public class ConditionalPollBenchmark {
+    private static final int WARM_UP_POLLS = 10;
+
+    public static void main(String[] args) throws TimeConflictException, IOException, InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int polls = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        TaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < size; i++) {
+            manager.addTask(new Task("Task " + i, "Dashboard poll " + i, Status.NEW, null, null));
+        }
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpTaskServer uncached = new HttpTaskServer(manager, 0, 0);
+        uncached.start();
+        try {
+            poll(client, uncached, "serialize each poll", polls, false);
+        } finally {
+            uncached.stop();
+        }
+
+        HttpTaskServer cached = new HttpTaskServer(manager, 0);
+        cached.start();
+        try {
+            poll(client, cached, "cached payload", polls, false);
+            poll(client, cached, "If-None-Match (304)", polls, true);
+        } finally {
+            cached.stop();
+        }
+    }
+
+    private static void poll(HttpClient client, HttpTaskServer server, String label, int polls, boolean conditional)
+            throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.getPort() + "/tasks");
+        String etag = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("ETag").orElse(null);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (conditional && etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        HttpRequest request = builder.build();
+
+        long[] latencies = new long[polls];
+        long bytes = 0;
+        for (int i = -WARM_UP_POLLS; i < polls; i++) {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (i >= 0) {
+                latencies[i] = System.nanoTime() - start;
+                bytes += response.body().length;
+            }
+        }
+        BenchmarkSupport.reportLatency(label, latencies);
+        System.out.printf("%-40s bytes/poll=%d%n", label, bytes / polls);
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import manager.ConflictReport;
+import model.Task;
+import model.TaskOverlap;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Отчёт о пересечениях ConflictReport на больших расписаниях с заданной долей пересечений:
+ * задачи идут через час по 30 минут, а доля rate задач растянута на 1–3 следующих часа.
+ * Сравнивается сбор пар в список, потоковая выдача (только подсчёт) и попарная проверка
+ * isOverlapping на меньшем расписании.
+ * Запуск: java benchmark.ConflictReportBenchmark [задач] [задач для попарной проверки]
+ */
+public class ConflictReportBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final double[] RATES = {0.0, 0.001, 0.01, 0.1, 0.5};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int pairwise = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        for (double rate : RATES) {
+            List<Task> tasks = schedule(count, rate);
+            String label = String.format("rate=%.3f", rate);
+            long pairs = 0;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long started = System.nanoTime();
+                pairs = ConflictReport.findConflicts(tasks).size();
+                best = Math.min(best, System.nanoTime() - started);
+            }
+            BenchmarkSupport.reportThroughput(label + " collect, pairs=" + pairs, count, best);
+
+            long[] streamed = new long[1];
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long started = System.nanoTime();
+                check(ConflictReport.forEachConflict(tasks, overlap -> streamed[0]++) == pairs);
+                best = Math.min(best, System.nanoTime() - started);
+            }
+            BenchmarkSupport.reportThroughput(label + " stream", count, best);
+            System.out.printf("%-40s %.1f MB%n", label + " collected list", retainedMegabytes(tasks));
+        }
+
+        List<Task> small = schedule(pairwise, 0.01);
+        long started = System.nanoTime();
+        long pairs = 0;
+        for (int i = 0; i < small.size(); i++) {
+            for (int j = i + 1; j < small.size(); j++) {
+                if (small.get(i).isOverlapping(small.get(j))) {
+                    pairs++;
+                }
+            }
+        }
+        BenchmarkSupport.reportThroughput("pairwise isOverlapping, pairs=" + pairs, pairwise,
+                System.nanoTime() - started);
+        started = System.nanoTime();
+        check(ConflictReport.findConflicts(small).size() == pairs);
+        BenchmarkSupport.reportThroughput("sweep-line, same schedule", pairwise, System.nanoTime() - started);
+    }
+
+    /**
+     * Расписание в случайном порядке: задача каждый час, доля rate задач пересекается со следующими
+     */
+    private static List<Task> schedule(int count, double rate) {
+        SplittableRandom random = new SplittableRandom(31);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long minutes = random.nextDouble() < rate ? 60L * (1 + random.nextInt(3)) : 30;
+            Task task = new Task("T", "D", Status.NEW, Duration.ofMinutes(minutes), START.plusHours(i));
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        Collections.shuffle(tasks, new Random(random.nextLong()));
+        return tasks;
+    }
+
+    /**
+     * Объём кучи, занятый списком пар, — то, чего не требует потоковая выдача
+     */
+    private static double retainedMegabytes(List<Task> tasks) {
+        long before = usedHeap();
+        List<TaskOverlap> conflicts = ConflictReport.findConflicts(tasks);
+        long after = usedHeap();
+        check(conflicts.size() >= 0);
+        return (after - before) / (1024.0 * 1024.0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Число пар не совпадает");
+        }
+    }
+}
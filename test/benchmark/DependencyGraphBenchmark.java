@@ -0,0 +1,66 @@
+package benchmark;
+
+import manager.DependencyGraph;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Граф зависимостей на N узлах: каждая задача зависит от 1–3 задач из предыдущих WINDOW.
+ * Замеряются случайные переносы времени начала (пересчитывается только нижележащая часть графа)
+ * и добавление случайных рёбер с перестановкой топологического порядка и отклонением циклов.
+ * Запуск: java benchmark.DependencyGraphBenchmark [количество узлов] [количество изменений]
+ */
+public class DependencyGraphBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int WINDOW = 1_000;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(42);
+
+        DependencyGraph graph = new DependencyGraph();
+        long started = System.nanoTime();
+        for (int id = 0; id < size; id++) {
+            LocalDateTime start = random.nextInt(100) == 0 ? START.plusHours(random.nextInt(10_000)) : null;
+            graph.setTask(id, start, Duration.ofMinutes(15L * (1 + random.nextInt(8))));
+            int dependencies = id == 0 ? 0 : 1 + random.nextInt(3);
+            for (int i = 0; i < dependencies; i++) {
+                graph.addDependency(id, Math.max(0, id - 1 - random.nextInt(WINDOW)));
+            }
+        }
+        BenchmarkSupport.reportThroughput("build nodes=" + size, size, System.nanoTime() - started);
+
+        for (int round = 0; round < 3; round++) {
+            long[] latencies = new long[edits];
+            long recomputed = 0;
+            for (int i = 0; i < edits; i++) {
+                int id = random.nextInt(size);
+                LocalDateTime start = START.plusHours(random.nextInt(10_000));
+                long editStarted = System.nanoTime();
+                graph.setTask(id, start, Duration.ofMinutes(15L * (1 + random.nextInt(8))));
+                latencies[i] = System.nanoTime() - editStarted;
+                recomputed += graph.getLastRecomputed();
+            }
+            BenchmarkSupport.reportLatency("move start", latencies);
+            System.out.printf("  recomputed per edit: %.1f%n", (double) recomputed / edits);
+
+            int rejected = 0;
+            started = System.nanoTime();
+            for (int i = 0; i < edits / 100; i++) {
+                int task = random.nextInt(size);
+                int dependsOn = Math.min(size - 1, Math.max(0, task + random.nextInt(2 * WINDOW) - WINDOW));
+                try {
+                    graph.addDependency(task, dependsOn);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                }
+            }
+            BenchmarkSupport.reportThroughput("add dependency rejected=" + rejected, edits / 100,
+                    System.nanoTime() - started);
+        }
+        System.out.println("critical path length: " + graph.getCriticalPath().size());
+    }
+}
@@ -0,0 +1,132 @@
+package benchmark;
+
+import http.HttpTaskServer;
+import http.TaskJson;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import model.Task;
+import util.Status;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузка на HttpTaskServer: N клиентов с keep-alive соединениями одновременно отправляют запросы
+ * (90% GET /tasks/{id}, 10% POST /tasks с обновлением задачи) в течение заданного времени.
+ * Запуск: java benchmark.HttpLoadBenchmark [клиентов] [секунд]
+ */
+public class HttpLoadBenchmark {
+    private static final int TASKS = 1_000;
+    private static final int MAX_SAMPLES = 5_000_000;
+    private static final int WARM_UP_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(clients));
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        TaskManager manager = new InMemoryTaskManager();
+        String[] updates = new String[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Task " + i, "Load test", Status.NEW, null, null);
+            manager.addTask(task);
+            task.setStatus(Status.IN_PROGRESS);
+            updates[i] = TaskJson.toJson(task);
+        }
+
+        HttpTaskServer server = new HttpTaskServer(manager, 0);
+        server.start();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        try {
+            Load load = new Load(client, "http://localhost:" + server.getPort(), updates);
+            load.run(clients, WARM_UP_SECONDS);
+            load = new Load(client, "http://localhost:" + server.getPort(), updates);
+            long start = System.nanoTime();
+            load.run(clients, seconds);
+            long elapsed = System.nanoTime() - start;
+
+            long[] latencies = load.latencies();
+            String label = "http clients=" + clients;
+            BenchmarkSupport.reportThroughput(label, latencies.length, elapsed);
+            BenchmarkSupport.reportLatency(label, latencies);
+            System.out.printf(Locale.ROOT, "errors=%d%n", load.errors.get());
+        } finally {
+            server.stop();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Один прогон нагрузки: каждый клиент отправляет следующий запрос сразу после ответа на предыдущий
+     */
+    private static class Load {
+        private final HttpClient client;
+        private final String baseUri;
+        private final String[] updates;
+        private final long[] samples = new long[MAX_SAMPLES];
+        private final AtomicInteger sampleCount = new AtomicInteger();
+        private final AtomicLong errors = new AtomicLong();
+        private CountDownLatch finished;
+        private long deadline;
+
+        Load(HttpClient client, String baseUri, String[] updates) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.updates = updates;
+        }
+
+        void run(int clients, int seconds) throws InterruptedException {
+            finished = new CountDownLatch(clients);
+            deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            for (int i = 0; i < clients; i++) {
+                next();
+            }
+            finished.await();
+        }
+
+        long[] latencies() {
+            long[] result = new long[Math.min(sampleCount.get(), MAX_SAMPLES)];
+            System.arraycopy(samples, 0, result, 0, result.length);
+            return result;
+        }
+
+        private void next() {
+            if (System.nanoTime() >= deadline) {
+                finished.countDown();
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int index = random.nextInt(TASKS);
+            HttpRequest request = random.nextInt(10) == 0
+                    ? HttpRequest.newBuilder(URI.create(baseUri + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(updates[index])).build()
+                    : HttpRequest.newBuilder(URI.create(baseUri + "/tasks/" + (index + 1))).GET().build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null || response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                } else {
+                    int sample = sampleCount.getAndIncrement();
+                    if (sample < MAX_SAMPLES) {
+                        samples[sample] = System.nanoTime() - start;
+                    }
+                }
+                next();
+            });
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.IndexedTaskManager;
+import manager.TaskManager;
+import model.Task;
+import util.Status;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Чтение задач по id с распределением Ципфа (s = 0.99): IndexedTaskManager с кэшем разного размера
+ * против FileBackedTaskManager, держащего все задачи в памяти. Ранги Ципфа переставлены случайно,
+ * поэтому часто читаемые задачи разбросаны по всем сегментам. Для каждого варианта печатаются
+ * пропускная способность, доля попаданий, число вытеснений, задержка чтения с диска и занятая куча.
+ * Запуск: java benchmark.IndexedCacheBenchmark [количество задач] [количество чтений]
+ */
+public class IndexedCacheBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int BATCH = 10_000;
+    private static final double SKEW = 0.99;
+    private static final double[] CACHE_SHARES = {0.01, 0.05, 0.2};
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        Path directory = BenchmarkSupport.tempDirectory("indexed-cache");
+        String segments = directory.resolve("segments").toString();
+
+        FileBackedTaskManager fileBacked = new FileBackedTaskManager(segments,
+                IndexedTaskManager.DEFAULT_SEGMENT_SIZE);
+        long bodyBytes = fill(fileBacked, size);
+        int[] ids = fileBacked.getAllTasks().stream().mapToInt(Task::getId).sorted().toArray();
+        int[] trace = zipfTrace(ids, reads, new SplittableRandom(42));
+        System.out.printf(Locale.ROOT, "tasks=%d reads=%d names+descriptions=%d KB%n",
+                size, reads, bodyBytes >> 10);
+
+        long heap = usedHeap();
+        run("file-backed (all in memory)", fileBacked, trace);
+        fileBacked = null;
+        long fullHeap = heap - usedHeap();
+        System.out.printf(Locale.ROOT, "  heap held by file-backed manager: %d MB%n", fullHeap >> 20);
+
+        for (double share : CACHE_SHARES) {
+            long before = usedHeap();
+            long cacheBytes = (long) (bodyBytes * share);
+            try (IndexedTaskManager indexed = new IndexedTaskManager(segments, cacheBytes)) {
+                long indexHeap = usedHeap() - before;
+                run(String.format(Locale.ROOT, "indexed cache=%.0f%%", share * 100), indexed, trace);
+                System.out.printf(Locale.ROOT, "  hit ratio=%.3f evictions=%d cached=%d (%d KB)"
+                                + " load p50=%.1fus p99=%.1fus; index heap=%d MB, with cache=%d MB%n",
+                        indexed.getCacheHitRatio(), indexed.getCacheEvictions(), indexed.getCacheSize(),
+                        indexed.getCacheWeight() >> 10, indexed.getLoadLatency().getPercentile(50) / 1e3,
+                        indexed.getLoadLatency().getPercentile(99) / 1e3, indexHeap >> 20,
+                        (usedHeap() - before) >> 20);
+            }
+        }
+    }
+
+    /**
+     * Заполнение хранилища; возвращает оценку памяти названий и описаний (как в кэше)
+     */
+    private static long fill(FileBackedTaskManager manager, int size) throws TimeConflictException {
+        SplittableRandom random = new SplittableRandom(7);
+        long bytes = 0;
+        for (int first = 0; first < size; first += BATCH) {
+            List<Task> batch = new ArrayList<>(BATCH);
+            for (int i = first; i < Math.min(size, first + BATCH); i++) {
+                String name = "Задача " + i + " по релизу " + random.nextInt(1_000);
+                String description = "Описание задачи " + i + ": " + "проверить сборку и отчёт ".repeat(
+                        1 + random.nextInt(6));
+                bytes += 96 + 2L * (name.length() + description.length());
+                boolean timed = i % 2 == 0;
+                batch.add(new Task(name, description, Status.values()[i % 3], Duration.ofMinutes(30),
+                        timed ? START.plusMinutes(45L * i) : null));
+            }
+            manager.addTasks(batch);
+        }
+        return bytes;
+    }
+
+    private static void run(String label, TaskManager manager, int[] trace) {
+        for (int i = 0; i < Math.min(trace.length, 100_000); i++) {
+            manager.getTaskById(trace[i]); // Прогрев JIT и кэша
+        }
+        long started = System.nanoTime();
+        for (int id : trace) {
+            manager.getTaskById(id);
+        }
+        BenchmarkSupport.reportThroughput(label, trace.length, System.nanoTime() - started);
+    }
+
+    /**
+     * Последовательность id: ранг k выбирается с вероятностью ~ 1 / k^SKEW, ранги случайно сопоставлены id
+     */
+    private static int[] zipfTrace(int[] ids, int reads, SplittableRandom random) {
+        double[] cumulative = new double[ids.length];
+        double sum = 0;
+        for (int rank = 0; rank < ids.length; rank++) {
+            sum += 1 / Math.pow(rank + 1, SKEW);
+            cumulative[rank] = sum;
+        }
+        int[] byRank = ids.clone();
+        for (int i = byRank.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = byRank[i];
+            byRank[i] = byRank[j];
+            byRank[j] = swap;
+        }
+        int[] trace = new int[reads];
+        for (int i = 0; i < reads; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = byRank[Math.min(ids.length - 1, rank < 0 ? -rank - 1 : rank)];
+        }
+        return trace;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
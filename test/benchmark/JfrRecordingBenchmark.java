@@ -0,0 +1,106 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Запись JFR со стандартными порогами событий javakanban.* на синтетической нагрузке:
+ * сохранение N задач пакетами, загрузка из файла, проверки пересечений без сетки слотов
+ * и пересчёт статуса эпика с большим числом подзадач. По записи печатается сводка:
+ * число медленных экземпляров, суммарное и максимальное время, записи и байты по типам событий.
+ * Файл записи остаётся для просмотра (jfr print --events javakanban.Save <файл>).
+ * Запуск: java benchmark.JfrRecordingBenchmark [количество задач] [файл .jfr]
+ */
+public class JfrRecordingBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int BATCH = 100_000;
+    private static final List<String> EVENTS = List.of("Load", "Parse", "Save", "WriteTasks", "TimeOverlap",
+            "EpicStatus");
+
+    public static void main(String[] args) throws TimeConflictException, IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = BenchmarkSupport.tempDirectory("jfr-workload");
+        Path output = args.length > 1 ? Path.of(args[1]) : directory.resolve("workload.jfr");
+        String file = directory.resolve("tasks.csv").toString();
+
+        try (Recording recording = new Recording()) {
+            EVENTS.forEach(name -> recording.enable("javakanban." + name));
+            recording.start();
+            long started = System.nanoTime();
+            runWorkload(file, size);
+            BenchmarkSupport.reportThroughput("workload tasks=" + size, size, System.nanoTime() - started);
+            recording.stop();
+            recording.dump(output);
+        }
+        summarize(output);
+    }
+
+    private static void runWorkload(String file, int size) throws TimeConflictException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        for (int first = 0; first < size; first += BATCH) {
+            List<Task> batch = new ArrayList<>(BATCH);
+            for (int i = first; i < Math.min(size, first + BATCH); i++) {
+                batch.add(new Task("Задача " + i, "Описание, \"с кавычками\"", Status.NEW, Duration.ofMinutes(30),
+                        START.plusMinutes(45L * i)));
+            }
+            manager.addTasks(batch);
+        }
+
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.addEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            subtasks.add(new Subtask("Подзадача " + i, "Описание", Status.NEW, epic.getId(), null, null));
+        }
+        manager.addSubtasks(subtasks);
+
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(file);
+        for (int i = 0; i < 200; i++) {
+            reloaded.hasTimeOverlap(new Task("Проверка", "Описание", Status.NEW, Duration.ofMinutes(10),
+                    START.plusMinutes(45L * (i * 4_999L % size))));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            reloaded.updateEpicStatus(epic.getId());
+        }
+    }
+
+    private static void summarize(Path output) throws IOException {
+        Map<String, long[]> summary = new TreeMap<>(); // count, total ns, max ns, records, bytes
+        for (RecordedEvent event : RecordingFile.readAllEvents(output)) {
+            long[] row = summary.computeIfAbsent(event.getEventType().getName(), name -> new long[5]);
+            long nanos = event.getDuration().toNanos();
+            row[0]++;
+            row[1] += nanos;
+            row[2] = Math.max(row[2], nanos);
+            if (event.hasField("records")) {
+                row[3] += event.getInt("records");
+            }
+            if (event.hasField("bytes")) {
+                row[4] += event.getLong("bytes");
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-24s %8s %12s %10s %12s %14s%n",
+                "event", "count", "total_ms", "max_ms", "records", "bytes");
+        summary.forEach((name, row) -> System.out.printf(Locale.ROOT, "%-24s %8d %12.1f %10.1f %12d %14d%n",
+                name, row[0], row[1] / 1e6, row[2] / 1e6, row[3], row[4]));
+        System.out.println("recording: " + output);
+    }
+}
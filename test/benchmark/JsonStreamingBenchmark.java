@@ -0,0 +1,161 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import http.HttpTaskServer;
+import http.TaskJson;
+import http.TaskJsonWriter;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import manager.MappedTaskManager;
+import manager.TaskManager;
+import model.Task;
+import util.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Сериализация списка задач в ответ: построение всей строки JSON и запись (прежний способ)
+ * против потоковой записи TaskJsonWriter при обходе коллекции менеджера.
+ * Затем тот же список запрашивается у настоящего HttpTaskServer без кэша ответов (GET /tasks идёт
+ * через BaseHttpHandler.sendTasks и курсор менеджера) для InMemoryTaskManager и MappedTaskManager.
+ * Помимо времени выводится объём памяти, выделенной на один ответ (для сервера — во всех потоках,
+ * кроме клиентского). Ответ не держит снимок списка: MappedTaskManager создаёт на каждую запись
+ * временный Task (около 0,8 КБ мусора на задачу), но одновременно живёт только одна пачка.
+ * Запуск: java benchmark.JsonStreamingBenchmark [количество задач]
+ */
+public class JsonStreamingBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws TimeConflictException, IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        TaskManager manager = new InMemoryTaskManager();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("Задача " + i, "Описание \"" + i + "\"", Status.NEW, null, null);
+            manager.addTask(task);
+            // Время задаётся после добавления, чтобы не тратить O(n) на проверку пересечений
+            task.setDuration(Duration.ofMinutes(30));
+            task.setStartTime(start.plusHours(i));
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("buffered tasks=" + size, out -> {
+                byte[] response = TaskJson.toJson(manager.getAllTasks()).getBytes(StandardCharsets.UTF_8);
+                out.write(response);
+            });
+            measure("streaming tasks=" + size, out -> {
+                TaskJsonWriter writer = new TaskJsonWriter(out);
+                writer.beginArray();
+                manager.forEachTask(task -> {
+                    try {
+                        writer.writeTask(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.endArray();
+                writer.flush();
+            });
+        }
+        measureServer("server in-memory tasks=" + size, manager);
+        manager.deleteAllTasks();
+
+        Path directory = BenchmarkSupport.tempDirectory("json-streaming");
+        try (MappedTaskManager mapped = new MappedTaskManager(directory.toString(), new InMemoryHistoryManager())) {
+            for (int i = 0; i < size; i++) {
+                mapped.addTask(new Task("Задача " + i, "Описание \"" + i + "\"", Status.NEW,
+                        Duration.ofMinutes(30), start.plusHours(i)));
+            }
+            measureServer("server mapped tasks=" + size, mapped);
+        }
+    }
+
+    /**
+     * GET /tasks к серверу без кэша ответов; тело читается из сокета и отбрасывается
+     */
+    private static void measureServer(String label, TaskManager manager) throws IOException {
+        HttpTaskServer server = new HttpTaskServer(manager, 0, 0);
+        server.start();
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long allocatedBefore = serverAllocatedBytes(threads);
+                long started = System.nanoTime();
+                long received = 0;
+                try (Socket socket = new Socket("localhost", server.getPort())) {
+                    socket.getOutputStream().write(("GET /tasks HTTP/1.1\r\nHost: localhost\r\n"
+                            + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    InputStream in = socket.getInputStream();
+                    byte[] buffer = new byte[1 << 16];
+                    for (int read; (read = in.read(buffer)) >= 0; ) {
+                        received += read;
+                    }
+                }
+                long elapsed = System.nanoTime() - started;
+                long allocated = serverAllocatedBytes(threads) - allocatedBefore;
+                System.out.printf(Locale.ROOT, "%-40s time=%.1fms body=%d MB allocated=%.1f MB%n",
+                        label, elapsed / 1_000_000.0, received >> 20, allocated / (double) (1 << 20));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Память, выделенная всеми живыми потоками, кроме текущего (клиента)
+     */
+    private static long serverAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long current = Thread.currentThread().getId();
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            if (id != current) {
+                total += Math.max(0, threads.getThreadAllocatedBytes(id));
+            }
+        }
+        return total;
+    }
+
+    private interface Response {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void measure(String label, Response response) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        response.writeTo(out);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf(Locale.ROOT, "%-40s time=%.1fms body=%d MB allocated=%.1f MB%n",
+                label, elapsed / 1_000_000.0, out.count >> 20, allocated / (double) (1 << 20));
+    }
+
+    /**
+     * Поток-приёмник, который только считает байты (вместо сокета)
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
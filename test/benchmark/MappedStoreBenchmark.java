@@ -0,0 +1,82 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryHistoryManager;
+import manager.MappedTaskManager;
+import model.Task;
+import util.Status;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Хранилище MappedTaskManager на 10 млн задач при куче 512 МБ.
+ * Задачи без времени (архив) кучу не занимают; задачи со временем попадают в индекс времени начала,
+ * поэтому отдельно замеряется, сколько кучи приходится на одну запланированную задачу.
+ * Запуск: java -Xmx512m benchmark.MappedStoreBenchmark [количество задач] [запланированных задач]
+ */
+public class MappedStoreBenchmark {
+    private static final int LOOKUPS = 100_000;
+
+    public static void main(String[] args) throws TimeConflictException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int scheduled = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        Path directory = BenchmarkSupport.tempDirectory("mapped-store");
+        System.out.printf(Locale.ROOT, "max heap=%d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+
+        try (MappedTaskManager manager = new MappedTaskManager(directory.toString(), new InMemoryHistoryManager())) {
+            long start = System.nanoTime();
+            for (int i = 1; i <= size; i++) {
+                manager.addTask(new Task("Archived task " + i, "Closed in sprint " + i % 500,
+                        Status.DONE, null, null));
+            }
+            BenchmarkSupport.reportThroughput("addTask tasks=" + size, size, System.nanoTime() - start);
+            reportHeap();
+
+            Random random = new Random(1);
+            long[] latencies = new long[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                int id = 1 + random.nextInt(size);
+                long lookupStart = System.nanoTime();
+                manager.getTaskById(id);
+                latencies[i] = System.nanoTime() - lookupStart;
+            }
+            BenchmarkSupport.reportLatency("getTaskById tasks=" + size, latencies);
+            reportHeap();
+        }
+        runScheduled(scheduled);
+    }
+
+    /**
+     * Задачи по 30 минут через минуту (границы интервалов включительные): каждая добавляется
+     * с проверкой пересечений по индексу времени начала
+     */
+    private static void runScheduled(int scheduled) throws TimeConflictException {
+        Path directory = BenchmarkSupport.tempDirectory("mapped-store-scheduled");
+        try (MappedTaskManager manager = new MappedTaskManager(directory.toString(), new InMemoryHistoryManager())) {
+            long heapBefore = reportHeap();
+            LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+            Duration duration = Duration.ofMinutes(30);
+            long start = System.nanoTime();
+            for (int i = 0; i < scheduled; i++) {
+                manager.addTask(new Task("Scheduled task " + i, "Slot " + i, Status.NEW,
+                        duration, base.plusMinutes(31L * i)));
+            }
+            BenchmarkSupport.reportThroughput("addTask scheduled=" + scheduled, scheduled, System.nanoTime() - start);
+            long heapAfter = reportHeap();
+            System.out.printf(Locale.ROOT, "heap per scheduled task=%d bytes%n",
+                    (heapAfter - heapBefore) / Math.max(1, scheduled));
+        }
+    }
+
+    private static long reportHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf(Locale.ROOT, "heap used=%d MB%n", used >> 20);
+        return used;
+    }
+}
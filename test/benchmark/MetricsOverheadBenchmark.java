@@ -0,0 +1,91 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import manager.MetricsTaskManager;
+import manager.TaskManager;
+import metrics.TaskManagerMetrics;
+import model.Task;
+import util.Managers;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Накладные расходы MetricsTaskManager на дешёвых операциях (getTaskById и hasTimeOverlap с сеткой слотов):
+ * менеджер без обёртки, обёртка с выключенными и с включёнными метриками.
+ * Варианты чередуются в каждом раунде, первые раунды — прогрев JIT.
+ * Запуск: java benchmark.MetricsOverheadBenchmark [количество задач] [количество операций]
+ */
+public class MetricsOverheadBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int ROUNDS = 8;
+
+    private static long sink;
+
+    public static void main(String[] args) throws TimeConflictException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+
+        TaskManager raw = filled(size);
+        TaskManagerMetrics disabledMetrics = new TaskManagerMetrics();
+        disabledMetrics.setEnabled(false);
+        TaskManager disabled = new MetricsTaskManager(filled(size), disabledMetrics);
+        TaskManagerMetrics enabledMetrics = new TaskManagerMetrics();
+        TaskManager enabled = new MetricsTaskManager(filled(size), enabledMetrics);
+        List<Task> probes = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            probes.add(new Task("Проверка", "Описание", Status.NEW, Duration.ofMinutes(10),
+                    START.plusMinutes(45L * (i * 7 % size))));
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean isReported = round >= ROUNDS / 2;
+            report(isReported, "getTaskById raw", operations, getById(raw, size, operations));
+            report(isReported, "getTaskById metrics off", operations, getById(disabled, size, operations));
+            report(isReported, "getTaskById metrics on", operations, getById(enabled, size, operations));
+            report(isReported, "hasTimeOverlap raw", operations, overlap(raw, probes, operations));
+            report(isReported, "hasTimeOverlap metrics off", operations, overlap(disabled, probes, operations));
+            report(isReported, "hasTimeOverlap metrics on", operations, overlap(enabled, probes, operations));
+        }
+        System.out.print(enabledMetrics.dump());
+        System.out.println("sink=" + sink);
+    }
+
+    private static TaskManager filled(int size) throws TimeConflictException {
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(), true);
+        List<Task> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(new Task("Задача " + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                    START.plusMinutes(45L * i)));
+        }
+        manager.addTasks(batch);
+        return manager;
+    }
+
+    private static long getById(TaskManager manager, int size, int operations) {
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink += manager.getTaskById(1 + i % size).getId();
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long overlap(TaskManager manager, List<Task> probes, int operations) {
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink += manager.hasTimeOverlap(probes.get(i & 1023)) ? 1 : 0;
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static void report(boolean isReported, String label, int operations, long nanos) {
+        if (isReported) {
+            System.out.printf(Locale.ROOT, "%-40s %.1f ns/op%n", label, (double) nanos / operations);
+        }
+    }
+}
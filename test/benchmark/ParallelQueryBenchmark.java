@@ -0,0 +1,120 @@
+package benchmark;
+
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Масштабирование параллельных запросов InMemoryTaskManager (filterTasks, recomputeAllEpics, findAllConflicts)
+ * по числу потоков пула: пулы с параллелизмом 1, 2, 4… до числа процессоров против последовательного
+ * выполнения (порог Integer.MAX_VALUE). Отдельно — маленькая доска, где порог не даёт обращаться к пулу.
+ * Запуск: java benchmark.ParallelQueryBenchmark [задач на доске] [наибольший параллелизм]
+ */
+public class ParallelQueryBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int SUBTASKS_PER_EPIC = 50;
+    private static final int ROUNDS = 7;
+    private static final int SMALL_BOARD = 500;
+    private static final int SMALL_ROUNDS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int maxParallelism = args.length > 1 ? Integer.parseInt(args[1]) : processors;
+        System.out.println("Процессоров: " + processors + ", наибольший параллелизм: " + maxParallelism);
+
+        InMemoryTaskManager manager = board(count);
+        measure(manager, "sequential", ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        for (int parallelism = 1; parallelism <= maxParallelism; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                measure(manager, "pool=" + parallelism, pool, InMemoryTaskManager.DEFAULT_SEQUENTIAL_THRESHOLD);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        manager = null;
+
+        InMemoryTaskManager small = board(SMALL_BOARD);
+        for (int threshold : new int[]{InMemoryTaskManager.DEFAULT_SEQUENTIAL_THRESHOLD, 16}) {
+            small.setQueryParallelism(ForkJoinPool.commonPool(), threshold);
+            long started = System.nanoTime();
+            long found = 0;
+            for (int round = 0; round < SMALL_ROUNDS; round++) {
+                found += small.filterTasks(task -> task.getStatus() == Status.DONE).size();
+            }
+            BenchmarkSupport.reportThroughput("small board, threshold=" + threshold, SMALL_ROUNDS,
+                    System.nanoTime() - started);
+            check(found > 0);
+        }
+    }
+
+    /**
+     * Доска без пересечений: на каждый эпик SUBTASKS_PER_EPIC подзадач и столько же задач
+     */
+    private static InMemoryTaskManager board(int count) throws Exception {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        List<Task> tasks = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        int slot = 0;
+        while (tasks.size() + subtasks.size() < count) {
+            Epic epic = new Epic("E", "D");
+            manager.addEpic(epic);
+            for (int i = 0; i < SUBTASKS_PER_EPIC; i++) {
+                Status status = Status.values()[(slot + i) % 3];
+                subtasks.add(new Subtask("S", "D", status, epic.getId(), Duration.ofMinutes(30),
+                        START.plusMinutes(45L * slot++)));
+                tasks.add(new Task("T", "D", status, Duration.ofMinutes(30), START.plusMinutes(45L * slot++)));
+            }
+        }
+        manager.addTasks(tasks);
+        manager.addSubtasks(subtasks);
+        return manager;
+    }
+
+    private static void measure(InMemoryTaskManager manager, String label, ForkJoinPool pool, int threshold) {
+        manager.setQueryParallelism(pool, threshold);
+        int size = manager.getAllTasks().size() + manager.getAllSubtasks().size();
+        time(label + ": filterTasks", size, () -> manager.filterTasks(task -> task.getStatus() == Status.DONE));
+        time(label + ": recomputeAllEpics", manager.getAllEpics().size(), () -> {
+            manager.recomputeAllEpics();
+            return List.of();
+        });
+        time(label + ": findAllConflicts", size, () -> {
+            List<?> conflicts = manager.findAllConflicts();
+            check(conflicts.isEmpty());
+            return conflicts;
+        });
+    }
+
+    /**
+     * Медиана из ROUNDS замеров после одного прогревочного
+     */
+    private static void time(String label, int operations, Supplier<List<?>> query) {
+        query.get();
+        long[] nanos = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            query.get();
+            nanos[round] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        BenchmarkSupport.reportThroughput(label, operations, nanos[ROUNDS / 2]);
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Неожиданный результат запроса");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryTaskManager;
+import model.Recurrence;
+import model.Task;
+import util.Managers;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SERIES ежедневных 15-минутных встреч на DAYS дней: серии с ленивыми вхождениями против
+ * отдельной задачи на каждое вхождение (оба менеджера с сеткой слотов). Замеряются добавление,
+ * проверка пересечений случайных задач и выборка недели по времени.
+ * Запуск: java benchmark.RecurringTaskBenchmark [количество серий] [количество дней]
+ */
+public class RecurringTaskBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int PROBES = 100_000;
+
+    public static void main(String[] args) throws TimeConflictException {
+        int series = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 3_650;
+
+        for (int round = 0; round < 3; round++) {
+            InMemoryTaskManager lazy = new InMemoryTaskManager(Managers.getDefaultHistory(), true);
+            long started = System.nanoTime();
+            for (int i = 0; i < series; i++) {
+                lazy.addRecurringTask(meeting(i, START.plusMinutes(30L * i)),
+                        Recurrence.times(Recurrence.Frequency.DAILY, 1, days));
+            }
+            BenchmarkSupport.reportThroughput("recurring add series=" + series, series, System.nanoTime() - started);
+
+            InMemoryTaskManager materialized = new InMemoryTaskManager(Managers.getDefaultHistory(), true);
+            List<Task> occurrences = new ArrayList<>(series * days);
+            for (int i = 0; i < series; i++) {
+                for (int day = 0; day < days; day++) {
+                    occurrences.add(meeting(i, START.plusDays(day).plusMinutes(30L * i)));
+                }
+            }
+            started = System.nanoTime();
+            materialized.addTasks(occurrences);
+            BenchmarkSupport.reportThroughput("materialized add tasks=" + occurrences.size(), occurrences.size(),
+                    System.nanoTime() - started);
+
+            measureOverlap("recurring overlap", lazy, days);
+            measureOverlap("materialized overlap", materialized, days);
+            measureRange("recurring week", lazy, days);
+            measureRange("materialized week", materialized, days);
+        }
+    }
+
+    private static void measureOverlap(String label, InMemoryTaskManager manager, int days) {
+        Random random = new Random(42);
+        long[] latencies = new long[PROBES];
+        int conflicts = 0;
+        for (int i = 0; i < PROBES; i++) {
+            Task probe = new Task("Проверка", "Описание", Status.NEW, Duration.ofMinutes(10),
+                    START.plusMinutes(random.nextInt(days * 24 * 60)));
+            long started = System.nanoTime();
+            conflicts += manager.hasTimeOverlap(probe) ? 1 : 0;
+            latencies[i] = System.nanoTime() - started;
+        }
+        BenchmarkSupport.reportLatency(label + " conflicts=" + conflicts, latencies);
+    }
+
+    private static void measureRange(String label, InMemoryTaskManager manager, int days) {
+        Random random = new Random(7);
+        long[] latencies = new long[PROBES / 10];
+        for (int i = 0; i < latencies.length; i++) {
+            LocalDateTime from = START.plusDays(random.nextInt(days));
+            long started = System.nanoTime();
+            manager.getTasksInRange(from, from.plusWeeks(1));
+            latencies[i] = System.nanoTime() - started;
+        }
+        BenchmarkSupport.reportLatency(label, latencies);
+    }
+
+    private static Task meeting(int series, LocalDateTime start) {
+        return new Task("Встреча " + series, "Описание", Status.NEW, Duration.ofMinutes(15), start);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import model.Task;
+import util.Status;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Пропускная способность полного сохранения (строк в секунду):
+ * потоковая запись FileBackedTaskManager против прежней записи через String.format и BufferedWriter.
+ * Запуск: java benchmark.SaveThroughputBenchmark [количество задач]
+ */
+public class SaveThroughputBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = BenchmarkSupport.tempDirectory("save-throughput");
+        Path file = directory.resolve("tasks.csv");
+        writeTasks(file, size);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file.toString());
+        List<Task> tasks = manager.getAllTasks();
+        Task probe = tasks.get(0);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            legacySave(directory.resolve("legacy.csv"), tasks);
+            BenchmarkSupport.reportThroughput("legacy String.format round=" + round, size,
+                    System.nanoTime() - start);
+
+            probe.setStatus(round % 2 == 0 ? Status.IN_PROGRESS : Status.NEW);
+            start = System.nanoTime();
+            manager.updateTask(probe);
+            BenchmarkSupport.reportThroughput("streaming save round=" + round, size,
+                    System.nanoTime() - start);
+        }
+    }
+
+    private static void writeTasks(Path file, int size) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("id,type,name,status,description,start_time,duration,epic\n");
+            for (int id = 1; id <= size; id++) {
+                writer.write(id + ",TASK,Task " + id + ",NEW,\"Описание \"\"" + id + "\"\"\", "
+                        + (id % 2 == 0 ? "2025-05-18T18:00:00" : "") + ", 30,\n");
+            }
+        }
+    }
+
+    /**
+     * Прежняя реализация сохранения, оставленная здесь как точка сравнения
+     */
+    private static void legacySave(Path file, List<Task> tasks) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file.toFile()))) {
+            writer.write("id,type,name,status,description,start_time,duration,epic\n");
+            for (Task task : tasks) {
+                String description = task.getDescription() != null
+                        ? task.getDescription().replace("\"", "\"\"")
+                        : "";
+                String startTime = task.getStartTime() != null
+                        ? task.getStartTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                        : "";
+                Duration duration = task.getDuration();
+                String line = String.format("%d,%s,%s,%s,\"%s\", %s, %s", task.getId(), "TASK",
+                        task.getName(), task.getStatus(), description, startTime,
+                        duration != null ? String.valueOf(duration.toMinutes()) : "") + ",";
+                writer.write(line + "\n");
+            }
+        }
+    }
+}
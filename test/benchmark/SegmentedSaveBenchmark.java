@@ -0,0 +1,69 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import model.Task;
+import util.Status;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Задержка сохранения после изменения одной задачи при 1 тыс. и 1 млн задач в сегментированном хранилище.
+ * При сохранении перезаписывается только один сегмент, поэтому задержка не должна зависеть от размера.
+ */
+public class SegmentedSaveBenchmark {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final int UPDATES = 200;
+
+    public static void main(String[] args) throws Exception {
+        for (int size : new int[]{1_000, 1_000_000}) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) throws IOException, TimeConflictException {
+        Path directory = BenchmarkSupport.tempDirectory("segmented-save");
+        writeSegments(directory, size);
+
+        long loadStart = System.nanoTime();
+        FileBackedTaskManager manager = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        BenchmarkSupport.reportThroughput("load tasks=" + size, size, System.nanoTime() - loadStart);
+
+        Random random = new Random(1);
+        long[] latencies = new long[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            Task task = manager.getTaskById(1 + random.nextInt(size));
+            task.setStatus(i % 2 == 0 ? Status.IN_PROGRESS : Status.DONE);
+
+            long start = System.nanoTime();
+            manager.updateTask(task);
+            latencies[i] = System.nanoTime() - start;
+        }
+        BenchmarkSupport.reportLatency("updateTask tasks=" + size, latencies);
+    }
+
+    /**
+     * Подготовка сегментов напрямую, без поштучного сохранения через менеджер
+     */
+    private static void writeSegments(Path directory, int size) throws IOException {
+        BufferedWriter writer = null;
+        for (int id = 1; id <= size; id++) {
+            if (writer == null || id % SEGMENT_SIZE == 0) {
+                if (writer != null) {
+                    writer.close();
+                }
+                writer = Files.newBufferedWriter(directory.resolve(
+                        String.format("segment-%06d.csv", id / SEGMENT_SIZE)));
+                writer.write("id,type,name,status,description,start_time,duration,epic\n");
+            }
+            writer.write(id + ",TASK,Task " + id + ",NEW,\"Description " + id + "\", , ,\n");
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.ShardedTaskManager;
+import model.Task;
+import util.Status;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BOARDS досок по TASKS задач в файлах, обращения к доскам распределены по Ципфу (s = 1):
+ * небольшая часть досок получает большую часть запросов. Для нескольких размеров LRU замеряются
+ * задержки чтения задачи по глобальному id (95%) и добавления задачи (5%), число загрузок и вытеснений.
+ * Запуск: java benchmark.ShardedBoardsBenchmark [количество досок] [количество операций]
+ */
+public class ShardedBoardsBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int TASKS = 10;
+
+    public static void main(String[] args) throws TimeConflictException {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Path directory = BenchmarkSupport.tempDirectory("sharded-boards");
+
+        ShardedTaskManager seeding = ShardedTaskManager.fileBacked(directory, 16);
+        long started = System.nanoTime();
+        for (int board = 0; board < boards; board++) {
+            List<Task> batch = new ArrayList<>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                batch.add(new Task("Задача " + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                        START.plusHours(i)));
+            }
+            seeding.withBoard(board, manager -> {
+                manager.addTasks(batch);
+                return null;
+            });
+        }
+        BenchmarkSupport.reportThroughput("seed boards=" + boards, boards, System.nanoTime() - started);
+
+        double[] cumulative = zipf(boards);
+        int[] added = new int[boards]; // Доски общие для всех замеров: новые задачи ставятся после уже добавленных
+        for (int capacity : new int[]{boards, boards / 10, boards / 100}) {
+            ShardedTaskManager sharded = ShardedTaskManager.fileBacked(directory, capacity);
+            Random random = new Random(42);
+            long[] latencies = new long[operations];
+            for (int i = 0; i < operations; i++) {
+                int board = sample(cumulative, random.nextDouble());
+                long operationStarted = System.nanoTime();
+                if (random.nextInt(100) < 5) {
+                    sharded.addTask(board, new Task("Новая", "Описание", Status.NEW, Duration.ofMinutes(30),
+                            START.plusDays(1 + added[board]++)));
+                } else {
+                    sharded.getTaskById(ShardedTaskManager.globalId(board, 1 + random.nextInt(TASKS)));
+                }
+                latencies[i] = System.nanoTime() - operationStarted;
+            }
+            BenchmarkSupport.reportLatency("capacity=" + capacity, latencies);
+            System.out.printf("  loads=%d evictions=%d hit ratio=%.3f%n", sharded.getLoads(), sharded.getEvictions(),
+                    1 - (double) sharded.getLoads() / operations);
+        }
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
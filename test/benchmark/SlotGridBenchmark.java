@@ -0,0 +1,74 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import model.Task;
+import util.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Проверка пересечений hasTimeOverlap без сетки слотов (проход по prioritizedTasks)
+ * и с сеткой (биты слотов задачи, при занятом слоте — соседи по времени), а также поиск свободного окна findFreeSlot.
+ * Задачи по 30 минут через каждые два часа выровнены по 15-минутным слотам.
+ * Запуск: java benchmark.SlotGridBenchmark [количество задач] [количество проверок]
+ */
+public class SlotGridBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws TimeConflictException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int checks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        InMemoryTaskManager plain = new InMemoryTaskManager(new InMemoryHistoryManager(), false);
+        InMemoryTaskManager grid = new InMemoryTaskManager(new InMemoryHistoryManager(), true);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(task(START.plusHours(2L * i)));
+        }
+        plain.addTasks(tasks);
+        tasks.clear();
+        for (int i = 0; i < size; i++) {
+            tasks.add(task(START.plusHours(2L * i)));
+        }
+        grid.addTasks(tasks);
+
+        Random random = new Random(42);
+        List<Task> candidates = new ArrayList<>(checks);
+        for (int i = 0; i < checks; i++) {
+            candidates.add(task(START.plusMinutes(15L * random.nextInt(size * 8))));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            measure("hasTimeOverlap plain tasks=" + size, plain, candidates);
+            measure("hasTimeOverlap grid tasks=" + size, grid, candidates);
+
+            long started = System.nanoTime();
+            for (Task candidate : candidates) {
+                grid.findFreeSlot(candidate.getStartTime(), Duration.ofHours(1));
+            }
+            BenchmarkSupport.reportThroughput("findFreeSlot grid 1h", checks, System.nanoTime() - started);
+        }
+    }
+
+    private static void measure(String label, InMemoryTaskManager manager, List<Task> candidates) {
+        long conflicts = 0;
+        long started = System.nanoTime();
+        for (Task candidate : candidates) {
+            if (manager.hasTimeOverlap(candidate)) {
+                conflicts++;
+            }
+        }
+        BenchmarkSupport.reportThroughput(label + " conflicts=" + conflicts, candidates.size(),
+                System.nanoTime() - started);
+    }
+
+    private static Task task(LocalDateTime start) {
+        return new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30), start);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import manager.DeflateSnapshotCodec;
+import manager.FileBackedTaskManager;
+import manager.SnapshotCodec;
+import model.Task;
+import util.Status;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * Полное сохранение и загрузка снимка без сжатия и со сжатием Deflate разных уровней:
+ * пропускная способность (строк в секунду) и размер файла.
+ * Запуск: java benchmark.SnapshotCompressionBenchmark [количество задач]
+ */
+public class SnapshotCompressionBenchmark {
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = BenchmarkSupport.tempDirectory("snapshot-compression");
+        Path file = directory.resolve("tasks.csv");
+        writeTasks(file, size);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file.toString());
+        Task probe = manager.getAllTasks().get(0);
+        String[] labels = {"plain", "deflate level=1", "deflate level=6"};
+        SnapshotCodec[] codecs = {null, SnapshotCodec.DEFLATE, new DeflateSnapshotCodec(Deflater.DEFAULT_COMPRESSION)};
+        long plainSize = 0;
+        for (int i = 0; i < codecs.length; i++) {
+            manager.setSnapshotCodec(codecs[i]);
+            for (int round = 0; round < ROUNDS; round++) {
+                probe.setStatus(round % 2 == 0 ? Status.IN_PROGRESS : Status.NEW);
+                long start = System.nanoTime();
+                manager.updateTask(probe);
+                BenchmarkSupport.reportThroughput(labels[i] + " save round=" + round, size,
+                        System.nanoTime() - start);
+            }
+            long fileSize = Files.size(file);
+            plainSize = i == 0 ? fileSize : plainSize;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                FileBackedTaskManager loaded = new FileBackedTaskManager(file.toString());
+                BenchmarkSupport.reportThroughput(labels[i] + " load round=" + round,
+                        loaded.getAllTasks().size(), System.nanoTime() - start);
+            }
+            System.out.printf(Locale.ROOT, "%-40s size=%.1f MB ratio=%.2f%n", labels[i], fileSize / 1048576.0,
+                    (double) plainSize / fileSize);
+        }
+    }
+
+    private static void writeTasks(Path file, int size) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("id,type,name,status,description,start_time,duration,epic\n");
+            for (int id = 1; id <= size; id++) {
+                String startTime = id % 2 == 0
+                        ? String.format("2025-%02d-%02dT%02d:%02d:00", 1 + id % 12, 1 + id % 28, id % 24, id % 4 * 15)
+                        : "";
+                writer.write(id + ",TASK,Задача " + id + "," + Status.values()[id % 3] + ",\"Проверить сборку "
+                        + id % 100 + " и приложить отчёт\", " + startTime + ", " + (15 + id % 8 * 15) + ",\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package benchmark;
+
+import http.TaskJson;
+import manager.FileBackedTaskManager;
+import model.Task;
+import util.Status;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Первые минуты после старта сервера (java Main --serve) в отдельной JVM: время до первого успешного
+ * запроса от запуска процесса и задержки в течение первой минуты (60% GET /tasks/{id}, 30% POST /tasks
+ * с сохранением снимка, 10% DELETE). Варианты: холодный старт, с прогревом (--warmup), с архивом AppCDS
+ * и с архивом и прогревом. Архив создаётся учебным запуском с --exit-after-warmup; AppCDS не архивирует
+ * классы из каталогов, поэтому classpath замера упаковывается в jar.
+ * Запуск: java benchmark.StartupBenchmark [задач в хранилище] [секунд нагрузки]
+ */
+public class StartupBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int FIRST_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        Path directory = BenchmarkSupport.tempDirectory("startup-benchmark");
+        Path jar = packClasspath(directory.resolve("kanban.jar"));
+        Path store = directory.resolve("store.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(store.toString());
+        List<Task> board = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            board.add(new Task("Задача " + i, "Описание задачи " + i, Status.values()[i % 3],
+                    Duration.ofMinutes(30), START.plusHours(i)));
+        }
+        manager.addTasks(board);
+
+        Path archive = directory.resolve("kanban.jsa");
+        long started = System.nanoTime();
+        Process training = launch(jar, List.of("-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=error"),
+                copy(store, directory, "training"), 0, true, true);
+        if (training.waitFor() != 0 || !Files.exists(archive)) {
+            throw new IllegalStateException("Архив AppCDS не создан");
+        }
+        System.out.printf(Locale.ROOT, "AppCDS archive: %.1f MB, training run %.1f s%n",
+                Files.size(archive) / 1e6, (System.nanoTime() - started) / 1e9);
+
+        run("cold", jar, List.of(), false, directory, store, tasks, seconds);
+        run("warmup", jar, List.of(), true, directory, store, tasks, seconds);
+        run("cds", jar, List.of("-XX:SharedArchiveFile=" + archive), false, directory, store, tasks, seconds);
+        run("cds+warmup", jar, List.of("-XX:SharedArchiveFile=" + archive), true, directory, store, tasks, seconds);
+    }
+
+    private static void run(String label, Path jar, List<String> jvmOptions, boolean warmup, Path directory,
+                            Path store, int tasks, int seconds) throws Exception {
+        int port = freePort();
+        String base = "http://localhost:" + port;
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long launched = System.nanoTime();
+        Process server = launch(jar, jvmOptions, copy(store, directory, label), port, warmup, false);
+        try {
+            while (true) {
+                try {
+                    if (client.send(request(base, "GET", "/tasks/1", null), HttpResponse.BodyHandlers.ofString())
+                            .statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) { // Сервер ещё не слушает порт или сбросил соединение при старте
+                    if (!server.isAlive()) {
+                        throw new IllegalStateException("Сервер завершился с кодом " + server.exitValue());
+                    }
+                    Thread.sleep(5);
+                }
+            }
+            long ready = System.nanoTime();
+            System.out.printf(Locale.ROOT, "%-40s %.0f ms%n", label + ": time to first request",
+                    (ready - launched) / 1e6);
+
+            SplittableRandom random = new SplittableRandom(7);
+            Deque<Integer> added = new ArrayDeque<>();
+            long[] samples = new long[1 << 20];
+            int count = 0;
+            int firstCount = 0;
+            int resets = 0;
+            long deadline = ready + seconds * 1_000_000_000L;
+            long firstDeadline = ready + FIRST_SECONDS * 1_000_000_000L;
+            for (int i = 0; System.nanoTime() < deadline && count < samples.length; i++) {
+                int kind = random.nextInt(10);
+                HttpRequest next;
+                if (kind < 6 || kind == 9 && added.isEmpty()) {
+                    next = request(base, "GET", "/tasks/" + (1 + random.nextInt(tasks)), null);
+                } else if (kind < 9) {
+                    Task task = new Task("Новая " + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                            START.plusHours(tasks + i));
+                    next = request(base, "POST", "/tasks", TaskJson.toJson(task));
+                } else {
+                    next = request(base, "DELETE", "/tasks/" + added.poll(), null);
+                }
+                long sent = System.nanoTime();
+                HttpResponse<String> response;
+                try {
+                    response = client.send(next, HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) { // Сервер закрыл keep-alive соединение — повтор по новому
+                    resets++;
+                    response = client.send(next, HttpResponse.BodyHandlers.ofString());
+                }
+                long finished = System.nanoTime();
+                samples[count++] = finished - sent;
+                if (finished < firstDeadline) {
+                    firstCount = count;
+                }
+                if (response.statusCode() >= 400) {
+                    throw new IllegalStateException(label + ": " + response.statusCode() + " " + response.body());
+                }
+                if (next.method().equals("POST")) {
+                    added.add(((Number) ((Map<?, ?>) TaskJson.parse(response.body())).get("id")).intValue());
+                }
+            }
+            BenchmarkSupport.reportLatency(label + ": first " + FIRST_SECONDS + " s", Arrays.copyOf(samples,
+                    Math.max(1, firstCount)));
+            BenchmarkSupport.reportLatency(label + ": first " + seconds + " s", Arrays.copyOf(samples, count));
+            System.out.printf(Locale.ROOT, "%-40s %d%n", label + ": connection resets", resets);
+        } finally {
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    private static Process launch(Path jar, List<String> jvmOptions, Path store, int port, boolean warmup,
+                                  boolean isTraining) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", jar.toString(), "Main", "--serve", "--file", store.toString(),
+                "--port", String.valueOf(port)));
+        if (warmup) {
+            command.add("--warmup");
+        }
+        if (isTraining) {
+            command.add("--exit-after-warmup");
+        }
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static HttpRequest request(String base, String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private static Path copy(Path store, Path directory, String name) throws IOException {
+        Path target = directory.resolve(name + ".csv");
+        Files.copy(store, target);
+        return target;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Каталоги текущего classpath в один jar (jar-файлы classpath не поддерживаются)
+     */
+    private static Path packClasspath(Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                Path root = Path.of(entry);
+                if (!Files.isDirectory(root)) {
+                    throw new IllegalStateException("Ожидался каталог классов: " + root);
+                }
+                try (Stream<Path> files = Files.walk(root)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        out.putNextEntry(new JarEntry(root.relativize(file).toString().replace('\\', '/')));
+                        Files.copy(file, out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import model.Task;
+import util.Status;
+import util.StringPool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Доска из шаблонов (названия и описания повторяются): размер каталога сегментов без словаря и со словарём,
+ * время загрузки и занятая после загрузки куча с пулом строк и без него.
+ * Каждая загрузка выполняется в отдельной JVM, потому что размер общего пула задаётся при запуске
+ * свойством javakanban.stringPool.capacity.
+ * Запуск: java benchmark.StringDedupBenchmark [количество задач] [количество шаблонов]
+ */
+public class StringDedupBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int BATCH = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("load")) {
+            load(Path.of(args[1]));
+            return;
+        }
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int templates = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Path directory = BenchmarkSupport.tempDirectory("string-dedup");
+        Path plain = directory.resolve("plain");
+        Path encoded = directory.resolve("dictionary");
+        write(plain, size, templates, false);
+        write(encoded, size, templates, true);
+        System.out.printf(Locale.ROOT, "tasks=%d templates=%d plain=%d MB dictionary=%d MB%n",
+                size, templates, directorySize(plain) >> 20, directorySize(encoded) >> 20);
+
+        runChild("plain, pool off", plain, 0);
+        runChild("plain, pool on", plain, StringPool.DEFAULT_CAPACITY);
+        runChild("dictionary, pool off", encoded, 0);
+        runChild("dictionary, pool on", encoded, StringPool.DEFAULT_CAPACITY);
+    }
+
+    private static void write(Path directory, int size, int templates, boolean isEncoded)
+            throws TimeConflictException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        manager.setDictionaryEncoding(isEncoded);
+        for (int first = 0; first < size; first += BATCH) {
+            List<Task> batch = new ArrayList<>(BATCH);
+            for (int i = first; i < Math.min(size, first + BATCH); i++) {
+                int template = i % templates;
+                batch.add(new Task("Проверка релиза: шаг " + template,
+                        "Шаблон " + template + ": собрать, прогнать тесты и приложить отчёт", Status.values()[i % 3],
+                        Duration.ofMinutes(30), i % 2 == 0 ? START.plusMinutes(45L * i) : null));
+            }
+            manager.addTasks(batch);
+        }
+    }
+
+    /**
+     * Запуск загрузки в дочерней JVM с заданным размером пула; дочерняя JVM печатает одну строку отчёта
+     */
+    private static void runChild(String label, Path directory, int capacity) throws IOException, InterruptedException {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-Xmx2g",
+                "-Djavakanban.stringPool.capacity=" + capacity,
+                "-cp", System.getProperty("java.class.path"),
+                StringDedupBenchmark.class.getName(), "load", directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                System.out.printf(Locale.ROOT, "%-24s %s%n", label, line);
+            }
+        }
+        process.waitFor();
+    }
+
+    private static void load(Path directory) {
+        long before = usedHeap();
+        long started = System.nanoTime();
+        FileBackedTaskManager manager = new FileBackedTaskManager(directory.toString(), SEGMENT_SIZE);
+        long nanos = System.nanoTime() - started;
+        long heap = usedHeap() - before;
+        StringPool pool = StringPool.shared();
+        System.out.printf(Locale.ROOT, "tasks=%d load=%.0fms heap=%d MB pool hits=%d misses=%d resets=%d%n",
+                manager.getAllTasks().size(), nanos / 1e6, heap >> 20, pool.getHits(), pool.getMisses(),
+                pool.getResets());
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
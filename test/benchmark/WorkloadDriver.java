@@ -0,0 +1,291 @@
+package benchmark;
+
+import benchmark.WorkloadTrace.Kind;
+import benchmark.WorkloadTrace.Operation;
+import exceptions.TimeConflictException;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import manager.MappedTaskManager;
+import manager.TaskManager;
+import metrics.LatencyHistogram;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.Managers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизведение трассы WorkloadTrace на любом менеджере задач с заданной частотой.
+ * Частота открытая: операция i должна начаться в момент start + i / rate, и задержка отсчитывается
+ * от этого момента, поэтому отставание менеджера видно в перцентилях, а не прячется
+ * (нет эффекта coordinated omission). rate = 0 — операции идут подряд без пауз.
+ * Логические номера задач трассы сопоставляются с id, выданными менеджером; операции над задачами,
+ * которые менеджер не создал (отклонены из-за пересечения), пропускаются и считаются в missing.
+ * Запуск: java benchmark.WorkloadDriver [memory|grid|file|mapped] [операций] [операций/с] [seed] [файл трассы]
+ * Если файл трассы существует, он воспроизводится; иначе трасса генерируется по seed и записывается в файл.
+ */
+public final class WorkloadDriver {
+    private static final int ABSENT = -1;
+    private static final Kind[] KINDS = Kind.values();
+    private static final long SPIN_NANOS = 50_000;
+
+    /**
+     * Результат прогона: гистограммы задержек по видам операций и счётчики
+     */
+    public static final class Report {
+        private final LatencyHistogram[] histograms = new LatencyHistogram[KINDS.length];
+        private final LatencyHistogram total = new LatencyHistogram();
+        private long conflicts;
+        private long missing;
+        private long elapsedNanos;
+
+        private Report() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        public LatencyHistogram getHistogram(Kind kind) {
+            return histograms[kind.ordinal()];
+        }
+
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        public long getConflicts() {
+            return conflicts;
+        }
+
+        public long getMissing() {
+            return missing;
+        }
+
+        public double getThroughput() {
+            return total.getCount() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public void print(String label) {
+            System.out.printf(Locale.ROOT, "%s: ops=%d time=%.1fms throughput=%.0f ops/s conflicts=%d missing=%d%n",
+                    label, total.getCount(), elapsedNanos / 1e6, getThroughput(), conflicts, missing);
+            System.out.printf(Locale.ROOT, "  %-18s %9s %10s %10s %10s%n", "operation", "count", "p50_us", "p99_us",
+                    "max_us");
+            for (Kind kind : KINDS) {
+                LatencyHistogram histogram = histograms[kind.ordinal()];
+                if (histogram.getCount() > 0) {
+                    printRow(kind.name(), histogram);
+                }
+            }
+            printRow("ALL", total);
+        }
+
+        private static void printRow(String name, LatencyHistogram histogram) {
+            System.out.printf(Locale.ROOT, "  %-18s %9d %10.1f %10.1f %10.1f%n", name, histogram.getCount(),
+                    histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3);
+        }
+    }
+
+    private final TaskManager manager;
+    private int[] ids = new int[0];
+
+    public WorkloadDriver(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Построение доски (без пауз), затем смешанная часть трассы с частотой rate
+     */
+    public Report[] replay(WorkloadTrace trace, double rate) {
+        List<Operation> operations = trace.getOperations();
+        Report setup = run(operations.subList(0, trace.getSetupSize()), 0);
+        Report mixed = run(operations.subList(trace.getSetupSize(), operations.size()), rate);
+        return new Report[]{setup, mixed};
+    }
+
+    public Report run(List<Operation> operations, double rate) {
+        Report report = new Report();
+        long interval = rate > 0 ? (long) (1e9 / rate) : 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < operations.size(); i++) {
+            long intended = started + i * interval;
+            if (interval > 0) {
+                waitUntil(intended);
+            }
+            long begin = interval > 0 ? intended : System.nanoTime();
+            Operation operation = operations.get(i);
+            if (!execute(operation, report)) {
+                report.missing++;
+                continue;
+            }
+            long latency = System.nanoTime() - begin;
+            report.histograms[operation.kind().ordinal()].record(latency);
+            report.total.record(latency);
+        }
+        report.elapsedNanos = System.nanoTime() - started;
+        return report;
+    }
+
+    /**
+     * Выполнение операции; false — задача, к которой относится операция, в менеджере не создана
+     */
+    private boolean execute(Operation operation, Report report) {
+        int id = operation.ref() == WorkloadTrace.NO_REF ? ABSENT : idOf(operation.ref());
+        try {
+            switch (operation.kind()) {
+                case ADD_EPIC -> {
+                    Epic epic = new Epic(operation.name(), operation.description());
+                    manager.addEpic(epic);
+                    bind(operation.ref(), epic.getId());
+                }
+                case ADD_TASK -> {
+                    Task task = task(operation);
+                    manager.addTask(task);
+                    bind(operation.ref(), task.getId());
+                }
+                case ADD_SUBTASK -> {
+                    int epicId = idOf(operation.parentRef());
+                    if (epicId == ABSENT) {
+                        return false;
+                    }
+                    Subtask subtask = subtask(operation, epicId);
+                    manager.addSubtask(subtask);
+                    bind(operation.ref(), subtask.getId());
+                }
+                case UPDATE_TASK -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    Task task = task(operation);
+                    task.setId(id);
+                    manager.updateTask(task);
+                }
+                case UPDATE_SUBTASK -> {
+                    int epicId = idOf(operation.parentRef());
+                    if (id == ABSENT || epicId == ABSENT) {
+                        return false;
+                    }
+                    Subtask subtask = subtask(operation, epicId);
+                    subtask.setId(id);
+                    manager.updateSubtask(subtask);
+                }
+                case DELETE_TASK -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    manager.deleteTask(id);
+                    bind(operation.ref(), ABSENT);
+                }
+                case GET_TASK -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    manager.getTaskById(id);
+                }
+                case GET_SUBTASK -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    manager.getSubtaskById(id);
+                }
+                case GET_EPIC -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    manager.getEpicById(id);
+                }
+                case GET_EPIC_SUBTASKS -> {
+                    if (id == ABSENT) {
+                        return false;
+                    }
+                    manager.getAllSubtasksByEpicId(id);
+                }
+                case GET_PRIORITIZED -> manager.getPrioritizedTasks();
+                case GET_HISTORY -> manager.getHistory();
+            }
+        } catch (TimeConflictException e) {
+            report.conflicts++;
+        }
+        return true;
+    }
+
+    private static Task task(Operation operation) {
+        return new Task(operation.name(), operation.description(), operation.status(),
+                Duration.ofMinutes(operation.durationMinutes()), operation.start());
+    }
+
+    private static Subtask subtask(Operation operation, int epicId) {
+        return new Subtask(operation.name(), operation.description(), operation.status(), epicId,
+                Duration.ofMinutes(operation.durationMinutes()), operation.start());
+    }
+
+    private int idOf(int ref) {
+        return ref < ids.length ? ids[ref] : ABSENT;
+    }
+
+    private void bind(int ref, int id) {
+        if (ref >= ids.length) {
+            int previous = ids.length;
+            ids = Arrays.copyOf(ids, Math.max(ref + 1, previous * 2));
+            Arrays.fill(ids, previous, ids.length, ABSENT);
+        }
+        ids[ref] = id;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String kind = args.length > 0 ? args[0] : "memory";
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 20_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        Path traceFile = args.length > 4 ? Path.of(args[4]) : null;
+
+        WorkloadTrace trace;
+        if (traceFile != null && Files.exists(traceFile)) {
+            trace = WorkloadTrace.read(traceFile);
+            System.out.println("replaying " + traceFile + " seed=" + trace.getSeed());
+        } else {
+            trace = WorkloadGenerator.generate(WorkloadGenerator.Profile.defaults(), seed, operations);
+            if (traceFile != null) {
+                trace.write(traceFile);
+                System.out.println("recorded " + traceFile);
+            }
+        }
+
+        TaskManager manager = create(kind);
+        Report[] reports = new WorkloadDriver(manager).replay(trace, rate);
+        reports[0].print(kind + " setup");
+        reports[1].print(kind + " mixed rate=" + (rate > 0 ? String.valueOf((long) rate) : "max"));
+        if (manager instanceof MappedTaskManager mapped) {
+            mapped.close();
+        }
+    }
+
+    private static TaskManager create(String kind) {
+        return switch (kind) {
+            case "memory" -> Managers.getDefault();
+            case "grid" -> new InMemoryTaskManager(Managers.getDefaultHistory(), true);
+            case "file" -> new FileBackedTaskManager(BenchmarkSupport.tempDirectory("workload-file")
+                    .resolve("segments").toString(), 1_000);
+            case "mapped" -> new MappedTaskManager(BenchmarkSupport.tempDirectory("workload-mapped").toString());
+            default -> throw new IllegalArgumentException("Неизвестный менеджер: " + kind);
+        };
+    }
+}
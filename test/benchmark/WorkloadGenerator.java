@@ -0,0 +1,210 @@
+package benchmark;
+
+import benchmark.WorkloadTrace.Kind;
+import benchmark.WorkloadTrace.Operation;
+import util.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетической нагрузки: доска из эпиков с подзадачами и отдельных задач, затем смешанные
+ * чтения и изменения. Одинаковые профиль и seed дают одинаковую трассу.
+ * Число подзадач у эпика распределено геометрически (много маленьких эпиков и длинный хвост),
+ * задачи со временем идут плотно друг за другом, а доля overlapRate из них нарочно ставится
+ * внутрь предыдущей задачи и должна быть отклонена менеджером. Тексты — смесь русского,
+ * английского, немецкого, китайского и эмодзи.
+ */
+public final class WorkloadGenerator {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 6, 9, 0);
+    private static final String[][] WORDS = {
+            {"задача", "релиз", "проверка", "отчёт", "исправить", "встреча", "сборка", "ёлка"},
+            {"task", "release", "review", "report", "fix", "meeting", "build", "deploy"},
+            {"Aufgabe", "Prüfung", "Straße", "Größe", "Übersicht", "Änderung"},
+            {"任务", "发布", "审查", "报告", "修复", "会议"},
+            {"🚀", "✅", "🔥", "📅", "🐛"}
+    };
+    private static final double[] LANGUAGE_WEIGHTS = {0.5, 0.3, 0.1, 0.07, 0.03};
+
+    /**
+     * Параметры доски и нагрузки.
+     * statusMix — доли NEW, IN_PROGRESS и DONE; readShare — доля чтений в смешанной части;
+     * timedShare — доля задач со временем начала; overlapRate — доля задач со временем,
+     * пересекающихся с предыдущей
+     */
+    public record Profile(int epics, double meanFanOut, int tasks, double timedShare, double overlapRate,
+                          double[] statusMix, double readShare, double deleteShare) {
+        public static Profile defaults() {
+            return new Profile(1_000, 5, 5_000, 0.7, 0.05, new double[]{0.5, 0.3, 0.2}, 0.8, 0.02);
+        }
+
+        public Profile withSize(int epics, int tasks) {
+            return new Profile(epics, meanFanOut, tasks, timedShare, overlapRate, statusMix, readShare, deleteShare);
+        }
+
+        public Profile withOverlapRate(double overlapRate) {
+            return new Profile(epics, meanFanOut, tasks, timedShare, overlapRate, statusMix, readShare, deleteShare);
+        }
+    }
+
+    private final Profile profile;
+    private final SplittableRandom random;
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<Integer> tasks = new ArrayList<>();
+    private final List<Integer> subtasks = new ArrayList<>();
+    private final List<Integer> subtaskEpics = new ArrayList<>();
+    private final List<Integer> epics = new ArrayList<>();
+    private int nextRef;
+    private LocalDateTime cursor = START;
+    private LocalDateTime lastStart;
+    private int lastDuration;
+
+    private WorkloadGenerator(Profile profile, long seed) {
+        this.profile = profile;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Трасса: построение доски по профилю и mixedOperations смешанных операций
+     */
+    public static WorkloadTrace generate(Profile profile, long seed, int mixedOperations) {
+        WorkloadGenerator generator = new WorkloadGenerator(profile, seed);
+        generator.buildBoard();
+        int setupSize = generator.operations.size();
+        for (int i = 0; i < mixedOperations; i++) {
+            generator.nextMixed();
+        }
+        return new WorkloadTrace(seed, setupSize, generator.operations);
+    }
+
+    private void buildBoard() {
+        for (int i = 0; i < profile.epics(); i++) {
+            int epic = nextRef++;
+            epics.add(epic);
+            operations.add(new Operation(Kind.ADD_EPIC, epic, WorkloadTrace.NO_REF, text(3), text(8), null, null, 0));
+            int fanOut = geometric(profile.meanFanOut());
+            for (int j = 0; j < fanOut; j++) {
+                addSubtask(epic);
+            }
+        }
+        for (int i = 0; i < profile.tasks(); i++) {
+            addTask();
+        }
+    }
+
+    private void nextMixed() {
+        if (random.nextDouble() < profile.readShare()) {
+            double kind = random.nextDouble();
+            if (kind < 0.4 && !tasks.isEmpty()) {
+                read(Kind.GET_TASK, pick(tasks));
+            } else if (kind < 0.65 && !subtasks.isEmpty()) {
+                read(Kind.GET_SUBTASK, pick(subtasks));
+            } else if (kind < 0.8) {
+                read(Kind.GET_EPIC, pick(epics));
+            } else if (kind < 0.9) {
+                read(Kind.GET_EPIC_SUBTASKS, pick(epics));
+            } else if (kind < 0.95) {
+                read(Kind.GET_PRIORITIZED, WorkloadTrace.NO_REF);
+            } else {
+                read(Kind.GET_HISTORY, WorkloadTrace.NO_REF);
+            }
+            return;
+        }
+        double kind = random.nextDouble();
+        if (kind < profile.deleteShare() && !tasks.isEmpty()) {
+            int task = tasks.remove(random.nextInt(tasks.size()));
+            operations.add(new Operation(Kind.DELETE_TASK, task, WorkloadTrace.NO_REF, "", "", null, null, 0));
+        } else if (kind < 0.3) {
+            addTask();
+        } else if (kind < 0.5 && !epics.isEmpty()) {
+            addSubtask(pick(epics));
+        } else if (kind < 0.75 && !tasks.isEmpty()) {
+            addTimed(Kind.UPDATE_TASK, pick(tasks), WorkloadTrace.NO_REF);
+        } else if (!subtasks.isEmpty()) {
+            int index = random.nextInt(subtasks.size());
+            addTimed(Kind.UPDATE_SUBTASK, subtasks.get(index), subtaskEpics.get(index));
+        } else {
+            addTask();
+        }
+    }
+
+    private void addTask() {
+        int task = nextRef++;
+        tasks.add(task);
+        addTimed(Kind.ADD_TASK, task, WorkloadTrace.NO_REF);
+    }
+
+    private void addSubtask(int epic) {
+        int subtask = nextRef++;
+        subtasks.add(subtask);
+        subtaskEpics.add(epic);
+        addTimed(Kind.ADD_SUBTASK, subtask, epic);
+    }
+
+    private void addTimed(Kind kind, int ref, int parentRef) {
+        LocalDateTime start = null;
+        int duration = 15 * (1 + random.nextInt(8));
+        if (random.nextDouble() < profile.timedShare()) {
+            if (lastStart != null && random.nextDouble() < profile.overlapRate()) {
+                start = lastStart.plusMinutes(random.nextInt(lastDuration)); // Внутри предыдущей задачи
+            } else {
+                start = cursor.plusMinutes(15L * random.nextInt(4));
+                cursor = start.plusMinutes(duration + 15);
+                lastStart = start;
+                lastDuration = duration;
+            }
+        }
+        operations.add(new Operation(kind, ref, parentRef, text(4), text(12), status(), start, duration));
+    }
+
+    private void read(Kind kind, int ref) {
+        operations.add(new Operation(kind, ref, WorkloadTrace.NO_REF, "", "", null, null, 0));
+    }
+
+    private int pick(List<Integer> refs) {
+        return refs.get(random.nextInt(refs.size()));
+    }
+
+    private Status status() {
+        double value = random.nextDouble();
+        double[] mix = profile.statusMix();
+        if (value < mix[0]) {
+            return Status.NEW;
+        }
+        return value < mix[0] + mix[1] ? Status.IN_PROGRESS : Status.DONE;
+    }
+
+    private int geometric(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double p = 1 / (mean + 1);
+        return (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    private String text(int words) {
+        StringBuilder builder = new StringBuilder();
+        int count = 1 + random.nextInt(words);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            String[] language = WORDS[language()];
+            builder.append(language[random.nextInt(language.length)]);
+        }
+        return builder.toString();
+    }
+
+    private int language() {
+        double value = random.nextDouble();
+        for (int i = 0; i < LANGUAGE_WEIGHTS.length - 1; i++) {
+            value -= LANGUAGE_WEIGHTS[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return LANGUAGE_WEIGHTS.length - 1;
+    }
+}
@@ -0,0 +1,136 @@
+package benchmark;
+
+import util.Status;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Трасса операций над менеджером задач. Задачи в операциях указаны логическими номерами ref
+ * (порядковый номер создания в трассе), а не id: id выдаёт менеджер, на котором трасса воспроизводится.
+ * Первые setupSize операций строят исходную доску, остальные — смешанная нагрузка.
+ * Файл трассы: строка заголовка "#trace seed=S setup=N", затем операция на строку, поля через табуляцию.
+ */
+public final class WorkloadTrace {
+    static final String HEADER_PREFIX = "#trace";
+    static final int NO_REF = -1;
+
+    public enum Kind {
+        ADD_EPIC,
+        ADD_TASK,
+        ADD_SUBTASK,
+        UPDATE_TASK,
+        UPDATE_SUBTASK,
+        DELETE_TASK,
+        GET_TASK,
+        GET_SUBTASK,
+        GET_EPIC,
+        GET_EPIC_SUBTASKS,
+        GET_PRIORITIZED,
+        GET_HISTORY
+    }
+
+    /**
+     * ref — номер создаваемой (для ADD_*) или затрагиваемой задачи, parentRef — номер эпика подзадачи.
+     * start = null — задача без времени
+     */
+    public record Operation(Kind kind, int ref, int parentRef, String name, String description, Status status,
+                            LocalDateTime start, int durationMinutes) {
+    }
+
+    private final long seed;
+    private final int setupSize;
+    private final List<Operation> operations;
+
+    public WorkloadTrace(long seed, int setupSize, List<Operation> operations) {
+        this.seed = seed;
+        this.setupSize = setupSize;
+        this.operations = List.copyOf(operations);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getSetupSize() {
+        return setupSize;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void write(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(HEADER_PREFIX + " seed=" + seed + " setup=" + setupSize);
+            writer.newLine();
+            for (Operation operation : operations) {
+                writer.write(String.join("\t", operation.kind().name(), String.valueOf(operation.ref()),
+                        String.valueOf(operation.parentRef()), escape(operation.name()),
+                        escape(operation.description()), operation.status() == null ? "" : operation.status().name(),
+                        operation.start() == null ? "" : operation.start().toString(),
+                        String.valueOf(operation.durationMinutes())));
+                writer.newLine();
+            }
+        }
+    }
+
+    public static WorkloadTrace read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER_PREFIX)) {
+                throw new IOException("Нет заголовка трассы: " + path);
+            }
+            long seed = 0;
+            int setupSize = 0;
+            for (String field : header.substring(HEADER_PREFIX.length()).trim().split(" ")) {
+                if (field.startsWith("seed=")) {
+                    seed = Long.parseLong(field.substring("seed=".length()));
+                } else if (field.startsWith("setup=")) {
+                    setupSize = Integer.parseInt(field.substring("setup=".length()));
+                }
+            }
+            List<Operation> operations = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 8) {
+                    throw new IOException("Некорректная строка трассы: " + line);
+                }
+                operations.add(new Operation(Kind.valueOf(fields[0]), Integer.parseInt(fields[1]),
+                        Integer.parseInt(fields[2]), unescape(fields[3]), unescape(fields[4]),
+                        fields[5].isEmpty() ? null : Status.valueOf(fields[5]),
+                        fields[6].isEmpty() ? null : LocalDateTime.parse(fields[6]), Integer.parseInt(fields[7])));
+            }
+            return new WorkloadTrace(seed, setupSize, operations);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                builder.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}